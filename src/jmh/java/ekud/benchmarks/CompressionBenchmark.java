@@ -0,0 +1,172 @@
+package ekud.benchmarks;
+
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import ekud.exceptions.EkudIOException;
+import ekud.storage.Storage;
+import ekud.tasks.TaskList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures loading and saving the saved tasks file at each compression level, on the local disk and on a
+ * simulated slow disk (eg a network share or an old hard disk), where the smaller compressed files should
+ * make up for the CPU time spent compressing them. The size of each file is printed once it is written.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class CompressionBenchmark {
+    // Throughput of the simulated slow disk
+    private static final long SLOW_DISK_BYTES_PER_SECOND = 20L << 20;
+
+    @Param({"10000", "1000000"})
+    public int size;
+
+    // 0 saves the file uncompressed
+    @Param({"0", "1", "6", "9"})
+    public int level;
+
+    @Param({"local", "slow"})
+    public String disk;
+
+    private Path dir;
+    private Storage loadStorage;
+    private Storage saveStorage;
+    private TaskList taskList;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, EkudIOException {
+        this.dir = Files.createTempDirectory("ekud-compression-bench");
+        this.taskList = Fixtures.taskList(this.size, 42);
+        long bytesPerSecond = this.disk.equals("slow") ? SLOW_DISK_BYTES_PER_SECOND : 0;
+        Path loadPath = this.dir.resolve("load.txt");
+        new Storage(loadPath.toString(), this.level).saveData(this.taskList);
+        System.out.printf("%n%d tasks saved at level %d: %d bytes%n", this.size, this.level, Files.size(loadPath));
+        this.loadStorage = new ThrottledStorage(loadPath.toString(), this.level, bytesPerSecond);
+        this.saveStorage = new ThrottledStorage(this.dir.resolve("save.txt").toString(), this.level, bytesPerSecond);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        for (File file : this.dir.toFile().listFiles()) {
+            file.delete();
+        }
+        this.dir.toFile().delete();
+    }
+
+    @Benchmark
+    public TaskList loadData() throws EkudIOException {
+        TaskList loaded = new TaskList();
+        this.loadStorage.loadData(loaded);
+        return loaded;
+    }
+
+    @Benchmark
+    public String saveData() throws EkudIOException {
+        return this.saveStorage.saveData(this.taskList);
+    }
+
+    /**
+     * Storage whose file streams are held to a given throughput, or unthrottled if it is 0.
+     */
+    private static class ThrottledStorage extends Storage {
+        private final long bytesPerSecond;
+
+        ThrottledStorage(String path, int compressionLevel, long bytesPerSecond) {
+            super(path, compressionLevel);
+            this.bytesPerSecond = bytesPerSecond;
+        }
+
+        @Override
+        protected InputStream openInputStream(File file) throws IOException {
+            InputStream in = super.openInputStream(file);
+            if (this.bytesPerSecond == 0) {
+                return in;
+            }
+            Throttle throttle = new Throttle(this.bytesPerSecond);
+            return new FilterInputStream(in) {
+                @Override
+                public int read() throws IOException {
+                    throttle.transfer(1);
+                    return super.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException {
+                    int n = super.read(b, off, len);
+                    throttle.transfer(Math.max(n, 0));
+                    return n;
+                }
+            };
+        }
+
+        @Override
+        protected OutputStream openOutputStream(File file) throws IOException {
+            OutputStream out = super.openOutputStream(file);
+            if (this.bytesPerSecond == 0) {
+                return out;
+            }
+            Throttle throttle = new Throttle(this.bytesPerSecond);
+            return new FilterOutputStream(out) {
+                @Override
+                public void write(int b) throws IOException {
+                    throttle.transfer(1);
+                    this.out.write(b);
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    throttle.transfer(len);
+                    this.out.write(b, off, len);
+                }
+            };
+        }
+    }
+
+    /**
+     * Delays each transfer until the bytes transferred so far would have taken as long at the given throughput.
+     */
+    private static class Throttle {
+        private final long bytesPerSecond;
+        private final long startTime;
+        private long numBytes;
+
+        Throttle(long bytesPerSecond) {
+            this.bytesPerSecond = bytesPerSecond;
+            this.startTime = System.nanoTime();
+        }
+
+        void transfer(int numBytes) {
+            this.numBytes += numBytes;
+            long dueTime = this.startTime + this.numBytes * TimeUnit.SECONDS.toNanos(1) / this.bytesPerSecond;
+            long delay = dueTime - System.nanoTime();
+            if (delay > 0) {
+                LockSupport.parkNanos(delay);
+            }
+        }
+    }
+}
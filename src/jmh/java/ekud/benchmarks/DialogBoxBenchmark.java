@@ -0,0 +1,142 @@
+package ekud.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+import ekud.ui.DialogBox;
+import javafx.application.Platform;
+import javafx.scene.Node;
+import javafx.scene.Scene;
+import javafx.scene.image.Image;
+import javafx.scene.layout.VBox;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures how many chat messages can be rendered per second, ie turned into a dialog box which is then
+ * styled and laid out in a scene, by the FXML-based dialog boxes used before, by the programmatic ones and
+ * by a pair of programmatic ones reused for every message, as chat cells do. Painting is left out, as it
+ * needs a window. The benchmarks still need a display (or a headless Glass platform) to start JavaFX.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DialogBoxBenchmark {
+    // Messages rendered per FX thread hand-off, so that the hand-off is a small share of the time measured
+    private static final int MESSAGES_PER_INVOCATION = 100;
+
+    private VBox container;
+    private Image userImage;
+    private Image dukeImage;
+    private String[] texts;
+    private DialogBox recycledUserDialog;
+    private DialogBox recycledDukeDialog;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        try {
+            Platform.startup(() -> { });
+        } catch (IllegalStateException e) {
+            // Already started by an earlier trial in this JVM
+        }
+        Platform.setImplicitExit(false);
+        Random random = new Random(42);
+        this.texts = new String[MESSAGES_PER_INVOCATION];
+        for (int i = 0; i < this.texts.length; i++) {
+            // Alternate short inputs with multi-line responses, as in a chat
+            this.texts[i] = i % 2 == 0
+                    ? "todo " + Fixtures.description(random)
+                    : Fixtures.taskList(1 + random.nextInt(8), i).showTasks();
+        }
+        runOnFxThread(() -> {
+            this.userImage = new Image(DialogBox.class.getResourceAsStream("/images/DaUser.png"));
+            this.dukeImage = new Image(DialogBox.class.getResourceAsStream("/images/DaDuke.png"));
+            this.container = new VBox();
+            Scene scene = new Scene(this.container, 400, 600);
+            scene.getStylesheets().add(DialogBox.getStylesheet());
+            this.recycledUserDialog = DialogBox.getUserDialog("", this.userImage);
+            this.recycledDukeDialog = DialogBox.getDukeDialog("", this.dukeImage);
+        });
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MESSAGES_PER_INVOCATION)
+    public void fxmlDialogBoxes() {
+        runOnFxThread(() -> {
+            for (int i = 0; i < MESSAGES_PER_INVOCATION; i++) {
+                this.render(i % 2 == 0
+                        ? FxmlDialogBox.getUserDialog(this.texts[i], this.userImage)
+                        : FxmlDialogBox.getDukeDialog(this.texts[i], this.dukeImage));
+            }
+        });
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MESSAGES_PER_INVOCATION)
+    public void programmaticDialogBoxes() {
+        runOnFxThread(() -> {
+            for (int i = 0; i < MESSAGES_PER_INVOCATION; i++) {
+                this.render(i % 2 == 0
+                        ? DialogBox.getUserDialog(this.texts[i], this.userImage)
+                        : DialogBox.getDukeDialog(this.texts[i], this.dukeImage));
+            }
+        });
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MESSAGES_PER_INVOCATION)
+    public void recycledDialogBoxes() {
+        runOnFxThread(() -> {
+            // Like chat cells, the reused dialog boxes stay in the scene and only their text changes
+            if (this.container.getChildren().size() != 2) {
+                this.container.getChildren().setAll(this.recycledUserDialog, this.recycledDukeDialog);
+            }
+            for (int i = 0; i < MESSAGES_PER_INVOCATION; i++) {
+                DialogBox dialogBox = i % 2 == 0 ? this.recycledUserDialog : this.recycledDukeDialog;
+                dialogBox.setText(this.texts[i]);
+                this.layOut();
+            }
+        });
+    }
+
+    /**
+     * Shows a new dialog box as the only message of the scene, and styles and lays it out.
+     */
+    private void render(Node dialogBox) {
+        this.container.getChildren().setAll(dialogBox);
+        this.layOut();
+    }
+
+    private void layOut() {
+        this.container.applyCss();
+        this.container.layout();
+    }
+
+    /**
+     * Runs a task on the JavaFX Application Thread and waits for it to finish.
+     */
+    private static void runOnFxThread(Runnable task) {
+        FutureTask<Void> future = new FutureTask<>(task, null);
+        Platform.runLater(future);
+        try {
+            future.get();
+        } catch (InterruptedException | ExecutionException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
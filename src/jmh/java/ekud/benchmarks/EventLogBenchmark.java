@@ -0,0 +1,85 @@
+package ekud.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import ekud.exceptions.EkudIOException;
+import ekud.history.EventLog;
+import ekud.history.HistoryEvent;
+import ekud.tasks.TaskList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures startup recovery from the history journal: restoring the last snapshot of a list of the given
+ * size and replaying the events recorded after it.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class EventLogBenchmark {
+    @Param({"1000", "100000"})
+    public int size;
+
+    // Events after the last snapshot, just under the interval at which snapshots are taken
+    @Param({"0", "999"})
+    public int numEvents;
+
+    private Path dir;
+    private String journalPath;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, EkudIOException {
+        this.dir = Files.createTempDirectory("ekud-history-bench");
+        this.journalPath = this.dir.resolve("history.log").toString();
+        EventLog eventLog = new EventLog(this.journalPath, Clock.systemUTC());
+        TaskList taskList = Fixtures.taskList(this.size, 42);
+        eventLog.snapshot(taskList);
+        Random random = new Random(7);
+        for (int i = 0; i < this.numEvents; i++) {
+            if (i % 2 == 0) {
+                String description = Fixtures.description(random);
+                taskList.addToDo(description);
+                eventLog.record(HistoryEvent.addToDo(description));
+            } else {
+                eventLog.record(HistoryEvent.mark(random.nextInt(taskList.getSize())));
+            }
+        }
+        eventLog.commit(taskList);
+        eventLog.close();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        for (File file : this.dir.toFile().listFiles()) {
+            file.delete();
+        }
+        this.dir.toFile().delete();
+    }
+
+    @Benchmark
+    public TaskList recover() throws EkudIOException {
+        TaskList taskList = new TaskList();
+        new EventLog(this.journalPath, Clock.systemUTC()).recover(taskList);
+        return taskList;
+    }
+}
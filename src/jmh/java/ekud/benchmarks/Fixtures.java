@@ -0,0 +1,67 @@
+package ekud.benchmarks;
+
+import java.time.LocalDateTime;
+import java.util.Random;
+
+import ekud.tasks.Deadline;
+import ekud.tasks.Event;
+import ekud.tasks.Priority;
+import ekud.tasks.Task;
+import ekud.tasks.TaskList;
+import ekud.tasks.ToDo;
+
+/**
+ * Generates deterministic task lists for the benchmarks, mixing todos, deadlines and events
+ * with a spread of descriptions, priorities and done states.
+ */
+final class Fixtures {
+    static final String[] WORDS = {"read", "book", "buy", "milk", "finish", "quiz", "project", "meeting",
+        "call", "mum", "gym", "essay", "return", "library", "pay", "rent", "plan", "trip", "fix", "bike"};
+    private static final LocalDateTime BASE_DATE_TIME = LocalDateTime.of(2026, 1, 1, 9, 0);
+
+    private Fixtures() {
+    }
+
+    /**
+     * Returns a description of 2 to 5 words, ending with a number so that descriptions are mostly unique.
+     */
+    static String description(Random random) {
+        StringBuilder description = new StringBuilder();
+        int numWords = 2 + random.nextInt(4);
+        for (int i = 0; i < numWords; i++) {
+            description.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+        }
+        return description.append(random.nextInt(1000)).toString();
+    }
+
+    /**
+     * Returns a random task: 50% todos, 30% deadlines and 20% events within a year of 1 Jan 2026.
+     */
+    static Task task(Random random) {
+        String description = description(random);
+        Priority priority = Priority.values()[random.nextInt(Priority.values().length)];
+        LocalDateTime start = BASE_DATE_TIME.plusHours(random.nextInt(365 * 24));
+        int kind = random.nextInt(10);
+        if (kind < 5) {
+            return new ToDo(description, priority);
+        } else if (kind < 8) {
+            return new Deadline(description, start, priority);
+        }
+        return new Event(description, start, start.plusHours(1 + random.nextInt(48)), priority);
+    }
+
+    /**
+     * Returns a task list of the given size, a third of whose tasks are done.
+     */
+    static TaskList taskList(int size, long seed) {
+        Random random = new Random(seed);
+        TaskList taskList = new TaskList();
+        for (int i = 0; i < size; i++) {
+            taskList.addTask(task(random));
+            if (random.nextInt(3) == 0) {
+                taskList.setDone(i, true);
+            }
+        }
+        return taskList;
+    }
+}
@@ -0,0 +1,90 @@
+package ekud.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import ekud.exceptions.EkudException;
+import ekud.parser.Parser;
+import ekud.tasks.Task;
+import ekud.tasks.TaskList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures parsing and executing one command of each kind against a list of 100 tasks.
+ * Commands which change the list are undone with the raw TaskList methods after each call,
+ * so every invocation sees the same list.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParserBenchmark {
+    private static final int LIST_SIZE = 100;
+
+    @Param({"list", "mark 50", "unmark 50", "todo read book", "deadline essay /by 20/10/2026 2359",
+        "event trip /from 1/11/2026 0900 /to 3/11/2026 1800", "delete 50", "find book", "priority 50 high",
+        "clear"})
+    public String input;
+
+    private Parser parser;
+    private TaskList taskList;
+    private String userCommand;
+    private String userArgs;
+    private Task deletedTask;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.parser = new Parser();
+        this.taskList = Fixtures.taskList(LIST_SIZE, 42);
+        String[] inputParts = this.parser.parseInput(this.input);
+        this.userCommand = inputParts[0];
+        this.userArgs = inputParts[1];
+        this.deletedTask = this.taskList.getTask(49);
+    }
+
+    @Benchmark
+    public String[] parseInput() {
+        return this.parser.parseInput(this.input);
+    }
+
+    @Benchmark
+    public String parseAndExecute() throws EkudException {
+        String response = this.parser.parseAndExecute(this.taskList, this.userCommand, this.userArgs);
+        this.undo();
+        return response;
+    }
+
+    /**
+     * Restores the list after a command which changed its size or order.
+     */
+    private void undo() {
+        switch (this.userCommand) {
+        case "todo":
+        case "deadline":
+        case "event":
+            this.taskList.removeTask(this.taskList.getSize() - 1);
+            break;
+        case "delete":
+            this.taskList.addTask(this.deletedTask);
+            this.deletedTask = this.taskList.getTask(49);
+            break;
+        case "clear":
+            this.taskList.undoClear();
+            break;
+        default:
+            break;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package ekud.benchmarks;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import ekud.autocomplete.PrefixTrie;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures autocomplete lookups of 1 to 3 letter prefixes, whose subtrees are the largest, and updates,
+ * in a trie of random terms of 4 to 11 letters. Random terms share few prefixes, which is the worst case
+ * for the trie's size.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+public class PrefixTrieBenchmark {
+    private static final int NUM_PREFIXES = 1024;
+
+    @Param({"10000", "1000000"})
+    public int numTerms;
+
+    private PrefixTrie trie;
+    private String[] terms;
+    private String[] prefixes;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        this.trie = new PrefixTrie(5);
+        this.terms = new String[this.numTerms];
+        for (int i = 0; i < this.numTerms; i++) {
+            StringBuilder term = new StringBuilder();
+            int len = 4 + random.nextInt(8);
+            for (int j = 0; j < len; j++) {
+                term.append((char) ('a' + random.nextInt(26)));
+            }
+            this.terms[i] = term.toString();
+            this.trie.add(this.terms[i]);
+        }
+        this.prefixes = new String[NUM_PREFIXES];
+        for (int i = 0; i < NUM_PREFIXES; i++) {
+            this.prefixes[i] = this.terms[random.nextInt(this.numTerms)].substring(0, 1 + random.nextInt(3));
+        }
+    }
+
+    @Benchmark
+    public List<String> suggest() {
+        this.next = (this.next + 1) % NUM_PREFIXES;
+        return this.trie.suggest(this.prefixes[this.next]);
+    }
+
+    /**
+     * Adds and removes an occurrence of a term, as adding and deleting a task does for each of its words.
+     */
+    @Benchmark
+    public PrefixTrie addAndRemove() {
+        this.next = (this.next + 1) % this.numTerms;
+        this.trie.add(this.terms[this.next]);
+        this.trie.remove(this.terms[this.next]);
+        return this.trie;
+    }
+}
@@ -0,0 +1,72 @@
+package ekud.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import ekud.exceptions.EkudIOException;
+import ekud.storage.Storage;
+import ekud.tasks.TaskList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures loading and saving generated saved tasks files of increasing size.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class StorageBenchmark {
+    @Param({"100", "10000", "100000", "1000000"})
+    public int size;
+
+    private Path dir;
+    private Storage loadStorage;
+    private Storage saveStorage;
+    private TaskList taskList;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, EkudIOException {
+        this.dir = Files.createTempDirectory("ekud-storage-bench");
+        this.taskList = Fixtures.taskList(this.size, 42);
+        this.loadStorage = new Storage(this.dir.resolve("load.txt").toString());
+        this.loadStorage.saveData(this.taskList);
+        this.saveStorage = new Storage(this.dir.resolve("save.txt").toString());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        for (File file : this.dir.toFile().listFiles()) {
+            file.delete();
+        }
+        this.dir.toFile().delete();
+    }
+
+    @Benchmark
+    public TaskList loadData() throws EkudIOException {
+        TaskList loaded = new TaskList();
+        this.loadStorage.loadData(loaded);
+        return loaded;
+    }
+
+    @Benchmark
+    public String saveData() throws EkudIOException {
+        return this.saveStorage.saveData(this.taskList);
+    }
+}
@@ -0,0 +1,70 @@
+package ekud.benchmarks;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import ekud.exceptions.EkudIllegalArgException;
+import ekud.tasks.TaskList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures filter queries over the tag index as the task list grows, with 200 tags of which every task
+ * has one to three. The queries select few tasks, so they measure the bitmap operations rather than
+ * the formatting of the response.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class TagQueryBenchmark {
+    private static final int NUM_TAGS = 200;
+
+    @Param({"10000", "100000", "1000000"})
+    public int size;
+
+    private TaskList taskList;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.taskList = Fixtures.taskList(this.size, 42);
+        Random random = new Random(42);
+        for (int i = 0; i < this.size; i++) {
+            int numTags = 1 + random.nextInt(3);
+            String[] tags = new String[numTags];
+            for (int j = 0; j < numTags; j++) {
+                tags[j] = "#tag" + random.nextInt(NUM_TAGS);
+            }
+            this.taskList.addTags(i, List.of(tags));
+        }
+    }
+
+    /**
+     * Intersects two tags, each on about 1% of the tasks, and excludes the done ones.
+     */
+    @Benchmark
+    public String intersectTwoTagsNotDone() throws EkudIllegalArgException {
+        return this.taskList.filterTasks("tag:tag7 & tag:tag13 & !done");
+    }
+
+    /**
+     * Unions three tags and intersects the result with a high priority and a fourth tag.
+     */
+    @Benchmark
+    public String unionThenIntersect() throws EkudIllegalArgException {
+        return this.taskList.filterTasks("(#tag1 | #tag2 | #tag3) & priority:high & #tag4");
+    }
+}
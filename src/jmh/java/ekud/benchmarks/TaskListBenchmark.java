@@ -0,0 +1,85 @@
+package ekud.benchmarks;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import ekud.exceptions.EkudInvalidCommandException;
+import ekud.tasks.Task;
+import ekud.tasks.TaskList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures how listing, finding, ranking and deleting tasks scale with the size of the task list.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class TaskListBenchmark {
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 6, 1, 9, 0);
+
+    @Param({"100", "1000", "10000", "100000", "1000000"})
+    public int size;
+
+    private TaskList taskList;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.taskList = Fixtures.taskList(this.size, 42);
+    }
+
+    @Benchmark
+    public String showTasks() {
+        return this.taskList.showTasks();
+    }
+
+    /**
+     * Finds a keyword matched by roughly one task in five.
+     */
+    @Benchmark
+    public String findTasksCommonKeyword() {
+        return this.taskList.findTasks("book");
+    }
+
+    /**
+     * Finds a keyword matched by no task, which only pays for the scan.
+     */
+    @Benchmark
+    public String findTasksMissingKeyword() {
+        return this.taskList.findTasks("zebra");
+    }
+
+    /**
+     * Lists the ten most urgent tasks, which the urgency heap answers without going through the others.
+     */
+    @Benchmark
+    public List<Task> nextTasks() {
+        return this.taskList.getNextTasks(10, NOW);
+    }
+
+    /**
+     * Deletes the middle task and appends it again, so the list keeps its size.
+     */
+    @Benchmark
+    public String deleteMiddleTask() throws EkudInvalidCommandException {
+        int middle = this.taskList.getSize() / 2;
+        Task task = this.taskList.getTask(middle);
+        String response = this.taskList.deleteTask(middle);
+        this.taskList.addTask(task);
+        return response;
+    }
+}
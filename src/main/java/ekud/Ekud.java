@@ -1,16 +1,45 @@
 package ekud;
 
+import java.io.File;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
 import ekud.exceptions.EkudException;
 import ekud.exceptions.EkudIOException;
+import ekud.exceptions.EkudInvalidCommandException;
+import ekud.history.EventLog;
+import ekud.metrics.AllocationMeter;
+import ekud.metrics.CommandExecutionEvent;
+import ekud.metrics.CommandMetrics;
+import ekud.metrics.FlightRecording;
+import ekud.parser.Command;
 import ekud.parser.Parser;
+import ekud.server.EkudServer;
+import ekud.storage.Archive;
 import ekud.storage.Storage;
 import ekud.tasks.TaskList;
+import ekud.tasks.TaskListListener;
+import ekud.ui.BatchMode;
 import ekud.ui.Launcher;
+import ekud.workload.WorkloadTool;
 
 /**
  * Represents the Ekud chatbot which encompasses the main functionality of this program.
  */
 public class Ekud {
+    public static final String DEFAULT_SAVE_PATH = "data/savedTasks.txt";
+    private static final String HISTORY_FILE_NAME = "history.log";
+    private static final String ARCHIVE_FILE_NAME = "archive.txt";
+    private static final String ARCHIVE_INDEX_FILE_NAME = "archive.idx";
+    private static final String ARCHIVE_TERMS_FILE_NAME = "archive.terms";
+    // Commands reading or writing files other than the saved tasks, whose effects a rollback cannot undo
+    private static final Set<Command> UNBATCHABLE_COMMANDS = EnumSet.of(Command.IMPORT, Command.EXPORT,
+            Command.ARCHIVE);
     /**
      * TaskList object to store and manipulate all of user's tasks.
      */
@@ -20,6 +49,18 @@ public class Ekud {
      * in TaskList and the tasks stored on the hard disk.
      */
     private final Storage storage;
+    /**
+     * EventLog journaling every change to the tasks, kept next to the saved tasks file.
+     */
+    private final EventLog history;
+    /**
+     * Parser which executes commands and records them in the history journal.
+     */
+    private final Parser parser;
+    /**
+     * Registry timing every command executed, shared by all chatbots in the JVM.
+     */
+    private final CommandMetrics metrics;
     /**
      * Chatbot status on whether it is currently active or not (to handle main commands).
      */
@@ -29,24 +70,41 @@ public class Ekud {
      * Constructor for the chatbot to intitialise its taskList.
      */
     public Ekud() {
+        this(DEFAULT_SAVE_PATH);
+    }
+
+    /**
+     * Constructor for a chatbot keeping its tasks in the given saved tasks file.
+     *
+     * @param savePath Filepath for the saved tasks file.
+     */
+    public Ekud(String savePath) {
         this.taskList = new TaskList();
-        this.storage = new Storage("data/savedTasks.txt");
+        this.storage = new Storage(savePath);
+        File historyDir = new File(savePath).getAbsoluteFile().getParentFile();
+        this.history = new EventLog(new File(historyDir, HISTORY_FILE_NAME).getPath(), Clock.systemDefaultZone());
+        this.parser = new Parser(this.history, new Archive(new File(historyDir, ARCHIVE_FILE_NAME),
+                new File(historyDir, ARCHIVE_INDEX_FILE_NAME), new File(historyDir, ARCHIVE_TERMS_FILE_NAME)));
+        this.metrics = CommandMetrics.getDefault();
         this.isActive = true;
         assert this.taskList.getSize() == 0 : "Task list should be empty before loading data";
         assert this.storage != null : "Storage should not be null";
         assert this.isActive : "Chatbot should be active";
-
     }
 
     /**
      * Returns a String in response to the user input, after parsing the input and executing
-     * the given command.
+     * the given command. Several commands separated by ';' or new lines are run as one transaction.
      *
      * @param userInput User input consisting of a command and its arguments.
      * @return String response for the user.
      */
     public String getResponse(String userInput) {
-        Parser parser = new Parser();
+        Parser parser = this.parser;
+        List<String> commands = parser.splitCommands(userInput);
+        if (commands.size() > 1) {
+            return this.getBatchResponse(parser, commands);
+        }
         // Process user input
         String[] inputParts = parser.parseInput(userInput);
         String userCommand = inputParts[0];
@@ -64,12 +122,109 @@ public class Ekud {
         // Else handle main commands
         try {
             // executed commands will elicit a String response from the taskList object
-            return parser.parseAndExecute(this.taskList, userCommand, userArgs);
+            String response = this.execute(parser, userCommand, userArgs);
+            return response + this.commitHistory();
         } catch (EkudException e) {
+            this.history.discard();
             return e.toString(); // catch and return error messages for invalid inputs
         }
     }
 
+    /**
+     * Executes a single command against the task list, recording its latency, allocated bytes and any error raised.
+     *
+     * @param parser Parser for the command.
+     * @param userCommand Command keyword given by the user.
+     * @param userArgs Arguments of the command.
+     * @return String response for the user.
+     * @throws EkudException If invalid command or illegal arguments are given.
+     */
+    private String execute(Parser parser, String userCommand, String userArgs) throws EkudException {
+        CommandExecutionEvent event = new CommandExecutionEvent();
+        event.begin();
+        long allocatedBefore = AllocationMeter.getCurrentThreadAllocatedBytes();
+        long startTime = System.nanoTime();
+        String outcome = "ok";
+        try {
+            return parser.parseAndExecute(this.taskList, userCommand, userArgs);
+        } catch (EkudException e) {
+            this.metrics.recordError(e.getClass());
+            outcome = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            long duration = System.nanoTime() - startTime;
+            long allocatedAfter = AllocationMeter.getCurrentThreadAllocatedBytes();
+            Command command = Command.getCommand(userCommand);
+            this.metrics.recordCommand(command, duration);
+            if (allocatedBefore >= 0 && allocatedAfter >= 0) {
+                this.metrics.recordAllocation(command, userCommand, userArgs.length(),
+                        allocatedAfter - allocatedBefore);
+            }
+            event.commit(userCommand, userArgs.length(), this.taskList.getSize(), outcome);
+        }
+    }
+
+    /**
+     * Writes the changes of the commands just executed to the history journal.
+     *
+     * @return Empty String, or an error message to append to the response if the journal cannot be written.
+     */
+    private String commitHistory() {
+        try {
+            this.history.commit(this.taskList);
+            return "";
+        } catch (EkudIOException e) {
+            return "\n" + e;
+        }
+    }
+
+    /**
+     * Executes several commands as one transaction against the task list: either all of them succeed,
+     * or the task list is rolled back to its state before the first one. A successful batch is saved
+     * with a single flush to the hard disk. Commands with effects outside the task list, eg on the archive
+     * or exported files, cannot be rolled back and are rejected before any command of the batch is executed.
+     *
+     * @param parser Parser for the commands.
+     * @param commands Commands submitted together, in order.
+     * @return String response combining the responses of all commands.
+     */
+    private String getBatchResponse(Parser parser, List<String> commands) {
+        if (!isActive) {
+            return "Ekud is currently sleeping... (Type 'start' to run again)";
+        }
+        for (int i = 0; i < commands.size(); i++) {
+            String userCommand = parser.parseInput(commands.get(i))[0];
+            if (userCommand.equals("start") || userCommand.equals("end")
+                    || UNBATCHABLE_COMMANDS.contains(Command.getCommand(userCommand))) {
+                return getBatchFailure(commands, i, new EkudInvalidCommandException(String.format(
+                        "'%s' cannot be part of a batch of commands :/", userCommand)));
+            }
+        }
+        StringBuilder response = new StringBuilder();
+        this.taskList.beginTransaction();
+        int commandNum = 0;
+        try {
+            for (String command : commands) {
+                commandNum++;
+                String[] inputParts = parser.parseInput(command);
+                response.append(this.execute(parser, inputParts[0], inputParts[1]));
+                response.append('\n');
+            }
+        } catch (EkudException e) {
+            this.taskList.rollbackTransaction();
+            this.history.discard();
+            return getBatchFailure(commands, commandNum - 1, e);
+        }
+        this.taskList.commitTransaction();
+        String historyError = this.commitHistory();
+        return response.append(this.saveData()).append(historyError).toString();
+    }
+
+    private static String getBatchFailure(List<String> commands, int failedIndex, EkudException e) {
+        return String.format("Command %d of %d ('%s') failed, so no changes were made:\n%s",
+                failedIndex + 1, commands.size(), commands.get(failedIndex), e);
+    }
+
     /**
      * Activates the chatbot by loading saved data & greeting the user.
      *
@@ -96,17 +251,50 @@ public class Ekud {
     /**
      * Helper function to load saved data upon activating the chatbot with a response
      * on whether data was successfully loaded.
+     * Tasks are recovered from the history journal when it is at least as recent as the saved tasks file,
+     * which also restores changes made after the last save, eg before a crash.
+     * Done tasks due for archiving are then moved to the archive.
      *
      * @return String response.
      */
     public String loadData() {
         try {
-            return this.storage.loadData(this.taskList);
+            return this.load();
         } catch (EkudIOException e) {
             return e.toString();
         }
     }
 
+    /**
+     * Loads saved data like loadData(), but reports a failure to read the saved tasks to the caller rather than
+     * as a response, so that a caller which saves later, eg a server session, does not overwrite them.
+     *
+     * @return String response.
+     * @throws EkudIOException If the saved tasks or the history journal cannot be read.
+     */
+    public String load() throws EkudIOException {
+        String response;
+        if (this.history.hasSnapshot() && this.history.getLastSnapshotTime() >= this.storage.getLastModified()) {
+            int numRecovered = this.history.recover(this.taskList);
+            response = this.storage.describeTasks(this.taskList);
+            if (numRecovered > 0) {
+                response += String.format("[Recovered (%d) unsaved change(s) from history]\n", numRecovered);
+            }
+        } else {
+            response = this.storage.loadData(this.taskList);
+            this.history.snapshot(this.taskList);
+        }
+        try {
+            int numArchived = this.parser.archiveDoneTasks(this.taskList);
+            String historyError = this.commitHistory();
+            return numArchived == 0 ? response + historyError
+                    : response + String.format("[Archived (%d) done task(s)]\n", numArchived) + historyError;
+        } catch (EkudIOException e) {
+            this.history.discard();
+            return response + e + "\n";
+        }
+    }
+
     /**
      * Helper function to save data upon de-activating the chatbot with a response on
      * whether data was successfully saved.
@@ -115,12 +303,88 @@ public class Ekud {
      */
     public String saveData() {
         try {
-            return this.storage.saveData(this.taskList);
+            return this.saveTasks();
         } catch (EkudIOException e) {
             return e.toString();
         }
     }
 
+    /**
+     * Saves the tasks file, then snapshots the tasks in the history journal so that it stays
+     * at least as recent as the saved tasks file.
+     */
+    private String saveTasks() throws EkudIOException {
+        String response = this.storage.saveData(this.taskList);
+        this.history.snapshot(this.taskList);
+        return response;
+    }
+
+    /**
+     * Returns the number of tasks currently held by the chatbot.
+     *
+     * @return int
+     */
+    public int getTaskCount() {
+        return this.taskList.getSize();
+    }
+
+    /**
+     * Registers a listener to be notified of every change to the chatbot's tasks, on the thread executing
+     * the command. Registering it before loadData() also notifies it of the tasks loaded.
+     *
+     * @param listener Listener to notify.
+     */
+    public void addTaskListListener(TaskListListener listener) {
+        this.taskList.addListener(listener);
+    }
+
+    /**
+     * Sets the listener shown the progress of long commands, such as imports, on the thread executing them.
+     *
+     * @param listener Called with a progress message, or null to stop reporting progress.
+     */
+    public void setProgressListener(Consumer<String> listener) {
+        this.parser.setProgressListener(listener);
+    }
+
+    /**
+     * Confines the files read by import and written by export to a directory, resolving their paths in it.
+     *
+     * @param fileDirectory Directory to confine files to, or null to accept any path.
+     */
+    public void setFileDirectory(Path fileDirectory) {
+        this.parser.setFileDirectory(fileDirectory);
+    }
+
+    /**
+     * Returns whether the chatbot is currently active, ie not ended by the 'end' command.
+     *
+     * @return boolean
+     */
+    public boolean isActive() {
+        return this.isActive;
+    }
+
+    /**
+     * Saves the tasks to the hard disk, reporting failures to the caller rather than as a response.
+     *
+     * @return Number of tasks saved.
+     * @throws EkudIOException If tasks cannot be saved properly.
+     */
+    public int flush() throws EkudIOException {
+        this.saveTasks();
+        return this.taskList.getSize();
+    }
+
+    /**
+     * Closes the history journal, eg before the chatbot is dropped from memory.
+     *
+     * @throws EkudIOException If the journal cannot be closed properly.
+     */
+    public void close() throws EkudIOException {
+        this.history.close();
+    }
+
     /**
      * Retrieves the chatbot's greeting for use in the JavaFX GUI.
      *
@@ -132,11 +396,28 @@ public class Ekud {
     }
 
     /**
-     * Launches the JavaFX GUI for the chatbot.
+     * Launches the JavaFX GUI for the chatbot, the headless batch mode if the first argument
+     * is --batch, the local server if it is --server, or the workload tool if it is --workload.
+     * Setting -Dekud.jfr=<file> also records flight data.
      *
-     * @param args Command line arguments (not used at the moment).
+     * @param args Command line arguments.
      */
     public static void main(String[] args) {
-        Launcher.main(args);
+        FlightRecording.startIfRequested();
+        String mode = args.length > 0 ? args[0] : "";
+        String[] modeArgs = args.length > 0 ? Arrays.copyOfRange(args, 1, args.length) : args;
+        switch (mode) {
+        case "--batch":
+            System.exit(BatchMode.main(modeArgs));
+            break;
+        case "--server":
+            System.exit(EkudServer.main(modeArgs));
+            break;
+        case "--workload":
+            System.exit(WorkloadTool.main(modeArgs));
+            break;
+        default:
+            Launcher.main(args);
+        }
     }
 }
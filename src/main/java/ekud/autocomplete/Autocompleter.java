@@ -0,0 +1,138 @@
+package ekud.autocomplete;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import ekud.parser.Command;
+import ekud.tasks.Task;
+import ekud.tasks.TaskListListener;
+
+/**
+ * Suggests completions of the word being typed: command keywords for the first word, and words from
+ * task descriptions for the others. It listens to a TaskList to keep the description words up to date.
+ * Both the updates and the lookups run on a single background thread, which owns the tries, so neither
+ * the command thread nor the JavaFX Application Thread ever waits for the other.
+ */
+public class Autocompleter implements TaskListListener {
+    public static final int MAX_SUGGESTIONS = 5;
+    // Lookups only start once the user has stopped typing for this long
+    private static final long DEBOUNCE_MILLIS = 80;
+    // Shorter words are not worth completing
+    private static final int MIN_WORD_LENGTH = 3;
+
+    private final PrefixTrie commands;
+    private final PrefixTrie words;
+    private final ScheduledExecutorService executor;
+    // Latest lookup scheduled, cancelled if another input arrives first; guarded by this
+    private ScheduledFuture<?> pendingLookup;
+
+    /**
+     * Constructor for an Autocompleter knowing every command, but no task descriptions yet.
+     */
+    public Autocompleter() {
+        this.commands = new PrefixTrie(MAX_SUGGESTIONS);
+        for (Command command : Command.values()) {
+            this.commands.add(command.getKeyword());
+        }
+        this.commands.add("end");
+        this.words = new PrefixTrie(MAX_SUGGESTIONS);
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ekud-autocomplete");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Looks up completions of an input after a short delay, unless another input is given in the meantime.
+     * The callback is called on the background thread, so it should hand the suggestions over to the caller's
+     * thread itself.
+     *
+     * @param input Input typed so far.
+     * @param callback Receives up to MAX_SUGGESTIONS inputs completing the last word of the input, best first.
+     */
+    public synchronized void suggest(String input, Consumer<List<String>> callback) {
+        if (this.pendingLookup != null) {
+            this.pendingLookup.cancel(false);
+        }
+        this.pendingLookup = this.executor.schedule(() -> callback.accept(this.complete(input)),
+                DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Returns the inputs completing the last word of the given input, best first. Must run on the
+     * background thread.
+     */
+    List<String> complete(String input) {
+        int wordStart = input.lastIndexOf(' ') + 1;
+        String word = input.substring(wordStart).toLowerCase(Locale.ENGLISH);
+        List<String> completions = new ArrayList<>();
+        if (word.isEmpty()) {
+            return completions;
+        }
+        PrefixTrie trie = input.stripLeading().indexOf(' ') < 0 ? this.commands : this.words;
+        for (String term : trie.suggest(word)) {
+            if (!term.equals(word)) {
+                completions.add(input.substring(0, wordStart) + term);
+            }
+        }
+        return completions;
+    }
+
+    @Override
+    public void onTasksAdded(int fromIndex, List<Task> tasks) {
+        String[] descriptions = getDescriptions(tasks);
+        this.executor.execute(() -> {
+            for (String description : descriptions) {
+                this.forEachWord(description, this.words::add);
+            }
+        });
+    }
+
+    @Override
+    public void onTaskRemoved(int index, Task task) {
+        String description = task.getDescription();
+        this.executor.execute(() -> this.forEachWord(description, this.words::remove));
+    }
+
+    @Override
+    public void onTaskUpdated(int index, Task task) {
+        // Descriptions never change
+    }
+
+    @Override
+    public void onTasksReset(List<Task> tasks) {
+        String[] descriptions = getDescriptions(tasks);
+        this.executor.execute(() -> {
+            this.words.clear();
+            for (String description : descriptions) {
+                this.forEachWord(description, this.words::add);
+            }
+        });
+    }
+
+    /**
+     * Copies the descriptions of tasks, as the list is only valid while the listener is called.
+     */
+    private static String[] getDescriptions(List<Task> tasks) {
+        String[] descriptions = new String[tasks.size()];
+        for (int i = 0; i < descriptions.length; i++) {
+            descriptions[i] = tasks.get(i).getDescription();
+        }
+        return descriptions;
+    }
+
+    private void forEachWord(String description, Consumer<String> action) {
+        for (String word : description.toLowerCase(Locale.ENGLISH).split("\\s+")) {
+            if (word.length() >= MIN_WORD_LENGTH) {
+                action.accept(word);
+            }
+        }
+    }
+}
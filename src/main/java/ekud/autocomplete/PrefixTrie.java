@@ -0,0 +1,232 @@
+package ekud.autocomplete;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Multiset of terms supporting top-k prefix lookups, ie the k most frequent terms starting with a prefix.
+ * Every node caches the top k terminal nodes of its subtree, which is kept up to date along the path of
+ * each term added or removed, so a lookup only walks down the prefix and copies that node's cache.
+ * Not thread-safe.
+ */
+public class PrefixTrie {
+    private final int k;
+    private Node root;
+    private int numTerms;
+
+    /**
+     * Constructor for an empty PrefixTrie.
+     *
+     * @param k Maximum number of suggestions returned by a lookup.
+     */
+    public PrefixTrie(int k) {
+        assert k > 0 : "At least one suggestion should be returned";
+        this.k = k;
+        this.root = new Node();
+    }
+
+    /**
+     * Returns the number of distinct terms, ie those added more often than removed.
+     *
+     * @return int
+     */
+    public int getNumTerms() {
+        return this.numTerms;
+    }
+
+    /**
+     * Removes every term.
+     */
+    public void clear() {
+        this.root = new Node();
+        this.numTerms = 0;
+    }
+
+    /**
+     * Adds one occurrence of a term.
+     *
+     * @param term Term to add, which should not be empty.
+     */
+    public void add(String term) {
+        assert !term.isEmpty() : "Empty terms cannot be looked up";
+        Node[] path = new Node[term.length() + 1];
+        path[0] = this.root;
+        for (int i = 0; i < term.length(); i++) {
+            path[i + 1] = path[i].getOrAddChild(term.charAt(i));
+        }
+        Node terminal = path[term.length()];
+        if (terminal.count == 0) {
+            terminal.term = term;
+            this.numTerms++;
+        }
+        terminal.count++;
+        // A term that became more frequent can only move up in each cache on its path
+        Node[] childTop = null;
+        for (int i = term.length(); i >= 0; i--) {
+            path[i].promote(terminal, this.k, childTop);
+            childTop = path[i].top;
+        }
+    }
+
+    /**
+     * Removes one occurrence of a term, if it was added.
+     *
+     * @param term Term to remove.
+     */
+    public void remove(String term) {
+        Node[] path = new Node[term.length() + 1];
+        path[0] = this.root;
+        for (int i = 0; i < term.length(); i++) {
+            path[i + 1] = path[i].getChild(term.charAt(i));
+            if (path[i + 1] == null) {
+                return;
+            }
+        }
+        Node terminal = path[term.length()];
+        if (terminal.count == 0) {
+            return;
+        }
+        terminal.count--;
+        if (terminal.count == 0) {
+            terminal.term = null;
+            this.numTerms--;
+        }
+        // A term that became less frequent may be overtaken by terms missing from a cache, so every cache
+        // holding it is rebuilt from the caches of the node's children, deepest first
+        for (int i = term.length(); i >= 0; i--) {
+            if (path[i].caches(terminal)) {
+                path[i].rebuildTop(this.k);
+            }
+        }
+    }
+
+    /**
+     * Returns the most frequent terms starting with a prefix, most frequent first, and alphabetically
+     * among terms as frequent.
+     *
+     * @param prefix Prefix of the terms.
+     * @return Up to k terms.
+     */
+    public List<String> suggest(String prefix) {
+        Node node = this.root;
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.getChild(prefix.charAt(i));
+        }
+        List<String> suggestions = new ArrayList<>();
+        if (node != null) {
+            for (Node terminal : node.top) {
+                suggestions.add(terminal.term);
+            }
+        }
+        return suggestions;
+    }
+
+    /**
+     * Orders terminal nodes by decreasing count, then alphabetically.
+     */
+    private static int compare(Node a, Node b) {
+        if (a.count != b.count) {
+            return Integer.compare(b.count, a.count);
+        }
+        return a.term.compareTo(b.term);
+    }
+
+    /**
+     * A node of the trie. Children are kept in arrays sorted by character, which takes far less memory
+     * than a map per node.
+     */
+    private static class Node {
+        private static final char[] NO_KEYS = new char[0];
+        private static final Node[] NO_NODES = new Node[0];
+
+        private char[] keys = NO_KEYS;
+        private Node[] children = NO_NODES;
+        // Term ending at this node while count > 0
+        private String term;
+        private int count;
+        // Terminal nodes of the most frequent terms in this subtree, best first
+        private Node[] top = NO_NODES;
+
+        Node getChild(char key) {
+            int i = Arrays.binarySearch(this.keys, key);
+            return i >= 0 ? this.children[i] : null;
+        }
+
+        Node getOrAddChild(char key) {
+            int i = Arrays.binarySearch(this.keys, key);
+            if (i >= 0) {
+                return this.children[i];
+            }
+            int insertAt = -i - 1;
+            int len = this.keys.length;
+            char[] keys = new char[len + 1];
+            Node[] children = new Node[len + 1];
+            System.arraycopy(this.keys, 0, keys, 0, insertAt);
+            System.arraycopy(this.children, 0, children, 0, insertAt);
+            System.arraycopy(this.keys, insertAt, keys, insertAt + 1, len - insertAt);
+            System.arraycopy(this.children, insertAt, children, insertAt + 1, len - insertAt);
+            keys[insertAt] = key;
+            children[insertAt] = new Node();
+            this.keys = keys;
+            this.children = children;
+            return children[insertAt];
+        }
+
+        boolean caches(Node terminal) {
+            for (Node node : this.top) {
+                if (node == terminal) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Moves a terminal node whose count has just increased into its place in this node's cache.
+         * A new node above a single term shares its child's cache, which is never modified in place as it is
+         * shorter than k, so that the long chains of nodes leading to a single term hold no cache of their own.
+         */
+        void promote(Node terminal, int k, Node[] childTop) {
+            if (this.top.length == 0 && childTop != null && childTop.length == 1 && childTop[0] == terminal
+                    && k > 1) {
+                this.top = childTop;
+                return;
+            }
+            int i = 0;
+            while (i < this.top.length && this.top[i] != terminal) {
+                i++;
+            }
+            if (i == this.top.length) {
+                if (this.top.length == k) {
+                    if (compare(terminal, this.top[k - 1]) >= 0) {
+                        return;
+                    }
+                    i = k - 1;
+                } else {
+                    this.top = Arrays.copyOf(this.top, this.top.length + 1);
+                }
+            }
+            while (i > 0 && compare(terminal, this.top[i - 1]) < 0) {
+                this.top[i] = this.top[i - 1];
+                i--;
+            }
+            this.top[i] = terminal;
+        }
+
+        /**
+         * Recomputes this node's cache from its own term and its children's caches.
+         */
+        void rebuildTop(int k) {
+            List<Node> candidates = new ArrayList<>();
+            if (this.count > 0) {
+                candidates.add(this);
+            }
+            for (Node child : this.children) {
+                candidates.addAll(Arrays.asList(child.top));
+            }
+            candidates.sort(PrefixTrie::compare);
+            this.top = candidates.subList(0, Math.min(k, candidates.size())).toArray(NO_NODES);
+        }
+    }
+}
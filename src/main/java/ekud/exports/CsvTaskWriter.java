@@ -0,0 +1,86 @@
+package ekud.exports;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+import ekud.tasks.Deadline;
+import ekud.tasks.Event;
+import ekud.tasks.Task;
+
+/**
+ * Writes tasks of every type to a CSV file (RFC 4180), with the columns read back by CsvTaskReader.
+ * Dates are written in ISO 8601, eg 2024-06-03T18:30.
+ */
+public class CsvTaskWriter extends TaskFileWriter {
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm");
+
+    public CsvTaskWriter(Writer out) {
+        super(out);
+    }
+
+    @Override
+    public void writeStart() throws IOException {
+        this.out.write("type,description,by,from,to,priority,done\r\n");
+    }
+
+    @Override
+    public boolean writeTask(Task task) throws IOException {
+        String type = "todo";
+        LocalDateTime by = null;
+        LocalDateTime from = null;
+        LocalDateTime to = null;
+        if (task instanceof Deadline) {
+            type = "deadline";
+            by = ((Deadline) task).getDateTime();
+        } else if (task instanceof Event) {
+            type = "event";
+            from = ((Event) task).getFromDateTime();
+            to = ((Event) task).getToDateTime();
+        }
+        this.out.write(type);
+        this.out.write(',');
+        this.writeField(task.getDescriptionWithTags());
+        this.out.write(',');
+        this.writeDateTime(by);
+        this.out.write(',');
+        this.writeDateTime(from);
+        this.out.write(',');
+        this.writeDateTime(to);
+        this.out.write(',');
+        this.out.write(task.getPriority());
+        this.out.write(task.isDone() ? ",x\r\n" : ",\r\n");
+        return true;
+    }
+
+    @Override
+    public void writeEnd() {
+        // CSV has no trailer
+    }
+
+    private void writeDateTime(LocalDateTime dateTime) throws IOException {
+        if (dateTime != null) {
+            DATE_TIME_FORMATTER.formatTo(dateTime, this.out);
+        }
+    }
+
+    /**
+     * Writes a field, quoting it if it holds a comma, quote, line break or surrounding whitespace.
+     */
+    private void writeField(String text) throws IOException {
+        boolean needsQuotes = !text.isEmpty() && (Character.isWhitespace(text.charAt(0))
+                || Character.isWhitespace(text.charAt(text.length() - 1)));
+        for (int i = 0; i < text.length() && !needsQuotes; i++) {
+            char c = text.charAt(i);
+            needsQuotes = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!needsQuotes) {
+            this.out.write(text);
+            return;
+        }
+        this.out.write('"');
+        this.out.write(text.replace("\"", "\"\""));
+        this.out.write('"');
+    }
+}
@@ -0,0 +1,136 @@
+package ekud.exports;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+import ekud.tasks.Deadline;
+import ekud.tasks.Event;
+import ekud.tasks.Task;
+
+/**
+ * Writes deadlines as VTODOs and events as VEVENTs of an iCalendar file (RFC 5545), for calendar clients.
+ * To-dos have no dates, so they are not written. Times are written as local ("floating") times.
+ * Each task's UID is derived from its ID, which it keeps for life, so exporting again updates the same
+ * items in a calendar client instead of duplicating them, even after they are edited.
+ */
+public class IcsTaskWriter extends TaskFileWriter {
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+    // Longest line allowed by RFC 5545 in bytes, excluding the line break; longer lines are folded
+    private static final int MAX_LINE_BYTES = 75;
+
+    private final String timeStamp;
+
+    /**
+     * Constructs an IcsTaskWriter.
+     *
+     * @param out Writer of the file, which the caller closes.
+     * @param exportTime When the export is made, stamped on every item.
+     */
+    public IcsTaskWriter(Writer out, Instant exportTime) {
+        super(out);
+        this.timeStamp = exportTime.atOffset(ZoneOffset.UTC).format(DATE_TIME_FORMATTER) + "Z";
+    }
+
+    @Override
+    public void writeStart() throws IOException {
+        this.writeLine("BEGIN:VCALENDAR");
+        this.writeLine("VERSION:2.0");
+        this.writeLine("PRODID:-//Ekud//Ekud//EN");
+    }
+
+    @Override
+    public boolean writeTask(Task task) throws IOException {
+        if (task instanceof Deadline) {
+            LocalDateTime due = ((Deadline) task).getDateTime();
+            this.writeLine("BEGIN:VTODO");
+            this.writeCommonProperties(task);
+            this.writeLine("DUE:" + due.format(DATE_TIME_FORMATTER));
+            this.writeLine(task.isDone() ? "STATUS:COMPLETED" : "STATUS:NEEDS-ACTION");
+            this.writeLine("END:VTODO");
+            return true;
+        } else if (task instanceof Event) {
+            Event event = (Event) task;
+            this.writeLine("BEGIN:VEVENT");
+            this.writeCommonProperties(task);
+            this.writeLine("DTSTART:" + event.getFromDateTime().format(DATE_TIME_FORMATTER));
+            this.writeLine("DTEND:" + event.getToDateTime().format(DATE_TIME_FORMATTER));
+            this.writeLine("END:VEVENT");
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void writeEnd() throws IOException {
+        this.writeLine("END:VCALENDAR");
+    }
+
+    private void writeCommonProperties(Task task) throws IOException {
+        this.writeLine("UID:task-" + task.getId() + "@ekud");
+        this.writeLine("DTSTAMP:" + this.timeStamp);
+        this.writeLine("SUMMARY:" + escape(task.getDescription()));
+        this.writeLine("PRIORITY:" + toIcsPriority(task));
+        if (!task.getTags().isEmpty()) {
+            // Tags hold no characters which need escaping
+            this.writeLine("CATEGORIES:" + String.join(",", task.getTags()));
+        }
+    }
+
+    /**
+     * Maps a task priority to an iCalendar one, where 1 is the highest and 9 the lowest.
+     */
+    private static int toIcsPriority(Task task) {
+        switch (task.getPriorityLevel()) {
+        case HIGH:
+            return 1;
+        case LOW:
+            return 9;
+        default:
+            return 5;
+        }
+    }
+
+    /**
+     * Escapes a TEXT value, eg a comma as \, and a line break as \n.
+     */
+    private static String escape(String text) {
+        StringBuilder sb = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\\' || c == ',' || c == ';') {
+                sb.append('\\').append(c);
+            } else if (c == '\n') {
+                sb.append("\\n");
+            } else if (c != '\r') {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Writes a content line, folding it so that no line is longer than MAX_LINE_BYTES bytes in UTF-8,
+     * without splitting a character.
+     */
+    private void writeLine(String line) throws IOException {
+        int lineBytes = 0;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            int charBytes = c < 0x80 ? 1 : c < 0x800 ? 2 : Character.isHighSurrogate(c) ? 4 : 3;
+            if (lineBytes + charBytes > MAX_LINE_BYTES) {
+                this.out.write("\r\n ");
+                lineBytes = 1;
+            }
+            this.out.write(c);
+            if (Character.isHighSurrogate(c) && i + 1 < line.length()) {
+                this.out.write(line.charAt(++i));
+            }
+            lineBytes += charBytes;
+        }
+        this.out.write("\r\n");
+    }
+}
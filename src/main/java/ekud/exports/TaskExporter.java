@@ -0,0 +1,117 @@
+package ekud.exports;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+
+import ekud.exceptions.EkudIOException;
+import ekud.tasks.Task;
+import ekud.tasks.TaskFilter;
+
+/**
+ * Exports the tasks matching a filter to a CSV or iCalendar file. Tasks are written one at a time through
+ * a buffered writer over a file channel, so the export needs no more memory than the buffer whatever the
+ * number of tasks. The file is written next to its destination and then moved over it, so a calendar client
+ * syncing the destination never reads a half-written export.
+ */
+public class TaskExporter {
+    private static final int BUFFER_BYTES = 1 << 16;
+
+    /**
+     * Formats tasks can be exported in, by the keyword given to the export command.
+     */
+    public enum Format {
+        CSV, ICS;
+
+        /**
+         * Returns the format with the given keyword, eg csv, or null if there is none.
+         *
+         * @param keyword Keyword given by the user.
+         * @return Format
+         */
+        public static Format getFormat(String keyword) {
+            for (Format format : Format.values()) {
+                if (format.name().equalsIgnoreCase(keyword)) {
+                    return format;
+                }
+            }
+            return null;
+        }
+    }
+
+    private final Format format;
+    private final Clock clock;
+
+    /**
+     * Constructs a TaskExporter.
+     *
+     * @param format Format of the files written.
+     * @param clock Clock giving the time stamped on iCalendar items.
+     */
+    public TaskExporter(Format format, Clock clock) {
+        this.format = format;
+        this.clock = clock;
+    }
+
+    /**
+     * Writes the tasks matching a filter to a file, replacing it if it exists.
+     *
+     * @param tasks Tasks to export, in order.
+     * @param filter Filter selecting the tasks to write.
+     * @param file File to write.
+     * @return Number of tasks written, which excludes to-dos for iCalendar files.
+     * @throws EkudIOException If the file cannot be written.
+     */
+    public int export(Iterable<Task> tasks, TaskFilter filter, Path file) throws EkudIOException {
+        Path absoluteFile = file.toAbsolutePath();
+        Path tempFile = null;
+        try {
+            Files.createDirectories(absoluteFile.getParent());
+            tempFile = Files.createTempFile(absoluteFile.getParent(), absoluteFile.getFileName().toString(), ".tmp");
+            int numWritten = 0;
+            try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.WRITE);
+                    Writer out = new BufferedWriter(Channels.newWriter(channel,
+                            StandardCharsets.UTF_8.newEncoder(), BUFFER_BYTES), BUFFER_BYTES)) {
+                TaskFileWriter writer = this.format == Format.CSV
+                        ? new CsvTaskWriter(out)
+                        : new IcsTaskWriter(out, this.clock.instant());
+                writer.writeStart();
+                for (Task task : tasks) {
+                    if (filter.matches(task) && writer.writeTask(task)) {
+                        numWritten++;
+                    }
+                }
+                writer.writeEnd();
+            }
+            try {
+                Files.move(tempFile, absoluteFile, StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, absoluteFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return numWritten;
+        } catch (IOException e) {
+            deleteQuietly(tempFile);
+            throw new EkudIOException("Error with exporting tasks: " + e);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file != null) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                // Already failing
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package ekud.exports;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import ekud.tasks.Task;
+
+/**
+ * Writes tasks to a file one at a time, straight to a buffered writer, so that no text of the whole
+ * file is ever built in memory.
+ */
+public abstract class TaskFileWriter {
+    protected final Writer out;
+
+    /**
+     * Constructs a TaskFileWriter.
+     *
+     * @param out Writer of the file, which the caller closes.
+     */
+    protected TaskFileWriter(Writer out) {
+        this.out = out;
+    }
+
+    /**
+     * Writes whatever comes before the tasks, eg a header.
+     *
+     * @throws IOException If the file cannot be written.
+     */
+    public abstract void writeStart() throws IOException;
+
+    /**
+     * Writes a task, unless the format cannot represent it.
+     *
+     * @param task Task to write.
+     * @return Whether the task was written.
+     * @throws IOException If the file cannot be written.
+     */
+    public abstract boolean writeTask(Task task) throws IOException;
+
+    /**
+     * Writes whatever comes after the tasks.
+     *
+     * @throws IOException If the file cannot be written.
+     */
+    public abstract void writeEnd() throws IOException;
+}
@@ -0,0 +1,725 @@
+package ekud.history;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import ekud.exceptions.EkudIOException;
+import ekud.parser.DateTimeParser;
+import ekud.storage.Compression;
+import ekud.tasks.Task;
+import ekud.tasks.TaskList;
+
+/**
+ * The EventLog class records every successful mutating command as a compactly encoded HistoryEvent
+ * in an append-only journal on the hard disk, together with periodic snapshots of the whole TaskList.
+ * On startup only the events after the last snapshot are replayed, which also recovers changes made
+ * after the last save. The journal can also rebuild the TaskList as it was at any past time.
+ * Journal format: each record is a one-byte EventType code followed by the milliseconds elapsed since
+ * the previous record and the event's payload. Snapshot records hold their absolute time instead, and
+ * their offsets are kept in a sidecar index file so they can be found without scanning the journal.
+ * When compression is enabled, the tasks of each snapshot, which make up most of the journal, are deflated
+ * and prefixed with their compressed length, so the journal can still be read record by record.
+ * Snapshots also hold the ID to give the next new task, so that replaying the events after them gives
+ * added tasks the same IDs as when the commands ran.
+ * A snapshot of a TaskList unchanged since the previous one only moves that one's time forward in the index.
+ * Once the journal holds twice RETAINED_SNAPSHOTS snapshots, the records before the last RETAINED_SNAPSHOTS
+ * are dropped, so the journal stays within a bounded number of snapshots and past times reach back that far.
+ */
+public class EventLog {
+    // Number of events between two automatic snapshots, bounding the replay on startup
+    private static final int SNAPSHOT_INTERVAL = 1000;
+    // Number of snapshots kept by compacting the journal, and so how far back past times can be rebuilt
+    private static final int RETAINED_SNAPSHOTS = 16;
+    // Set on the code of snapshots holding the ID to give the next new task, which older snapshots lack
+    private static final int NEXT_ID_FLAG = 0x40;
+    private static final int RECENT_LIMIT = 100;
+    // Each index entry holds the snapshot's sequence number, time and journal offset
+    private static final int INDEX_ENTRY_BYTES = 3 * Long.BYTES;
+
+    private final File journalFile;
+    private final File indexFile;
+    private final Clock clock;
+    // Level snapshots are compressed at, or Compression.NONE
+    private final int compressionLevel;
+    // {sequence number, time, journal offset} of every snapshot, oldest first
+    private final List<long[]> snapshots;
+    private final ArrayDeque<HistoryEvent> recent;
+    // Events of the current command (or batch of commands) not yet written to the journal
+    private final List<HistoryEvent> pending;
+    private final ByteArrayOutputStream recordBuffer;
+    private final DataOutputStream recordOut;
+    private OutputStream journalOut;
+    private DataOutputStream indexOut;
+    // Length of the journal up to the end of its last complete record
+    private long position;
+    private long lastTime;
+    // Number of events recorded since the journal was created
+    private long sequence;
+    private long eventsSinceSnapshot;
+    // Whether the latest snapshot holds the TaskList as it is now, ie no event was written since
+    private boolean isSnapshotCurrent;
+
+    /**
+     * Constructs an EventLog keeping its journal in the given file, and reads the journal's
+     * snapshot index if the journal already exists. Snapshots are compressed at the configured level.
+     *
+     * @param journalPath Filepath for the journal.
+     * @param clock Clock used to timestamp events.
+     */
+    public EventLog(String journalPath, Clock clock) {
+        this(journalPath, clock, Compression.getConfiguredLevel());
+    }
+
+    /**
+     * Constructs an EventLog keeping its journal in the given file, and reads the journal's
+     * snapshot index if the journal already exists.
+     *
+     * @param journalPath Filepath for the journal.
+     * @param clock Clock used to timestamp events.
+     * @param compressionLevel Level from 0 (no compression) to 9 (smallest snapshots) to write snapshots at.
+     */
+    public EventLog(String journalPath, Clock clock, int compressionLevel) {
+        this.journalFile = new File(journalPath);
+        this.indexFile = new File(journalPath + ".idx");
+        this.clock = clock;
+        this.compressionLevel = compressionLevel;
+        this.snapshots = new ArrayList<>();
+        this.recent = new ArrayDeque<>();
+        this.pending = new ArrayList<>();
+        this.recordBuffer = new ByteArrayOutputStream();
+        this.recordOut = new DataOutputStream(this.recordBuffer);
+        this.readIndex();
+    }
+
+    /**
+     * Loads the snapshot index, ignoring entries which point past the end of the journal.
+     */
+    private void readIndex() {
+        if (!this.indexFile.exists() || !this.journalFile.exists()) {
+            return;
+        }
+        long journalLength = this.journalFile.length();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(this.indexFile)))) {
+            long numEntries = this.indexFile.length() / INDEX_ENTRY_BYTES;
+            for (long i = 0; i < numEntries; i++) {
+                long[] entry = {in.readLong(), in.readLong(), in.readLong()};
+                if (entry[2] < journalLength) {
+                    this.snapshots.add(entry);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Error with reading history index: " + e);
+        }
+        if (!this.snapshots.isEmpty() && !this.isSnapshotAt(this.snapshots.get(this.snapshots.size() - 1))) {
+            // Eg the journal was compacted but the process stopped before its index was replaced
+            this.rebuildIndex();
+        }
+    }
+
+    /**
+     * Returns whether the journal holds the snapshot of an index entry at the entry's offset,
+     * reading only the start of the record.
+     */
+    private boolean isSnapshotAt(long[] entry) {
+        try (FileInputStream file = new FileInputStream(this.journalFile)) {
+            file.getChannel().position(entry[2]);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(file, 64));
+            int code = in.read();
+            EventType type = code < 0 ? null : EventType.getEventType(code & ~NEXT_ID_FLAG);
+            if (type != EventType.SNAPSHOT && type != EventType.COMPRESSED_SNAPSHOT) {
+                return false;
+            }
+            in.readLong();
+            return JournalCodec.readVarLong(in) == entry[0];
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Rebuilds the snapshot index by scanning the whole journal.
+     */
+    private void rebuildIndex() {
+        this.snapshots.clear();
+        try (JournalReader reader = new JournalReader(this.journalFile, 0)) {
+            long offset = 0;
+            while (reader.next()) {
+                if (reader.getEvent() == null) {
+                    this.snapshots.add(new long[]{reader.getSnapshotSequence(), reader.getTime(), offset});
+                }
+                offset = reader.getPosition();
+            }
+            writeIndex(this.indexFile, this.snapshots);
+        } catch (IOException | IndexOutOfBoundsException e) {
+            System.err.println("Error with rebuilding history index: " + e);
+        }
+    }
+
+    private static void writeIndex(File indexFile, List<long[]> entries) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new FileOutputStream(indexFile, false)))) {
+            for (long[] entry : entries) {
+                out.writeLong(entry[0]);
+                out.writeLong(entry[1]);
+                out.writeLong(entry[2]);
+            }
+        }
+    }
+
+    /**
+     * Returns whether the journal holds a snapshot to recover the TaskList from.
+     *
+     * @return boolean
+     */
+    public boolean hasSnapshot() {
+        return !this.snapshots.isEmpty();
+    }
+
+    /**
+     * Returns the time of the latest snapshot in milliseconds since the epoch, or 0 if there is none.
+     *
+     * @return long
+     */
+    public long getLastSnapshotTime() {
+        return this.snapshots.isEmpty() ? 0 : this.snapshots.get(this.snapshots.size() - 1)[1];
+    }
+
+    /**
+     * Restores the TaskList from the latest snapshot and replays the events recorded after it.
+     * A partially written record at the end of the journal, eg after a crash, is discarded.
+     *
+     * @param taskList TaskList to restore.
+     * @return Number of events replayed after the snapshot.
+     * @throws EkudIOException If the journal cannot be read.
+     */
+    public int recover(TaskList taskList) throws EkudIOException {
+        assert this.hasSnapshot() : "Recovering needs a snapshot";
+        this.closeWriters();
+        long[] last = this.snapshots.get(this.snapshots.size() - 1);
+        // Start reading from the snapshot before the last one to also fill the recent events
+        long[] start = this.snapshots.size() > 1 ? this.snapshots.get(this.snapshots.size() - 2) : last;
+        int numReplayed = 0;
+        this.recent.clear();
+        try (JournalReader reader = new JournalReader(this.journalFile, start[2])) {
+            while (reader.next()) {
+                if (reader.getEvent() == null) {
+                    if (reader.getSnapshotSequence() == last[0]) {
+                        reader.restoreSnapshot(taskList);
+                    }
+                    this.sequence = reader.getSnapshotSequence();
+                    continue;
+                }
+                HistoryEvent event = reader.getEvent();
+                this.remember(event);
+                this.sequence++;
+                if (reader.getPosition() > last[2]) {
+                    event.apply(taskList);
+                    numReplayed++;
+                }
+            }
+            this.position = reader.getPosition();
+            this.lastTime = reader.getTime();
+        } catch (IOException | IndexOutOfBoundsException e) {
+            throw new EkudIOException("Error with replaying history: " + e);
+        }
+        this.eventsSinceSnapshot = numReplayed;
+        this.isSnapshotCurrent = numReplayed == 0;
+        try (RandomAccessFile journal = new RandomAccessFile(this.journalFile, "rw")) {
+            journal.setLength(this.position);
+        } catch (IOException e) {
+            throw new EkudIOException("Error with repairing history: " + e);
+        }
+        return numReplayed;
+    }
+
+    /**
+     * Records an event of the command being executed. It is written to the journal on commit().
+     *
+     * @param event Event of a successful mutating command.
+     */
+    public void record(HistoryEvent event) {
+        this.pending.add(event);
+    }
+
+    /**
+     * Drops the events recorded since the last commit, eg when a batch of commands is rolled back.
+     */
+    public void discard() {
+        this.pending.clear();
+    }
+
+    /**
+     * Writes the events recorded since the last commit to the journal, taking a snapshot of the
+     * TaskList if enough events were written since the previous one, or if tasks were imported.
+     *
+     * @param taskList TaskList after the recorded events.
+     * @throws EkudIOException If the journal cannot be written.
+     */
+    public void commit(TaskList taskList) throws EkudIOException {
+        if (this.pending.isEmpty()) {
+            return;
+        }
+        boolean hasImport = false;
+        try {
+            this.openWriters();
+            for (HistoryEvent event : this.pending) {
+                HistoryEvent stamped = event.at(this.now());
+                this.recordOut.writeByte(stamped.getType().getCode());
+                JournalCodec.writeVarLong(this.recordOut, stamped.getTime() - this.lastTime);
+                stamped.writePayload(this.recordOut);
+                this.lastTime = stamped.getTime();
+                this.writeRecord();
+                this.remember(stamped);
+                this.sequence++;
+                this.eventsSinceSnapshot++;
+                this.isSnapshotCurrent = false;
+                hasImport |= stamped.getType() == EventType.IMPORT;
+            }
+            this.journalOut.flush();
+        } catch (IOException e) {
+            throw new EkudIOException("Error with recording history: " + e);
+        } finally {
+            this.pending.clear();
+        }
+        if (hasImport) {
+            // Imported tasks are only journaled by this snapshot, which is stamped with the time of the last event
+            // so that rebuilding the tasks as of any time after the import starts from it
+            this.snapshot(taskList, this.lastTime);
+        } else if (this.eventsSinceSnapshot >= SNAPSHOT_INTERVAL) {
+            this.snapshot(taskList);
+        }
+    }
+
+    /**
+     * Writes a snapshot of the whole TaskList, so that later startups only replay events after it.
+     * If no event was written since the latest snapshot, that one is only stamped with the current time.
+     *
+     * @param taskList TaskList to snapshot.
+     * @throws EkudIOException If the journal cannot be written.
+     */
+    public void snapshot(TaskList taskList) throws EkudIOException {
+        if (this.isSnapshotCurrent && !this.snapshots.isEmpty()) {
+            this.restampSnapshot(this.now());
+            return;
+        }
+        this.snapshot(taskList, this.now());
+    }
+
+    /**
+     * Moves the time of the latest snapshot forward by overwriting it in the last index entry.
+     */
+    private void restampSnapshot(long time) throws EkudIOException {
+        try {
+            this.openWriters();
+            this.indexOut.flush();
+            try (RandomAccessFile index = new RandomAccessFile(this.indexFile, "rw")) {
+                index.seek(index.length() - INDEX_ENTRY_BYTES + Long.BYTES);
+                index.writeLong(time);
+            }
+            this.snapshots.get(this.snapshots.size() - 1)[1] = time;
+        } catch (IOException e) {
+            throw new EkudIOException("Error with taking history snapshot: " + e);
+        }
+    }
+
+    private void snapshot(TaskList taskList, long time) throws EkudIOException {
+        try {
+            this.openWriters();
+            long offset = this.position;
+            boolean isCompressed = this.compressionLevel != Compression.NONE;
+            EventType type = isCompressed ? EventType.COMPRESSED_SNAPSHOT : EventType.SNAPSHOT;
+            this.recordOut.writeByte(type.getCode() | NEXT_ID_FLAG);
+            this.recordOut.writeLong(time);
+            JournalCodec.writeVarLong(this.recordOut, this.sequence);
+            JournalCodec.writeVarLong(this.recordOut, taskList.getNextId());
+            if (isCompressed) {
+                this.writeCompressedTasks(taskList);
+            } else {
+                writeTasks(this.recordOut, taskList.getTasks());
+                writeTasks(this.recordOut, taskList.getCachedTasks());
+            }
+            this.writeRecord();
+            this.journalOut.flush();
+            this.indexOut.writeLong(this.sequence);
+            this.indexOut.writeLong(time);
+            this.indexOut.writeLong(offset);
+            this.indexOut.flush();
+            this.snapshots.add(new long[]{this.sequence, time, offset});
+            this.lastTime = time;
+            this.eventsSinceSnapshot = 0;
+            this.isSnapshotCurrent = true;
+        } catch (IOException e) {
+            throw new EkudIOException("Error with taking history snapshot: " + e);
+        }
+        if (this.snapshots.size() >= 2 * RETAINED_SNAPSHOTS) {
+            this.compact();
+        }
+    }
+
+    /**
+     * Drops the records before the last RETAINED_SNAPSHOTS snapshots. The kept records are copied to a new
+     * journal which then replaces the old one, and the index is rewritten after it, so a crash in between
+     * leaves a whole journal, with an index which readIndex() rebuilds as it no longer matches. Since half the
+     * snapshots are dropped each time, each record is copied a bounded number of times on average.
+     */
+    private void compact() throws EkudIOException {
+        this.closeWriters();
+        List<long[]> kept = new ArrayList<>();
+        long base = this.snapshots.get(this.snapshots.size() - RETAINED_SNAPSHOTS)[2];
+        for (long[] entry : this.snapshots.subList(this.snapshots.size() - RETAINED_SNAPSHOTS, this.snapshots.size())) {
+            kept.add(new long[]{entry[0], entry[1], entry[2] - base});
+        }
+        File compactedJournal = new File(this.journalFile.getPath() + ".tmp");
+        try {
+            try (FileChannel in = FileChannel.open(this.journalFile.toPath(), StandardOpenOption.READ);
+                    FileChannel out = FileChannel.open(compactedJournal.toPath(), StandardOpenOption.CREATE,
+                            StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                long length = this.position - base;
+                long copied = 0;
+                while (copied < length) {
+                    copied += in.transferTo(base + copied, length - copied, out);
+                }
+                out.force(false);
+            }
+            Files.move(compactedJournal.toPath(), this.journalFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // The journal is left as it was, only uncompacted
+            compactedJournal.delete();
+            throw new EkudIOException("Error with compacting history: " + e);
+        }
+        this.snapshots.clear();
+        this.snapshots.addAll(kept);
+        this.position -= base;
+        try {
+            writeIndex(this.indexFile, kept);
+        } catch (IOException e) {
+            throw new EkudIOException("Error with compacting history index: " + e);
+        }
+    }
+
+    /**
+     * Writes both task lists deflated, prefixed with their compressed length.
+     */
+    private void writeCompressedTasks(TaskList taskList) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        Deflater deflater = new Deflater(this.compressionLevel);
+        try {
+            DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(compressed, deflater, 1 << 16));
+            writeTasks(out, taskList.getTasks());
+            writeTasks(out, taskList.getCachedTasks());
+            out.close();
+        } finally {
+            deflater.end();
+        }
+        JournalCodec.writeVarLong(this.recordOut, compressed.size());
+        compressed.writeTo(this.recordOut);
+    }
+
+    private static void writeTasks(DataOutputStream out, List<Task> tasks) throws IOException {
+        JournalCodec.writeVarLong(out, tasks.size());
+        for (Task task : tasks) {
+            JournalCodec.writeTask(out, task);
+        }
+    }
+
+    /**
+     * Rebuilds the TaskList as it was at the given time, from the latest snapshot taken before it.
+     *
+     * @param dateTime Point in time, in the clock's time zone.
+     * @return TaskList as of that time, or null if the history does not reach back that far.
+     * @throws EkudIOException If the journal cannot be read.
+     */
+    public TaskList reconstruct(LocalDateTime dateTime) throws EkudIOException {
+        long time = dateTime.atZone(this.clock.getZone()).toInstant().toEpochMilli();
+        long[] start = null;
+        int low = 0;
+        int high = this.snapshots.size() - 1;
+        while (low <= high) { // Binary search for the last snapshot taken at or before the time
+            int mid = (low + high) >>> 1;
+            if (this.snapshots.get(mid)[1] <= time) {
+                start = this.snapshots.get(mid);
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        if (start == null) {
+            return null;
+        }
+        TaskList taskList = new TaskList();
+        try {
+            if (this.journalOut != null) {
+                this.journalOut.flush();
+            }
+            try (JournalReader reader = new JournalReader(this.journalFile, start[2])) {
+                while (reader.next() && reader.getTime() <= time) {
+                    if (reader.getEvent() == null) {
+                        reader.restoreSnapshot(taskList);
+                    } else {
+                        reader.getEvent().apply(taskList);
+                    }
+                }
+            }
+        } catch (IOException | IndexOutOfBoundsException e) {
+            throw new EkudIOException("Error with replaying history: " + e);
+        }
+        return taskList;
+    }
+
+    /**
+     * Returns the most recent events, newest last, in the form the user would type them.
+     *
+     * @param limit Maximum number of events to describe.
+     * @return String response for the user.
+     */
+    public String describeRecent(int limit) {
+        if (this.recent.isEmpty()) {
+            return "No changes have been recorded yet :o";
+        }
+        int numShown = Math.min(limit, this.recent.size());
+        StringBuilder output = new StringBuilder(String.format("Here are your last (%d) change(s):\n", numShown));
+        Iterator<HistoryEvent> events = this.recent.iterator();
+        for (int skipped = this.recent.size() - numShown; skipped > 0; skipped--) {
+            events.next();
+        }
+        while (events.hasNext()) {
+            HistoryEvent event = events.next();
+            LocalDateTime time = LocalDateTime.ofInstant(Instant.ofEpochMilli(event.getTime()), this.clock.getZone());
+            output.append(time.format(DateTimeParser.Layout.SAVED.getFormatter()))
+                    .append(" | ").append(event.describe()).append('\n');
+        }
+        return output.toString();
+    }
+
+    private void remember(HistoryEvent event) {
+        if (this.recent.size() == RECENT_LIMIT) {
+            this.recent.removeFirst();
+        }
+        this.recent.addLast(event);
+    }
+
+    /**
+     * Returns the current time, never earlier than the last record so time deltas stay non-negative.
+     */
+    private long now() {
+        return Math.max(this.clock.millis(), this.lastTime);
+    }
+
+    private void writeRecord() throws IOException {
+        this.recordOut.flush();
+        this.recordBuffer.writeTo(this.journalOut);
+        this.position += this.recordBuffer.size();
+        this.recordBuffer.reset();
+    }
+
+    private void openWriters() throws IOException {
+        if (this.journalOut != null) {
+            return;
+        }
+        File parent = this.journalFile.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.exists()) {
+            parent.mkdirs();
+        }
+        if (this.snapshots.isEmpty()) {
+            // A journal without snapshots cannot be replayed, so start it afresh
+            this.position = 0;
+            this.journalOut = new BufferedOutputStream(new FileOutputStream(this.journalFile, false));
+            this.indexOut = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(this.indexFile, false)));
+            return;
+        }
+        this.position = this.journalFile.length();
+        this.journalOut = new BufferedOutputStream(new FileOutputStream(this.journalFile, true));
+        this.indexOut = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(this.indexFile, true)));
+    }
+
+    private void closeWriters() throws EkudIOException {
+        try {
+            if (this.journalOut != null) {
+                this.journalOut.close();
+                this.indexOut.close();
+            }
+        } catch (IOException e) {
+            throw new EkudIOException("Error with closing history: " + e);
+        } finally {
+            this.journalOut = null;
+            this.indexOut = null;
+        }
+    }
+
+    /**
+     * Closes the journal files. They are opened again by the next write.
+     *
+     * @throws EkudIOException If buffered records cannot be written.
+     */
+    public void close() throws EkudIOException {
+        this.closeWriters();
+    }
+
+    /**
+     * Sequential reader of journal records starting at a snapshot, which treats a truncated or
+     * malformed record as the end of the journal.
+     */
+    static class JournalReader implements Closeable {
+        private final CountingInputStream counter;
+        private final DataInputStream in;
+        private long position;
+        private long time;
+        private HistoryEvent event;
+        private long snapshotSequence;
+        private List<Task> snapshotTasks;
+        private List<Task> snapshotCachedTasks;
+        // Next ID recorded by the snapshot just read, or 1 if it predates task IDs
+        private long snapshotNextId;
+
+        JournalReader(File journalFile, long offset) throws IOException {
+            FileInputStream file = new FileInputStream(journalFile);
+            file.getChannel().position(offset);
+            this.counter = new CountingInputStream(new BufferedInputStream(file, 1 << 16));
+            this.in = new DataInputStream(this.counter);
+            this.position = offset;
+        }
+
+        /**
+         * Reads the next record, returning false at the end of the journal or at a partially written last record.
+         *
+         * @throws IOException If a record has an unknown type.
+         */
+        boolean next() throws IOException {
+            long start = this.counter.count;
+            try {
+                int code = this.in.read();
+                if (code < 0) {
+                    return false;
+                }
+                boolean hasNextId = (code & NEXT_ID_FLAG) != 0;
+                EventType type = EventType.getEventType(code & ~NEXT_ID_FLAG);
+                if (type == null) {
+                    // Eg written by a newer version, so the records after it must not be cut off as a torn tail
+                    throw new IOException(String.format("Unknown record type %d at offset %d", code, this.position));
+                }
+                if (type == EventType.SNAPSHOT || type == EventType.COMPRESSED_SNAPSHOT) {
+                    this.time = this.in.readLong();
+                    this.snapshotSequence = JournalCodec.readVarLong(this.in);
+                    this.snapshotNextId = hasNextId ? JournalCodec.readVarLong(this.in) : 1;
+                }
+                if (type == EventType.SNAPSHOT) {
+                    this.snapshotTasks = readTasks(this.in);
+                    this.snapshotCachedTasks = readTasks(this.in);
+                    this.event = null;
+                } else if (type == EventType.COMPRESSED_SNAPSHOT) {
+                    byte[] compressed = new byte[JournalCodec.readVarInt(this.in)];
+                    this.in.readFully(compressed);
+                    try (DataInputStream tasksIn = new DataInputStream(new InflaterInputStream(
+                            new ByteArrayInputStream(compressed)))) {
+                        this.snapshotTasks = readTasks(tasksIn);
+                        this.snapshotCachedTasks = readTasks(tasksIn);
+                    }
+                    this.event = null;
+                } else {
+                    this.time += JournalCodec.readVarLong(this.in);
+                    this.event = HistoryEvent.readPayload(this.in, type, this.time);
+                }
+            } catch (EOFException e) {
+                this.counter.count = start; // A partially written record ends the journal
+                return false;
+            }
+            this.position += this.counter.count - start;
+            return true;
+        }
+
+        private static List<Task> readTasks(DataInputStream in) throws IOException {
+            int size = JournalCodec.readVarInt(in);
+            List<Task> tasks = new ArrayList<>(Math.min(size, 1 << 16));
+            for (int i = 0; i < size; i++) {
+                tasks.add(JournalCodec.readTask(in));
+            }
+            return tasks;
+        }
+
+        long getPosition() {
+            return this.position;
+        }
+
+        long getTime() {
+            return this.time;
+        }
+
+        /**
+         * Returns the event just read, or null if the record was a snapshot.
+         */
+        HistoryEvent getEvent() {
+            return this.event;
+        }
+
+        long getSnapshotSequence() {
+            return this.snapshotSequence;
+        }
+
+        void restoreSnapshot(TaskList taskList) {
+            taskList.restoreTasks(this.snapshotTasks, this.snapshotCachedTasks, this.snapshotNextId);
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.in.close();
+        }
+    }
+
+    /**
+     * Input stream which counts the bytes read through it.
+     */
+    private static class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                this.count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                this.count += n;
+            }
+            return n;
+        }
+    }
+}
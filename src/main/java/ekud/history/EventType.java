@@ -0,0 +1,50 @@
+package ekud.history;
+
+/**
+ * Represents the types of records in the history journal, each with a fixed one-byte code.
+ */
+public enum EventType {
+    ADD_TODO(1),
+    ADD_DEADLINE(2),
+    ADD_EVENT(3),
+    MARK(4),
+    UNMARK(5),
+    DELETE(6),
+    CLEAR(7),
+    UNDO_CLEAR(8),
+    CHANGE_PRIORITY(9),
+    SNAPSHOT(10),
+    IMPORT(11),
+    // Snapshot whose tasks are deflated, written when compression is enabled
+    COMPRESSED_SNAPSHOT(12),
+    // Removal of a done task moved to the archive
+    ARCHIVE(13),
+    TAG(14),
+    UNTAG(15);
+    private static final EventType[] BY_CODE = new EventType[16];
+    private final int code;
+
+    static {
+        for (EventType type : EventType.values()) {
+            BY_CODE[type.code] = type;
+        }
+    }
+
+    EventType(int code) {
+        this.code = code;
+    }
+
+    public int getCode() {
+        return this.code;
+    }
+
+    /**
+     * Returns the type with the given code, or null if there is none.
+     *
+     * @param code One-byte code read from the journal.
+     * @return EventType
+     */
+    public static EventType getEventType(int code) {
+        return code >= 0 && code < BY_CODE.length ? BY_CODE[code] : null;
+    }
+}
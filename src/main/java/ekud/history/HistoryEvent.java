@@ -0,0 +1,294 @@
+package ekud.history;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Locale;
+
+import ekud.parser.DateTimeParser;
+import ekud.tasks.Deadline;
+import ekud.tasks.Event;
+import ekud.tasks.Priority;
+import ekud.tasks.TaskList;
+import ekud.tasks.ToDo;
+
+/**
+ * Represents one successful mutating command, recorded in the history journal so that the
+ * TaskList can be rebuilt by replaying it. Events are immutable.
+ */
+public class HistoryEvent {
+    private final EventType type;
+    // Milliseconds since the epoch at which the command was executed, 0 until recorded
+    private final long time;
+    private final int index;
+    private final String description;
+    private final LocalDateTime fromDateTime;
+    private final LocalDateTime toDateTime;
+    private final Priority priority;
+
+    private HistoryEvent(EventType type, long time, int index, String description,
+                         LocalDateTime fromDateTime, LocalDateTime toDateTime, Priority priority) {
+        this.type = type;
+        this.time = time;
+        this.index = index;
+        this.description = description;
+        this.fromDateTime = fromDateTime;
+        this.toDateTime = toDateTime;
+        this.priority = priority;
+    }
+
+    public static HistoryEvent addToDo(String description) {
+        return new HistoryEvent(EventType.ADD_TODO, 0, -1, description, null, null, null);
+    }
+
+    public static HistoryEvent addDeadline(String description, LocalDateTime dateTime) {
+        return new HistoryEvent(EventType.ADD_DEADLINE, 0, -1, description, dateTime, null, null);
+    }
+
+    public static HistoryEvent addEvent(String description, LocalDateTime fromDateTime, LocalDateTime toDateTime) {
+        return new HistoryEvent(EventType.ADD_EVENT, 0, -1, description, fromDateTime, toDateTime, null);
+    }
+
+    public static HistoryEvent mark(int index) {
+        return new HistoryEvent(EventType.MARK, 0, index, null, null, null, null);
+    }
+
+    public static HistoryEvent unmark(int index) {
+        return new HistoryEvent(EventType.UNMARK, 0, index, null, null, null, null);
+    }
+
+    public static HistoryEvent delete(int index) {
+        return new HistoryEvent(EventType.DELETE, 0, index, null, null, null, null);
+    }
+
+    public static HistoryEvent archive(int index) {
+        return new HistoryEvent(EventType.ARCHIVE, 0, index, null, null, null, null);
+    }
+
+    public static HistoryEvent clear() {
+        return new HistoryEvent(EventType.CLEAR, 0, -1, null, null, null, null);
+    }
+
+    public static HistoryEvent undoClear() {
+        return new HistoryEvent(EventType.UNDO_CLEAR, 0, -1, null, null, null, null);
+    }
+
+    public static HistoryEvent changePriority(int index, Priority priority) {
+        return new HistoryEvent(EventType.CHANGE_PRIORITY, 0, index, null, null, null, priority);
+    }
+
+    /**
+     * Returns the event of tagging a task.
+     *
+     * @param index Index number of the task.
+     * @param tags Tags added, with their '#' and separated by spaces.
+     * @return HistoryEvent
+     */
+    public static HistoryEvent tag(int index, String tags) {
+        return new HistoryEvent(EventType.TAG, 0, index, tags, null, null, null);
+    }
+
+    public static HistoryEvent untag(int index, String tags) {
+        return new HistoryEvent(EventType.UNTAG, 0, index, tags, null, null, null);
+    }
+
+    /**
+     * Returns the event of an import, which only names the file as its tasks are too many to journal one by one.
+     * The journal takes a snapshot right after it instead, at the same time.
+     *
+     * @param fileName File the tasks were imported from.
+     * @param numTasks Number of tasks imported.
+     * @return HistoryEvent
+     */
+    public static HistoryEvent importTasks(String fileName, int numTasks) {
+        return new HistoryEvent(EventType.IMPORT, 0, numTasks, fileName, null, null, null);
+    }
+
+    public EventType getType() {
+        return this.type;
+    }
+
+    public long getTime() {
+        return this.time;
+    }
+
+    /**
+     * Returns a copy of this event stamped with the time it was recorded at.
+     *
+     * @param time Milliseconds since the epoch.
+     * @return HistoryEvent
+     */
+    HistoryEvent at(long time) {
+        return new HistoryEvent(this.type, time, this.index, this.description,
+                this.fromDateTime, this.toDateTime, this.priority);
+    }
+
+    /**
+     * Re-applies this event to a TaskList, without crafting a response.
+     *
+     * @param taskList TaskList in the state just before this event.
+     */
+    public void apply(TaskList taskList) {
+        switch (this.type) {
+        case ADD_TODO:
+            taskList.addTask(new ToDo(this.description, Priority.MEDIUM));
+            break;
+        case ADD_DEADLINE:
+            taskList.addTask(new Deadline(this.description, this.fromDateTime, Priority.MEDIUM));
+            break;
+        case ADD_EVENT:
+            taskList.addTask(new Event(this.description, this.fromDateTime, this.toDateTime, Priority.MEDIUM));
+            break;
+        case MARK:
+            taskList.setDone(this.index, true);
+            break;
+        case UNMARK:
+            taskList.setDone(this.index, false);
+            break;
+        case DELETE:
+        case ARCHIVE:
+            taskList.removeTask(this.index);
+            break;
+        case CLEAR:
+            taskList.clear();
+            break;
+        case UNDO_CLEAR:
+            taskList.undoClear();
+            break;
+        case CHANGE_PRIORITY:
+            taskList.setPriority(this.index, this.priority);
+            break;
+        case TAG:
+            taskList.addTags(this.index, Arrays.asList(this.description.split(" ")));
+            break;
+        case UNTAG:
+            taskList.removeTags(this.index, Arrays.asList(this.description.split(" ")));
+            break;
+        case IMPORT:
+            // The imported tasks are restored by the snapshot following this event
+            break;
+        default:
+            throw new IllegalStateException("Snapshots cannot be applied as events");
+        }
+    }
+
+    /**
+     * Writes the type-specific fields of this event.
+     */
+    void writePayload(DataOutput out) throws IOException {
+        switch (this.type) {
+        case ADD_EVENT:
+            JournalCodec.writeString(out, this.description);
+            JournalCodec.writeDateTime(out, this.fromDateTime);
+            JournalCodec.writeDateTime(out, this.toDateTime);
+            break;
+        case ADD_DEADLINE:
+            JournalCodec.writeString(out, this.description);
+            JournalCodec.writeDateTime(out, this.fromDateTime);
+            break;
+        case ADD_TODO:
+            JournalCodec.writeString(out, this.description);
+            break;
+        case IMPORT:
+            JournalCodec.writeString(out, this.description);
+            JournalCodec.writeVarLong(out, this.index);
+            break;
+        case CHANGE_PRIORITY:
+            JournalCodec.writeVarLong(out, this.index);
+            JournalCodec.writePriority(out, this.priority);
+            break;
+        case TAG:
+        case UNTAG:
+            JournalCodec.writeVarLong(out, this.index);
+            JournalCodec.writeString(out, this.description);
+            break;
+        case MARK:
+        case UNMARK:
+        case DELETE:
+        case ARCHIVE:
+            JournalCodec.writeVarLong(out, this.index);
+            break;
+        default:
+            break;
+        }
+    }
+
+    /**
+     * Reads the type-specific fields of an event whose type and time were already read.
+     */
+    static HistoryEvent readPayload(DataInput in, EventType type, long time) throws IOException {
+        switch (type) {
+        case ADD_TODO:
+            return new HistoryEvent(type, time, -1, JournalCodec.readString(in), null, null, null);
+        case ADD_DEADLINE:
+            return new HistoryEvent(type, time, -1, JournalCodec.readString(in),
+                    JournalCodec.readDateTime(in), null, null);
+        case ADD_EVENT:
+            return new HistoryEvent(type, time, -1, JournalCodec.readString(in),
+                    JournalCodec.readDateTime(in), JournalCodec.readDateTime(in), null);
+        case CHANGE_PRIORITY:
+            return new HistoryEvent(type, time, JournalCodec.readVarInt(in), null, null, null,
+                    JournalCodec.readPriority(in));
+        case MARK:
+        case UNMARK:
+        case DELETE:
+        case ARCHIVE:
+            return new HistoryEvent(type, time, JournalCodec.readVarInt(in), null, null, null, null);
+        case TAG:
+        case UNTAG:
+            int index = JournalCodec.readVarInt(in);
+            return new HistoryEvent(type, time, index, JournalCodec.readString(in), null, null, null);
+        case CLEAR:
+        case UNDO_CLEAR:
+            return new HistoryEvent(type, time, -1, null, null, null, null);
+        case IMPORT:
+            String fileName = JournalCodec.readString(in);
+            return new HistoryEvent(type, time, JournalCodec.readVarInt(in), fileName, null, null, null);
+        default:
+            throw new IOException("Unexpected record in history journal: " + type);
+        }
+    }
+
+    /**
+     * Returns the command this event was recorded from, in the form the user would type it.
+     *
+     * @return String
+     */
+    public String describe() {
+        switch (this.type) {
+        case ADD_TODO:
+            return "todo " + this.description;
+        case ADD_DEADLINE:
+            return String.format("deadline %s /by %s", this.description,
+                    this.fromDateTime.format(DateTimeParser.Layout.SAVED.getFormatter()));
+        case ADD_EVENT:
+            return String.format("event %s /from %s /to %s", this.description,
+                    this.fromDateTime.format(DateTimeParser.Layout.SAVED.getFormatter()),
+                    this.toDateTime.format(DateTimeParser.Layout.SAVED.getFormatter()));
+        case MARK:
+            return "mark " + (this.index + 1);
+        case UNMARK:
+            return "unmark " + (this.index + 1);
+        case DELETE:
+            return "delete " + (this.index + 1);
+        case ARCHIVE:
+            return "archive " + (this.index + 1);
+        case CLEAR:
+            return "clear";
+        case UNDO_CLEAR:
+            return "undoclear";
+        case CHANGE_PRIORITY:
+            return String.format("priority %d %s", this.index + 1, this.priority.name().toLowerCase(Locale.ENGLISH));
+        case TAG:
+            return String.format("tag %d %s", this.index + 1, this.description);
+        case UNTAG:
+            return String.format("untag %d %s", this.index + 1, this.description);
+        case IMPORT:
+            return "import " + this.description;
+        default:
+            return this.type.name();
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package ekud.history;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import ekud.tasks.Deadline;
+import ekud.tasks.Event;
+import ekud.tasks.Priority;
+import ekud.tasks.Task;
+import ekud.tasks.ToDo;
+
+/**
+ * Compact binary encoding of the values stored in the history journal: variable-length integers,
+ * length-prefixed UTF-8 strings, minute-precision dateTimes and whole tasks.
+ */
+class JournalCodec {
+    private static final Priority[] PRIORITIES = Priority.values();
+    private static final int TODO_KIND = 0;
+    private static final int DEADLINE_KIND = 1;
+    private static final int EVENT_KIND = 2;
+    // Set on the kind of tasks followed by their ID, which tasks journaled before IDs existed lack
+    private static final int ID_FLAG = 0x80;
+
+    private JournalCodec() {
+    }
+
+    /**
+     * Writes a non-negative number in 7-bit groups, so small numbers take a single byte.
+     */
+    static void writeVarLong(DataOutput out, long value) throws IOException {
+        assert value >= 0 : "Only non-negative numbers can be written as var longs";
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    static long readVarLong(DataInput in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed number in history journal");
+    }
+
+    static int readVarInt(DataInput in) throws IOException {
+        long value = readVarLong(in);
+        if (value > Integer.MAX_VALUE) {
+            throw new IOException("Number out of range in history journal");
+        }
+        return (int) value;
+    }
+
+    static void writeString(DataOutput out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(DataInput in) throws IOException {
+        byte[] bytes = new byte[readVarInt(in)];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes a dateTime as minutes since the epoch, which is the precision users can enter.
+     */
+    static void writeDateTime(DataOutput out, LocalDateTime dateTime) throws IOException {
+        out.writeLong(dateTime.toEpochSecond(ZoneOffset.UTC) / 60);
+    }
+
+    static LocalDateTime readDateTime(DataInput in) throws IOException {
+        return LocalDateTime.ofEpochSecond(in.readLong() * 60, 0, ZoneOffset.UTC);
+    }
+
+    static void writePriority(DataOutput out, Priority priority) throws IOException {
+        out.writeByte(priority.ordinal());
+    }
+
+    static Priority readPriority(DataInput in) throws IOException {
+        int ordinal = in.readUnsignedByte();
+        if (ordinal >= PRIORITIES.length) {
+            throw new IOException("Invalid priority in history journal");
+        }
+        return PRIORITIES[ordinal];
+    }
+
+    /**
+     * Writes a whole task, including its ID, done status and priority, as stored in snapshots.
+     */
+    static void writeTask(DataOutput out, Task task) throws IOException {
+        int kind;
+        if (task instanceof Deadline) {
+            kind = DEADLINE_KIND;
+        } else if (task instanceof Event) {
+            kind = EVENT_KIND;
+        } else {
+            kind = TODO_KIND;
+        }
+        if (task.getId() > 0) {
+            out.writeByte(kind | ID_FLAG);
+            writeVarLong(out, task.getId());
+        } else {
+            out.writeByte(kind);
+        }
+        out.writeBoolean(task.isDone());
+        writePriority(out, task.getPriorityLevel());
+        writeString(out, task.getDescriptionWithTags());
+        if (task instanceof Deadline) {
+            writeDateTime(out, ((Deadline) task).getDateTime());
+        } else if (task instanceof Event) {
+            writeDateTime(out, ((Event) task).getFromDateTime());
+            writeDateTime(out, ((Event) task).getToDateTime());
+        }
+    }
+
+    static Task readTask(DataInput in) throws IOException {
+        int kind = in.readUnsignedByte();
+        long id = (kind & ID_FLAG) != 0 ? readVarLong(in) : 0;
+        kind &= ~ID_FLAG;
+        boolean isDone = in.readBoolean();
+        Priority priority = readPriority(in);
+        String description = readString(in);
+        Task task;
+        switch (kind) {
+        case TODO_KIND:
+            task = new ToDo(description, priority);
+            break;
+        case DEADLINE_KIND:
+            task = new Deadline(description, readDateTime(in), priority);
+            break;
+        case EVENT_KIND:
+            task = new Event(description, readDateTime(in), readDateTime(in), priority);
+            break;
+        default:
+            throw new IOException("Invalid task kind in history journal");
+        }
+        if (isDone) {
+            task.markAsDone();
+        }
+        if (id > 0) {
+            task.setId(id);
+        }
+        return task;
+    }
+}
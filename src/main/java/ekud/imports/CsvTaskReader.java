@@ -0,0 +1,264 @@
+package ekud.imports;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import ekud.parser.DateTimeParser;
+import ekud.tasks.Deadline;
+import ekud.tasks.Event;
+import ekud.tasks.Priority;
+import ekud.tasks.Tags;
+import ekud.tasks.Task;
+import ekud.tasks.ToDo;
+
+/**
+ * Reads tasks from a CSV file (RFC 4180, ie fields may be quoted and hold commas, quotes or line breaks).
+ * The first record is a header naming the columns, in any order: {@code description} is required, while
+ * {@code type}, {@code by}, {@code from}, {@code to}, {@code priority} and {@code done} are optional.
+ * A task without a type is a deadline if it has a {@code by} date, an event if it has a {@code from} date,
+ * and a to-do otherwise. Dates may be in any layout accepted by commands, or in ISO 8601.
+ * Only the current record is held in memory.
+ */
+public class CsvTaskReader extends TaskFileReader {
+    // Longest field accepted, so an unterminated quote cannot make a record swallow the rest of the file
+    private static final int MAX_FIELD_CHARS = 1 << 16;
+    private static final int BUFFER_CHARS = 1 << 13;
+
+    private final Reader in;
+    private final DateTimeParser dateTimeParser;
+    private final char[] buffer;
+    private int bufferPos;
+    private int bufferLen;
+    private long lineNum;
+    // Fields of the current record, reused across records
+    private final List<String> fields;
+    private final StringBuilder field;
+    // Position of each known column within a record, or -1 if the header does not name it
+    private final int typeColumn;
+    private final int descriptionColumn;
+    private final int byColumn;
+    private final int fromColumn;
+    private final int toColumn;
+    private final int priorityColumn;
+    private final int doneColumn;
+
+    /**
+     * Constructs a CsvTaskReader and reads the header of the file.
+     *
+     * @param in Reader of the file, closed with this reader.
+     * @param dateTimeParser Engine used to parse dates and times.
+     * @throws IOException If the header cannot be read or does not name a description column.
+     */
+    public CsvTaskReader(Reader in, DateTimeParser dateTimeParser) throws IOException {
+        this.in = in;
+        this.dateTimeParser = dateTimeParser;
+        this.buffer = new char[BUFFER_CHARS];
+        this.lineNum = 1;
+        this.fields = new ArrayList<>();
+        this.field = new StringBuilder();
+        List<String> header = this.readRecord() ? this.fields : List.of();
+        List<String> columns = new ArrayList<>();
+        for (String name : header) {
+            columns.add(name.replace("\uFEFF", "").strip().toLowerCase(Locale.ENGLISH));
+        }
+        this.descriptionColumn = columns.indexOf("description");
+        if (this.descriptionColumn < 0) {
+            throw new IOException("the CSV header should name a 'description' column");
+        }
+        this.typeColumn = columns.indexOf("type");
+        this.byColumn = columns.indexOf("by");
+        this.fromColumn = columns.indexOf("from");
+        this.toColumn = columns.indexOf("to");
+        this.priorityColumn = columns.indexOf("priority");
+        this.doneColumn = columns.indexOf("done");
+    }
+
+    @Override
+    public Task readTask() throws IOException {
+        while (true) {
+            long recordLineNum = this.lineNum;
+            if (!this.readRecord()) {
+                return null;
+            }
+            if (this.fields.size() == 1 && this.fields.get(0).isBlank()) {
+                continue; // Blank line
+            }
+            Task task = this.toTask(recordLineNum);
+            if (task != null) {
+                return task;
+            }
+        }
+    }
+
+    /**
+     * Turns the current record into a task.
+     *
+     * @return Task, or null if the record is skipped.
+     */
+    private Task toTask(long recordLineNum) {
+        String description = normaliseDescription(this.getField(this.descriptionColumn));
+        if (Tags.isBlank(description)) {
+            this.skip(recordLineNum, "description is empty");
+            return null;
+        }
+        String priorityText = this.getField(this.priorityColumn).strip().toLowerCase(Locale.ENGLISH);
+        Priority priority = priorityText.isEmpty() ? Priority.MEDIUM : Priority.getPriority(priorityText);
+        if (priority == null) {
+            this.skip(recordLineNum, String.format("unknown priority '%s'", priorityText));
+            return null;
+        }
+        String by = this.getField(this.byColumn);
+        String from = this.getField(this.fromColumn);
+        String type = this.getField(this.typeColumn).strip().toLowerCase(Locale.ENGLISH);
+        if (type.isEmpty()) {
+            type = !by.isBlank() ? "deadline" : !from.isBlank() ? "event" : "todo";
+        }
+        Task task;
+        switch (type) {
+        case "t":
+        case "todo":
+            task = new ToDo(description, priority);
+            break;
+        case "d":
+        case "deadline":
+            LocalDateTime dateTime = this.parseDateTime(by);
+            if (dateTime == null) {
+                this.skip(recordLineNum, String.format("invalid 'by' date '%s'", by));
+                return null;
+            }
+            task = new Deadline(description, dateTime, priority);
+            break;
+        case "e":
+        case "event":
+            String to = this.getField(this.toColumn);
+            LocalDateTime fromDateTime = this.parseDateTime(from);
+            LocalDateTime toDateTime = this.parseDateTime(to);
+            if (fromDateTime == null || toDateTime == null) {
+                this.skip(recordLineNum, String.format("invalid 'from'/'to' dates '%s'/'%s'", from, to));
+                return null;
+            }
+            if (!fromDateTime.isBefore(toDateTime)) {
+                this.skip(recordLineNum, "event ends before it starts");
+                return null;
+            }
+            task = new Event(description, fromDateTime, toDateTime, priority);
+            break;
+        default:
+            this.skip(recordLineNum, String.format("unknown type '%s'", type));
+            return null;
+        }
+        switch (this.getField(this.doneColumn).strip().toLowerCase(Locale.ENGLISH)) {
+        case "x":
+        case "1":
+        case "yes":
+        case "true":
+        case "done":
+            task.markAsDone();
+            break;
+        default:
+            break;
+        }
+        return task;
+    }
+
+    private String getField(int column) {
+        return column >= 0 && column < this.fields.size() ? this.fields.get(column) : "";
+    }
+
+    /**
+     * Parses a date and time in any layout accepted by commands, also accepting ISO 8601 dates such as
+     * 2024-06-03 or 2024-06-03T18:30.
+     */
+    private LocalDateTime parseDateTime(String text) {
+        String trimmed = text.strip();
+        if (trimmed.length() == 10 && trimmed.charAt(4) == '-') {
+            trimmed += " 00:00";
+        } else if (trimmed.length() >= 16 && trimmed.charAt(4) == '-' && trimmed.charAt(10) == 'T') {
+            trimmed = trimmed.substring(0, 10) + ' ' + trimmed.substring(11, 16);
+        }
+        return trimmed.isEmpty() ? null : this.dateTimeParser.parse(trimmed);
+    }
+
+    /**
+     * Reads the fields of the next record into fields.
+     *
+     * @return Whether there was a record left to read.
+     */
+    private boolean readRecord() throws IOException {
+        this.fields.clear();
+        this.field.setLength(0);
+        int c = this.read();
+        if (c == -1) {
+            return false;
+        }
+        long startLineNum = this.lineNum;
+        boolean isQuoted = false;
+        while (true) {
+            if (isQuoted) {
+                if (c == -1) {
+                    throw new IOException(String.format("quoted field at line %d is never closed", startLineNum));
+                }
+                if (c == '"') {
+                    c = this.read();
+                    if (c != '"') {
+                        isQuoted = false;
+                        continue; // The character after the closing quote is handled as unquoted
+                    }
+                } else if (c == '\n') {
+                    this.lineNum++;
+                }
+                this.append((char) c, startLineNum);
+            } else if (c == ',') {
+                this.endField();
+            } else if (c == '\n' || c == -1) {
+                if (c == '\n') {
+                    this.lineNum++;
+                }
+                this.endField();
+                return true;
+            } else if (c == '"' && this.field.length() == 0) {
+                isQuoted = true;
+            } else if (c != '\r') {
+                this.append((char) c, startLineNum);
+            }
+            c = this.read();
+        }
+    }
+
+    private void append(char c, long startLineNum) throws IOException {
+        if (this.field.length() == MAX_FIELD_CHARS) {
+            throw new IOException(String.format("record at line %d has a field that is too long", startLineNum));
+        }
+        this.field.append(c);
+    }
+
+    private void endField() {
+        this.fields.add(this.field.toString());
+        this.field.setLength(0);
+    }
+
+    /**
+     * Returns the next character of the file, or -1 at its end. Reads through a buffer of its own, as
+     * Reader.read() of a single character is synchronized.
+     */
+    private int read() throws IOException {
+        if (this.bufferPos == this.bufferLen) {
+            this.bufferLen = this.in.read(this.buffer);
+            this.bufferPos = 0;
+            if (this.bufferLen <= 0) {
+                this.bufferLen = 0;
+                return -1;
+            }
+        }
+        return this.buffer[this.bufferPos++];
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.in.close();
+    }
+}
@@ -0,0 +1,431 @@
+package ekud.imports;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import ekud.tasks.Deadline;
+import ekud.tasks.Event;
+import ekud.tasks.Priority;
+import ekud.tasks.Tags;
+import ekud.tasks.Task;
+import ekud.tasks.ToDo;
+
+/**
+ * Reads tasks from an iCalendar file (RFC 5545): every VTODO becomes a deadline if it is due, or a to-do
+ * otherwise, and every VEVENT becomes an event. Other components, such as time zones and alarms, are ignored.
+ * Times in UTC or in a named time zone are converted to the local time zone.
+ * Only the properties of the current component are held in memory, and every line and the number of
+ * categories of an item are limited, so that a malformed or hostile file cannot fill the heap.
+ */
+public class IcsTaskReader extends TaskFileReader {
+    // Longest line accepted, physical or unfolded, so a malformed file cannot make a line swallow the rest of it
+    private static final int MAX_LINE_CHARS = 1 << 16;
+    // Most categories turned into tags per item, beyond which they are dropped
+    private static final int MAX_CATEGORIES = 64;
+
+    private final Reader in;
+    private final char[] buffer = new char[1 << 13];
+    private int bufferPos;
+    private int bufferLimit;
+    private final StringBuilder physicalLine = new StringBuilder();
+    private final ZoneId zone;
+    // Line read ahead to check whether it continues the current line, or null at the end of the file
+    private String nextLine;
+    private long lineNum;
+    private long nextLineNum;
+
+    /**
+     * Constructs an IcsTaskReader.
+     *
+     * @param in Reader of the file, closed with this reader.
+     * @param zone Time zone the times of the tasks are in.
+     * @throws IOException If the file cannot be read.
+     */
+    public IcsTaskReader(Reader in, ZoneId zone) throws IOException {
+        this.in = in;
+        this.zone = zone;
+        this.nextLineNum = 1;
+        this.nextLine = this.readPhysicalLine();
+    }
+
+    @Override
+    public Task readTask() throws IOException {
+        String line;
+        while ((line = this.readUnfoldedLine()) != null) {
+            if (line.equalsIgnoreCase("BEGIN:VTODO") || line.equalsIgnoreCase("BEGIN:VEVENT")) {
+                Task task = this.readComponent(line.substring("BEGIN:".length()).toUpperCase(Locale.ENGLISH));
+                if (task != null) {
+                    return task;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Reads the properties of a VTODO or VEVENT up to its end, and turns them into a task.
+     *
+     * @return Task, or null if the component is skipped.
+     */
+    private Task readComponent(String name) throws IOException {
+        long startLineNum = this.lineNum;
+        Component component = new Component();
+        int depth = 0; // Depth of nested components, eg alarms, whose properties are ignored
+        String line;
+        while ((line = this.readUnfoldedLine()) != null) {
+            Property property = Property.parse(line);
+            if (property == null) {
+                continue;
+            }
+            if (property.name.equals("BEGIN")) {
+                depth++;
+            } else if (property.name.equals("END")) {
+                if (depth == 0) {
+                    return this.toTask(name, component, startLineNum);
+                }
+                depth--;
+            } else if (depth == 0) {
+                component.set(property);
+            }
+        }
+        throw new IOException(String.format("%s at line %d is never ended", name, startLineNum));
+    }
+
+    private Task toTask(String name, Component component, long startLineNum) {
+        String description = component.summary == null ? "" : normaliseDescription(unescape(component.summary.value));
+        if (Tags.isBlank(description)) {
+            this.skip(startLineNum, "SUMMARY is empty");
+            return null;
+        }
+        description = addCategoryTags(description, component.categories);
+        Priority priority = component.priority == null ? Priority.MEDIUM : toPriority(component.priority.value);
+        Task task;
+        if (name.equals("VTODO")) {
+            if (component.due == null) {
+                task = new ToDo(description, priority);
+            } else {
+                LocalDateTime dateTime = this.toDateTime(component.due);
+                if (dateTime == null) {
+                    this.skip(startLineNum, String.format("invalid DUE '%s'", component.due.value));
+                    return null;
+                }
+                task = new Deadline(description, dateTime, priority);
+            }
+        } else {
+            LocalDateTime fromDateTime = component.start == null ? null : this.toDateTime(component.start);
+            if (fromDateTime == null) {
+                this.skip(startLineNum, "DTSTART is missing or invalid");
+                return null;
+            }
+            LocalDateTime toDateTime = this.getEnd(component, fromDateTime);
+            if (toDateTime == null || !fromDateTime.isBefore(toDateTime)) {
+                this.skip(startLineNum, "event has no valid end");
+                return null;
+            }
+            task = new Event(description, fromDateTime, toDateTime, priority);
+        }
+        if (component.isCompleted) {
+            task.markAsDone();
+        }
+        return task;
+    }
+
+    /**
+     * Returns when an event ends, from its DTEND or DURATION, or a day after it starts if it is an all-day event.
+     */
+    private LocalDateTime getEnd(Component component, LocalDateTime fromDateTime) {
+        if (component.end != null) {
+            return this.toDateTime(component.end);
+        }
+        if (component.duration != null) {
+            Duration duration = parseDuration(component.duration.value);
+            return duration == null ? null : fromDateTime.plus(duration);
+        }
+        return component.start.isDate() ? fromDateTime.plusDays(1) : null;
+    }
+
+    /**
+     * Parses a DATE (eg 20240603) or DATE-TIME (eg 20240603T183000, optionally ending in Z for UTC) value.
+     *
+     * @return Local date and time, or null if the value is invalid.
+     */
+    private LocalDateTime toDateTime(Property property) {
+        String value = property.value.strip();
+        try {
+            LocalDate date = LocalDate.parse(value.substring(0, 8), DateTimeFormatter.BASIC_ISO_DATE);
+            if (value.length() == 8) {
+                return date.atStartOfDay();
+            }
+            if (value.length() < 15 || value.charAt(8) != 'T') {
+                return null;
+            }
+            LocalTime time = LocalTime.of(Integer.parseInt(value.substring(9, 11)),
+                    Integer.parseInt(value.substring(11, 13)), Integer.parseInt(value.substring(13, 15)));
+            LocalDateTime dateTime = LocalDateTime.of(date, time);
+            ZoneId zone = value.endsWith("Z") ? ZoneOffset.UTC
+                    : property.timeZone != null ? ZoneId.of(property.timeZone) : this.zone;
+            return dateTime.atZone(zone).withZoneSameInstant(this.zone).toLocalDateTime();
+        } catch (DateTimeException | IndexOutOfBoundsException | NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Parses a DURATION value such as PT1H30M, P2D or P1W.
+     *
+     * @return Duration, or null if it is invalid or negative.
+     */
+    private static Duration parseDuration(String value) {
+        try {
+            String trimmed = value.strip().toUpperCase(Locale.ENGLISH);
+            if (trimmed.startsWith("P") && trimmed.endsWith("W")) {
+                return Duration.ofDays(7 * Long.parseLong(trimmed.substring(1, trimmed.length() - 1)));
+            }
+            Duration duration = Duration.parse(trimmed);
+            return duration.isNegative() ? null : duration;
+        } catch (DateTimeParseException | NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Maps an iCalendar priority, from 1 (highest) to 9 (lowest) or 0 (undefined), to a task priority.
+     */
+    private static Priority toPriority(String value) {
+        try {
+            int level = Integer.parseInt(value.strip());
+            return level >= 1 && level <= 4 ? Priority.HIGH : level >= 6 && level <= 9 ? Priority.LOW : Priority.MEDIUM;
+        } catch (NumberFormatException e) {
+            return Priority.MEDIUM;
+        }
+    }
+
+    /**
+     * Undoes the escaping of a TEXT value, eg \, for a comma and \n for a line break.
+     */
+    private static String unescape(String text) {
+        if (text.indexOf('\\') < 0) {
+            return text;
+        }
+        StringBuilder sb = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\\' && i + 1 < text.length()) {
+                char escaped = text.charAt(++i);
+                sb.append(escaped == 'n' || escaped == 'N' ? '\n' : escaped);
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Returns the next line together with the lines folded after it, ie those starting with a space or tab.
+     *
+     * @return Line, or null at the end of the file.
+     */
+    private String readUnfoldedLine() throws IOException {
+        String line = this.nextLine;
+        if (line == null) {
+            return null;
+        }
+        this.lineNum = this.nextLineNum;
+        StringBuilder unfolded = null;
+        while (true) {
+            this.nextLineNum++;
+            this.nextLine = this.readPhysicalLine();
+            if (this.nextLine == null || this.nextLine.isEmpty()
+                    || (this.nextLine.charAt(0) != ' ' && this.nextLine.charAt(0) != '\t')) {
+                break;
+            }
+            if (unfolded == null) {
+                unfolded = new StringBuilder(line);
+            }
+            if (unfolded.length() + this.nextLine.length() > MAX_LINE_CHARS) {
+                throw new IOException(String.format("line %d is too long", this.lineNum));
+            }
+            unfolded.append(this.nextLine, 1, this.nextLine.length());
+        }
+        return unfolded == null ? line : unfolded.toString();
+    }
+
+    /**
+     * Returns the next physical line without its line break, or null at the end of the file. Reads through
+     * a buffer of its own, as Reader.read() of a single character is synchronized.
+     *
+     * @throws IOException If the file cannot be read or the line is longer than MAX_LINE_CHARS.
+     */
+    private String readPhysicalLine() throws IOException {
+        StringBuilder line = this.physicalLine;
+        line.setLength(0);
+        boolean isAtEnd = true;
+        while (true) {
+            if (this.bufferPos == this.bufferLimit) {
+                this.bufferLimit = Math.max(this.in.read(this.buffer, 0, this.buffer.length), 0);
+                this.bufferPos = 0;
+                if (this.bufferLimit == 0) {
+                    break;
+                }
+            }
+            isAtEnd = false;
+            char c = this.buffer[this.bufferPos++];
+            if (c == '\n') {
+                break;
+            }
+            if (line.length() == MAX_LINE_CHARS) {
+                throw new IOException(String.format("line %d is too long", this.nextLineNum));
+            }
+            line.append(c);
+        }
+        if (isAtEnd) {
+            return null;
+        }
+        int len = line.length();
+        return len > 0 && line.charAt(len - 1) == '\r' ? line.substring(0, len - 1) : line.toString();
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.in.close();
+    }
+
+    /**
+     * A content line, eg {@code DTSTART;TZID=Europe/Paris:20240603T183000}.
+     */
+    private static class Property {
+        private final String name;
+        private final String value;
+        // Value of the TZID parameter, or null if there is none
+        private final String timeZone;
+        private final boolean isDateValue;
+
+        Property(String name, String value, String timeZone, boolean isDateValue) {
+            this.name = name;
+            this.value = value;
+            this.timeZone = timeZone;
+            this.isDateValue = isDateValue;
+        }
+
+        /**
+         * Splits a content line into its name, parameters and value.
+         *
+         * @return Property, or null if the line is not a content line.
+         */
+        static Property parse(String line) {
+            int valueStart = -1;
+            boolean isQuoted = false;
+            for (int i = 0; i < line.length() && valueStart < 0; i++) {
+                char c = line.charAt(i);
+                if (c == '"') {
+                    isQuoted = !isQuoted;
+                } else if (c == ':' && !isQuoted) {
+                    valueStart = i + 1;
+                }
+            }
+            if (valueStart <= 0) {
+                return null;
+            }
+            String[] nameAndParams = line.substring(0, valueStart - 1).split(";");
+            String timeZone = null;
+            boolean isDateValue = false;
+            for (int i = 1; i < nameAndParams.length; i++) {
+                String param = nameAndParams[i];
+                if (param.regionMatches(true, 0, "TZID=", 0, 5)) {
+                    timeZone = param.substring(5).replace("\"", "");
+                } else if (param.equalsIgnoreCase("VALUE=DATE")) {
+                    isDateValue = true;
+                }
+            }
+            return new Property(nameAndParams[0].strip().toUpperCase(Locale.ENGLISH), line.substring(valueStart),
+                    timeZone, isDateValue);
+        }
+
+        boolean isDate() {
+            return this.isDateValue || this.value.strip().length() == 8;
+        }
+    }
+
+    /**
+     * Appends the CATEGORIES of an item to its description as #tags, replacing spaces with '-'.
+     * Categories which do not make valid tags, eg starting with a digit, and those beyond MAX_CATEGORIES are dropped.
+     */
+    private static String addCategoryTags(String description, List<String> categories) {
+        StringBuilder text = new StringBuilder(description);
+        int numTags = 0;
+        for (String value : categories) {
+            for (String category : value.split("(?<!\\\\),")) {
+                String tag = "#" + normaliseDescription(unescape(category)).replace(' ', '-');
+                if (Tags.isTag(tag)) {
+                    text.append(' ').append(tag);
+                    if (++numTags == MAX_CATEGORIES) {
+                        return text.toString();
+                    }
+                }
+            }
+        }
+        return text.toString();
+    }
+
+    /**
+     * The properties of a VTODO or VEVENT which are turned into a task.
+     */
+    private static class Component {
+        private final List<String> categories = new ArrayList<>();
+        private Property summary;
+        private Property start;
+        private Property end;
+        private Property due;
+        private Property duration;
+        private Property priority;
+        private boolean isCompleted;
+
+        void set(Property property) {
+            switch (property.name) {
+            case "SUMMARY":
+                this.summary = property;
+                break;
+            case "DTSTART":
+                this.start = property;
+                break;
+            case "DTEND":
+                this.end = property;
+                break;
+            case "DUE":
+                this.due = property;
+                break;
+            case "DURATION":
+                this.duration = property;
+                break;
+            case "PRIORITY":
+                this.priority = property;
+                break;
+            case "STATUS":
+                this.isCompleted |= property.value.strip().equalsIgnoreCase("COMPLETED");
+                break;
+            case "COMPLETED":
+                this.isCompleted = true;
+                break;
+            case "CATEGORIES":
+                if (this.categories.size() < MAX_CATEGORIES) {
+                    this.categories.add(property.value);
+                }
+                break;
+            default:
+                break;
+            }
+        }
+    }
+}
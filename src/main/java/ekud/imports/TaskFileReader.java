@@ -0,0 +1,73 @@
+package ekud.imports;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+import ekud.tasks.Task;
+
+/**
+ * Reads the tasks of a file one at a time, so that files of any size can be imported in bounded memory.
+ * Records which cannot be turned into a task are skipped and counted, keeping the first reason given.
+ */
+public abstract class TaskFileReader implements Closeable {
+    private int numSkipped;
+    private String firstSkipReason;
+
+    /**
+     * Returns the next task of the file.
+     *
+     * @return Task, or null at the end of the file.
+     * @throws IOException If the file cannot be read or is malformed beyond recovery.
+     */
+    public abstract Task readTask() throws IOException;
+
+    public int getNumSkipped() {
+        return this.numSkipped;
+    }
+
+    /**
+     * Returns why the first record was skipped, or null if none was.
+     *
+     * @return String
+     */
+    public String getFirstSkipReason() {
+        return this.firstSkipReason;
+    }
+
+    /**
+     * Counts a record which cannot be imported.
+     *
+     * @param lineNum Line number at which the record starts.
+     * @param reason Why the record is skipped.
+     */
+    protected void skip(long lineNum, String reason) {
+        if (this.numSkipped == 0) {
+            this.firstSkipReason = String.format("line %d: %s", lineNum, reason);
+        }
+        this.numSkipped++;
+    }
+
+    /**
+     * Returns a description fit for the saved tasks file, which holds one task per line.
+     *
+     * @param text Description read from the file.
+     * @return Description with every run of whitespace, including line breaks, replaced by a single space.
+     */
+    protected static String normaliseDescription(String text) {
+        StringBuilder sb = new StringBuilder(text.length());
+        boolean isSpace = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                isSpace = sb.length() > 0;
+            } else {
+                if (isSpace) {
+                    sb.append(' ');
+                    isSpace = false;
+                }
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+}
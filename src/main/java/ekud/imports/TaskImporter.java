@@ -0,0 +1,188 @@
+package ekud.imports;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.IntConsumer;
+
+import ekud.exceptions.EkudIOException;
+import ekud.exceptions.EkudIllegalArgException;
+import ekud.parser.DateTimeParser;
+import ekud.tasks.Task;
+import ekud.tasks.TaskList;
+
+/**
+ * Imports the tasks of a CSV or iCalendar file into a TaskList. A background thread parses the file into
+ * batches of tasks while the calling thread adds each batch to the TaskList in one go, so its listeners
+ * are notified once per batch rather than once per task. At most a few batches wait between the two, so
+ * the parser is held back whenever it gets ahead, and a file of any size is imported in bounded memory.
+ */
+public class TaskImporter {
+    public static final int BATCH_SIZE = 1000;
+    // Batches parsed but not yet added, bounding the memory used by an import
+    private static final int QUEUE_CAPACITY = 4;
+    private static final long PROGRESS_INTERVAL_NANOS = 250_000_000L;
+    // Marks the end of the batches, compared by identity
+    private static final List<Task> END = new ArrayList<>();
+
+    private final TaskFileReader reader;
+    private final BlockingQueue<List<Task>> batches;
+    // Error which stopped the parser, read once END has been taken
+    private IOException readError;
+    private int numImported;
+
+    /**
+     * Constructs a TaskImporter reading tasks from the given reader.
+     *
+     * @param reader Reader of the tasks to import, closed once they are read.
+     */
+    public TaskImporter(TaskFileReader reader) {
+        this.reader = reader;
+        this.batches = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    }
+
+    /**
+     * Opens a file for importing, choosing how to read it from its extension: .csv or .ics.
+     *
+     * @param file File to import.
+     * @param dateTimeParser Engine used to parse dates and times in CSV files.
+     * @return TaskImporter
+     * @throws EkudIllegalArgException If the file does not exist or has an unsupported extension.
+     * @throws EkudIOException If the file cannot be opened or its CSV header is invalid.
+     */
+    public static TaskImporter open(File file, DateTimeParser dateTimeParser)
+            throws EkudIllegalArgException, EkudIOException {
+        String name = file.getName().toLowerCase(Locale.ENGLISH);
+        boolean isCsv = name.endsWith(".csv");
+        if (!isCsv && !name.endsWith(".ics")) {
+            throw new EkudIllegalArgException("Only .csv and .ics files can be imported :/");
+        }
+        if (!file.isFile()) {
+            throw new EkudIllegalArgException(String.format("File '%s' not found :(", file.getPath()));
+        }
+        Reader in = null;
+        try {
+            in = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8);
+            TaskFileReader reader = isCsv
+                    ? new CsvTaskReader(in, dateTimeParser)
+                    : new IcsTaskReader(in, dateTimeParser.getClock().getZone());
+            return new TaskImporter(reader);
+        } catch (IOException e) {
+            closeQuietly(in);
+            throw new EkudIOException("Error with importing tasks: " + e.getMessage());
+        }
+    }
+
+    private static void closeQuietly(Reader in) {
+        if (in != null) {
+            try {
+                in.close();
+            } catch (IOException e) {
+                // Already failing
+            }
+        }
+    }
+
+    /**
+     * Adds every task of the file to the end of a TaskList, batch by batch. If the file turns out to be
+     * unreadable part way, the tasks before the error are kept, and the error is returned by getReadError().
+     *
+     * @param taskList TaskList to add the tasks to.
+     * @param progress Called with the number of tasks imported so far, at most every quarter of a second.
+     * @throws EkudIOException If the import is interrupted.
+     */
+    public void importInto(TaskList taskList, IntConsumer progress) throws EkudIOException {
+        Thread parser = new Thread(this::parseBatches, "ekud-import");
+        parser.setDaemon(true);
+        parser.start();
+        long lastProgressTime = System.nanoTime();
+        try {
+            List<Task> batch;
+            while ((batch = this.batches.take()) != END) {
+                taskList.addTasks(batch);
+                this.numImported += batch.size();
+                long now = System.nanoTime();
+                if (now - lastProgressTime >= PROGRESS_INTERVAL_NANOS) {
+                    progress.accept(this.numImported);
+                    lastProgressTime = now;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new EkudIOException(String.format(
+                    "Importing tasks was interrupted after %d task(s) were imported", this.numImported));
+        } finally {
+            // Stops the parser if the import ended early, ie if it is blocked on a full queue
+            parser.interrupt();
+        }
+    }
+
+    /**
+     * Parses the file into batches and queues them, waiting whenever the queue is full. Runs on the parser thread.
+     */
+    private void parseBatches() {
+        try (TaskFileReader reader = this.reader) {
+            List<Task> batch = new ArrayList<>(BATCH_SIZE);
+            Task task;
+            while ((task = reader.readTask()) != null) {
+                batch.add(task);
+                if (batch.size() == BATCH_SIZE) {
+                    this.batches.put(batch);
+                    batch = new ArrayList<>(BATCH_SIZE);
+                }
+            }
+            if (!batch.isEmpty()) {
+                this.batches.put(batch);
+            }
+        } catch (IOException e) {
+            this.readError = e;
+        } catch (InterruptedException e) {
+            return; // The import was abandoned
+        }
+        try {
+            this.batches.put(END);
+        } catch (InterruptedException e) {
+            // The import was abandoned
+        }
+    }
+
+    public int getNumImported() {
+        return this.numImported;
+    }
+
+    /**
+     * Returns the number of records skipped as they could not be turned into tasks. Valid after importInto().
+     *
+     * @return int
+     */
+    public int getNumSkipped() {
+        return this.reader.getNumSkipped();
+    }
+
+    /**
+     * Returns why the first record was skipped, or null if none was. Valid after importInto().
+     *
+     * @return String
+     */
+    public String getFirstSkipReason() {
+        return this.reader.getFirstSkipReason();
+    }
+
+    /**
+     * Returns the error which stopped the import before the end of the file, or null if the whole file was read.
+     * Valid after importInto().
+     *
+     * @return IOException
+     */
+    public IOException getReadError() {
+        return this.readError;
+    }
+}
@@ -0,0 +1,50 @@
+package ekud.metrics;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * The AllocationMeter reads how many bytes the current thread has allocated on the heap so far, through
+ * HotSpot's com.sun.management.ThreadMXBean, so that the garbage produced by a command can be measured
+ * by reading it before and after the command.
+ */
+public class AllocationMeter {
+    private static final com.sun.management.ThreadMXBean THREADS = findThreadMXBean();
+
+    private static com.sun.management.ThreadMXBean findThreadMXBean() {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!(threads instanceof com.sun.management.ThreadMXBean)) {
+            return null;
+        }
+        com.sun.management.ThreadMXBean hotSpotThreads = (com.sun.management.ThreadMXBean) threads;
+        try {
+            if (!hotSpotThreads.isThreadAllocatedMemorySupported()) {
+                return null;
+            }
+            hotSpotThreads.setThreadAllocatedMemoryEnabled(true);
+            return hotSpotThreads;
+        } catch (UnsupportedOperationException | SecurityException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns whether allocations can be measured on this JVM.
+     *
+     * @return boolean
+     */
+    public static boolean isSupported() {
+        return THREADS != null;
+    }
+
+    /**
+     * Returns the total number of bytes allocated by the current thread so far.
+     *
+     * @return Allocated bytes, or -1 if they cannot be measured, eg on a virtual thread.
+     */
+    public static long getCurrentThreadAllocatedBytes() {
+        if (THREADS == null) {
+            return -1;
+        }
+        return THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
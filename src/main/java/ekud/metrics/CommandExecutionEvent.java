@@ -0,0 +1,52 @@
+package ekud.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event spanning the execution of one chatbot command.
+ * Like all JFR events it is only committed while a recording enables it, eg with the bundled ekud.jfc profile,
+ * and otherwise costs little more than the two timestamps taken by begin() and shouldCommit().
+ */
+@Name("ekud.CommandExecution")
+@Label("Command Execution")
+@Category("Ekud")
+@Description("Execution of one chatbot command")
+@StackTrace(false)
+public class CommandExecutionEvent extends Event {
+    @Label("Command")
+    String command;
+
+    @Label("Arguments Length")
+    int argsLength;
+
+    @Label("Task Count")
+    @Description("Number of tasks after the command")
+    int taskCount;
+
+    @Label("Outcome")
+    @Description("'ok', or the type of the error raised")
+    String outcome;
+
+    /**
+     * Commits the event if it is enabled and over the recording's duration threshold.
+     *
+     * @param command Command keyword given by the user.
+     * @param argsLength Length of the arguments given by the user.
+     * @param taskCount Number of tasks after the command.
+     * @param outcome 'ok', or the type of the error raised.
+     */
+    public void commit(String command, int argsLength, int taskCount, String outcome) {
+        if (this.shouldCommit()) {
+            this.command = command;
+            this.argsLength = argsLength;
+            this.taskCount = taskCount;
+            this.outcome = outcome;
+            this.commit();
+        }
+    }
+}
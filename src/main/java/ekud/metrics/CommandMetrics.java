@@ -0,0 +1,240 @@
+package ekud.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import ekud.parser.Command;
+
+/**
+ * The CommandMetrics class keeps a LatencyHistogram per Command, plus one for invalid commands and
+ * one each for loading and saving the tasks file, together with error counts per exception type.
+ * It also accounts the bytes allocated by each command, and keeps the most allocation-heavy commands.
+ * A single registry is shared by all chatbots in the JVM and exposed over JMX.
+ */
+public class CommandMetrics implements CommandMetricsMXBean {
+    public static final String OBJECT_NAME = "ekud:type=CommandMetrics";
+    private static final String UNKNOWN_OPERATION = "unknown";
+    private static final String LOAD_OPERATION = "load";
+    private static final String SAVE_OPERATION = "save";
+    private static final int NUM_TOP_ALLOCATIONS = 10;
+    private static final long TOP_ALLOCATIONS_PERIOD_MILLIS = 10 * 60 * 1000;
+    private static final CommandMetrics DEFAULT_METRICS = registerDefault();
+
+    // Histograms indexed by Command ordinal, so recording needs no map lookup
+    private final LatencyHistogram[] commandLatencies;
+    private final LatencyHistogram unknownLatencies;
+    private final LatencyHistogram loadLatencies;
+    private final LatencyHistogram saveLatencies;
+    private final Map<String, LongAdder> errorCounts;
+    // Allocations indexed by Command ordinal, with invalid commands last
+    private final LongAdder[] allocatedBytes;
+    private final LongAdder[] allocationSamples;
+    private final LongAccumulator[] maxAllocatedBytes;
+    private final TopAllocations topAllocations;
+
+    /**
+     * Constructs an empty CommandMetrics, which is not registered over JMX.
+     */
+    public CommandMetrics() {
+        this.commandLatencies = new LatencyHistogram[Command.values().length];
+        for (int i = 0; i < this.commandLatencies.length; i++) {
+            this.commandLatencies[i] = new LatencyHistogram();
+        }
+        this.unknownLatencies = new LatencyHistogram();
+        this.loadLatencies = new LatencyHistogram();
+        this.saveLatencies = new LatencyHistogram();
+        this.errorCounts = new ConcurrentHashMap<>();
+        int numOperations = this.commandLatencies.length + 1;
+        this.allocatedBytes = new LongAdder[numOperations];
+        this.allocationSamples = new LongAdder[numOperations];
+        this.maxAllocatedBytes = new LongAccumulator[numOperations];
+        for (int i = 0; i < numOperations; i++) {
+            this.allocatedBytes[i] = new LongAdder();
+            this.allocationSamples[i] = new LongAdder();
+            this.maxAllocatedBytes[i] = new LongAccumulator(Math::max, 0);
+        }
+        this.topAllocations = new TopAllocations(NUM_TOP_ALLOCATIONS, TOP_ALLOCATIONS_PERIOD_MILLIS);
+    }
+
+    private static CommandMetrics registerDefault() {
+        CommandMetrics metrics = new CommandMetrics();
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(metrics, new ObjectName(OBJECT_NAME));
+        } catch (JMException e) {
+            System.err.println("Error with registering command metrics over JMX: " + e);
+        }
+        return metrics;
+    }
+
+    /**
+     * Returns the registry shared by all chatbots in the JVM.
+     *
+     * @return CommandMetrics
+     */
+    public static CommandMetrics getDefault() {
+        return DEFAULT_METRICS;
+    }
+
+    /**
+     * Records how long a command took to execute, successfully or not.
+     *
+     * @param command Command executed, or null if the command was not recognised.
+     * @param nanos Duration in nanoseconds.
+     */
+    public void recordCommand(Command command, long nanos) {
+        (command == null ? this.unknownLatencies : this.commandLatencies[command.ordinal()]).record(nanos);
+    }
+
+    /**
+     * Records how many bytes a command allocated, and offers it to the most allocation-heavy commands.
+     *
+     * @param command Command executed, or null if the command was not recognised.
+     * @param userCommand Command keyword given by the user.
+     * @param argsLength Length of the arguments of the command, which are not kept.
+     * @param bytes Bytes allocated on the heap while executing it.
+     */
+    public void recordAllocation(Command command, String userCommand, int argsLength, long bytes) {
+        int index = command == null ? this.commandLatencies.length : command.ordinal();
+        this.allocatedBytes[index].add(bytes);
+        this.allocationSamples[index].increment();
+        this.maxAllocatedBytes[index].accumulate(bytes);
+        this.topAllocations.record(userCommand, argsLength, bytes, System.currentTimeMillis());
+    }
+
+    public void recordLoad(long nanos) {
+        this.loadLatencies.record(nanos);
+    }
+
+    public void recordSave(long nanos) {
+        this.saveLatencies.record(nanos);
+    }
+
+    /**
+     * Counts one error of the given exception type.
+     *
+     * @param errorType Type of the exception raised.
+     */
+    public void recordError(Class<? extends Exception> errorType) {
+        this.errorCounts.computeIfAbsent(errorType.getSimpleName(), type -> new LongAdder()).increment();
+    }
+
+    @Override
+    public Map<String, LatencySummary> getLatencies() {
+        Map<String, LatencySummary> latencies = new LinkedHashMap<>();
+        for (Command command : Command.values()) {
+            latencies.put(command.getKeyword(), this.commandLatencies[command.ordinal()].summarize());
+        }
+        latencies.put(UNKNOWN_OPERATION, this.unknownLatencies.summarize());
+        latencies.put(LOAD_OPERATION, this.loadLatencies.summarize());
+        latencies.put(SAVE_OPERATION, this.saveLatencies.summarize());
+        return latencies;
+    }
+
+    @Override
+    public Map<String, Long> getErrorCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        for (Map.Entry<String, LongAdder> entry : this.errorCounts.entrySet()) {
+            counts.put(entry.getKey(), entry.getValue().sum());
+        }
+        return counts;
+    }
+
+    @Override
+    public Map<String, Long> getAverageAllocatedBytes() {
+        Map<String, Long> averages = new LinkedHashMap<>();
+        for (Command command : Command.values()) {
+            averages.put(command.getKeyword(), this.getAverageAllocatedBytes(command.ordinal()));
+        }
+        averages.put(UNKNOWN_OPERATION, this.getAverageAllocatedBytes(this.commandLatencies.length));
+        return averages;
+    }
+
+    private long getAverageAllocatedBytes(int index) {
+        long numSamples = this.allocationSamples[index].sum();
+        return numSamples == 0 ? 0 : this.allocatedBytes[index].sum() / numSamples;
+    }
+
+    @Override
+    public List<String> getTopAllocations() {
+        List<String> entries = new ArrayList<>();
+        for (TopAllocations.Entry entry : this.topAllocations.getEntries()) {
+            entries.add(String.format("%d bytes: %s", entry.getBytes(), entry.describe()));
+        }
+        return entries;
+    }
+
+    @Override
+    public void reset() {
+        for (LatencyHistogram histogram : this.commandLatencies) {
+            histogram.reset();
+        }
+        this.unknownLatencies.reset();
+        this.loadLatencies.reset();
+        this.saveLatencies.reset();
+        this.errorCounts.clear();
+        for (int i = 0; i < this.allocatedBytes.length; i++) {
+            this.allocatedBytes[i].reset();
+            this.allocationSamples[i].reset();
+            this.maxAllocatedBytes[i].reset();
+        }
+        this.topAllocations.reset();
+    }
+
+    /**
+     * Returns a table of the latencies and allocations of every operation executed so far, followed by
+     * the error counts and the most allocation-heavy commands.
+     *
+     * @return String response for the user.
+     */
+    public String describe() {
+        StringBuilder output = new StringBuilder(
+                "Here are the latencies (in microseconds) and allocations (in KB) so far:\n");
+        output.append(String.format("%-10s %8s %9s %9s %9s %9s %9s %9s\n",
+                "operation", "count", "p50", "p90", "p99", "max", "avg KB", "max KB"));
+        boolean hasTimings = false;
+        int index = 0;
+        for (Map.Entry<String, LatencySummary> entry : this.getLatencies().entrySet()) {
+            LatencySummary summary = entry.getValue();
+            int allocationIndex = index++;
+            if (summary.getCount() == 0) {
+                continue;
+            }
+            hasTimings = true;
+            output.append(String.format("%-10s %8d %9.1f %9.1f %9.1f %9.1f", entry.getKey(), summary.getCount(),
+                    summary.getP50Nanos() / 1e3, summary.getP90Nanos() / 1e3, summary.getP99Nanos() / 1e3,
+                    summary.getMaxNanos() / 1e3));
+            if (allocationIndex < this.allocatedBytes.length && this.allocationSamples[allocationIndex].sum() > 0) {
+                output.append(String.format(" %9.1f %9.1f", this.getAverageAllocatedBytes(allocationIndex) / 1024.0,
+                        this.maxAllocatedBytes[allocationIndex].get() / 1024.0));
+            }
+            output.append('\n');
+        }
+        if (!hasTimings) {
+            return "No commands have been timed yet :o";
+        }
+        Map<String, Long> errors = this.getErrorCounts();
+        if (!errors.isEmpty()) {
+            output.append("Errors by type:\n");
+            for (Map.Entry<String, Long> entry : errors.entrySet()) {
+                output.append(String.format("- %s: %d\n", entry.getKey(), entry.getValue()));
+            }
+        }
+        List<TopAllocations.Entry> heaviest = this.topAllocations.getEntries();
+        if (!heaviest.isEmpty()) {
+            output.append("Most allocation-heavy commands recently:\n");
+            for (TopAllocations.Entry entry : heaviest) {
+                output.append(String.format("- %.1f KB: %s\n", entry.getBytes() / 1024.0, entry.describe()));
+            }
+        }
+        return output.toString();
+    }
+}
@@ -0,0 +1,43 @@
+package ekud.metrics;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Management interface exposing the chatbot's command latencies, allocations and error counts over JMX,
+ * registered under the name {@value CommandMetrics#OBJECT_NAME}.
+ */
+public interface CommandMetricsMXBean {
+    /**
+     * Returns the latency summary of every command keyword, plus the 'unknown', 'load' and 'save' operations.
+     *
+     * @return Map from operation name to its LatencySummary.
+     */
+    Map<String, LatencySummary> getLatencies();
+
+    /**
+     * Returns the number of errors raised so far, by simple name of the exception type.
+     *
+     * @return Map from exception type to its count.
+     */
+    Map<String, Long> getErrorCounts();
+
+    /**
+     * Returns the average number of bytes allocated by every command keyword, plus invalid commands.
+     *
+     * @return Map from operation name to its average allocated bytes.
+     */
+    Map<String, Long> getAverageAllocatedBytes();
+
+    /**
+     * Returns the most allocation-heavy commands of the last 10 to 20 minutes, heaviest first.
+     *
+     * @return List of the commands and their allocated bytes.
+     */
+    List<String> getTopAllocations();
+
+    /**
+     * Clears all latencies and error counts.
+     */
+    void reset();
+}
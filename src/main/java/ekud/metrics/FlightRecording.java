@@ -0,0 +1,64 @@
+package ekud.metrics;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.text.ParseException;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+
+/**
+ * Starts a Flight Recorder recording with the bundled ekud.jfc settings when the chatbot is launched with
+ * -Dekud.jfr=<file>, and writes it to that file when the JVM exits.
+ */
+public class FlightRecording {
+    public static final String DESTINATION_PROPERTY = "ekud.jfr";
+    private static final String SETTINGS_RESOURCE = "/jfr/ekud.jfc";
+
+    /**
+     * Starts a recording if the destination property is set.
+     *
+     * @return Recording started, or null if none was requested or it could not be started.
+     */
+    public static Recording startIfRequested() {
+        String destination = System.getProperty(DESTINATION_PROPERTY);
+        if (destination == null || destination.isBlank()) {
+            return null;
+        }
+        try (InputStream settings = FlightRecording.class.getResourceAsStream(SETTINGS_RESOURCE)) {
+            if (settings == null) {
+                throw new IOException("Missing " + SETTINGS_RESOURCE);
+            }
+            Reader reader = new InputStreamReader(settings, StandardCharsets.UTF_8);
+            Recording recording = new Recording(Configuration.create(reader));
+            recording.setName("ekud");
+            recording.setToDisk(true);
+            recording.setDestination(Paths.get(destination));
+            recording.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> stop(recording)));
+            System.err.println("Recording flight data to " + destination);
+            return recording;
+        } catch (IOException | ParseException | IllegalStateException | SecurityException e) {
+            System.err.println("Error with starting flight recording: " + e);
+            return null;
+        }
+    }
+
+    /**
+     * Stops the recording, which writes it to its destination, unless the JVM already did so.
+     */
+    private static void stop(Recording recording) {
+        try {
+            if (recording.getState() == RecordingState.RUNNING) {
+                recording.stop();
+            }
+        } catch (IllegalStateException e) {
+            System.err.println("Error with stopping flight recording: " + e);
+        }
+    }
+}
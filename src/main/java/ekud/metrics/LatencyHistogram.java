@@ -0,0 +1,111 @@
+package ekud.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The LatencyHistogram class counts recorded durations in log-linear buckets, in the style of HdrHistogram:
+ * every power of two is split into 8 sub-buckets, so any percentile is reported within 12.5% of its true value
+ * while the whole histogram stays a fixed array of 488 counters.
+ * Recording is lock-free and allocation-free, so it can be called from many threads on the hot path.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    // Values below SUB_BUCKETS get a bucket each, and every larger power of two gets SUB_BUCKETS buckets
+    private static final int NUM_BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts;
+    private final AtomicLong max;
+
+    /**
+     * Constructs an empty LatencyHistogram.
+     */
+    public LatencyHistogram() {
+        this.counts = new AtomicLongArray(NUM_BUCKETS);
+        this.max = new AtomicLong();
+    }
+
+    /**
+     * Returns the index of the bucket holding the given non-negative value.
+     */
+    static int getBucketIndex(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = (Long.SIZE - 1 - Long.numberOfLeadingZeros(value)) - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+        return (shift + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * Returns the largest value held by the bucket with the given index.
+     */
+    static long getBucketUpperBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long lowerBound = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+        return lowerBound + (1L << shift) - 1;
+    }
+
+    /**
+     * Records one duration.
+     *
+     * @param nanos Duration in nanoseconds. Negative durations, eg from a clock adjustment, count as 0.
+     */
+    public void record(long nanos) {
+        long value = Math.max(nanos, 0);
+        this.counts.incrementAndGet(getBucketIndex(value));
+        long curMax = this.max.get();
+        while (value > curMax && !this.max.compareAndSet(curMax, value)) {
+            curMax = this.max.get();
+        }
+    }
+
+    /**
+     * Returns a consistent summary of the durations recorded so far.
+     *
+     * @return LatencySummary
+     */
+    public LatencySummary summarize() {
+        long[] snapshot = new long[NUM_BUCKETS];
+        long total = 0;
+        for (int i = 0; i < NUM_BUCKETS; i++) {
+            snapshot[i] = this.counts.get(i);
+            total += snapshot[i];
+        }
+        long maxValue = this.max.get();
+        return new LatencySummary(total, percentile(snapshot, total, 50, maxValue),
+                percentile(snapshot, total, 90, maxValue), percentile(snapshot, total, 99, maxValue), maxValue);
+    }
+
+    /**
+     * Returns the upper bound of the bucket holding the given percentile, capped at the maximum recorded.
+     */
+    private static long percentile(long[] snapshot, long total, double percent, long maxValue) {
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(total * percent / 100));
+        long seen = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(getBucketUpperBound(i), maxValue);
+            }
+        }
+        return maxValue;
+    }
+
+    /**
+     * Clears all recorded durations. Durations recorded concurrently may or may not be kept.
+     */
+    public void reset() {
+        for (int i = 0; i < NUM_BUCKETS; i++) {
+            this.counts.set(i, 0);
+        }
+        this.max.set(0);
+    }
+}
@@ -0,0 +1,50 @@
+package ekud.metrics;
+
+/**
+ * Represents the count and percentiles of the durations held by a LatencyHistogram at one point in time.
+ * Durations are in nanoseconds. The getters also make it an open type for the CommandMetricsMXBean.
+ */
+public class LatencySummary {
+    private final long count;
+    private final long p50Nanos;
+    private final long p90Nanos;
+    private final long p99Nanos;
+    private final long maxNanos;
+
+    /**
+     * Constructs a LatencySummary.
+     *
+     * @param count Number of durations recorded.
+     * @param p50Nanos Median duration.
+     * @param p90Nanos 90th percentile duration.
+     * @param p99Nanos 99th percentile duration.
+     * @param maxNanos Longest duration.
+     */
+    public LatencySummary(long count, long p50Nanos, long p90Nanos, long p99Nanos, long maxNanos) {
+        this.count = count;
+        this.p50Nanos = p50Nanos;
+        this.p90Nanos = p90Nanos;
+        this.p99Nanos = p99Nanos;
+        this.maxNanos = maxNanos;
+    }
+
+    public long getCount() {
+        return this.count;
+    }
+
+    public long getP50Nanos() {
+        return this.p50Nanos;
+    }
+
+    public long getP90Nanos() {
+        return this.p90Nanos;
+    }
+
+    public long getP99Nanos() {
+        return this.p99Nanos;
+    }
+
+    public long getMaxNanos() {
+        return this.maxNanos;
+    }
+}
@@ -0,0 +1,57 @@
+package ekud.metrics;
+
+import java.io.File;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event spanning one load or save of the saved tasks file.
+ */
+@Name("ekud.StorageAccess")
+@Label("Storage Access")
+@Category("Ekud")
+@Description("Load or save of the saved tasks file")
+@StackTrace(false)
+public class StorageEvent extends Event {
+    @Label("Operation")
+    String operation;
+
+    @Label("Path")
+    String path;
+
+    @Label("Bytes")
+    @DataAmount
+    long bytes;
+
+    @Label("Records")
+    @Description("Number of tasks loaded or saved")
+    int records;
+
+    @Label("Succeeded")
+    boolean isSuccessful;
+
+    /**
+     * Commits the event if it is enabled and over the recording's duration threshold.
+     *
+     * @param operation 'load' or 'save'.
+     * @param file Saved tasks file, whose size is only read if the event is committed.
+     * @param records Number of tasks loaded or saved.
+     * @param isSuccessful Whether the operation succeeded.
+     */
+    public void commit(String operation, File file, int records, boolean isSuccessful) {
+        if (this.shouldCommit()) {
+            this.operation = operation;
+            this.path = file.getPath();
+            this.bytes = file.length();
+            this.records = records;
+            this.isSuccessful = isSuccessful;
+            this.commit();
+        }
+    }
+}
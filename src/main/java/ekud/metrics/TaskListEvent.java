@@ -0,0 +1,39 @@
+package ekud.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event spanning one bulk operation on a TaskList, ie an operation whose cost grows with
+ * the number of tasks, such as clearing, restoring or snapshotting the list for a transaction.
+ */
+@Name("ekud.TaskListBulkOperation")
+@Label("Task List Bulk Operation")
+@Category("Ekud")
+@Description("Operation touching every task of a task list")
+@StackTrace(false)
+public class TaskListEvent extends Event {
+    @Label("Operation")
+    String operation;
+
+    @Label("Tasks Affected")
+    int numTasks;
+
+    /**
+     * Commits the event if it is enabled and over the recording's duration threshold.
+     *
+     * @param operation Name of the bulk operation.
+     * @param numTasks Number of tasks it touched.
+     */
+    public void commit(String operation, int numTasks) {
+        if (this.shouldCommit()) {
+            this.operation = operation;
+            this.numTasks = numTasks;
+            this.commit();
+        }
+    }
+}
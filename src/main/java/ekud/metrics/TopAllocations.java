@@ -0,0 +1,141 @@
+package ekud.metrics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * The TopAllocations class keeps the N most allocation-heavy commands of a rolling window, made of the
+ * current and the previous period, so that a regression shows up within one period and old outliers
+ * age out after two.
+ * Commands allocating less than the lightest one kept are rejected without taking the lock.
+ * Only the command keyword and the length of its arguments are kept, never the arguments themselves,
+ * since the window is shared by every user of the JVM, eg all sessions of a server.
+ */
+public class TopAllocations {
+    private static final Comparator<Entry> LIGHTEST_FIRST = Comparator.comparingLong(entry -> entry.bytes);
+    private static final int MAX_COMMAND_LENGTH = 20;
+
+    private final int limit;
+    private final long periodMillis;
+    // Min-heaps of the heaviest commands of the current and previous periods, guarded by this
+    private PriorityQueue<Entry> current;
+    private PriorityQueue<Entry> previous;
+    private volatile long periodStart;
+    // Bytes of the lightest command kept once the current period is full, read without the lock
+    private volatile long threshold;
+
+    /**
+     * Constructs an empty TopAllocations.
+     *
+     * @param limit Number of commands to keep.
+     * @param periodMillis Length of one period of the rolling window.
+     */
+    public TopAllocations(int limit, long periodMillis) {
+        assert limit > 0 : "At least one command should be kept";
+        this.limit = limit;
+        this.periodMillis = periodMillis;
+        this.current = new PriorityQueue<>(LIGHTEST_FIRST);
+        this.previous = new PriorityQueue<>(LIGHTEST_FIRST);
+    }
+
+    /**
+     * Offers a command which allocated the given number of bytes.
+     *
+     * @param userCommand Command keyword given by the user.
+     * @param argsLength Length of the arguments of the command.
+     * @param bytes Bytes allocated while executing it.
+     * @param timeMillis Current time in milliseconds since the epoch.
+     */
+    public void record(String userCommand, int argsLength, long bytes, long timeMillis) {
+        if (bytes <= this.threshold && timeMillis - this.periodStart < this.periodMillis) {
+            return;
+        }
+        synchronized (this) {
+            if (timeMillis - this.periodStart >= this.periodMillis) {
+                this.previous = this.current;
+                this.current = new PriorityQueue<>(LIGHTEST_FIRST);
+                this.periodStart = timeMillis;
+                this.threshold = 0;
+            }
+            if (this.current.size() == this.limit) {
+                if (bytes <= this.current.peek().bytes) {
+                    return;
+                }
+                this.current.poll();
+            }
+            // An unknown keyword is whatever the user typed first, so it is cut short too
+            String command = userCommand.length() > MAX_COMMAND_LENGTH
+                    ? userCommand.substring(0, MAX_COMMAND_LENGTH - 3) + "..."
+                    : userCommand;
+            this.current.add(new Entry(command, argsLength, bytes, timeMillis));
+            if (this.current.size() == this.limit) {
+                this.threshold = this.current.peek().bytes;
+            }
+        }
+    }
+
+    /**
+     * Returns the heaviest commands of the rolling window, heaviest first.
+     *
+     * @return List of entries.
+     */
+    public synchronized List<Entry> getEntries() {
+        List<Entry> entries = new ArrayList<>(this.current);
+        entries.addAll(this.previous);
+        entries.sort(LIGHTEST_FIRST.reversed());
+        return entries.size() > this.limit ? new ArrayList<>(entries.subList(0, this.limit)) : entries;
+    }
+
+    /**
+     * Forgets every command kept.
+     */
+    public synchronized void reset() {
+        this.current.clear();
+        this.previous.clear();
+        this.threshold = 0;
+    }
+
+    /**
+     * Represents one command and the bytes it allocated.
+     */
+    public static class Entry {
+        private final String command;
+        private final int argsLength;
+        private final long bytes;
+        private final long timeMillis;
+
+        Entry(String command, int argsLength, long bytes, long timeMillis) {
+            this.command = command;
+            this.argsLength = argsLength;
+            this.bytes = bytes;
+            this.timeMillis = timeMillis;
+        }
+
+        public String getCommand() {
+            return this.command;
+        }
+
+        public int getArgsLength() {
+            return this.argsLength;
+        }
+
+        /**
+         * Returns the command keyword with the length of its arguments, eg todo (12 chars).
+         *
+         * @return String
+         */
+        public String describe() {
+            return String.format("%s (%d chars)", this.command, this.argsLength);
+        }
+
+        public long getBytes() {
+            return this.bytes;
+        }
+
+        public long getTimeMillis() {
+            return this.timeMillis;
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package ekud.parser;
 
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * Represents a fixed set of input command strings which can be assigned to the
  * Command variable.
@@ -15,17 +18,33 @@ public enum Command {
     FIND("find"),
     CLEAR("clear"),
     UNDOCLEAR("undoclear"),
-    CHANGEPRIORITY("priority");
+    CHANGEPRIORITY("priority"),
+    HISTORY("history"),
+    ASOF("asof"),
+    STATS("stats"),
+    IMPORT("import"),
+    EXPORT("export"),
+    ARCHIVE("archive"),
+    TAG("tag"),
+    UNTAG("untag"),
+    FILTER("filter"),
+    NEXT("next"),
+    AGENDA("agenda");
+    // Commands by input string, so every user input is looked up with a single hash
+    private static final Map<String, Command> COMMANDS = new HashMap<>();
+    static {
+        for (Command command : Command.values()) {
+            COMMANDS.put(command.command, command);
+        }
+    }
     private String command;
     private Command(String command) {
         this.command = command;
     }
     public static Command getCommand(String inputCommand) {
-        for (Command command : Command.values()) {
-            if (command.command.equals(inputCommand)) {
-                return command;
-            }
-        }
-        return null;
+        return COMMANDS.get(inputCommand);
+    }
+    public String getKeyword() {
+        return this.command;
     }
-}
\ No newline at end of file
+}
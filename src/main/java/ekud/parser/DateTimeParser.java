@@ -0,0 +1,363 @@
+package ekud.parser;
+
+import java.text.ParsePosition;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAccessor;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The DateTimeParser class is the date parsing engine shared by the chatbot. It holds a precompiled
+ * set of accepted layouts and tries them in order of how often they have succeeded so far, so the
+ * layout a user habitually types is checked first.
+ * Every layout is recognised by a hand-rolled digit scanner which reports a mismatch by returning
+ * null instead of throwing, so no exceptions are used to move on to the next layout.
+ * Text matching none of the layouts is handed to a RelativeDateResolver, eg {@code tomorrow 5pm}.
+ */
+public class DateTimeParser {
+    /**
+     * Layouts accepted by the engine, listed in their initial order of preference.
+     */
+    public enum Layout {
+        SHORT("d MMM HHmm"),
+        SLASH("d/M/yyyy HHmm"),
+        ISO("yyyy-MM-dd HH:mm"),
+        SAVED("dd MMM yyyy h:mm a");
+
+        private final String pattern;
+        private final DateTimeFormatter formatter;
+
+        Layout(String pattern) {
+            this.pattern = pattern;
+            this.formatter = DateTimeFormatter.ofPattern(pattern, Locale.ENGLISH);
+        }
+
+        public String getPattern() {
+            return this.pattern;
+        }
+
+        /**
+         * Returns the precompiled formatter of this layout, for formatting dates the same way they are parsed.
+         *
+         * @return DateTimeFormatter
+         */
+        public DateTimeFormatter getFormatter() {
+            return this.formatter;
+        }
+    }
+
+    private static final String[] MONTHS = {
+        "jan", "feb", "mar", "apr", "may", "jun", "jul", "aug", "sep", "oct", "nov", "dec"
+    };
+    private static final int[] DAYS_IN_MONTH = {31, 29, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31};
+    // Number of successful parses between two re-orderings of the layouts
+    private static final int REORDER_INTERVAL = 64;
+
+    private final Clock clock;
+    private final RelativeDateResolver relativeDateResolver;
+    // Success count of each layout, indexed by Layout.ordinal()
+    private final AtomicLongArray hits;
+    // Current order in which layouts are tried, replaced wholesale when re-ordered
+    private volatile Layout[] order;
+    private volatile long parsesSinceReorder;
+
+    /**
+     * Constructs a DateTimeParser which fills in missing years from the system clock.
+     */
+    public DateTimeParser() {
+        this(Clock.systemDefaultZone());
+    }
+
+    /**
+     * Constructs a DateTimeParser which fills in missing years and resolves relative dates
+     * from the given clock.
+     *
+     * @param clock Clock used to decide the current date and time.
+     */
+    public DateTimeParser(Clock clock) {
+        this.clock = clock;
+        this.relativeDateResolver = new RelativeDateResolver(clock);
+        this.hits = new AtomicLongArray(Layout.values().length);
+        this.order = Layout.values();
+    }
+
+    /**
+     * Returns the clock this parser resolves missing fields against.
+     *
+     * @return Clock
+     */
+    public Clock getClock() {
+        return this.clock;
+    }
+
+    /**
+     * Returns a comma separated list of the accepted layouts and relative expressions for use in
+     * help messages.
+     *
+     * @return String
+     */
+    public static String describeLayouts() {
+        StringBuilder sb = new StringBuilder();
+        for (Layout layout : Layout.values()) {
+            sb.append(layout.getPattern()).append(", ");
+        }
+        return sb.append("or eg 'tomorrow 5pm', 'next mon', 'in 3 days', 'eod'").toString();
+    }
+
+    /**
+     * Parses the given text with the first accepted layout that matches it, falling back to
+     * relative expressions such as {@code next mon} or {@code in 3 days}.
+     *
+     * @param text Date and time typed by the user or read from the saved tasks file.
+     * @return LocalDateTime, or null if neither a layout nor a relative expression matches.
+     */
+    public LocalDateTime parse(String text) {
+        if (text == null) {
+            return null;
+        }
+        String trimmed = text.trim();
+        Layout[] layouts = this.order;
+        for (Layout layout : layouts) {
+            LocalDateTime dateTime = this.scan(layout, trimmed);
+            if (dateTime != null) {
+                this.recordHit(layout);
+                return dateTime;
+            }
+        }
+        return this.relativeDateResolver.resolve(trimmed);
+    }
+
+    /**
+     * Parses the given text with one specific layout only.
+     *
+     * @param layout Layout the text is expected to follow.
+     * @param text Date and time to parse.
+     * @return LocalDateTime, or null if the text does not follow the layout.
+     */
+    public LocalDateTime parse(Layout layout, String text) {
+        return text == null ? null : this.scan(layout, text.trim());
+    }
+
+    private LocalDateTime scan(Layout layout, String s) {
+        switch (layout) {
+        case SHORT:
+            return scanShort(s, this.clock.instant().atZone(this.clock.getZone()).getYear());
+        case SLASH:
+            return scanSlash(s);
+        case ISO:
+            return scanIso(s);
+        case SAVED:
+            return scanSaved(s);
+        default:
+            return null;
+        }
+    }
+
+    /**
+     * Counts a successful parse and periodically moves layouts that succeed more often to the front.
+     */
+    private void recordHit(Layout layout) {
+        this.hits.incrementAndGet(layout.ordinal());
+        if (++this.parsesSinceReorder < REORDER_INTERVAL) {
+            return;
+        }
+        this.parsesSinceReorder = 0;
+        Layout[] reordered = this.order.clone();
+        Arrays.sort(reordered, (a, b) -> Long.compare(this.hits.get(b.ordinal()), this.hits.get(a.ordinal())));
+        this.order = reordered;
+    }
+
+    /**
+     * Scans the {@code d MMM HHmm} layout, eg {@code 3 Jun 1830}.
+     */
+    private static LocalDateTime scanShort(String s, int year) {
+        int len = s.length();
+        int pos = 0;
+        int day = 0;
+        int digits = 0;
+        while (pos < len && isDigit(s.charAt(pos)) && digits < 2) {
+            day = day * 10 + (s.charAt(pos++) - '0');
+            digits++;
+        }
+        if (digits == 0 || pos >= len || s.charAt(pos++) != ' ') {
+            return null;
+        }
+        int month = monthOf(s, pos);
+        pos += 3;
+        if (month == 0 || pos + 5 != len || s.charAt(pos++) != ' ') {
+            return null;
+        }
+        int hour = twoDigits(s, pos);
+        int minute = twoDigits(s, pos + 2);
+        return build(year, month, day, hour, minute);
+    }
+
+    /**
+     * Scans the {@code d/M/yyyy HHmm} layout, eg {@code 3/6/2024 1830}.
+     */
+    private static LocalDateTime scanSlash(String s) {
+        int len = s.length();
+        int pos = 0;
+        int day = 0;
+        int month = 0;
+        int digits = 0;
+        while (pos < len && isDigit(s.charAt(pos)) && digits < 2) {
+            day = day * 10 + (s.charAt(pos++) - '0');
+            digits++;
+        }
+        if (digits == 0 || pos >= len || s.charAt(pos++) != '/') {
+            return null;
+        }
+        digits = 0;
+        while (pos < len && isDigit(s.charAt(pos)) && digits < 2) {
+            month = month * 10 + (s.charAt(pos++) - '0');
+            digits++;
+        }
+        if (digits == 0 || pos >= len || s.charAt(pos++) != '/' || pos + 9 != len) {
+            return null;
+        }
+        int year = fourDigits(s, pos);
+        if (s.charAt(pos + 4) != ' ') {
+            return null;
+        }
+        int hour = twoDigits(s, pos + 5);
+        int minute = twoDigits(s, pos + 7);
+        return build(year, month, day, hour, minute);
+    }
+
+    /**
+     * Scans the ISO layout {@code yyyy-MM-dd HH:mm}, also accepting a 'T' separator and seconds.
+     */
+    private static LocalDateTime scanIso(String s) {
+        int len = s.length();
+        if (len < 16 || s.charAt(4) != '-' || s.charAt(7) != '-' || s.charAt(13) != ':') {
+            return null;
+        }
+        char separator = s.charAt(10);
+        if (separator != 'T' && separator != ' ') {
+            return null;
+        }
+        if (len != 16) {
+            return parseIsoFallback(s);
+        }
+        int year = fourDigits(s, 0);
+        int month = twoDigits(s, 5);
+        int day = twoDigits(s, 8);
+        int hour = twoDigits(s, 11);
+        int minute = twoDigits(s, 14);
+        return build(year, month, day, hour, minute);
+    }
+
+    /**
+     * Handles the rarer ISO forms carrying seconds or fractions through the JDK formatter, checking
+     * the parse position rather than catching a parse exception.
+     */
+    private static LocalDateTime parseIsoFallback(String s) {
+        String text = s.charAt(10) == ' ' ? s.substring(0, 10) + 'T' + s.substring(11) : s;
+        ParsePosition position = new ParsePosition(0);
+        TemporalAccessor parsed = DateTimeFormatter.ISO_LOCAL_DATE_TIME.parseUnresolved(text, position);
+        if (parsed == null || position.getErrorIndex() >= 0 || position.getIndex() != text.length()) {
+            return null;
+        }
+        int year = fourDigits(text, 0);
+        int month = twoDigits(text, 5);
+        int day = twoDigits(text, 8);
+        int hour = twoDigits(text, 11);
+        int minute = twoDigits(text, 14);
+        return build(year, month, day, hour, minute);
+    }
+
+    /**
+     * Scans the saved layout {@code dd MMM yyyy h:mm a}, eg {@code 01 Oct 2023 5:00 PM}.
+     */
+    private static LocalDateTime scanSaved(String s) {
+        int len = s.length();
+        if (len < 19 || len > 20 || s.charAt(2) != ' ' || s.charAt(6) != ' ' || s.charAt(11) != ' ') {
+            return null;
+        }
+        int day = twoDigits(s, 0);
+        int month = monthOf(s, 3);
+        int year = fourDigits(s, 7);
+        int pos = 12;
+        int hour = 0;
+        int digits = 0;
+        while (pos < len && isDigit(s.charAt(pos)) && digits < 2) {
+            hour = hour * 10 + (s.charAt(pos++) - '0');
+            digits++;
+        }
+        if (digits == 0 || pos + 6 != len || s.charAt(pos) != ':' || s.charAt(pos + 3) != ' ') {
+            return null;
+        }
+        int minute = twoDigits(s, pos + 1);
+        char meridiem = Character.toUpperCase(s.charAt(pos + 4));
+        if (month == 0 || hour < 1 || hour > 12 || Character.toUpperCase(s.charAt(pos + 5)) != 'M') {
+            return null;
+        }
+        if (meridiem == 'A') {
+            hour = hour == 12 ? 0 : hour;
+        } else if (meridiem == 'P') {
+            hour = hour == 12 ? 12 : hour + 12;
+        } else {
+            return null;
+        }
+        return build(year, month, day, hour, minute);
+    }
+
+    /**
+     * Builds the LocalDateTime after range checking every field, returning null for impossible values.
+     */
+    private static LocalDateTime build(int year, int month, int day, int hour, int minute) {
+        if (year < 0 || month < 1 || month > 12 || day < 1 || hour < 0 || hour > 23
+                || minute < 0 || minute > 59) {
+            return null;
+        }
+        boolean isLeap = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+        int maxDay = month == 2 && !isLeap ? 28 : DAYS_IN_MONTH[month - 1];
+        if (day > maxDay) {
+            return null;
+        }
+        return LocalDateTime.of(year, month, day, hour, minute);
+    }
+
+    /**
+     * Returns the month (1-12) of the case-insensitive English abbreviation at the given position,
+     * or 0 if there is none.
+     */
+    private static int monthOf(String s, int pos) {
+        if (pos + 3 > s.length()) {
+            return 0;
+        }
+        for (int i = 0; i < MONTHS.length; i++) {
+            if (s.regionMatches(true, pos, MONTHS[i], 0, 3)) {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * Returns the two digit number at the given position, or -1 if it is not made of digits.
+     */
+    private static int twoDigits(String s, int pos) {
+        if (pos + 2 > s.length() || !isDigit(s.charAt(pos)) || !isDigit(s.charAt(pos + 1))) {
+            return -1;
+        }
+        return (s.charAt(pos) - '0') * 10 + (s.charAt(pos + 1) - '0');
+    }
+
+    /**
+     * Returns the four digit number at the given position, or -1 if it is not made of digits.
+     */
+    private static int fourDigits(String s, int pos) {
+        int high = twoDigits(s, pos);
+        int low = twoDigits(s, pos + 2);
+        return high < 0 || low < 0 ? -1 : high * 100 + low;
+    }
+}
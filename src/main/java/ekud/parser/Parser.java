@@ -1,17 +1,33 @@
 package ekud.parser;
 
+import java.io.IOException;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeFormatterBuilder;
 import java.time.format.DateTimeParseException;
-import java.time.temporal.ChronoField;
-import java.util.Locale;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
 
 import ekud.exceptions.EkudException;
+import ekud.exceptions.EkudIOException;
 import ekud.exceptions.EkudIllegalArgException;
 import ekud.exceptions.EkudInvalidCommandException;
-import ekud.tasks.TaskList;
+import ekud.exports.TaskExporter;
+import ekud.history.EventLog;
+import ekud.history.HistoryEvent;
+import ekud.imports.TaskImporter;
+import ekud.metrics.CommandMetrics;
+import ekud.storage.Archive;
+import ekud.storage.ArchivePolicy;
 import ekud.tasks.Priority;
+import ekud.tasks.Tags;
+import ekud.tasks.Task;
+import ekud.tasks.TaskFilter;
+import ekud.tasks.TaskList;
 
 /**
  * The Parser class serves as an interface between the user and the chatbot by
@@ -20,9 +36,134 @@ import ekud.tasks.Priority;
  * a String response.
  */
 public class Parser {
-    private static final String INPUT_DATETIME_FORMAT = "d MMM HHmm";
-    private static final String SAVED_DATETIME_FORMAT = "dd MMM yyyy h:mm a";
-    private static final int CUR_YEAR = 2023;
+    private static final String INPUT_DATETIME_FORMATS = DateTimeParser.describeLayouts();
+    // Engine shared by all parsers by default, so layout statistics build up across commands
+    private static final DateTimeParser DEFAULT_DATE_TIME_PARSER = new DateTimeParser();
+    private static final int DEFAULT_HISTORY_LENGTH = 10;
+    private static final int DEFAULT_NEXT_TASKS = 5;
+    private static final int DEFAULT_AGENDA_DAYS = 7;
+    private static final int MAX_AGENDA_DAYS = 366;
+    private static final String[] AGENDA_TIMES = {"", " 0000", " 00:00"};
+    private static final String AGENDA_USAGE = "Agenda formatted wrongly\n"
+            + "-> Ensure 'agenda [date] [days]' is followed, with at most " + MAX_AGENDA_DAYS + " days\n"
+            + "-> For example: agenda 3 Jun 14 or agenda next mon";
+    private static final String EXPORT_USAGE = "Export formatted wrongly\n"
+            + "-> Ensure 'export <csv/ics> <file> [/done or /undone] [/priority <level>] [/from <datetime>] "
+            + "[/to <datetime>]' is followed\n"
+            + "-> For example: export ics data/tasks.ics /undone /from 1 Jun 0000";
+    private static final String ARCHIVE_OPTION = "--archive";
+
+    private final DateTimeParser dateTimeParser;
+    // Journal recording the mutating commands executed, or null if history is not kept
+    private final EventLog eventLog;
+    // Archive done tasks are moved to, or null if tasks are not archived
+    private final Archive archive;
+    // Shown the progress of long commands, eg imports, or null; set by another thread than the one executing
+    private volatile Consumer<String> progressListener;
+    // Directory which import and export paths are resolved in and confined to, or null to accept any path
+    private Path fileDirectory;
+
+    /**
+     * Constructs a Parser using the shared date parsing engine.
+     */
+    public Parser() {
+        this(DEFAULT_DATE_TIME_PARSER);
+    }
+
+    /**
+     * Constructs a Parser using the given date parsing engine.
+     *
+     * @param dateTimeParser Engine used to parse dates and times.
+     */
+    public Parser(DateTimeParser dateTimeParser) {
+        this(dateTimeParser, null);
+    }
+
+    /**
+     * Constructs a Parser using the given date parsing engine, which records every successful
+     * mutating command in the given history journal.
+     *
+     * @param dateTimeParser Engine used to parse dates and times.
+     * @param eventLog Journal to record commands in, or null if history is not kept.
+     */
+    public Parser(DateTimeParser dateTimeParser, EventLog eventLog) {
+        this(dateTimeParser, eventLog, null);
+    }
+
+    /**
+     * Constructs a Parser using the given date parsing engine, which records every successful
+     * mutating command in the given history journal and moves archived tasks to the given archive.
+     *
+     * @param dateTimeParser Engine used to parse dates and times.
+     * @param eventLog Journal to record commands in, or null if history is not kept.
+     * @param archive Archive to move done tasks to, or null if tasks are not archived.
+     */
+    public Parser(DateTimeParser dateTimeParser, EventLog eventLog, Archive archive) {
+        this.dateTimeParser = dateTimeParser;
+        this.eventLog = eventLog;
+        this.archive = archive;
+    }
+
+    /**
+     * Constructs a Parser using the shared date parsing engine, which records every successful
+     * mutating command in the given history journal.
+     *
+     * @param eventLog Journal to record commands in.
+     */
+    public Parser(EventLog eventLog) {
+        this(DEFAULT_DATE_TIME_PARSER, eventLog);
+    }
+
+    /**
+     * Constructs a Parser using the shared date parsing engine, which records every successful
+     * mutating command in the given history journal and moves archived tasks to the given archive.
+     *
+     * @param eventLog Journal to record commands in.
+     * @param archive Archive to move done tasks to.
+     */
+    public Parser(EventLog eventLog, Archive archive) {
+        this(DEFAULT_DATE_TIME_PARSER, eventLog, archive);
+    }
+
+    /**
+     * Sets the listener shown the progress of long commands, such as imports, while they run.
+     *
+     * @param progressListener Called on the thread executing the command with a progress message, or null.
+     */
+    public void setProgressListener(Consumer<String> progressListener) {
+        this.progressListener = progressListener;
+    }
+
+    /**
+     * Confines the files read by import and written by export to a directory, eg a server user's own,
+     * so that they cannot reach other users' files. Paths are then resolved relative to it.
+     *
+     * @param fileDirectory Directory to confine files to, or null to accept any path.
+     */
+    public void setFileDirectory(Path fileDirectory) {
+        this.fileDirectory = fileDirectory == null ? null : fileDirectory.toAbsolutePath().normalize();
+    }
+
+    /**
+     * Resolves the path of a file to import or export, checking that it is within the file directory if any.
+     */
+    private Path resolveUserPath(String userPath) throws EkudIllegalArgException {
+        Path path;
+        try {
+            path = Paths.get(userPath);
+        } catch (InvalidPathException e) {
+            throw new EkudIllegalArgException(String.format("'%s' is not a valid file path :/", userPath));
+        }
+        if (this.fileDirectory == null) {
+            return path;
+        }
+        Path resolved = this.fileDirectory.resolve(path).normalize();
+        if (path.isAbsolute() || !resolved.startsWith(this.fileDirectory)) {
+            throw new EkudIllegalArgException(String.format(
+                    "'%s' is outside your files directory, use a relative path within it :/", userPath));
+        }
+        return resolved;
+    }
 
     /**
      * Splits the raw user input into command and arguments.
@@ -37,6 +178,30 @@ public class Parser {
         return new String[]{userCommand, userArgs};
     }
 
+    /**
+     * Splits raw user input holding several commands separated by ';' or new lines,
+     * dropping blank commands.
+     *
+     * @param userInput The given raw user input.
+     * @return List of the commands in the input, in order.
+     */
+    public List<String> splitCommands(String userInput) {
+        List<String> commands = new ArrayList<>();
+        int start = 0;
+        int len = userInput.length();
+        for (int i = 0; i <= len; i++) {
+            char c = i < len ? userInput.charAt(i) : ';';
+            if (c == ';' || c == '\n' || c == '\r') {
+                String command = userInput.substring(start, i).strip();
+                if (!command.isEmpty()) {
+                    commands.add(command);
+                }
+                start = i + 1;
+            }
+        }
+        return commands;
+    }
+
     /**
      * Parses the given inputs and handles any invalid command or illegal arguments,
      * before executing the command and returning a String response.
@@ -57,11 +222,12 @@ public class Parser {
         case SHOWTASKS:
             return taskList.showTasks();
         case MARKTASKASDONE:
-            int doneTaskNum = this.parseTaskNum(userArgs, taskList.getSize());
-            return taskList.markTaskAsDone(doneTaskNum - 1);
+            int doneTaskNum = this.parseTaskNum(userArgs, taskList);
+            return this.record(taskList.markTaskAsDone(doneTaskNum - 1), HistoryEvent.mark(doneTaskNum - 1));
         case MARKTASKASNOTDONE:
-            int notDoneTaskNum = this.parseTaskNum(userArgs, taskList.getSize());
-            return taskList.markTaskAsNotDone(notDoneTaskNum - 1);
+            int notDoneTaskNum = this.parseTaskNum(userArgs, taskList);
+            return this.record(taskList.markTaskAsNotDone(notDoneTaskNum - 1),
+                    HistoryEvent.unmark(notDoneTaskNum - 1));
         case ADDTODO:
             return this.parseAndAddTodo(userArgs, taskList);
         case ADDDEADLINE:
@@ -69,54 +235,101 @@ public class Parser {
         case ADDEVENT:
             return this.parseAndAddEvent(userArgs, taskList);
         case DELETETASK:
-            int deleteTaskNum = this.parseTaskNum(userArgs, taskList.getSize());
-            return taskList.deleteTask(deleteTaskNum - 1);
+            int deleteTaskNum = this.parseTaskNum(userArgs, taskList);
+            return this.record(taskList.deleteTask(deleteTaskNum - 1), HistoryEvent.delete(deleteTaskNum - 1));
         case FIND:
+            if (userArgs.startsWith(ARCHIVE_OPTION)) {
+                return this.parseAndFindArchived(userArgs.substring(ARCHIVE_OPTION.length()).strip());
+            }
             String keyword = this.parseKeyword(userArgs);
             return taskList.findTasks(keyword);
         case CLEAR:
-            return taskList.clear();
+            return this.record(taskList.clear(), HistoryEvent.clear());
         case UNDOCLEAR:
-            return taskList.undoClear();
+            return this.record(taskList.undoClear(), HistoryEvent.undoClear());
         case CHANGEPRIORITY:
             return this.parseAndChangePriority(userArgs, taskList);
+        case HISTORY:
+            return this.parseAndShowHistory(userArgs);
+        case ASOF:
+            return this.parseAndShowTasksAsOf(userArgs);
+        case STATS:
+            return CommandMetrics.getDefault().describe();
+        case IMPORT:
+            return this.parseAndImport(userArgs, taskList);
+        case EXPORT:
+            return this.parseAndExport(userArgs, taskList);
+        case ARCHIVE:
+            return this.parseAndArchive(userArgs, taskList);
+        case TAG:
+        case UNTAG:
+            return this.parseAndTag(command, userArgs, taskList);
+        case FILTER:
+            return taskList.filterTasks(userArgs);
+        case NEXT:
+            return this.parseAndShowNextTasks(userArgs, taskList);
+        case AGENDA:
+            return this.parseAndShowAgenda(userArgs, taskList);
         default:
             throw new EkudIllegalArgException("Error parsing command :(");
         }
     }
 
+    /**
+     * Records the event of a successful mutating command in the history journal, if any.
+     *
+     * @param response Response of the command.
+     * @param event Event describing the command.
+     * @return The given response.
+     */
+    private String record(String response, HistoryEvent event) {
+        if (this.eventLog != null) {
+            this.eventLog.record(event);
+        }
+        return response;
+    }
+
     /**
      * Parses the user's input date and time into a LocalDateTime object.
      *
-     * @param inputDateTime User's input dateTime in the format dd-MM HHmm.
+     * @param inputDateTime User's input dateTime in any of the accepted layouts, eg d MMM HHmm.
      * @return LocalDateTime
+     * @throws DateTimeParseException If the input matches none of the accepted layouts.
      */
     public LocalDateTime parseDateTime(String inputDateTime) {
-        DateTimeFormatter parseFormatter = new DateTimeFormatterBuilder()
-                .parseDefaulting(ChronoField.YEAR, CUR_YEAR)
-                .appendPattern(INPUT_DATETIME_FORMAT)
-                .toFormatter(Locale.ENGLISH);
-        return LocalDateTime.parse(inputDateTime, parseFormatter);
+        LocalDateTime dateTime = this.dateTimeParser.parse(inputDateTime);
+        if (dateTime == null) {
+            throw new DateTimeParseException("Unrecognised date and time", inputDateTime, 0);
+        }
+        return dateTime;
     }
 
     /**
      * Parses a date and time from the saved tasks file into a LocalDateTime object.
+     * Only the saved layout is accepted, so that a damaged line is rejected rather than read as a user input,
+     * eg as a relative date resolved against the day it is loaded.
      *
      * @param savedDateTime Saved dateTime in the format dd MMM yyyy h:mm a.
-     * @return LocalDateTime
+     * @return LocalDateTime, or null if it is not in the saved format.
      */
     public LocalDateTime parseSavedDateTime(String savedDateTime) {
-        return LocalDateTime.parse(savedDateTime, DateTimeFormatter.ofPattern(SAVED_DATETIME_FORMAT));
+        return this.dateTimeParser.parse(DateTimeParser.Layout.SAVED, savedDateTime);
     }
 
     /**
-     * Helper function to check for a valid task number.
+     * Helper function to check for a valid task number, or a task ID prefixed with '#',
+     * which keeps referring to the same task after earlier tasks are deleted.
      *
-     * @param userArgs Number String supplied by the user.
+     * @param userArgs Number String supplied by the user, eg 3 or #17.
+     * @param taskList TaskList holding the task.
      * @return An integer index number
      * @throws EkudIllegalArgException
      */
-    private int parseTaskNum(String userArgs, int size) throws EkudIllegalArgException {
+    private int parseTaskNum(String userArgs, TaskList taskList) throws EkudIllegalArgException {
+        if (userArgs.startsWith("#")) {
+            return this.parseTaskId(userArgs.substring(1), taskList);
+        }
+        int size = taskList.getSize();
         try {
             int taskNum = Integer.valueOf(userArgs);
             if (taskNum <= 0) {
@@ -131,6 +344,26 @@ public class Parser {
         }
     }
 
+    /**
+     * Helper function to look up the task number of a task ID.
+     *
+     * @param userArgs ID String supplied by the user, without its '#'.
+     * @param taskList TaskList holding the task.
+     * @return An integer index number
+     * @throws EkudIllegalArgException
+     */
+    private int parseTaskId(String userArgs, TaskList taskList) throws EkudIllegalArgException {
+        try {
+            int index = taskList.getIndexOfId(Long.parseLong(userArgs));
+            if (index < 0) {
+                throw new EkudIllegalArgException("No task in the list has the ID #" + userArgs + " :/");
+            }
+            return index + 1;
+        } catch (NumberFormatException e) {
+            throw new EkudIllegalArgException("Please input a valid task ID, eg #3 :o");
+        }
+    }
+
     /**
      * Helper function to ensure valid arguments for a to-do task before adding it to taskList.
      *
@@ -141,10 +374,10 @@ public class Parser {
      */
     private String parseAndAddTodo(String userArgs, TaskList taskList)
             throws EkudIllegalArgException {
-        if (userArgs.isBlank()) { // isBlank() checks if string is all whitespace
+        if (Tags.isBlank(userArgs)) { // Checks if string is all whitespace, once its #tags are left out
             throw new EkudIllegalArgException("Description shouldn't be empty :(");
         }
-        return taskList.addToDo(userArgs);
+        return this.record(taskList.addToDo(userArgs), HistoryEvent.addToDo(userArgs));
     }
 
     /**
@@ -161,16 +394,18 @@ public class Parser {
             String[] deadlineArgs = userArgs.split(" /by ");
             String description = deadlineArgs[0];
             LocalDateTime dateTime = this.parseDateTime(deadlineArgs[1]);
-            if (description.isBlank()) {
+            if (Tags.isBlank(description)) {
                 throw new EkudIllegalArgException("Description shouldn't be empty :(");
             }
-            return taskList.addDeadline(description, dateTime);
+            return this.record(taskList.addDeadline(description, dateTime),
+                    HistoryEvent.addDeadline(description, dateTime));
         } catch (IndexOutOfBoundsException | DateTimeParseException e) {
             throw new EkudIllegalArgException(String.format(
                     "Deadline formatted wrongly\n"
-                    + "-> Please ensure 'deadline <description> /by <%s>' is followed\n"
+                    + "-> Please ensure 'deadline <description> /by <datetime>' is followed\n"
+                    + "-> Accepted datetime formats: %s\n"
                     + "-> For example: deadline finish quiz /by 3 Jun 1830",
-                    INPUT_DATETIME_FORMAT));
+                    INPUT_DATETIME_FORMATS));
         }
     }
 
@@ -187,7 +422,7 @@ public class Parser {
             String[] eventArgs = userArgs.split(" /from ");
             String[] timings = eventArgs[1].split(" /to ");
             String description = eventArgs[0];
-            if (description.isBlank() || timings[0].isBlank() || timings[1].isBlank()) {
+            if (Tags.isBlank(description) || timings[0].isBlank() || timings[1].isBlank()) {
                 throw new EkudIllegalArgException("Description/start/end shouldn't be empty :(");
             }
             LocalDateTime fromDateTime = this.parseDateTime(timings[0]);
@@ -195,14 +430,15 @@ public class Parser {
             if (fromDateTime.isAfter(toDateTime) || fromDateTime.isEqual(toDateTime)) {
                 throw new EkudIllegalArgException("End date & time should be later than the start :(");
             }
-            return taskList.addEvent(description, fromDateTime, toDateTime);
+            return this.record(taskList.addEvent(description, fromDateTime, toDateTime),
+                    HistoryEvent.addEvent(description, fromDateTime, toDateTime));
         } catch (IndexOutOfBoundsException | DateTimeParseException e) {
             throw new EkudIllegalArgException(String.format(
                     "Event formatted wrongly\n"
-                    + "-> Ensure 'event <description> /from <%s> /to <%s>' is followed\n"
+                    + "-> Ensure 'event <description> /from <datetime> /to <datetime>' is followed\n"
+                    + "-> Accepted datetime formats: %s\n"
                     + "-> For example: event company dinner /from 20 Oct 1730 /to 20 Oct 2215",
-                    INPUT_DATETIME_FORMAT,
-                    INPUT_DATETIME_FORMAT));
+                    INPUT_DATETIME_FORMATS));
         }
     }
 
@@ -225,6 +461,140 @@ public class Parser {
         return keyword[0];
     }
 
+    /**
+     * Helper function to find archived tasks matching the user's keyword search.
+     *
+     * @param userArgs Keyword supplied by the user after --archive.
+     * @return String response of archived tasks for user.
+     * @throws EkudException If the keyword is invalid or the archive cannot be read.
+     */
+    private String parseAndFindArchived(String userArgs) throws EkudException {
+        String keyword = this.parseKeyword(userArgs);
+        if (this.archive == null) {
+            throw new EkudInvalidCommandException("Archived tasks are not kept here :/");
+        }
+        List<Task> matchingTasks = this.archive.find(keyword);
+        if (matchingTasks.isEmpty()) {
+            return String.format("No archived tasks matching the keyword '%s' were found :(", keyword);
+        }
+        StringBuilder output = new StringBuilder("Here are the matching tasks in your archive: :>\n");
+        for (Task task : matchingTasks) {
+            output.append('#').append(task.getId()).append(' ').append(task).append('\n');
+        }
+        return output.toString();
+    }
+
+    /**
+     * Helper function to archive the task with the given number, or the done tasks selected by the
+     * archive policy if none is given.
+     *
+     * @param userArgs Task number or #id supplied by the user, or an empty String.
+     * @param taskList TaskList to move tasks out of.
+     * @return String response after archiving.
+     * @throws EkudException If the task number is invalid or the archive cannot be written.
+     */
+    private String parseAndArchive(String userArgs, TaskList taskList) throws EkudException {
+        if (this.archive == null) {
+            throw new EkudInvalidCommandException("Archived tasks are not kept here :/");
+        }
+        if (userArgs.isBlank()) {
+            int numArchived = this.archiveDoneTasks(taskList);
+            return numArchived == 0
+                    ? "No done tasks are due for archiving :o"
+                    : String.format("Archived (%d) done task(s), find them with 'find --archive <keyword>' :>",
+                            numArchived);
+        }
+        int taskNum = this.parseTaskNum(userArgs.strip(), taskList);
+        Task task = taskList.getTask(taskNum - 1);
+        if (this.archiveTasks(taskList, List.of(taskNum - 1)) == 0) {
+            throw new EkudIllegalArgException(String.format(
+                    "Task #%d can't be archived, as an archived task already has its ID :/", task.getId()));
+        }
+        return String.format("Alright, this task has been archived:\n%s\nNow you have %d task(s) in the list.",
+                task, taskList.getSize());
+    }
+
+    /**
+     * Moves the done tasks selected by the configured archive policy out of the task list into the archive.
+     * New tasks are first kept from reusing the IDs of archived ones, which the saved tasks may not account
+     * for, eg after a batch adding tasks was rolled back or the saved tasks file was lost.
+     *
+     * @param taskList TaskList to move tasks out of.
+     * @return Number of tasks archived.
+     * @throws EkudIOException If the archive cannot be written, in which case no task is moved.
+     */
+    public int archiveDoneTasks(TaskList taskList) throws EkudIOException {
+        if (this.archive == null) {
+            return 0;
+        }
+        taskList.reserveIds(this.archive.getNextId());
+        LocalDateTime now = LocalDateTime.now(this.dateTimeParser.getClock());
+        List<Integer> indices = ArchivePolicy.getConfigured().selectTasks(taskList.getTasks(), now);
+        return this.archiveTasks(taskList, indices);
+    }
+
+    /**
+     * Appends tasks to the archive, then removes those now archived from the task list, last first so that
+     * the indices of the others stay valid. A task is kept if another task was archived with its ID.
+     *
+     * @return Number of tasks archived.
+     */
+    private int archiveTasks(TaskList taskList, List<Integer> indices) throws EkudIOException {
+        if (indices.isEmpty()) {
+            return 0;
+        }
+        List<Task> tasks = new ArrayList<>(indices.size());
+        for (int index : indices) {
+            tasks.add(taskList.getTask(index));
+        }
+        List<Task> archived = this.archive.append(tasks);
+        // Archived tasks are in the given order, so they are matched from the last one
+        int numLeft = archived.size();
+        for (int i = indices.size() - 1; i >= 0 && numLeft > 0; i--) {
+            if (tasks.get(i) != archived.get(numLeft - 1)) {
+                continue;
+            }
+            int index = indices.get(i);
+            taskList.removeTask(index);
+            this.record(null, HistoryEvent.archive(index));
+            numLeft--;
+        }
+        return archived.size();
+    }
+
+    /**
+     * Helper function to ensure valid arguments before adding tags to or removing tags from a task.
+     *
+     * @param command TAG or UNTAG.
+     * @param userArgs Task number or #id followed by the tags, eg '3 #work #urgent'.
+     * @param taskList
+     * @return String response after tagging.
+     * @throws EkudIllegalArgException
+     */
+    private String parseAndTag(Command command, String userArgs, TaskList taskList) throws EkudIllegalArgException {
+        String[] tagArgs = userArgs.strip().split("\\s+");
+        if (tagArgs.length < 2) {
+            throw new EkudIllegalArgException(String.format(
+                    "%s formatted wrongly\n"
+                    + "-> Ensure '%s <taskNum> <#tag> ...' is followed\n"
+                    + "-> For example: %s 3 #work #urgent",
+                    command == Command.TAG ? "Tag" : "Untag", command.getKeyword(), command.getKeyword()));
+        }
+        int taskNum = this.parseTaskNum(tagArgs[0], taskList);
+        List<String> tags = Arrays.asList(tagArgs).subList(1, tagArgs.length);
+        for (String tag : tags) {
+            if (!Tags.isTag(tag)) {
+                throw new EkudIllegalArgException(String.format(
+                        "'%s' is not a tag :o Tags start with '#' and a letter, eg #work", tag));
+            }
+        }
+        String joinedTags = String.join(" ", tags);
+        if (command == Command.TAG) {
+            return this.record(taskList.addTags(taskNum - 1, tags), HistoryEvent.tag(taskNum - 1, joinedTags));
+        }
+        return this.record(taskList.removeTags(taskNum - 1, tags), HistoryEvent.untag(taskNum - 1, joinedTags));
+    }
+
     /**
      * Helper function to ensure valid arguments before changing a task priority.
      *
@@ -236,7 +606,7 @@ public class Parser {
     private String parseAndChangePriority(String userArgs, TaskList taskList) throws EkudIllegalArgException {
         try {
             String[] prioArgs = userArgs.split(" ");
-            int taskNum = this.parseTaskNum(prioArgs[0], taskList.getSize());
+            int taskNum = this.parseTaskNum(prioArgs[0], taskList);
             Priority priority = Priority.getPriority(prioArgs[1]);
             if (priority == null) {
                 throw new EkudIllegalArgException(
@@ -244,9 +614,218 @@ public class Parser {
                         + "-> Ensure 'priority <taskNum> <high/medium/low>' is followed\n"
                         + "-> For example: priority 3 high");
             }
-            return taskList.changePriority(priority, taskNum - 1);
+            return this.record(taskList.changePriority(priority, taskNum - 1),
+                    HistoryEvent.changePriority(taskNum - 1, priority));
         } catch (IndexOutOfBoundsException e) {
             throw new EkudIllegalArgException("Please input a priority level to change to :[");
         }
     }
+
+    /**
+     * Helper function to show the most urgent undone tasks.
+     *
+     * @param userArgs Optional number of tasks to show.
+     * @param taskList
+     * @return String response listing the tasks.
+     * @throws EkudIllegalArgException
+     */
+    private String parseAndShowNextTasks(String userArgs, TaskList taskList) throws EkudIllegalArgException {
+        int numTasks = DEFAULT_NEXT_TASKS;
+        if (!userArgs.isBlank()) {
+            try {
+                numTasks = Integer.parseInt(userArgs.strip());
+            } catch (NumberFormatException e) {
+                throw new EkudIllegalArgException("Please input a valid number of tasks, eg next 3 :o");
+            }
+            if (numTasks <= 0) {
+                throw new EkudIllegalArgException("Number of tasks should be positive :o");
+            }
+        }
+        return taskList.showNextTasks(numTasks, LocalDateTime.now(this.dateTimeParser.getClock()));
+    }
+
+    /**
+     * Helper function to show the deadlines and events of a range of days, from today and for a week
+     * unless given otherwise.
+     *
+     * @param userArgs Optional first day, in any accepted datetime format with or without its time,
+     *                 followed by an optional number of days, eg '3 Jun 14'.
+     * @param taskList
+     * @return String response listing the agenda.
+     * @throws EkudIllegalArgException
+     */
+    private String parseAndShowAgenda(String userArgs, TaskList taskList) throws EkudIllegalArgException {
+        String dateArgs = userArgs.strip();
+        int numDays = DEFAULT_AGENDA_DAYS;
+        // A trailing number of up to 3 digits is the number of days, which times like 0900 are not
+        int lastSpace = dateArgs.lastIndexOf(' ');
+        String lastArg = dateArgs.substring(lastSpace + 1);
+        if (lastArg.matches("[1-9][0-9]{0,2}")) {
+            numDays = Integer.parseInt(lastArg);
+            dateArgs = lastSpace < 0 ? "" : dateArgs.substring(0, lastSpace).strip();
+        }
+        if (numDays > MAX_AGENDA_DAYS) {
+            throw new EkudIllegalArgException(AGENDA_USAGE);
+        }
+        LocalDate from = LocalDate.now(this.dateTimeParser.getClock());
+        if (!dateArgs.isEmpty()) {
+            LocalDateTime dateTime = null;
+            // A date given without its time is completed with midnight, in the layouts' two time formats
+            for (String time : AGENDA_TIMES) {
+                dateTime = dateTime != null ? dateTime : this.dateTimeParser.parse(dateArgs + time);
+            }
+            if (dateTime == null) {
+                throw new EkudIllegalArgException(AGENDA_USAGE + String.format(
+                        "\n-> Accepted datetime formats: %s", INPUT_DATETIME_FORMATS));
+            }
+            from = dateTime.toLocalDate();
+        }
+        return taskList.showAgenda(from, numDays);
+    }
+
+    /**
+     * Helper function to show the most recent changes recorded in the history journal.
+     *
+     * @param userArgs Optional number of changes to show.
+     * @return String response listing the changes.
+     * @throws EkudIllegalArgException
+     */
+    private String parseAndShowHistory(String userArgs) throws EkudIllegalArgException {
+        if (this.eventLog == null) {
+            throw new EkudIllegalArgException("History is not being recorded :/");
+        }
+        if (userArgs.isBlank()) {
+            return this.eventLog.describeRecent(DEFAULT_HISTORY_LENGTH);
+        }
+        try {
+            int numChanges = Integer.parseInt(userArgs.strip());
+            if (numChanges <= 0) {
+                throw new EkudIllegalArgException("Number of changes should be positive :o");
+            }
+            return this.eventLog.describeRecent(numChanges);
+        } catch (NumberFormatException e) {
+            throw new EkudIllegalArgException("Please input a valid number of changes, eg history 20 :o");
+        }
+    }
+
+    /**
+     * Helper function to show the tasks as they were at a past date and time, rebuilt from the history journal.
+     *
+     * @param userArgs Date and time in any of the accepted layouts.
+     * @return String response listing the tasks at that time.
+     * @throws EkudException
+     */
+    private String parseAndShowTasksAsOf(String userArgs) throws EkudException {
+        if (this.eventLog == null) {
+            throw new EkudIllegalArgException("History is not being recorded :/");
+        }
+        LocalDateTime dateTime;
+        try {
+            dateTime = this.parseDateTime(userArgs);
+        } catch (DateTimeParseException e) {
+            throw new EkudIllegalArgException(String.format(
+                    "Please input a valid date and time, eg asof 3 Jun 1830\n"
+                    + "-> Accepted datetime formats: %s", INPUT_DATETIME_FORMATS));
+        }
+        TaskList pastTaskList = this.eventLog.reconstruct(dateTime);
+        String formattedDateTime = dateTime.format(DateTimeParser.Layout.SAVED.getFormatter());
+        if (pastTaskList == null) {
+            return String.format("No history was recorded as early as %s :(", formattedDateTime);
+        }
+        return String.format("As of %s:\n%s", formattedDateTime, pastTaskList.showTasks());
+    }
+
+    /**
+     * Helper function to import the tasks of a CSV or iCalendar file, reporting progress as batches are added.
+     *
+     * @param userArgs Path of the file.
+     * @param taskList
+     * @return String response summarising the import.
+     * @throws EkudException
+     */
+    private String parseAndImport(String userArgs, TaskList taskList) throws EkudException {
+        String path = userArgs.strip();
+        if (path.isEmpty()) {
+            throw new EkudIllegalArgException("Please input the file to import, eg import backlog.csv :o");
+        }
+        TaskImporter importer = TaskImporter.open(this.resolveUserPath(path).toFile(), this.dateTimeParser);
+        Consumer<String> listener = this.progressListener;
+        importer.importInto(taskList, numImported -> {
+            if (listener != null) {
+                listener.accept(String.format("Imported %d task(s) so far...", numImported));
+            }
+        });
+        int numImported = importer.getNumImported();
+        if (numImported > 0) {
+            this.record(null, HistoryEvent.importTasks(path, numImported));
+        }
+        StringBuilder response = new StringBuilder(String.format("Imported %d task(s) from %s", numImported, path));
+        if (importer.getNumSkipped() > 0) {
+            response.append(String.format(", skipping %d that could not be read (first at %s)",
+                    importer.getNumSkipped(), importer.getFirstSkipReason()));
+        }
+        IOException readError = importer.getReadError();
+        if (readError != null) {
+            response.append(String.format("\nStopped before the end of the file, as %s :(", readError.getMessage()));
+        }
+        return response.append(String.format("\nNow you have %d task(s) in the list.", taskList.getSize()))
+                .toString();
+    }
+
+    /**
+     * Helper function to export the tasks matching the given filters to a CSV or iCalendar file.
+     *
+     * @param userArgs Format, path of the file and optional filters.
+     * @param taskList
+     * @return String response summarising the export.
+     * @throws EkudException
+     */
+    private String parseAndExport(String userArgs, TaskList taskList) throws EkudException {
+        String[] exportArgs = userArgs.strip().split(" /");
+        String[] formatAndPath = exportArgs[0].split(" ", 2);
+        TaskExporter.Format format = TaskExporter.Format.getFormat(formatAndPath[0]);
+        if (format == null || formatAndPath.length < 2 || formatAndPath[1].isBlank()) {
+            throw new EkudIllegalArgException(EXPORT_USAGE);
+        }
+        TaskFilter filter = TaskFilter.ALL;
+        for (int i = 1; i < exportArgs.length; i++) {
+            filter = this.parseExportFilter(exportArgs[i].strip(), filter);
+        }
+        String path = formatAndPath[1].strip();
+        TaskExporter exporter = new TaskExporter(format, this.dateTimeParser.getClock());
+        int numExported = exporter.export(taskList.getTasks(), filter, this.resolveUserPath(path));
+        return String.format("Exported %d of your %d task(s) to %s", numExported, taskList.getSize(), path);
+    }
+
+    /**
+     * Adds a filter of the export command, eg 'priority high' or 'from 3 Jun 1830', to the given filter.
+     */
+    private TaskFilter parseExportFilter(String filterArg, TaskFilter filter) throws EkudIllegalArgException {
+        String[] nameAndValue = filterArg.split(" ", 2);
+        String value = nameAndValue.length > 1 ? nameAndValue[1].strip() : "";
+        switch (nameAndValue[0]) {
+        case "done":
+            return filter.withDone(true);
+        case "undone":
+            return filter.withDone(false);
+        case "priority":
+            Priority priority = Priority.getPriority(value);
+            if (priority == null) {
+                throw new EkudIllegalArgException(EXPORT_USAGE);
+            }
+            return filter.withPriority(priority);
+        case "from":
+        case "to":
+            LocalDateTime dateTime;
+            try {
+                dateTime = this.parseDateTime(value);
+            } catch (DateTimeParseException e) {
+                throw new EkudIllegalArgException(EXPORT_USAGE + String.format(
+                        "\n-> Accepted datetime formats: %s", INPUT_DATETIME_FORMATS));
+            }
+            return nameAndValue[0].equals("from") ? filter.withFrom(dateTime) : filter.withTo(dateTime);
+        default:
+            throw new EkudIllegalArgException(EXPORT_USAGE);
+        }
+    }
 }
@@ -0,0 +1,342 @@
+package ekud.parser;
+
+import java.time.Clock;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The RelativeDateResolver class turns natural-language date expressions such as {@code tomorrow 5pm},
+ * {@code next mon}, {@code in 3 days} or {@code eod} into a LocalDateTime relative to an injectable clock.
+ * Expressions which only depend on the current day are memoized per (expression, day), so repeated
+ * bulk adds with the same expression skip tokenizing and resolving. Expressions which also depend on the
+ * current time, ie offsets in minutes or hours and bare times, are resolved afresh every time.
+ */
+public class RelativeDateResolver {
+    // Time used when an expression names a day but no time, ie the end of that day
+    private static final LocalTime DEFAULT_TIME = LocalTime.of(23, 59);
+    private static final int MAX_CACHED_EXPRESSIONS = 256;
+    // Full day names and their usual abbreviations, so that eg 'month' or 'satisfy' is not taken for a day
+    private static final Map<String, DayOfWeek> WEEKDAYS = Map.ofEntries(
+            Map.entry("mon", DayOfWeek.MONDAY), Map.entry("monday", DayOfWeek.MONDAY),
+            Map.entry("tue", DayOfWeek.TUESDAY), Map.entry("tues", DayOfWeek.TUESDAY),
+            Map.entry("tuesday", DayOfWeek.TUESDAY),
+            Map.entry("wed", DayOfWeek.WEDNESDAY), Map.entry("weds", DayOfWeek.WEDNESDAY),
+            Map.entry("wednesday", DayOfWeek.WEDNESDAY),
+            Map.entry("thu", DayOfWeek.THURSDAY), Map.entry("thur", DayOfWeek.THURSDAY),
+            Map.entry("thurs", DayOfWeek.THURSDAY), Map.entry("thursday", DayOfWeek.THURSDAY),
+            Map.entry("fri", DayOfWeek.FRIDAY), Map.entry("friday", DayOfWeek.FRIDAY),
+            Map.entry("sat", DayOfWeek.SATURDAY), Map.entry("saturday", DayOfWeek.SATURDAY),
+            Map.entry("sun", DayOfWeek.SUNDAY), Map.entry("sunday", DayOfWeek.SUNDAY));
+
+    private final Clock clock;
+    // Resolved expressions for cacheDay, evicting the least recently used once full
+    private final Map<String, LocalDateTime> cache;
+    private LocalDate cacheDay;
+
+    /**
+     * Constructs a RelativeDateResolver which resolves expressions against the given clock.
+     *
+     * @param clock Clock deciding the current date and time.
+     */
+    public RelativeDateResolver(Clock clock) {
+        this.clock = clock;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, LocalDateTime> eldest) {
+                return this.size() > MAX_CACHED_EXPRESSIONS;
+            }
+        };
+    }
+
+    /**
+     * Resolves the given expression relative to the current time of the clock.
+     *
+     * @param expression Natural-language date expression, eg tomorrow 5pm.
+     * @return LocalDateTime, or null if the expression is not understood.
+     */
+    public LocalDateTime resolve(String expression) {
+        LocalDateTime now = LocalDateTime.now(this.clock);
+        String key = expression.trim().toLowerCase(Locale.ENGLISH);
+        synchronized (this.cache) {
+            if (!now.toLocalDate().equals(this.cacheDay)) {
+                this.cache.clear();
+                this.cacheDay = now.toLocalDate();
+            }
+            LocalDateTime cached = this.cache.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        Resolution resolution = new Resolution(now);
+        if (!resolution.run(tokenize(key))) {
+            return null;
+        }
+        LocalDateTime result = resolution.result();
+        if (resolution.isCacheable()) {
+            synchronized (this.cache) {
+                if (now.toLocalDate().equals(this.cacheDay)) {
+                    this.cache.put(key, result);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Splits an expression into lowercase words, separating numbers from a trailing am/pm
+     * so that {@code 5pm} and {@code 5 pm} produce the same tokens.
+     */
+    static List<String> tokenize(String expression) {
+        List<String> tokens = new ArrayList<>();
+        int len = expression.length();
+        int pos = 0;
+        while (pos < len) {
+            char c = expression.charAt(pos);
+            if (c == ' ' || c == '\t' || c == ',') {
+                pos++;
+                continue;
+            }
+            int start = pos;
+            if (Character.isDigit(c)) {
+                while (pos < len && (Character.isDigit(expression.charAt(pos)) || expression.charAt(pos) == ':')) {
+                    pos++;
+                }
+            } else {
+                while (pos < len && Character.isLetter(expression.charAt(pos))) {
+                    pos++;
+                }
+                if (pos == start) {
+                    pos++; // Keep unknown symbols as single tokens so they fail to resolve
+                }
+            }
+            tokens.add(expression.substring(start, pos));
+        }
+        return tokens;
+    }
+
+    /**
+     * State of resolving one expression: an optional day and an optional time of day.
+     */
+    private static class Resolution {
+        private final LocalDateTime now;
+        private LocalDate date;
+        private LocalTime time;
+        // Set when the result is an offset from the current time rather than from the current day
+        private boolean isTimeRelative;
+        private LocalDateTime offsetResult;
+
+        Resolution(LocalDateTime now) {
+            this.now = now;
+        }
+
+        /**
+         * Consumes all tokens, returning false on the first one that cannot be understood.
+         */
+        boolean run(List<String> tokens) {
+            if (tokens.isEmpty()) {
+                return false;
+            }
+            int i = 0;
+            while (i < tokens.size()) {
+                int consumed = this.step(tokens, i);
+                if (consumed == 0) {
+                    return false;
+                }
+                i += consumed;
+            }
+            return true;
+        }
+
+        /**
+         * Resolves the construct starting at token i and returns how many tokens it used, or 0.
+         */
+        private int step(List<String> tokens, int i) {
+            String token = tokens.get(i);
+            String next = i + 1 < tokens.size() ? tokens.get(i + 1) : null;
+            switch (token) {
+            case "today":
+                return this.setDate(this.now.toLocalDate()) ? 1 : 0;
+            case "tomorrow":
+            case "tmr":
+                return this.setDate(this.now.toLocalDate().plusDays(1)) ? 1 : 0;
+            case "eod":
+                return this.setDate(this.now.toLocalDate()) && this.setTime(DEFAULT_TIME) ? 1 : 0;
+            case "noon":
+                return this.setTime(LocalTime.NOON) ? 1 : 0;
+            case "midnight":
+                return this.setTime(LocalTime.MIDNIGHT) ? 1 : 0;
+            case "next":
+            case "this":
+                DayOfWeek weekday = next == null ? null : WEEKDAYS.get(next);
+                return weekday != null && this.setDate(this.upcoming(weekday)) ? 2 : 0;
+            case "in":
+                return next != null && i + 2 < tokens.size() && this.addOffset(next, tokens.get(i + 2)) ? 3 : 0;
+            default:
+                break;
+            }
+            DayOfWeek weekday = WEEKDAYS.get(token);
+            if (weekday != null) {
+                return this.setDate(this.upcoming(weekday)) ? 1 : 0;
+            }
+            if (Character.isDigit(token.charAt(0))) {
+                boolean hasMeridiem = "am".equals(next) || "pm".equals(next);
+                LocalTime parsed = parseTime(token, hasMeridiem ? next : null);
+                return parsed != null && this.setTime(parsed) ? (hasMeridiem ? 2 : 1) : 0;
+            }
+            return 0;
+        }
+
+        private boolean setDate(LocalDate date) {
+            if (this.date != null || this.offsetResult != null) {
+                return false;
+            }
+            this.date = date;
+            return true;
+        }
+
+        private boolean setTime(LocalTime time) {
+            if (this.time != null || this.isTimeRelative) {
+                return false;
+            }
+            this.time = time;
+            return true;
+        }
+
+        /**
+         * Handles {@code in <amount> <unit>}, where minutes and hours offset the current time
+         * and larger units offset the current day.
+         */
+        private boolean addOffset(String amountToken, String unit) {
+            if (this.date != null || this.offsetResult != null || !isNumber(amountToken)
+                    || amountToken.length() > 4) {
+                return false;
+            }
+            int amount = Integer.parseInt(amountToken);
+            LocalDate today = this.now.toLocalDate();
+            switch (unit) {
+            case "min":
+            case "mins":
+            case "minute":
+            case "minutes":
+                return this.setOffsetResult(this.now.plusMinutes(amount));
+            case "h":
+            case "hr":
+            case "hrs":
+            case "hour":
+            case "hours":
+                return this.setOffsetResult(this.now.plusHours(amount));
+            case "d":
+            case "day":
+            case "days":
+                return this.setDate(today.plusDays(amount));
+            case "w":
+            case "wk":
+            case "wks":
+            case "week":
+            case "weeks":
+                return this.setDate(today.plusWeeks(amount));
+            case "month":
+            case "months":
+                return this.setDate(today.plusMonths(amount));
+            default:
+                return false;
+            }
+        }
+
+        private boolean setOffsetResult(LocalDateTime result) {
+            if (this.time != null) {
+                return false;
+            }
+            this.offsetResult = result.withSecond(0).withNano(0);
+            this.isTimeRelative = true;
+            return true;
+        }
+
+        /**
+         * Returns the next date falling on the given weekday, strictly after today.
+         */
+        private LocalDate upcoming(DayOfWeek weekday) {
+            LocalDate today = this.now.toLocalDate();
+            int daysAhead = weekday.getValue() - today.getDayOfWeek().getValue();
+            return today.plusDays(daysAhead <= 0 ? daysAhead + 7 : daysAhead);
+        }
+
+        /**
+         * Returns whether the result only depends on the current day. A bare time does not, since it
+         * moves to the next day once the time has passed.
+         */
+        boolean isCacheable() {
+            return !this.isTimeRelative && this.date != null;
+        }
+
+        LocalDateTime result() {
+            if (this.offsetResult != null) {
+                return this.offsetResult;
+            }
+            LocalDate resultDate = this.date;
+            if (resultDate == null) {
+                // A bare time means its next occurrence, today if it is still ahead
+                boolean isPassed = !this.time.isAfter(this.now.toLocalTime());
+                resultDate = isPassed ? this.now.toLocalDate().plusDays(1) : this.now.toLocalDate();
+            }
+            return LocalDateTime.of(resultDate, this.time != null ? this.time : DEFAULT_TIME);
+        }
+    }
+
+    private static boolean isNumber(String token) {
+        if (token.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < token.length(); i++) {
+            if (!Character.isDigit(token.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Parses {@code 5}, {@code 5:30}, {@code 1730} or {@code 17:30}, with an optional am/pm marker.
+     *
+     * @return LocalTime, or null if the token is not a valid time.
+     */
+    private static LocalTime parseTime(String token, String meridiem) {
+        int colon = token.indexOf(':');
+        String hourPart;
+        String minutePart;
+        if (colon >= 0) {
+            hourPart = token.substring(0, colon);
+            minutePart = token.substring(colon + 1);
+        } else if (token.length() == 4) {
+            hourPart = token.substring(0, 2);
+            minutePart = token.substring(2);
+        } else {
+            hourPart = token;
+            minutePart = "00";
+        }
+        if (!isNumber(hourPart) || !isNumber(minutePart) || hourPart.length() > 2 || minutePart.length() != 2) {
+            return null;
+        }
+        int hour = Integer.parseInt(hourPart);
+        int minute = Integer.parseInt(minutePart);
+        if (meridiem != null) {
+            if (hour < 1 || hour > 12) {
+                return null;
+            }
+            hour = hour % 12 + ("pm".equals(meridiem) ? 12 : 0);
+        } else if (colon < 0 && token.length() != 4) {
+            return null; // A bare number such as "5" is too ambiguous without am/pm
+        }
+        if (hour > 23 || minute > 59) {
+            return null;
+        }
+        return LocalTime.of(hour, minute);
+    }
+}
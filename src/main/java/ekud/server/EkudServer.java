@@ -0,0 +1,227 @@
+package ekud.server;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import ekud.exceptions.EkudException;
+
+/**
+ * Local server exposing the chatbot over a TCP socket on the loopback interface, speaking the
+ * LineProtocol. Each connection is handled on its own (virtual, where available) thread.
+ * A connection works on the default user's task list until it sends {@code login <userId>}.
+ * Commands on the same task list are serialized by its session's lock, which is only held while
+ * a command runs, so connections waiting on their clients do not hold up other connections.
+ */
+public class EkudServer implements Closeable {
+    public static final int DEFAULT_PORT = 4949;
+    private static final int BACKLOG = 4096;
+    private static final String QUIT_COMMAND = "quit";
+    private static final String LOGIN_COMMAND = "login";
+    private static final int DEFAULT_MAX_SESSIONS = 1000;
+    private static final long DEFAULT_MAX_LOADED_TASKS = 1_000_000;
+    // Longest request accepted, beyond which the connection is dropped
+    private static final int MAX_REQUEST_CHARS = 64 * 1024;
+
+    private final SessionManager sessionManager;
+    private final ServerSocket serverSocket;
+    private final ExecutorService executor;
+    private final AtomicBoolean isClosed;
+
+    /**
+     * Constructs an EkudServer listening on the given local port.
+     *
+     * @param sessionManager Sessions holding the task lists of all users.
+     * @param port Port to listen on, or 0 for any free port.
+     * @throws IOException If the port cannot be bound.
+     */
+    public EkudServer(SessionManager sessionManager, int port) throws IOException {
+        this.sessionManager = sessionManager;
+        this.serverSocket = new ServerSocket(port, BACKLOG, InetAddress.getLoopbackAddress());
+        this.executor = ThreadPerTaskExecutor.create();
+        this.isClosed = new AtomicBoolean(false);
+    }
+
+    /**
+     * Returns the port the server is listening on.
+     *
+     * @return int
+     */
+    public int getPort() {
+        return this.serverSocket.getLocalPort();
+    }
+
+    /**
+     * Accepts connections until the server is closed.
+     *
+     * @throws IOException If accepting a connection fails for a reason other than closing.
+     */
+    public void serve() throws IOException {
+        while (!this.serverSocket.isClosed()) {
+            Socket socket;
+            try {
+                socket = this.serverSocket.accept();
+            } catch (SocketException e) {
+                if (this.serverSocket.isClosed()) {
+                    return;
+                }
+                throw e;
+            }
+            this.executor.execute(() -> this.handle(socket));
+        }
+    }
+
+    /**
+     * Runs the commands of one connection until the client quits or disconnects.
+     */
+    private void handle(Socket socket) {
+        try (socket) {
+            socket.setTcpNoDelay(true);
+            BufferedReader in = new BufferedReader(
+                    new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            Writer out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+            String userId = SessionManager.DEFAULT_USER;
+            String line;
+            while ((line = LineProtocol.readRequest(in, MAX_REQUEST_CHARS)) != null
+                    && !line.strip().equals(QUIT_COMMAND)) {
+                String[] words = line.strip().split(" ");
+                if (words[0].equals(LOGIN_COMMAND)) {
+                    if (words.length != 2 || !SessionManager.isValidUserId(words[1])) {
+                        LineProtocol.writeResponse(out, "Usage: login <userId> (letters, digits, '_' and '-' only) :/");
+                        continue;
+                    }
+                    String loginError = this.load(words[1]);
+                    userId = loginError == null ? words[1] : userId;
+                    LineProtocol.writeResponse(out, loginError == null
+                            ? String.format("Logged in as '%s' :)", userId)
+                            : String.format("Could not log in as '%s':\n%s", words[1], loginError));
+                    continue;
+                }
+                LineProtocol.writeResponse(out, this.execute(userId, line));
+            }
+        } catch (IOException e) {
+            // The client went away or sent a request too long to accept; nothing is left to respond to
+        }
+    }
+
+    /**
+     * Loads a user's task list if it is not loaded yet, so that a login fails if it cannot be read.
+     *
+     * @return Error message, or null if the task list is loaded.
+     */
+    private String load(String userId) {
+        try {
+            this.sessionManager.release(this.sessionManager.acquire(userId));
+            return null;
+        } catch (EkudException e) {
+            return e.toString();
+        }
+    }
+
+    /**
+     * Executes one user input on a user's task list, one command at a time per list.
+     *
+     * @param userId ID of the user whose task list is used.
+     * @param userInput User input consisting of a command and its arguments.
+     * @return String response for the user.
+     */
+    public String execute(String userId, String userInput) {
+        Session session;
+        try {
+            session = this.sessionManager.acquire(userId);
+        } catch (EkudException e) {
+            return e.toString();
+        }
+        try {
+            return session.execute(userInput);
+        } finally {
+            this.sessionManager.release(session);
+        }
+    }
+
+    /**
+     * Stops accepting connections and saves the task lists of all loaded sessions.
+     *
+     * @throws IOException If the server socket cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        if (this.isClosed.getAndSet(true)) {
+            return;
+        }
+        this.serverSocket.close();
+        this.executor.shutdown();
+        this.sessionManager.saveAll();
+    }
+
+    /**
+     * Entry point for the server mode, reading options that follow the --server flag.
+     *
+     * @param args Command line arguments after --server, ie an optional port followed by
+     *     optional --max-sessions and --max-tasks budgets.
+     * @return Exit status of the server.
+     */
+    public static int main(String[] args) {
+        int port = DEFAULT_PORT;
+        int maxSessions = DEFAULT_MAX_SESSIONS;
+        long maxLoadedTasks = DEFAULT_MAX_LOADED_TASKS;
+        try {
+            int i = 0;
+            if (args.length > 0 && !args[0].startsWith("--")) {
+                port = Integer.parseInt(args[i++]);
+            }
+            for (; i < args.length; i += 2) {
+                if (args[i].equals("--max-sessions")) {
+                    maxSessions = Integer.parseInt(args[i + 1]);
+                } else if (args[i].equals("--max-tasks")) {
+                    maxLoadedTasks = Long.parseLong(args[i + 1]);
+                } else {
+                    throw new IllegalArgumentException(args[i]);
+                }
+            }
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            System.err.println("Usage: ekud --server [port] [--max-sessions <n>] [--max-tasks <n>]");
+            return 1;
+        }
+        SessionManager sessionManager = new SessionManager("data", Math.max(1, maxSessions), maxLoadedTasks);
+        EkudServer server;
+        try {
+            server = new EkudServer(sessionManager, port);
+        } catch (IOException e) {
+            System.err.println("Error with running server: " + e);
+            return 1;
+        }
+        // Stopped by the shutdown hook on Ctrl+C, or below once it stops serving; closing twice does nothing
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> stop(server)));
+        System.err.println(String.format("[Ekud server listening on localhost:%d using %s threads]",
+                server.getPort(), ThreadPerTaskExecutor.isVirtual() ? "virtual" : "platform"));
+        try {
+            server.serve();
+            return 0;
+        } catch (IOException e) {
+            System.err.println("Error with running server: " + e);
+            return 1;
+        } finally {
+            stop(server);
+        }
+    }
+
+    private static void stop(EkudServer server) {
+        try {
+            server.close();
+        } catch (IOException e) {
+            System.err.println("Error with stopping server: " + e);
+        }
+    }
+}
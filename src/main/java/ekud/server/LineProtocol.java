@@ -0,0 +1,86 @@
+package ekud.server;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Line-based wire format shared by the server and its clients. A request is a single line holding
+ * one user input. A response is any number of lines ended by a line holding a single '.', with
+ * response lines that start with '.' escaped by an extra leading '.'.
+ */
+public class LineProtocol {
+    private static final String END_OF_RESPONSE = ".";
+
+    /**
+     * Writes a response terminated by the end-of-response line, then flushes the writer.
+     *
+     * @param out Writer of the connection.
+     * @param response Response to send, possibly spanning several lines.
+     * @throws IOException If writing fails.
+     */
+    public static void writeResponse(Writer out, String response) throws IOException {
+        int start = 0;
+        int len = response.length();
+        while (start < len) {
+            int end = response.indexOf('\n', start);
+            end = end == -1 ? len : end;
+            if (response.charAt(start) == '.') {
+                out.write('.');
+            }
+            out.write(response, start, end - start);
+            out.write('\n');
+            start = end + 1;
+        }
+        out.write(END_OF_RESPONSE);
+        out.write('\n');
+        out.flush();
+    }
+
+    /**
+     * Reads one request line without its line break, refusing a line longer than a limit so that a client
+     * cannot fill the heap by sending a line which never ends.
+     *
+     * @param in Reader of the connection.
+     * @param maxChars Most characters a request may hold.
+     * @return The request, or null if the connection was closed first.
+     * @throws IOException If reading fails or the request is longer than maxChars.
+     */
+    public static String readRequest(BufferedReader in, int maxChars) throws IOException {
+        StringBuilder request = new StringBuilder();
+        int c;
+        while ((c = in.read()) != -1) {
+            if (c == '\n') {
+                int len = request.length();
+                return len > 0 && request.charAt(len - 1) == '\r' ? request.substring(0, len - 1) : request.toString();
+            }
+            if (request.length() == maxChars) {
+                throw new IOException("Request longer than " + maxChars + " characters");
+            }
+            request.append((char) c);
+        }
+        return request.length() > 0 ? request.toString() : null;
+    }
+
+    /**
+     * Reads one response, undoing the escaping of lines that start with '.'.
+     *
+     * @param in Reader of the connection.
+     * @return The response, or null if the connection was closed first.
+     * @throws IOException If reading fails.
+     */
+    public static String readResponse(BufferedReader in) throws IOException {
+        StringBuilder response = new StringBuilder();
+        String line;
+        while ((line = in.readLine()) != null) {
+            if (line.equals(END_OF_RESPONSE)) {
+                return response.toString();
+            }
+            if (response.length() > 0) {
+                response.append('\n');
+            }
+            response.append(line.startsWith(".") ? line.substring(1) : line);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,179 @@
+package ekud.server;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Load-test client for EkudServer. It opens many concurrent lightweight connections, each sending
+ * a fixed number of commands in a closed loop, and reports throughput and latency percentiles.
+ * Usage: {@code java -cp ekud.jar ekud.server.LoadTestClient [--port <p>] [--clients <n>]
+ * [--requests <m>] [--command <input>]...}
+ */
+public class LoadTestClient {
+    // Default mix keeps the list size steady: every added task is deleted again
+    private static final String[] DEFAULT_COMMANDS = {"todo load test task", "mark 1", "unmark 1", "delete 1"};
+
+    private final int port;
+    private final int numClients;
+    private final int numRequests;
+    private final String[] commands;
+
+    /**
+     * Constructs a LoadTestClient for a server on the given local port.
+     *
+     * @param port Port of the server.
+     * @param numClients Number of concurrent connections.
+     * @param numRequests Number of commands sent by each connection.
+     * @param commands Commands each connection cycles through.
+     */
+    public LoadTestClient(int port, int numClients, int numRequests, String... commands) {
+        this.port = port;
+        this.numClients = numClients;
+        this.numRequests = numRequests;
+        this.commands = commands;
+    }
+
+    /**
+     * Runs the load test to completion and returns a report of its results.
+     *
+     * @return String report.
+     * @throws InterruptedException If interrupted while waiting for clients.
+     */
+    public String run() throws InterruptedException {
+        long[][] latencies = new long[this.numClients][];
+        AtomicLong numFailures = new AtomicLong();
+        CountDownLatch done = new CountDownLatch(this.numClients);
+        ExecutorService executor = ThreadPerTaskExecutor.create();
+        long startTime = System.nanoTime();
+        for (int i = 0; i < this.numClients; i++) {
+            int client = i;
+            executor.execute(() -> {
+                try {
+                    latencies[client] = this.runClient();
+                } catch (IOException e) {
+                    numFailures.incrementAndGet();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        long elapsed = System.nanoTime() - startTime;
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+        return this.report(latencies, numFailures.get(), elapsed);
+    }
+
+    /**
+     * Sends this client's commands over one connection, returning the latency of each in nanoseconds.
+     */
+    private long[] runClient() throws IOException {
+        long[] latencies = new long[this.numRequests];
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), this.port)) {
+            socket.setTcpNoDelay(true);
+            BufferedReader in = new BufferedReader(
+                    new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            Writer out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+            for (int i = 0; i < this.numRequests; i++) {
+                long sentAt = System.nanoTime();
+                out.write(this.commands[i % this.commands.length]);
+                out.write('\n');
+                out.flush();
+                if (LineProtocol.readResponse(in) == null) {
+                    throw new IOException("Server closed the connection");
+                }
+                latencies[i] = System.nanoTime() - sentAt;
+            }
+            out.write("quit\n");
+            out.flush();
+        }
+        return latencies;
+    }
+
+    private String report(long[][] latencies, long numFailures, long elapsedNanos) {
+        List<long[]> completed = new ArrayList<>();
+        int total = 0;
+        for (long[] clientLatencies : latencies) {
+            if (clientLatencies != null) {
+                completed.add(clientLatencies);
+                total += clientLatencies.length;
+            }
+        }
+        long[] all = new long[total];
+        int pos = 0;
+        for (long[] clientLatencies : completed) {
+            System.arraycopy(clientLatencies, 0, all, pos, clientLatencies.length);
+            pos += clientLatencies.length;
+        }
+        Arrays.sort(all);
+        double seconds = elapsedNanos / 1e9;
+        return String.format("[%d client(s), %d failed, %d request(s) in %.3f s, %.0f requests/s]\n"
+                + "[latency ms: p50=%.3f p90=%.3f p99=%.3f max=%.3f]",
+                this.numClients, numFailures, total, seconds, total / seconds,
+                percentile(all, 50), percentile(all, 90), percentile(all, 99), percentile(all, 100));
+    }
+
+    /**
+     * Returns the given percentile of sorted latencies in milliseconds.
+     */
+    private static double percentile(long[] sorted, double percent) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percent / 100 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1e6;
+    }
+
+    /**
+     * Runs a load test against a local server from the command line.
+     *
+     * @param args Command line options.
+     * @throws InterruptedException If interrupted while waiting for clients.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int port = EkudServer.DEFAULT_PORT;
+        int numClients = 1000;
+        int numRequests = 100;
+        List<String> commands = new ArrayList<>();
+        try {
+            for (int i = 0; i + 1 < args.length; i += 2) {
+                switch (args[i]) {
+                case "--port":
+                    port = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--clients":
+                    numClients = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--requests":
+                    numRequests = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--command":
+                    commands.add(args[i + 1]);
+                    break;
+                default:
+                    throw new IllegalArgumentException(args[i]);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println("Usage: LoadTestClient [--port <p>] [--clients <n>] [--requests <m>] "
+                    + "[--command <input>]...");
+            System.exit(1);
+        }
+        String[] mix = commands.isEmpty() ? DEFAULT_COMMANDS : commands.toArray(new String[0]);
+        System.out.println(new LoadTestClient(port, numClients, numRequests, mix).run());
+    }
+}
@@ -0,0 +1,104 @@
+package ekud.server;
+
+import java.nio.file.Paths;
+import java.util.concurrent.locks.ReentrantLock;
+
+import ekud.Ekud;
+import ekud.exceptions.EkudIOException;
+
+/**
+ * One user's chatbot, ie their own TaskList and Storage pair, as managed by the SessionManager.
+ * The chatbot is loaded lazily and dropped again on eviction, while the Session itself only
+ * tracks usage. Commands on a session are serialized by its lock. Imports and exports only reach the
+ * files directory next to the user's saved tasks, so that users cannot read or overwrite each other's files.
+ */
+public class Session {
+    // Directory next to the saved tasks which the user's imports and exports are confined to
+    private static final String FILES_DIRECTORY_NAME = "files";
+
+    private final String userId;
+    private final String savePath;
+    private final ReentrantLock lock;
+    // Loaded chatbot, or null while the session's tasks are only on the hard disk
+    private Ekud ekud;
+    // Fields below are guarded by the SessionManager
+    int numPins;
+    int lastTaskCount;
+
+    Session(String userId, String savePath) {
+        this.userId = userId;
+        this.savePath = savePath;
+        this.lock = new ReentrantLock();
+    }
+
+    public String getUserId() {
+        return this.userId;
+    }
+
+    /**
+     * Executes one user input on this session's tasks. The caller must hold the session,
+     * ie have acquired it from the SessionManager and not released it yet.
+     *
+     * @param userInput User input consisting of a command and its arguments.
+     * @return String response for the user.
+     */
+    public String execute(String userInput) {
+        assert this.lock.isHeldByCurrentThread() : "Session should be acquired before executing commands";
+        return this.ekud.getResponse(userInput);
+    }
+
+    void lock() {
+        this.lock.lock();
+    }
+
+    void unlock() {
+        this.lock.unlock();
+    }
+
+    int getTaskCount() {
+        return this.ekud == null ? 0 : this.ekud.getTaskCount();
+    }
+
+    /**
+     * Loads the session's tasks from the hard disk if they are not in memory already.
+     * If they cannot be read, the session stays unloaded, so that its file is never overwritten.
+     *
+     * @throws EkudIOException If the saved tasks cannot be read.
+     */
+    void ensureLoaded() throws EkudIOException {
+        if (this.ekud != null) {
+            return;
+        }
+        Ekud loaded = new Ekud(this.savePath);
+        loaded.setFileDirectory(Paths.get(this.savePath).toAbsolutePath().resolveSibling(FILES_DIRECTORY_NAME));
+        try {
+            loaded.load();
+        } catch (EkudIOException e) {
+            try {
+                loaded.close();
+            } catch (EkudIOException closeError) {
+                e.addSuppressed(closeError);
+            }
+            throw e;
+        }
+        this.ekud = loaded;
+    }
+
+    /**
+     * Writes the session's tasks back to the hard disk and drops them from memory.
+     * The tasks stay loaded if they cannot be written back.
+     *
+     * @throws EkudIOException If the tasks cannot be saved.
+     */
+    void unload() throws EkudIOException {
+        if (this.ekud == null) {
+            return;
+        }
+        // An ended chatbot has already saved its tasks
+        if (this.ekud.isActive()) {
+            this.ekud.flush();
+        }
+        this.ekud.close();
+        this.ekud = null;
+    }
+}
@@ -0,0 +1,219 @@
+package ekud.server;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import ekud.Ekud;
+import ekud.exceptions.EkudException;
+import ekud.exceptions.EkudIOException;
+import ekud.exceptions.EkudIllegalArgException;
+
+/**
+ * The SessionManager maps user IDs to their own Session, ie their own TaskList and Storage pair,
+ * so that a single JVM can serve many users' lists without holding all of them in the heap.
+ * Sessions are loaded on first access and kept in least-recently-used order. Whenever the loaded
+ * sessions exceed the count or task budget, the least recently used idle ones are written back
+ * to the hard disk and evicted.
+ */
+public class SessionManager {
+    public static final String DEFAULT_USER = "default";
+    private static final Pattern USER_ID_PATTERN = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+
+    private final String dataDir;
+    private final int maxSessions;
+    // Budget on tasks held in memory by all loaded sessions together, as a proxy for their heap usage
+    private final long maxLoadedTasks;
+    // Loaded sessions in least-recently-used order, guarded by this
+    private final LinkedHashMap<String, Session> sessions;
+    // Evicted sessions whose tasks are still being written back, guarded by this
+    private final Map<String, Session> evicting;
+    private long loadedTasks;
+
+    /**
+     * Constructs a SessionManager keeping users' saved tasks under the given directory.
+     *
+     * @param dataDir Directory holding the saved tasks files of all users.
+     * @param maxSessions Maximum number of sessions kept in memory.
+     * @param maxLoadedTasks Maximum number of tasks kept in memory across all sessions.
+     */
+    public SessionManager(String dataDir, int maxSessions, long maxLoadedTasks) {
+        assert maxSessions > 0 : "At least one session should fit in memory";
+        this.dataDir = dataDir;
+        this.maxSessions = maxSessions;
+        this.maxLoadedTasks = maxLoadedTasks;
+        this.sessions = new LinkedHashMap<>(16, 0.75f, true);
+        this.evicting = new HashMap<>();
+    }
+
+    /**
+     * Returns whether the given user ID is acceptable, ie safe to use in a file name.
+     *
+     * @param userId User ID to check.
+     * @return boolean
+     */
+    public static boolean isValidUserId(String userId) {
+        return USER_ID_PATTERN.matcher(userId).matches();
+    }
+
+    /**
+     * Returns the saved tasks file of a user. The default user keeps a file named like the single-user one,
+     * directly under the data directory.
+     */
+    private String getSavePath(String userId) {
+        if (userId.equals(DEFAULT_USER)) {
+            return new File(this.dataDir, new File(Ekud.DEFAULT_SAVE_PATH).getName()).getPath();
+        }
+        return this.dataDir + File.separator + "users" + File.separator + userId + File.separator + "savedTasks.txt";
+    }
+
+    /**
+     * Returns the session of the given user, loading its tasks if needed, and locks it for the calling
+     * thread so that its commands are serialized. Every successful acquire must be followed by release().
+     *
+     * @param userId ID of the user.
+     * @return Session of the user.
+     * @throws EkudIllegalArgException If the user ID is not acceptable.
+     * @throws EkudIOException If the user's saved tasks cannot be read, in which case they are left untouched.
+     */
+    public Session acquire(String userId) throws EkudException {
+        if (!isValidUserId(userId)) {
+            throw new EkudIllegalArgException("User IDs may only contain letters, digits, '_' and '-' :/");
+        }
+        Session session;
+        synchronized (this) {
+            session = this.sessions.get(userId);
+            if (session == null) {
+                // Take back a session which is being evicted, so its tasks are never loaded twice
+                session = this.evicting.remove(userId);
+                session = session != null ? session : new Session(userId, this.getSavePath(userId));
+                this.sessions.put(userId, session);
+            }
+            session.numPins++;
+        }
+        session.lock();
+        try {
+            session.ensureLoaded();
+        } catch (EkudIOException e) {
+            session.unlock();
+            synchronized (this) {
+                // Dropped unless others are waiting for it, so that the next acquire tries loading again
+                if (--session.numPins == 0) {
+                    this.sessions.remove(userId, session);
+                }
+            }
+            throw e;
+        }
+        return session;
+    }
+
+    /**
+     * Unlocks a session acquired by the calling thread, then evicts idle sessions if the budget is exceeded.
+     *
+     * @param session Session to release.
+     */
+    public void release(Session session) {
+        int taskCount = session.getTaskCount();
+        session.unlock();
+        synchronized (this) {
+            session.numPins--;
+            this.loadedTasks += taskCount - session.lastTaskCount;
+            session.lastTaskCount = taskCount;
+        }
+        this.evictOverBudget();
+    }
+
+    /**
+     * Returns the number of sessions currently kept in memory.
+     *
+     * @return int
+     */
+    public synchronized int getLoadedSessionCount() {
+        return this.sessions.size();
+    }
+
+    /**
+     * Writes back and evicts the least recently used idle sessions until the loaded sessions fit the budget.
+     * Sessions in use are skipped, so the budget may be exceeded while many sessions are busy.
+     */
+    private void evictOverBudget() {
+        List<Session> victims = new ArrayList<>();
+        synchronized (this) {
+            Iterator<Session> eldestFirst = this.sessions.values().iterator();
+            while (eldestFirst.hasNext() && this.isOverBudget()) {
+                Session session = eldestFirst.next();
+                if (session.numPins > 0) {
+                    continue;
+                }
+                eldestFirst.remove();
+                this.evicting.put(session.getUserId(), session);
+                this.loadedTasks -= session.lastTaskCount;
+                session.lastTaskCount = 0;
+                victims.add(session);
+            }
+        }
+        for (Session victim : victims) {
+            this.writeBack(victim);
+        }
+    }
+
+    private boolean isOverBudget() {
+        return this.sessions.size() > this.maxSessions || this.loadedTasks > this.maxLoadedTasks;
+    }
+
+    /**
+     * Saves an evicted session and drops its tasks, unless it was taken back in the meantime.
+     * A session which cannot be saved is kept in memory rather than losing its tasks.
+     */
+    private void writeBack(Session victim) {
+        victim.lock();
+        try {
+            synchronized (this) {
+                if (this.evicting.get(victim.getUserId()) != victim) {
+                    return;
+                }
+            }
+            victim.unload();
+        } catch (EkudIOException e) {
+            System.err.println(String.format("[%s] %s", victim.getUserId(), e));
+            synchronized (this) {
+                if (this.evicting.remove(victim.getUserId(), victim)) {
+                    victim.lastTaskCount = victim.getTaskCount();
+                    this.loadedTasks += victim.lastTaskCount;
+                    this.sessions.put(victim.getUserId(), victim);
+                }
+            }
+        } finally {
+            victim.unlock();
+            synchronized (this) {
+                this.evicting.remove(victim.getUserId(), victim);
+            }
+        }
+    }
+
+    /**
+     * Writes back every loaded session, eg when the server shuts down.
+     */
+    public void saveAll() {
+        List<Session> loaded;
+        synchronized (this) {
+            loaded = new ArrayList<>(this.sessions.values());
+            loaded.addAll(this.evicting.values());
+        }
+        for (Session session : loaded) {
+            session.lock();
+            try {
+                session.unload();
+            } catch (EkudIOException e) {
+                System.err.println(String.format("[%s] %s", session.getUserId(), e));
+            } finally {
+                session.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package ekud.server;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Creates executors which run every task on its own thread, using virtual threads when the running
+ * JDK provides them (21+) and falling back to a cached pool of platform threads otherwise.
+ * The project is developed and built on JDK 11 (see the README), whose class library has no virtual threads,
+ * so they are looked up reflectively rather than referenced directly.
+ */
+public class ThreadPerTaskExecutor {
+    private ThreadPerTaskExecutor() {
+    }
+
+    /**
+     * Returns a new executor starting one thread per submitted task.
+     *
+     * @return ExecutorService
+     */
+    public static ExecutorService create() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    /**
+     * Returns whether executors from create() run tasks on virtual threads.
+     *
+     * @return boolean
+     */
+    public static boolean isVirtual() {
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+}
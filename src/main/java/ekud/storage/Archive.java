@@ -0,0 +1,872 @@
+package ekud.storage;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import ekud.exceptions.EkudIOException;
+import ekud.tasks.Task;
+import ekud.tasks.TaskList;
+
+/**
+ * The Archive class keeps tasks moved out of the task list in an append-only file on the hard disk, one
+ * task per line in the same format as the saved tasks file, so archived tasks are never rewritten by a save.
+ * <p>
+ * A sidecar index file, which is only appended to as well, holds an entry for every record with its ID, length
+ * and lower-cased words, after a small header with the number of archived tasks and the next free ID, so that
+ * starting the chatbot only reads the header. A terms file holds a sorted copy of the index: the ID of every
+ * record, and every suffix of a word with the records holding it. Finding archived tasks looks up the suffixes
+ * starting with the keyword in the terms file on the disk, and only reads the records which can match.
+ * <p>
+ * Only the index entries written after the terms file are held in memory, until there are more than
+ * MAX_UNSORTED_ENTRIES of them and they are merged into a new terms file. Records appended but not yet
+ * indexed, eg before a crash, are indexed the next time the archive is used.
+ */
+public class Archive {
+    // First bytes of the index file, "EKA3"
+    private static final int INDEX_MAGIC = 0x454B4133;
+    // Magic, next ID, number of tasks, length of the indexed data and length of the entries after the header
+    private static final int INDEX_HEADER_BYTES = 2 * Integer.BYTES + 3 * Long.BYTES;
+    // First bytes of the terms file, "EKT1"
+    private static final int TERMS_MAGIC = 0x454B5431;
+    // Magic, lengths of the data and of the index entries covered, numbers of IDs and terms, and where the
+    // table of term positions starts
+    private static final int TERMS_HEADER_BYTES = 3 * Integer.BYTES + 3 * Long.BYTES;
+    private static final int BUFFER_BYTES = 1 << 16;
+    // Suffixes are cut to this many characters, as longer keywords are checked against the records anyway
+    private static final int MAX_SUFFIX_LENGTH = 16;
+    // Most index entries held in memory before they are merged into the terms file
+    private static final int MAX_UNSORTED_ENTRIES = 1024;
+
+    private final File dataFile;
+    private final File indexFile;
+    private final File termsFile;
+    private boolean isLoaded;
+    // Whether the index file starts with a valid header, or has to be started afresh
+    private boolean isIndexValid;
+    // One more than the highest ID of an archived task
+    private long nextId;
+    private int numTasks;
+    // Length of the data file covered by the index
+    private long indexedLength;
+    // Length of the complete index entries after the header
+    private long entriesLength;
+    // Lengths of the data file and of the index entries covered by the terms file, or 0 if it is not used
+    private long sortedLength;
+    private long sortedEntriesLength;
+    // Index entries after those covered by the terms file, in the order they were archived
+    private final List<Entry> unsortedEntries;
+
+    /**
+     * Constructs an Archive kept in the given files, which are created on the first append.
+     *
+     * @param dataFile File holding the archived tasks.
+     * @param indexFile File holding the index of the archived tasks.
+     * @param termsFile File holding the sorted words and IDs of the archived tasks.
+     */
+    public Archive(File dataFile, File indexFile, File termsFile) {
+        this.dataFile = dataFile;
+        this.indexFile = indexFile;
+        this.termsFile = termsFile;
+        this.unsortedEntries = new ArrayList<>();
+        this.reset();
+    }
+
+    /**
+     * Appends tasks to the archive. A task whose ID is already archived is not appended again: it counts as
+     * archived if the archived record is the same task, eg if the chatbot stopped after archiving it but before
+     * removing it from the task list, and otherwise it is left out, as another task was archived with its ID.
+     *
+     * @param tasks Tasks to archive.
+     * @return Tasks which are now in the archive, in the given order.
+     * @throws EkudIOException If the archive cannot be written.
+     */
+    public List<Task> append(List<Task> tasks) throws EkudIOException {
+        try {
+            this.load();
+            List<Task> archived = new ArrayList<>(tasks.size());
+            List<Task> newTasks = new ArrayList<>(tasks.size());
+            try (Terms terms = this.openTerms()) {
+                for (Task task : tasks) {
+                    long offset = this.findOffset(task.getId(), terms);
+                    if (offset < 0) {
+                        newTasks.add(task);
+                        archived.add(task);
+                    } else if (this.readRecord(offset).equals(Storage.formatSavedTask(task))) {
+                        archived.add(task);
+                    }
+                }
+            }
+            if (newTasks.isEmpty()) {
+                return archived;
+            }
+            ByteArrayOutputStream entries = new ByteArrayOutputStream();
+            try (OutputStream out = new BufferedOutputStream(new FileOutputStream(this.dataFile, true), BUFFER_BYTES);
+                    DataOutputStream entriesOut = new DataOutputStream(entries)) {
+                for (Task task : newTasks) {
+                    byte[] line = (Storage.formatSavedTask(task) + "\n").getBytes(StandardCharsets.UTF_8);
+                    out.write(line);
+                    this.index(task.getId(), line.length, task.getDescription(), entriesOut);
+                }
+            }
+            this.appendIndex(entries);
+            this.mergeTermsIfNeeded();
+            return archived;
+        } catch (IOException e) {
+            this.isLoaded = false; // Reloads the index from the files on the next use
+            throw new EkudIOException("Error with archiving tasks: " + e);
+        }
+    }
+
+    /**
+     * Finds the archived tasks whose description contains a keyword, as the find command does for the task list.
+     *
+     * @param keyword Keyword to search for, case-sensitively.
+     * @return Matching tasks in the order they were archived.
+     * @throws EkudIOException If the archive cannot be read.
+     */
+    public List<Task> find(String keyword) throws EkudIOException {
+        try {
+            this.load();
+            Set<String> parts = splitWords(keyword);
+            if (parts.isEmpty()) {
+                return this.findInAllRecords(keyword);
+            }
+            // Offsets of the records holding every word of the keyword as part of a word, ie starting a suffix
+            TreeSet<Long> candidates = null;
+            try (Terms terms = this.openTerms()) {
+                for (String part : parts) {
+                    String prefix = part.substring(0, Math.min(part.length(), MAX_SUFFIX_LENGTH));
+                    Set<Long> partCandidates = new HashSet<>();
+                    if (terms != null) {
+                        terms.addOffsets(prefix, partCandidates);
+                    }
+                    for (Entry entry : this.unsortedEntries) {
+                        if (entry.containsPart(prefix)) {
+                            partCandidates.add(entry.offset);
+                        }
+                    }
+                    if (candidates == null) {
+                        candidates = new TreeSet<>(partCandidates);
+                    } else {
+                        candidates.retainAll(partCandidates);
+                    }
+                }
+            }
+            TaskList matches = new TaskList();
+            if (candidates.isEmpty()) {
+                return matches.getTasks();
+            }
+            try (RandomAccessFile file = new RandomAccessFile(this.dataFile, "r")) {
+                for (long offset : candidates) {
+                    addIfMatching(matches, readRecord(file, offset), keyword);
+                }
+            }
+            return matches.getTasks();
+        } catch (IOException e) {
+            this.isLoaded = false;
+            throw new EkudIOException("Error with searching archived tasks: " + e);
+        }
+    }
+
+    /**
+     * Returns the number of archived tasks.
+     *
+     * @return int
+     * @throws EkudIOException If the archive cannot be read.
+     */
+    public int getSize() throws EkudIOException {
+        try {
+            if (!this.isLoaded && !this.isHeaderUpToDate()) {
+                this.load();
+            }
+            return this.numTasks;
+        } catch (IOException e) {
+            this.isLoaded = false;
+            throw new EkudIOException("Error with reading archived tasks: " + e);
+        }
+    }
+
+    /**
+     * Returns one more than the highest ID of an archived task, so that new tasks can be kept from
+     * reusing the IDs of archived ones, eg after the saved tasks file is lost. Only reads the header
+     * of the index, unless records were archived after it was written.
+     *
+     * @return long
+     * @throws EkudIOException If the archive cannot be read.
+     */
+    public long getNextId() throws EkudIOException {
+        try {
+            if (!this.isLoaded && !this.isHeaderUpToDate()) {
+                this.load();
+            }
+            return this.nextId;
+        } catch (IOException e) {
+            this.isLoaded = false;
+            throw new EkudIOException("Error with reading archived tasks: " + e);
+        }
+    }
+
+    public File getDataFile() {
+        return this.dataFile;
+    }
+
+    /**
+     * Reads the header of the index file, and returns whether it covers the whole data file.
+     */
+    private boolean isHeaderUpToDate() {
+        this.reset();
+        try {
+            this.readHeader();
+        } catch (IOException e) {
+            this.reset();
+            return false;
+        }
+        return this.indexedLength == this.dataFile.length();
+    }
+
+    /**
+     * Reads the index entries written after the terms file on first use, then indexes any records appended
+     * after the index was written.
+     */
+    private void load() throws IOException {
+        if (this.isLoaded) {
+            return;
+        }
+        this.reset();
+        long dataLength = this.dataFile.length();
+        if (this.indexFile.exists()) {
+            try {
+                this.readIndex();
+            } catch (IOException e) {
+                this.reset(); // A damaged index is rebuilt from the archived tasks
+            }
+        }
+        if (this.indexedLength > dataLength) {
+            this.reset(); // The archive was replaced, so the index no longer describes it
+        }
+        if (this.indexedLength < dataLength || !this.isIndexValid) {
+            this.indexTail();
+        }
+        this.isLoaded = true;
+        this.mergeTermsIfNeeded();
+    }
+
+    private void reset() {
+        this.isLoaded = false;
+        this.isIndexValid = false;
+        this.nextId = 0;
+        this.numTasks = 0;
+        this.indexedLength = 0;
+        this.entriesLength = 0;
+        this.sortedLength = 0;
+        this.sortedEntriesLength = 0;
+        this.unsortedEntries.clear();
+    }
+
+    private void readHeader() throws IOException {
+        try (DataInputStream in = new DataInputStream(new FileInputStream(this.indexFile))) {
+            byte[] header = new byte[INDEX_HEADER_BYTES];
+            in.readFully(header);
+            ByteBuffer buffer = ByteBuffer.wrap(header);
+            if (buffer.getInt() != INDEX_MAGIC) {
+                throw new IOException("Not an archive index");
+            }
+            this.nextId = buffer.getLong();
+            this.numTasks = buffer.getInt();
+            this.indexedLength = buffer.getLong();
+            this.entriesLength = buffer.getLong();
+        } catch (EOFException e) {
+            throw new IOException("Truncated archive index", e);
+        }
+        if (this.numTasks < 0 || this.indexedLength < 0 || this.entriesLength < 0
+                || this.entriesLength > this.indexFile.length() - INDEX_HEADER_BYTES) {
+            throw new IOException("Malformed archive index header");
+        }
+    }
+
+    /**
+     * Reads the header of the index file, then the entries after those covered by the terms file into memory.
+     * Entries after the length given in the header, eg partly written before a crash, are left out and cut
+     * off by the next append.
+     */
+    private void readIndex() throws IOException {
+        this.readHeader();
+        try (Terms terms = Terms.open(this.termsFile)) {
+            if (terms.entriesLength <= this.entriesLength && terms.dataLength <= this.indexedLength) {
+                this.sortedLength = terms.dataLength;
+                this.sortedEntriesLength = terms.entriesLength;
+            }
+        } catch (IOException e) {
+            // A missing or damaged terms file is rebuilt from the index
+        }
+        FileInputStream file = new FileInputStream(this.indexFile);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(file, BUFFER_BYTES))) {
+            file.getChannel().position(INDEX_HEADER_BYTES + this.sortedEntriesLength);
+            long offset = this.sortedLength;
+            byte[] entry = new byte[256];
+            for (long read = this.sortedEntriesLength; read < this.entriesLength; ) {
+                int size = in.readInt();
+                if (size < 0 || size > this.entriesLength - read - Integer.BYTES) {
+                    throw new IOException("Malformed entry in archive index");
+                }
+                if (size > entry.length) {
+                    entry = new byte[size];
+                }
+                in.readFully(entry, 0, size);
+                DataInputStream entryIn = new DataInputStream(new ByteArrayInputStream(entry, 0, size));
+                long id = entryIn.readLong();
+                int length = entryIn.readInt();
+                int numWords = entryIn.readInt();
+                if (length <= 0 || numWords < 0) {
+                    throw new IOException("Malformed entry in archive index");
+                }
+                Set<String> words = new HashSet<>();
+                for (int i = 0; i < numWords; i++) {
+                    words.add(entryIn.readUTF());
+                }
+                this.unsortedEntries.add(new Entry(id, offset, words));
+                offset += length;
+                read += Integer.BYTES + size;
+            }
+            if (offset != this.indexedLength) {
+                throw new IOException("Archive index does not match its header");
+            }
+        } catch (EOFException e) {
+            throw new IOException("Truncated archive index", e);
+        }
+        this.isIndexValid = true;
+    }
+
+    /**
+     * Returns the offset of the archived record with an ID, or -1 if there is none.
+     */
+    private long findOffset(long id, Terms terms) throws IOException {
+        if (id >= this.nextId) {
+            return -1;
+        }
+        for (Entry entry : this.unsortedEntries) {
+            if (entry.id == id) {
+                return entry.offset;
+            }
+        }
+        return terms == null ? -1 : terms.findOffset(id);
+    }
+
+    /**
+     * Opens the terms file, or returns null if the archived records are not in one yet.
+     */
+    private Terms openTerms() throws IOException {
+        return this.sortedEntriesLength == 0 ? null : Terms.open(this.termsFile);
+    }
+
+    /**
+     * Returns the line of the archived record at an offset, without its line break.
+     */
+    private String readRecord(long offset) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(this.dataFile, "r")) {
+            return readRecord(file, offset);
+        }
+    }
+
+    private static String readRecord(RandomAccessFile file, long offset) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        byte[] chunk = new byte[256];
+        file.seek(offset);
+        while (true) {
+            int numRead = file.read(chunk);
+            if (numRead < 0) {
+                throw new EOFException(String.format("Archived record at offset %d is cut off", offset));
+            }
+            for (int i = 0; i < numRead; i++) {
+                if (chunk[i] == '\n') {
+                    line.write(chunk, 0, i);
+                    return line.toString(StandardCharsets.UTF_8);
+                }
+            }
+            line.write(chunk, 0, numRead);
+        }
+    }
+
+    /**
+     * Finds the archived tasks containing a keyword without any words, eg "--", by reading every record.
+     */
+    private List<Task> findInAllRecords(String keyword) throws IOException {
+        TaskList matches = new TaskList();
+        try (InputStream in = new BufferedInputStream(new FileInputStream(this.dataFile), BUFFER_BYTES)) {
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            long offset = 0;
+            int b;
+            while (offset < this.indexedLength && (b = in.read()) >= 0) {
+                offset++;
+                if (b != '\n') {
+                    line.write(b);
+                    continue;
+                }
+                addIfMatching(matches, line.toString(StandardCharsets.UTF_8), keyword);
+                line.reset();
+            }
+        }
+        return matches.getTasks();
+    }
+
+    /**
+     * Adds the task of a record to the matches if its description contains the keyword. A malformed record,
+     * which cannot be a match, is left out.
+     */
+    private static void addIfMatching(TaskList matches, String line, String keyword) {
+        Task task;
+        try {
+            task = Storage.addSavedLine(matches, line);
+        } catch (EkudIOException e) {
+            return;
+        }
+        if (!task.getDescription().contains(keyword)) {
+            matches.removeTask(matches.getSize() - 1);
+        }
+    }
+
+    /**
+     * Indexes the records after the indexed part of the data file, dropping a partly written last record.
+     * A malformed record, eg edited by hand, is indexed with ID 0 and no words, so that it is never found
+     * but stays in the data file to be mended.
+     */
+    private void indexTail() throws IOException {
+        long offset = this.indexedLength;
+        TaskList scratch = new TaskList();
+        ByteArrayOutputStream entries = new ByteArrayOutputStream();
+        if (this.dataFile.exists()) {
+            try (InputStream in = new BufferedInputStream(new FileInputStream(this.dataFile), BUFFER_BYTES);
+                    DataOutputStream entriesOut = new DataOutputStream(entries)) {
+                for (long skipped = 0; skipped < offset; skipped += in.skip(offset - skipped)) {
+                    // Skips the indexed records
+                }
+                byte[] line = new byte[256];
+                int len = 0;
+                int b;
+                while ((b = in.read()) >= 0) {
+                    if (b != '\n') {
+                        if (len == line.length) {
+                            line = Arrays.copyOf(line, len * 2);
+                        }
+                        line[len++] = (byte) b;
+                        continue;
+                    }
+                    try {
+                        Task task = Storage.addSavedLine(scratch, new String(line, 0, len, StandardCharsets.UTF_8));
+                        scratch.removeTask(0);
+                        this.index(task.getId(), len + 1, task.getDescription(), entriesOut);
+                    } catch (EkudIOException e) {
+                        this.index(0, len + 1, "", entriesOut);
+                    }
+                    len = 0;
+                }
+            }
+            if (this.indexedLength < this.dataFile.length()) {
+                try (RandomAccessFile file = new RandomAccessFile(this.dataFile, "rw")) {
+                    file.setLength(this.indexedLength);
+                }
+            }
+        }
+        this.appendIndex(entries);
+    }
+
+    /**
+     * Adds a record after the indexed part of the data file to the unsorted entries, and writes its index entry
+     * to the given stream: the size of the entry, then the ID, the length of the line holding the task and the
+     * words of its description.
+     */
+    private void index(long id, int length, String description, DataOutputStream entries) throws IOException {
+        Set<String> words = splitWords(description);
+        this.unsortedEntries.add(new Entry(id, this.indexedLength, words));
+        if (id > 0) {
+            this.nextId = Math.max(this.nextId, id + 1);
+            this.numTasks++;
+        }
+        this.indexedLength += length;
+        ByteArrayOutputStream entry = new ByteArrayOutputStream();
+        try (DataOutputStream entryOut = new DataOutputStream(entry)) {
+            entryOut.writeLong(id);
+            entryOut.writeInt(length);
+            entryOut.writeInt(words.size());
+            for (String word : words) {
+                entryOut.writeUTF(word);
+            }
+        }
+        entries.writeInt(entry.size());
+        entry.writeTo(entries);
+    }
+
+    /**
+     * Returns the distinct lower-cased words of a text, ie its runs of letters and digits.
+     */
+    private static Set<String> splitWords(String text) {
+        Set<String> words = new HashSet<>();
+        int start = -1;
+        int len = text.length();
+        for (int i = 0; i <= len; i++) {
+            boolean isWordChar = i < len && Character.isLetterOrDigit(text.charAt(i));
+            if (isWordChar && start < 0) {
+                start = i;
+            } else if (!isWordChar && start >= 0) {
+                words.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Appends index entries after the last complete entry of the index file, starting the file afresh if needed,
+     * then updates its header to count them.
+     */
+    private void appendIndex(ByteArrayOutputStream entries) throws IOException {
+        if (entries.size() == 0 && this.isIndexValid) {
+            return;
+        }
+        try (RandomAccessFile file = new RandomAccessFile(this.indexFile, "rw")) {
+            if (!this.isIndexValid) {
+                // The terms file describes the index being replaced
+                Files.deleteIfExists(this.termsFile.toPath());
+                file.setLength(0);
+                this.isIndexValid = true;
+            }
+            file.seek(INDEX_HEADER_BYTES + this.entriesLength);
+            file.write(entries.toByteArray());
+            file.setLength(file.getFilePointer());
+            this.entriesLength += entries.size();
+            ByteBuffer header = ByteBuffer.allocate(INDEX_HEADER_BYTES);
+            header.putInt(INDEX_MAGIC).putLong(this.nextId).putInt(this.numTasks)
+                    .putLong(this.indexedLength).putLong(this.entriesLength);
+            file.seek(0);
+            file.write(header.array());
+        }
+    }
+
+    private void mergeTermsIfNeeded() throws IOException {
+        if (this.unsortedEntries.size() > MAX_UNSORTED_ENTRIES) {
+            this.mergeTerms();
+        }
+    }
+
+    /**
+     * Writes a new terms file holding the records of the current one and of the unsorted entries, then replaces
+     * the current one with it. Both are in order, so only the unsorted entries are sorted in memory.
+     */
+    private void mergeTerms() throws IOException {
+        TreeMap<Long, Long> newIds = new TreeMap<>();
+        TreeMap<String, List<Long>> newTerms = new TreeMap<>();
+        for (Entry entry : this.unsortedEntries) {
+            if (entry.id > 0) {
+                newIds.putIfAbsent(entry.id, entry.offset);
+            }
+            for (String word : entry.words) {
+                for (int i = 0; i < word.length(); i++) {
+                    String suffix = word.substring(i, Math.min(word.length(), i + MAX_SUFFIX_LENGTH));
+                    List<Long> offsets = newTerms.computeIfAbsent(suffix, key -> new ArrayList<>());
+                    if (offsets.isEmpty() || offsets.get(offsets.size() - 1) != entry.offset) {
+                        offsets.add(entry.offset);
+                    }
+                }
+            }
+        }
+        File mergedFile = new File(this.termsFile.getPath() + ".tmp");
+        try (Terms terms = this.openTerms();
+                DataInputStream in = terms == null ? null : terms.readFrom(TERMS_HEADER_BYTES);
+                TermsWriter out = new TermsWriter(mergedFile)) {
+            Iterator<Map.Entry<Long, Long>> ids = newIds.entrySet().iterator();
+            Map.Entry<Long, Long> newId = ids.hasNext() ? ids.next() : null;
+            for (int i = 0; terms != null && i < terms.numIds; i++) {
+                long id = in.readLong();
+                long offset = in.readLong();
+                for (; newId != null && newId.getKey() <= id; newId = ids.hasNext() ? ids.next() : null) {
+                    if (newId.getKey() < id) {
+                        out.writeId(newId.getKey(), newId.getValue());
+                    }
+                }
+                out.writeId(id, offset);
+            }
+            for (; newId != null; newId = ids.hasNext() ? ids.next() : null) {
+                out.writeId(newId.getKey(), newId.getValue());
+            }
+            // The terms follow the IDs in the file, so the same stream reads on
+            Iterator<Map.Entry<String, List<Long>>> suffixes = newTerms.entrySet().iterator();
+            Map.Entry<String, List<Long>> newTerm = suffixes.hasNext() ? suffixes.next() : null;
+            for (int i = 0; terms != null && i < terms.numTerms; i++) {
+                String term = readTerm(in);
+                long[] offsets = readOffsets(in);
+                while (newTerm != null && newTerm.getKey().compareTo(term) < 0) {
+                    out.writeTerm(newTerm.getKey(), new long[0], newTerm.getValue());
+                    newTerm = suffixes.hasNext() ? suffixes.next() : null;
+                }
+                if (newTerm != null && newTerm.getKey().equals(term)) {
+                    // New records come after the ones already in the terms file
+                    out.writeTerm(term, offsets, newTerm.getValue());
+                    newTerm = suffixes.hasNext() ? suffixes.next() : null;
+                } else {
+                    out.writeTerm(term, offsets, List.of());
+                }
+            }
+            for (; newTerm != null; newTerm = suffixes.hasNext() ? suffixes.next() : null) {
+                out.writeTerm(newTerm.getKey(), new long[0], newTerm.getValue());
+            }
+            out.finish(this.indexedLength, this.entriesLength);
+        }
+        Files.move(mergedFile.toPath(), this.termsFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        this.sortedLength = this.indexedLength;
+        this.sortedEntriesLength = this.entriesLength;
+        this.unsortedEntries.clear();
+    }
+
+    private static String readTerm(DataInput in) throws IOException {
+        byte[] term = new byte[in.readUnsignedShort()];
+        in.readFully(term);
+        return new String(term, StandardCharsets.UTF_8);
+    }
+
+    private static long[] readOffsets(DataInput in) throws IOException {
+        int numOffsets = in.readInt();
+        if (numOffsets < 0) {
+            throw new IOException("Malformed term in archive terms");
+        }
+        byte[] offsets = new byte[numOffsets * Long.BYTES];
+        in.readFully(offsets);
+        long[] values = new long[numOffsets];
+        ByteBuffer.wrap(offsets).asLongBuffer().get(values);
+        return values;
+    }
+
+    /**
+     * Index entry of an archived record held in memory.
+     */
+    private static class Entry {
+        // ID of the task, or 0 for a malformed record
+        private final long id;
+        // Offset of the record in the data file
+        private final long offset;
+        private final Set<String> words;
+
+        Entry(long id, long offset, Set<String> words) {
+            this.id = id;
+            this.offset = offset;
+            this.words = words;
+        }
+
+        boolean containsPart(String part) {
+            for (String word : this.words) {
+                if (word.contains(part)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Terms file opened for lookups. After its header, it holds the ID of every record with the offset of the
+     * record, in ascending order of the IDs, then every suffix of a word with the offsets of the records holding
+     * it, in ascending order of the suffixes, then a table of where each suffix starts, for binary searches.
+     */
+    private static class Terms implements Closeable {
+        private final File file;
+        private final RandomAccessFile in;
+        private final long dataLength;
+        private final long entriesLength;
+        private final int numIds;
+        private final int numTerms;
+        private final long termTablePos;
+
+        private Terms(File file, RandomAccessFile in) throws IOException {
+            this.file = file;
+            this.in = in;
+            if (in.readInt() != TERMS_MAGIC) {
+                throw new IOException("Not an archive terms file");
+            }
+            this.dataLength = in.readLong();
+            this.entriesLength = in.readLong();
+            this.numIds = in.readInt();
+            this.numTerms = in.readInt();
+            this.termTablePos = in.readLong();
+            if (this.numIds < 0 || this.numTerms < 0 || this.termTablePos < TERMS_HEADER_BYTES
+                    || this.termTablePos + (long) this.numTerms * Long.BYTES != in.length()) {
+                throw new IOException("Malformed archive terms header");
+            }
+        }
+
+        static Terms open(File file) throws IOException {
+            RandomAccessFile in = new RandomAccessFile(file, "r");
+            try {
+                return new Terms(file, in);
+            } catch (IOException e) {
+                in.close();
+                throw e;
+            }
+        }
+
+        /**
+         * Returns the offset of the record with an ID, or -1 if there is none.
+         */
+        long findOffset(long id) throws IOException {
+            int low = 0;
+            int high = this.numIds - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                this.in.seek(TERMS_HEADER_BYTES + (long) mid * 2 * Long.BYTES);
+                long midId = this.in.readLong();
+                if (midId < id) {
+                    low = mid + 1;
+                } else if (midId > id) {
+                    high = mid - 1;
+                } else {
+                    return this.in.readLong();
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Adds the offsets of the records holding a suffix starting with a prefix.
+         */
+        void addOffsets(String prefix, Collection<Long> offsets) throws IOException {
+            int low = 0;
+            int high = this.numTerms;
+            // Finds the first term not before the prefix
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (this.readTermAt(mid).compareTo(prefix) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            for (int i = low; i < this.numTerms && this.readTermAt(i).startsWith(prefix); i++) {
+                for (long offset : readOffsets(this.in)) {
+                    offsets.add(offset);
+                }
+            }
+        }
+
+        /**
+         * Reads the term with an index, leaving the file at its offsets.
+         */
+        private String readTermAt(int index) throws IOException {
+            this.in.seek(this.termTablePos + (long) index * Long.BYTES);
+            this.in.seek(this.in.readLong());
+            return readTerm(this.in);
+        }
+
+        /**
+         * Opens a buffered stream reading the file on from a position, for reading it in order.
+         */
+        DataInputStream readFrom(long pos) throws IOException {
+            FileInputStream stream = new FileInputStream(this.file);
+            stream.getChannel().position(pos);
+            return new DataInputStream(new BufferedInputStream(stream, BUFFER_BYTES));
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.in.close();
+        }
+    }
+
+    /**
+     * Writes a terms file in order: the IDs, then the terms, then the table of where each term starts and
+     * finally the header, which is left empty until then.
+     */
+    private static class TermsWriter implements Closeable {
+        private final FileChannel channel;
+        private final DataOutputStream out;
+        // Position in the file of the next byte written
+        private long pos;
+        private int numIds;
+        private long[] termPositions = new long[256];
+        private int numTerms;
+
+        TermsWriter(File file) throws IOException {
+            FileOutputStream stream = new FileOutputStream(file);
+            this.channel = stream.getChannel();
+            this.out = new DataOutputStream(new BufferedOutputStream(stream, BUFFER_BYTES));
+            this.out.write(new byte[TERMS_HEADER_BYTES]);
+            this.pos = TERMS_HEADER_BYTES;
+        }
+
+        void writeId(long id, long offset) throws IOException {
+            this.out.writeLong(id);
+            this.out.writeLong(offset);
+            this.pos += 2 * Long.BYTES;
+            this.numIds++;
+        }
+
+        /**
+         * Writes a term with the offsets of the records holding it, the given arrays of offsets in turn.
+         */
+        void writeTerm(String term, long[] offsets, List<Long> newOffsets) throws IOException {
+            if (this.numTerms == this.termPositions.length) {
+                this.termPositions = Arrays.copyOf(this.termPositions, this.numTerms * 2);
+            }
+            this.termPositions[this.numTerms++] = this.pos;
+            byte[] bytes = term.getBytes(StandardCharsets.UTF_8);
+            int numOffsets = offsets.length + newOffsets.size();
+            this.out.writeShort(bytes.length);
+            this.out.write(bytes);
+            this.out.writeInt(numOffsets);
+            for (long offset : offsets) {
+                this.out.writeLong(offset);
+            }
+            for (long offset : newOffsets) {
+                this.out.writeLong(offset);
+            }
+            this.pos += Short.BYTES + bytes.length + Integer.BYTES + (long) numOffsets * Long.BYTES;
+        }
+
+        void finish(long dataLength, long entriesLength) throws IOException {
+            for (int i = 0; i < this.numTerms; i++) {
+                this.out.writeLong(this.termPositions[i]);
+            }
+            this.out.flush();
+            ByteBuffer header = ByteBuffer.allocate(TERMS_HEADER_BYTES);
+            header.putInt(TERMS_MAGIC).putLong(dataLength).putLong(entriesLength)
+                    .putInt(this.numIds).putInt(this.numTerms).putLong(this.pos);
+            header.flip();
+            for (long written = 0; header.hasRemaining(); ) {
+                written += this.channel.write(header, written);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.out.close();
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package ekud.storage;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import ekud.tasks.Deadline;
+import ekud.tasks.Event;
+import ekud.tasks.Task;
+
+/**
+ * Decides which done tasks are moved out of the task list into the archive. A done deadline or event is
+ * archived once its date is more than a number of days in the past, set by -Dekud.archive.days=<days>
+ * (30 by default), and the oldest done tasks, including to-dos, are archived whenever more than
+ * -Dekud.archive.maxdone=<count> (1000 by default) of them are left. Either rule is turned off by setting
+ * its property to 'never'.
+ */
+public class ArchivePolicy {
+    public static final String DAYS_PROPERTY = "ekud.archive.days";
+    public static final String MAX_DONE_PROPERTY = "ekud.archive.maxdone";
+    public static final int NEVER = -1;
+    private static final int DEFAULT_DAYS = 30;
+    private static final int DEFAULT_MAX_DONE = 1000;
+
+    // Days after its date a done task is archived, or NEVER
+    private final int maxAgeDays;
+    // Number of done tasks kept in the task list, or NEVER to keep them all
+    private final int maxDoneTasks;
+
+    /**
+     * Constructs an ArchivePolicy.
+     *
+     * @param maxAgeDays Days after its date a done deadline or event is archived, or NEVER.
+     * @param maxDoneTasks Number of done tasks to keep in the task list, or NEVER to keep them all.
+     */
+    public ArchivePolicy(int maxAgeDays, int maxDoneTasks) {
+        this.maxAgeDays = maxAgeDays;
+        this.maxDoneTasks = maxDoneTasks;
+    }
+
+    /**
+     * Returns the policy set by the archive properties, using the defaults for those not set or invalid.
+     *
+     * @return ArchivePolicy
+     */
+    public static ArchivePolicy getConfigured() {
+        return new ArchivePolicy(getSetting(DAYS_PROPERTY, DEFAULT_DAYS),
+                getSetting(MAX_DONE_PROPERTY, DEFAULT_MAX_DONE));
+    }
+
+    private static int getSetting(String property, int defaultValue) {
+        String setting = System.getProperty(property);
+        if (setting == null || setting.isBlank()) {
+            return defaultValue;
+        }
+        if (setting.strip().toLowerCase(Locale.ENGLISH).equals("never")) {
+            return NEVER;
+        }
+        try {
+            int value = Integer.parseInt(setting.strip());
+            if (value >= 0) {
+                return value;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        System.err.printf("Ignoring invalid %s setting '%s'%n", property, setting);
+        return defaultValue;
+    }
+
+    /**
+     * Returns the indices of the tasks to archive.
+     *
+     * @param tasks Tasks in the task list, in order.
+     * @param now Current date and time.
+     * @return Index numbers in ascending order.
+     */
+    public List<Integer> selectTasks(List<Task> tasks, LocalDateTime now) {
+        LocalDateTime cutoff = this.maxAgeDays == NEVER ? null : now.minusDays(this.maxAgeDays);
+        List<Integer> selected = new ArrayList<>();
+        int numDoneKept = 0;
+        int len = tasks.size();
+        boolean[] isSelected = new boolean[len];
+        for (int i = 0; i < len; i++) {
+            Task task = tasks.get(i);
+            if (!task.isDone()) {
+                continue;
+            }
+            LocalDateTime dateTime = getEndDateTime(task);
+            if (cutoff != null && dateTime != null && dateTime.isBefore(cutoff)) {
+                isSelected[i] = true;
+            } else {
+                numDoneKept++;
+            }
+        }
+        // Tasks earlier in the list were added earlier, so the cap archives the oldest done tasks first
+        for (int i = 0; i < len; i++) {
+            if (!isSelected[i] && this.maxDoneTasks != NEVER && numDoneKept > this.maxDoneTasks
+                    && tasks.get(i).isDone()) {
+                isSelected[i] = true;
+                numDoneKept--;
+            }
+            if (isSelected[i]) {
+                selected.add(i);
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * Returns the date a task is due or ends, or null for to-dos.
+     */
+    private static LocalDateTime getEndDateTime(Task task) {
+        if (task instanceof Deadline) {
+            return ((Deadline) task).getDateTime();
+        }
+        if (task instanceof Event) {
+            return ((Event) task).getToDateTime();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,97 @@
+package ekud.storage;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Transparent GZIP compression of the files kept by the chatbot. Files are compressed at the level set by
+ * launching it with -Dekud.compression=<none/fast/default/best or 0-9>, which trades CPU time for file size,
+ * and are not compressed by default. Reading detects the format from the GZIP magic bytes, so files written
+ * with any setting can be read with any other.
+ */
+public class Compression {
+    public static final String LEVEL_PROPERTY = "ekud.compression";
+    public static final int NONE = Deflater.NO_COMPRESSION;
+    private static final int BUFFER_BYTES = 1 << 16;
+    // First two bytes of every GZIP stream
+    private static final int MAGIC_BYTE_1 = 0x1f;
+    private static final int MAGIC_BYTE_2 = 0x8b;
+
+    /**
+     * Returns the compression level set by the level property, or NONE if it is not set or invalid.
+     *
+     * @return Level from 0 (no compression) to 9 (smallest files).
+     */
+    public static int getConfiguredLevel() {
+        String setting = System.getProperty(LEVEL_PROPERTY);
+        if (setting == null || setting.isBlank()) {
+            return NONE;
+        }
+        switch (setting.strip().toLowerCase(Locale.ENGLISH)) {
+        case "none":
+            return NONE;
+        case "fast":
+            return Deflater.BEST_SPEED;
+        case "default":
+            return 6;
+        case "best":
+            return Deflater.BEST_COMPRESSION;
+        default:
+            try {
+                int level = Integer.parseInt(setting.strip());
+                if (level >= NONE && level <= Deflater.BEST_COMPRESSION) {
+                    return level;
+                }
+            } catch (NumberFormatException e) {
+                // Reported below
+            }
+            System.err.printf("Ignoring invalid %s setting '%s'%n", LEVEL_PROPERTY, setting);
+            return NONE;
+        }
+    }
+
+    /**
+     * Wraps a stream to compress what is written to it, unless the level is NONE.
+     * Closing the returned stream finishes the compressed data and closes the given stream.
+     *
+     * @param out Stream to write the file to.
+     * @param level Level from 0 (no compression) to 9 (smallest files).
+     * @return OutputStream
+     * @throws IOException If the GZIP header cannot be written.
+     */
+    public static OutputStream compress(OutputStream out, int level) throws IOException {
+        return level == NONE ? out : new LevelledGzipOutputStream(out, level);
+    }
+
+    /**
+     * Wraps a stream to decompress it if it starts with the GZIP magic bytes, or to read it as is otherwise.
+     *
+     * @param in Stream to read the file from.
+     * @return Buffered InputStream
+     * @throws IOException If the file cannot be read.
+     */
+    public static InputStream decompress(InputStream in) throws IOException {
+        BufferedInputStream buffered = new BufferedInputStream(in, BUFFER_BYTES);
+        buffered.mark(2);
+        boolean isCompressed = buffered.read() == MAGIC_BYTE_1 && buffered.read() == MAGIC_BYTE_2;
+        buffered.reset();
+        return isCompressed ? new BufferedInputStream(new GZIPInputStream(buffered, BUFFER_BYTES), BUFFER_BYTES)
+                : buffered;
+    }
+
+    /**
+     * GZIPOutputStream compressing at a given level rather than the default one.
+     */
+    private static class LevelledGzipOutputStream extends GZIPOutputStream {
+        LevelledGzipOutputStream(OutputStream out, int level) throws IOException {
+            super(out, BUFFER_BYTES);
+            this.def.setLevel(level);
+        }
+    }
+}
@@ -1,43 +1,72 @@
 package ekud.storage;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileWriter;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
-import java.util.Scanner;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 
 import ekud.exceptions.EkudIOException;
+import ekud.metrics.CommandMetrics;
+import ekud.metrics.StorageEvent;
 import ekud.tasks.*;
 
 /**
  * The Storage class deals with handling the saved tasks file on the hard disk, by loading its contents
  * into the chatbot upon startup (or creating a new dir/file if it doesn't exist), and updating its
  * contents after the user is done with the chatbot.
+ * The file is compressed if a compression level is set, and compressed files are detected on load.
  */
 public class Storage {
     private static final String TASK_DONE_SYMBOL = "X";
-    private final String path;
+    // Prefix of task IDs, and of the first line holding the ID to give the next new task
+    private static final String ID_PREFIX = "#";
+    private static final String NEXT_ID_PREFIX = "#next | ";
+    private static final String SEPARATOR = " | ";
     private final File savedTasks;
+    private final CommandMetrics metrics;
+    // Level the saved tasks file is compressed at, or Compression.NONE
+    private final int compressionLevel;
 
     /**
-     * Constructor for Storage, which initialises the directory and file to save tasks in.
+     * Constructor for Storage, which initialises the directory and file to save tasks in,
+     * compressing it at the configured level.
      *
      * @param path Filepath for the saved tasks file.
      * @throws EkudIOException Exception involving the creation of the saved tasks file.
      */
     public Storage(String path) {
-        this.path = path;
+        this(path, Compression.getConfiguredLevel());
+    }
+
+    /**
+     * Constructor for Storage, which initialises the directory and file to save tasks in.
+     *
+     * @param path Filepath for the saved tasks file.
+     * @param compressionLevel Level from 0 (no compression) to 9 (smallest file) to save the file at.
+     */
+    public Storage(String path, int compressionLevel) {
+        this.compressionLevel = compressionLevel;
+        this.metrics = CommandMetrics.getDefault();
         File file = new File(path);
         try {
             if (!file.getParentFile().exists()) { // Create directory if it doesn't exist
                 file.getParentFile().mkdirs();
             }
             if (!file.exists()) { // Create file if it doesn't exist
-                System.out.println("Creating task file...");
+                System.err.println("Creating task file...");
                 file.createNewFile();
-                System.out.println("Task file created successfully");
+                System.err.println("Task file created successfully");
             }
         } catch (IOException e) {
-            System.out.println("Error with creating task file: " + e);
+            System.err.println("Error with creating task file: " + e);
         } finally {
             this.savedTasks = file;
         }
@@ -46,40 +75,54 @@ public class Storage {
     /**
      * Loads saved tasks from the file into the chatbot's taskList.
      * Saved tasks format eg:
-     *  T |   | task1 | medium
-     *  D | X | task2 | 1st Sep | high
-     *  E |   | task3 | 1st Sep 2pm | 3rd Sep 2pm | low
+     *  #next | 4
+     *  #1 | T |   | task1 | medium
+     *  #2 | D | X | task2 | 1st Sep | high
+     *  #3 | E |   | task3 | 1st Sep 2pm | 3rd Sep 2pm | low
+     * Files saved before tasks had IDs, without the #next line and the ID of each task, are still loaded,
+     * and their tasks are given new IDs.
      *
      * @param taskList The chatbot's TaskList to load tasks into.
      * @return String response for having loaded data.
      * @throws EkudIOException If tasks cannot be loaded properly into taskList.
      */
     public String loadData(TaskList taskList) throws EkudIOException {
+        StorageEvent event = new StorageEvent();
+        event.begin();
+        long startTime = System.nanoTime();
+        boolean isSuccessful = false;
+        try {
+            String response = this.readTasks(taskList);
+            isSuccessful = true;
+            return response;
+        } catch (EkudIOException e) {
+            this.metrics.recordError(e.getClass());
+            throw e;
+        } finally {
+            this.metrics.recordLoad(System.nanoTime() - startTime);
+            event.commit("load", this.savedTasks, taskList.getSize(), isSuccessful);
+        }
+    }
+
+    private String readTasks(TaskList taskList) throws EkudIOException {
         taskList.clear();
         assert taskList.getSize() == 0 : "Task list should be empty before loading data";
-        try {
-            Scanner scanner = new Scanner(this.savedTasks);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                Compression.decompress(this.openInputStream(this.savedTasks)), StandardCharsets.UTF_8))) {
             int curTaskIndex = 0;
             int numDoneTasks = 0;
             int numHighPriorityUndoneTasks = 0;
-            while (scanner.hasNextLine()) {
-                String[] taskDetails = scanner.nextLine().split(" \\| ");
-                TaskType taskType = TaskType.getTaskType(taskDetails[0]);
-                if (taskType == null) {
-                    throw new EkudIOException("Error with parsing saved tasks: Invalid task type");
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith(NEXT_ID_PREFIX)) {
+                    taskList.reserveIds(parseId(line.substring(NEXT_ID_PREFIX.length())));
+                    continue;
                 }
-                boolean isDoneTask = taskDetails[1].equals(TASK_DONE_SYMBOL);
-                String description = taskDetails[2];
-                Priority priority = Priority.getPriority(taskDetails[taskDetails.length - 1]);
-                if (priority == null) {
-                    throw new EkudIOException("Error with parsing saved tasks: Invalid priority");
-                }
-                taskList.addSavedTask(taskType, description, priority, taskDetails);
-                if (priority.equals(Priority.HIGH) && !isDoneTask) {
+                Task task = addSavedLine(taskList, line);
+                if (task.getPriorityLevel().equals(Priority.HIGH) && !task.isDone()) {
                     numHighPriorityUndoneTasks++;
                 }
-                if (isDoneTask) {
-                    taskList.markDoneOnStart(curTaskIndex);
+                if (task.isDone()) {
                     numDoneTasks++;
                 }
                 curTaskIndex++;
@@ -87,11 +130,60 @@ public class Storage {
             return this.craftResponse(curTaskIndex, numDoneTasks, numHighPriorityUndoneTasks) + "\n";
         } catch (IOException e) {
             throw new EkudIOException("Error with loading saved tasks: " + e);
+        }
+    }
+
+    /**
+     * Parses a line of the saved tasks file, in the format written by formatSavedTask(), and appends its task.
+     *
+     * @param taskList TaskList to add the task to.
+     * @param line Line holding one task, with or without its ID.
+     * @return Task added.
+     * @throws EkudIOException If the line is malformed.
+     */
+    static Task addSavedLine(TaskList taskList, String line) throws EkudIOException {
+        try {
+            long id = 0;
+            if (line.startsWith(ID_PREFIX)) {
+                int end = line.indexOf(SEPARATOR);
+                if (end < 0) {
+                    throw new EkudIOException("Error with parsing saved tasks: Missing task details");
+                }
+                id = parseId(line.substring(ID_PREFIX.length(), end));
+                line = line.substring(end + SEPARATOR.length());
+            }
+            String[] taskDetails = line.split(" \\| ");
+            TaskType taskType = TaskType.getTaskType(taskDetails[0]);
+            if (taskType == null) {
+                throw new EkudIOException("Error with parsing saved tasks: Invalid task type");
+            }
+            boolean isDoneTask = taskDetails[1].equals(TASK_DONE_SYMBOL);
+            String description = taskDetails[2];
+            Priority priority = Priority.getPriority(taskDetails[taskDetails.length - 1]);
+            if (priority == null) {
+                throw new EkudIOException("Error with parsing saved tasks: Invalid priority");
+            }
+            taskList.addSavedTask(id, taskType, description, priority, taskDetails);
+            int index = taskList.getSize() - 1;
+            if (isDoneTask) {
+                taskList.markDoneOnStart(index);
+            }
+            return taskList.getTask(index);
         } catch (IndexOutOfBoundsException e) {
             throw new EkudIOException("Error with parsing saved tasks: " + e);
         }
     }
 
+    /**
+     * Returns the line saving a task with its ID, as parsed by addSavedLine().
+     *
+     * @param task Task to save.
+     * @return String without a line terminator.
+     */
+    static String formatSavedTask(Task task) {
+        return ID_PREFIX + task.getId() + SEPARATOR + task.getSaveFormat();
+    }
+
     /**
      * Updates the saved task file with the latest tasks when the program ends.
      *
@@ -100,20 +192,106 @@ public class Storage {
      * @throws EkudIOException If tasks cannot be saved properly.
      */
     public String saveData(TaskList taskList) throws EkudIOException {
+        StorageEvent event = new StorageEvent();
+        event.begin();
+        long startTime = System.nanoTime();
+        boolean isSuccessful = false;
         try {
-            FileWriter fw = new FileWriter(this.path);
-            int len = taskList.getSize();
+            String response = this.writeTasks(taskList);
+            isSuccessful = true;
+            return response;
+        } catch (EkudIOException e) {
+            this.metrics.recordError(e.getClass());
+            throw e;
+        } finally {
+            this.metrics.recordSave(System.nanoTime() - startTime);
+            event.commit("save", this.savedTasks, taskList.getSize(), isSuccessful);
+        }
+    }
+
+    private String writeTasks(TaskList taskList) throws EkudIOException {
+        int len = taskList.getSize();
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(
+                Compression.compress(this.openOutputStream(this.savedTasks), this.compressionLevel),
+                StandardCharsets.UTF_8))) {
+            out.write(NEXT_ID_PREFIX);
+            out.write(Long.toString(taskList.getNextId()));
+            out.write('\n');
             for (int i = 0; i < len; i++) {
-                fw.write(taskList.getSaveTaskFormat(i) + "\n");
+                out.write(ID_PREFIX);
+                out.write(Long.toString(taskList.getTask(i).getId()));
+                out.write(SEPARATOR);
+                out.write(taskList.getSaveTaskFormat(i));
+                out.write('\n');
             }
-            fw.close();
-            return String.format("[(%d) task(s) saved successfully]", len);
         } catch (IOException e) {
             throw new EkudIOException("Error with saving tasks: " + e);
         }
+        return String.format("[(%d) task(s) saved successfully]", len);
+    }
+
+    private static long parseId(String id) throws EkudIOException {
+        try {
+            long value = Long.parseLong(id);
+            if (value <= 0) {
+                throw new EkudIOException("Error with parsing saved tasks: Invalid task ID");
+            }
+            return value;
+        } catch (NumberFormatException e) {
+            throw new EkudIOException("Error with parsing saved tasks: Invalid task ID");
+        }
     }
 
+    /**
+     * Opens the saved tasks file for reading. Can be overridden, eg to simulate a slower disk.
+     *
+     * @param file Saved tasks file.
+     * @return InputStream
+     * @throws IOException If the file cannot be opened.
+     */
+    protected InputStream openInputStream(File file) throws IOException {
+        return new FileInputStream(file);
+    }
 
+    /**
+     * Opens the saved tasks file for writing, replacing its contents. Can be overridden, eg to simulate a
+     * slower disk.
+     *
+     * @param file Saved tasks file.
+     * @return OutputStream
+     * @throws IOException If the file cannot be opened.
+     */
+    protected OutputStream openOutputStream(File file) throws IOException {
+        return new FileOutputStream(file);
+    }
+
+    /**
+     * Crafts the same response as loadData() for tasks restored by other means, eg from the history journal.
+     *
+     * @param taskList The chatbot's TaskList holding the restored tasks.
+     * @return String response for having loaded data.
+     */
+    public String describeTasks(TaskList taskList) {
+        int numDoneTasks = 0;
+        int numHighPriorityUndoneTasks = 0;
+        for (Task task : taskList.getTasks()) {
+            if (task.isDone()) {
+                numDoneTasks++;
+            } else if (task.getPriorityLevel().equals(Priority.HIGH)) {
+                numHighPriorityUndoneTasks++;
+            }
+        }
+        return this.craftResponse(taskList.getSize(), numDoneTasks, numHighPriorityUndoneTasks) + "\n";
+    }
+
+    /**
+     * Returns when the saved tasks file was last written, in milliseconds since the epoch.
+     *
+     * @return long
+     */
+    public long getLastModified() {
+        return this.savedTasks.lastModified();
+    }
 
     /**
      * Helper function to craft a string response for the user after loading up saved data.
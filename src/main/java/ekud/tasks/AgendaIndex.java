@@ -0,0 +1,235 @@
+package ekud.tasks;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.BiConsumer;
+
+/**
+ * Deadlines and events by day, kept up to date as a listener of a TaskList. Each day with any of them has a
+ * bucket holding them ordered by time, a deadline in the bucket of the day it is due and an event in the
+ * bucket of every day it spans. Listing the items of a range of days therefore only visits the buckets in
+ * the range, whatever the number of tasks, and a change to a task only touches the buckets of its own days.
+ * <p>
+ * Events spanning more than a month are instead kept once, by their last day, and merged into the days they
+ * overlap when those are looked up, so that adding or removing one costs the same however long it lasts.
+ * Looking up a range then also visits the long events which have not ended before it.
+ * To-dos have no dates and are not indexed.
+ */
+public class AgendaIndex implements TaskListListener {
+    // Orders the items of a day by the time they are due or start, then by ID
+    private static final Comparator<Task> BY_TIME = Comparator.comparing(AgendaIndex::getStartDateTime)
+            .thenComparingLong(Task::getId);
+
+    // Events spanning more days than this are kept once rather than in the bucket of every day
+    private static final int MAX_BUCKETED_DAYS = 31;
+
+    private final TreeMap<LocalDate, NavigableSet<Task>> buckets;
+    // Events spanning more than MAX_BUCKETED_DAYS days, by their last day
+    private final TreeMap<LocalDate, NavigableSet<Task>> longEvents;
+
+    /**
+     * Constructs an empty AgendaIndex.
+     */
+    public AgendaIndex() {
+        this.buckets = new TreeMap<>();
+        this.longEvents = new TreeMap<>();
+    }
+
+    /**
+     * Returns the first day a task is on the agenda, ie the day a deadline is due or an event starts.
+     *
+     * @param task Task to look up.
+     * @return LocalDate, or null for to-dos.
+     */
+    public static LocalDate getFirstDay(Task task) {
+        LocalDateTime start = getStartDateTime(task);
+        return start != null ? start.toLocalDate() : null;
+    }
+
+    /**
+     * Returns the last day a task is on the agenda, ie the day a deadline is due or an event ends.
+     * An event ending at midnight does not count the day it ends on.
+     *
+     * @param task Task to look up.
+     * @return LocalDate, or null for to-dos.
+     */
+    public static LocalDate getLastDay(Task task) {
+        if (!(task instanceof Event)) {
+            return getFirstDay(task);
+        }
+        Event event = (Event) task;
+        if (!event.getToDateTime().isAfter(event.getFromDateTime())) {
+            return event.getFromDateTime().toLocalDate();
+        }
+        return event.getToDateTime().minusNanos(1).toLocalDate();
+    }
+
+    /**
+     * Returns whether a task spans so many days that it is kept once rather than in the bucket of every day.
+     *
+     * @param task Task to look up.
+     * @return boolean
+     */
+    public static boolean spansManyDays(Task task) {
+        LocalDate firstDay = getFirstDay(task);
+        return firstDay != null && ChronoUnit.DAYS.between(firstDay, getLastDay(task)) >= MAX_BUCKETED_DAYS;
+    }
+
+    private static LocalDateTime getStartDateTime(Task task) {
+        if (task instanceof Deadline) {
+            return ((Deadline) task).getDateTime();
+        }
+        if (task instanceof Event) {
+            return ((Event) task).getFromDateTime();
+        }
+        return null;
+    }
+
+    /**
+     * Adds a task to the buckets of its days, or once to the long events, unless it is a to-do or already there.
+     *
+     * @param task Task to add.
+     */
+    public void add(Task task) {
+        if (spansManyDays(task)) {
+            this.longEvents.computeIfAbsent(getLastDay(task), key -> new TreeSet<>(BY_TIME)).add(task);
+            return;
+        }
+        LocalDate lastDay = getLastDay(task);
+        for (LocalDate day = getFirstDay(task); day != null && !day.isAfter(lastDay); day = day.plusDays(1)) {
+            this.buckets.computeIfAbsent(day, key -> new TreeSet<>(BY_TIME)).add(task);
+        }
+    }
+
+    /**
+     * Removes a task from the buckets of its days or from the long events, dropping the buckets left empty.
+     *
+     * @param task Task to remove.
+     */
+    public void remove(Task task) {
+        if (spansManyDays(task)) {
+            removeFrom(this.longEvents, getLastDay(task), task);
+            return;
+        }
+        LocalDate lastDay = getLastDay(task);
+        for (LocalDate day = getFirstDay(task); day != null && !day.isAfter(lastDay); day = day.plusDays(1)) {
+            removeFrom(this.buckets, day, task);
+        }
+    }
+
+    private static void removeFrom(Map<LocalDate, NavigableSet<Task>> buckets, LocalDate day, Task task) {
+        NavigableSet<Task> bucket = buckets.get(day);
+        if (bucket != null && bucket.remove(task) && bucket.isEmpty()) {
+            buckets.remove(day);
+        }
+    }
+
+    /**
+     * Removes every task.
+     */
+    public void clear() {
+        this.buckets.clear();
+        this.longEvents.clear();
+    }
+
+    /**
+     * Returns the items of a day, ordered by the time they are due or start.
+     *
+     * @param day Day to look up.
+     * @return Read-only collection, which is empty if nothing is on that day.
+     */
+    public Collection<Task> getTasks(LocalDate day) {
+        return this.getTasks(day, this.getLongEvents(day, day.plusDays(1)));
+    }
+
+    /**
+     * Calls an action with every day in a range holding any item, in order, together with its items.
+     *
+     * @param from First day of the range.
+     * @param until Day after the last day of the range.
+     * @param action Action to call with each day and its read-only items.
+     */
+    public void forEachDay(LocalDate from, LocalDate until, BiConsumer<LocalDate, Collection<Task>> action) {
+        List<Task> longEvents = this.getLongEvents(from, until);
+        if (longEvents.isEmpty()) {
+            for (Map.Entry<LocalDate, NavigableSet<Task>> entry : this.buckets.subMap(from, until).entrySet()) {
+                action.accept(entry.getKey(), Collections.unmodifiableSet(entry.getValue()));
+            }
+            return;
+        }
+        // Every day of the range may hold a long event, and the range is as long as the agenda shown
+        for (LocalDate day = from; day.isBefore(until); day = day.plusDays(1)) {
+            Collection<Task> dayTasks = this.getTasks(day, longEvents);
+            if (!dayTasks.isEmpty()) {
+                action.accept(day, dayTasks);
+            }
+        }
+    }
+
+    /**
+     * Returns the long events overlapping a range of days, skipping those which ended before it.
+     */
+    private List<Task> getLongEvents(LocalDate from, LocalDate until) {
+        List<Task> overlapping = new ArrayList<>();
+        for (NavigableSet<Task> events : this.longEvents.tailMap(from, true).values()) {
+            for (Task event : events) {
+                if (getFirstDay(event).isBefore(until)) {
+                    overlapping.add(event);
+                }
+            }
+        }
+        return overlapping;
+    }
+
+    /**
+     * Returns the items of a day from its bucket and those of the given long events spanning it.
+     */
+    private Collection<Task> getTasks(LocalDate day, List<Task> longEvents) {
+        NavigableSet<Task> dayTasks = this.buckets.get(day);
+        boolean isCopied = false;
+        for (Task event : longEvents) {
+            if (getFirstDay(event).isAfter(day) || getLastDay(event).isBefore(day)) {
+                continue;
+            }
+            if (!isCopied) {
+                dayTasks = dayTasks != null ? new TreeSet<>(dayTasks) : new TreeSet<>(BY_TIME);
+                isCopied = true;
+            }
+            dayTasks.add(event);
+        }
+        return dayTasks != null ? Collections.unmodifiableSet(dayTasks) : List.of();
+    }
+
+    @Override
+    public void onTasksAdded(int fromIndex, List<Task> tasks) {
+        for (Task task : tasks) {
+            this.add(task);
+        }
+    }
+
+    @Override
+    public void onTaskRemoved(int index, Task task) {
+        this.remove(task);
+    }
+
+    @Override
+    public void onTaskUpdated(int index, Task task) {
+        // Dates never change, so the task stays in the same buckets
+    }
+
+    @Override
+    public void onTasksReset(List<Task> tasks) {
+        this.clear();
+        this.onTasksAdded(0, tasks);
+    }
+}
@@ -1,7 +1,8 @@
 package ekud.tasks;
 
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+
+import ekud.parser.DateTimeParser;
 
 /**
  * Represents a task with a deadline.
@@ -15,12 +16,16 @@ public class Deadline extends Task {
         this.dateTime = dateTime;
     }
 
+    public LocalDateTime getDateTime() {
+        return this.dateTime;
+    }
+
     /**
      * Returns the user-friendly string format of this deadline's dateTime object.
      * @return String
      */
     public String getDateTimeFormat() {
-        return this.dateTime.format(DateTimeFormatter.ofPattern("dd MMM yyyy h:mm a"));
+        return this.dateTime.format(DateTimeParser.Layout.SAVED.getFormatter());
     }
 
     /**
@@ -31,7 +36,7 @@ public class Deadline extends Task {
     public String getSaveFormat() {
         return String.format("D | %c | %s | %s | %s",
                 this.getDoneSymbol(),
-                this.description,
+                this.getDescriptionWithTags(),
                 this.getDateTimeFormat(),
                 this.getPriority());
     }
@@ -44,7 +49,7 @@ public class Deadline extends Task {
     public String toString() {
         return String.format("[D][%c] %s (by: %s) (%s priority)",
                 this.getDoneSymbol(),
-                this.description,
+                this.getDescriptionWithTags(),
                 this.getDateTimeFormat(),
                 this.getPriority());
     }
@@ -1,7 +1,8 @@
 package ekud.tasks;
 
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+
+import ekud.parser.DateTimeParser;
 
 /**
  * Represents a task with starting and ending dates/times.
@@ -16,6 +17,14 @@ public class Event extends Task {
         this.toDateTime = toDateTime;
     }
 
+    public LocalDateTime getFromDateTime() {
+        return this.fromDateTime;
+    }
+
+    public LocalDateTime getToDateTime() {
+        return this.toDateTime;
+    }
+
     /**
      * Private method used to help format this event's dateTime into a
      * more user-friendly format.
@@ -23,7 +32,7 @@ public class Event extends Task {
      * @return String
      */
     private String getDateTimeFormat(LocalDateTime dateTime) {
-        return dateTime.format(DateTimeFormatter.ofPattern("dd MMM yyyy h:mm a"));
+        return dateTime.format(DateTimeParser.Layout.SAVED.getFormatter());
     }
 
     /**
@@ -34,7 +43,7 @@ public class Event extends Task {
     public String getSaveFormat() {
         return String.format("E | %c | %s | %s | %s | %s",
                 this.getDoneSymbol(),
-                this.description,
+                this.getDescriptionWithTags(),
                 this.getDateTimeFormat(this.fromDateTime),
                 this.getDateTimeFormat(this.toDateTime),
                 this.getPriority());
@@ -48,7 +57,7 @@ public class Event extends Task {
     public String toString() {
         return String.format("[E][%c] %s (from: %s, to: %s) (%s priority)",
                 this.getDoneSymbol(),
-                this.description,
+                this.getDescriptionWithTags(),
                 this.getDateTimeFormat(this.fromDateTime),
                 this.getDateTimeFormat(this.toDateTime),
                 this.getPriority());
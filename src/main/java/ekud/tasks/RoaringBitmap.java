@@ -0,0 +1,526 @@
+package ekud.tasks;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Compressed set of non-negative ints in the style of Roaring bitmaps. Values are split by their high
+ * 16 bits into chunks of 65536, and each chunk is kept in the smaller of two containers: a sorted array
+ * of its low 16 bits while it holds at most 4096 values, or a plain 8 KB bitmap otherwise. Sparse sets
+ * thus take 2 bytes per value and dense ones 1 bit, and set operations work chunk by chunk, a 64-bit word
+ * at a time between bitmaps.
+ */
+public class RoaringBitmap {
+    // Most values an array container holds, above which a bitmap container is smaller
+    private static final int ARRAY_MAX = 4096;
+    private static final int BITMAP_WORDS = (1 << 16) / Long.SIZE;
+
+    // High 16 bits of the values in each container, in ascending order
+    private char[] keys;
+    private Container[] containers;
+    private int size;
+
+    /**
+     * Constructs an empty RoaringBitmap.
+     */
+    public RoaringBitmap() {
+        this.keys = new char[4];
+        this.containers = new Container[4];
+    }
+
+    /**
+     * Adds a value to this set.
+     *
+     * @param value Non-negative value.
+     */
+    public void add(int value) {
+        assert value >= 0 : "Only non-negative values can be added";
+        char key = (char) (value >>> 16);
+        int i = this.indexOfKey(key);
+        if (i >= 0) {
+            this.containers[i] = this.containers[i].add((char) value);
+            return;
+        }
+        i = -i - 1;
+        if (this.size == this.keys.length) {
+            this.keys = Arrays.copyOf(this.keys, this.size * 2);
+            this.containers = Arrays.copyOf(this.containers, this.size * 2);
+        }
+        System.arraycopy(this.keys, i, this.keys, i + 1, this.size - i);
+        System.arraycopy(this.containers, i, this.containers, i + 1, this.size - i);
+        this.keys[i] = key;
+        this.containers[i] = new ArrayContainer().add((char) value);
+        this.size++;
+    }
+
+    /**
+     * Removes a value from this set, if it holds it.
+     *
+     * @param value Non-negative value.
+     */
+    public void remove(int value) {
+        int i = this.indexOfKey((char) (value >>> 16));
+        if (i < 0) {
+            return;
+        }
+        Container container = this.containers[i].remove((char) value);
+        if (container.cardinality() > 0) {
+            this.containers[i] = container;
+            return;
+        }
+        System.arraycopy(this.keys, i + 1, this.keys, i, this.size - i - 1);
+        System.arraycopy(this.containers, i + 1, this.containers, i, this.size - i - 1);
+        this.size--;
+        this.containers[this.size] = null;
+    }
+
+    /**
+     * Returns whether this set holds a value.
+     *
+     * @param value Value to look for.
+     * @return boolean
+     */
+    public boolean contains(int value) {
+        int i = value < 0 ? -1 : this.indexOfKey((char) (value >>> 16));
+        return i >= 0 && this.containers[i].contains((char) value);
+    }
+
+    /**
+     * Returns the number of values in this set.
+     *
+     * @return int
+     */
+    public int getCardinality() {
+        int cardinality = 0;
+        for (int i = 0; i < this.size; i++) {
+            cardinality += this.containers[i].cardinality();
+        }
+        return cardinality;
+    }
+
+    /**
+     * Returns whether this set holds no value.
+     *
+     * @return boolean
+     */
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * Removes every value from this set.
+     */
+    public void clear() {
+        Arrays.fill(this.containers, 0, this.size, null);
+        this.size = 0;
+    }
+
+    /**
+     * Returns the values held by both this set and another.
+     *
+     * @param other Other set.
+     * @return New RoaringBitmap
+     */
+    public RoaringBitmap and(RoaringBitmap other) {
+        RoaringBitmap result = new RoaringBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < this.size && j < other.size) {
+            if (this.keys[i] < other.keys[j]) {
+                i++;
+            } else if (this.keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                result.append(this.keys[i], this.containers[i].and(other.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the values held by either this set or another.
+     *
+     * @param other Other set.
+     * @return New RoaringBitmap
+     */
+    public RoaringBitmap or(RoaringBitmap other) {
+        RoaringBitmap result = new RoaringBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < this.size || j < other.size) {
+            if (j == other.size || (i < this.size && this.keys[i] < other.keys[j])) {
+                result.append(this.keys[i], this.containers[i].copy());
+                i++;
+            } else if (i == this.size || this.keys[i] > other.keys[j]) {
+                result.append(other.keys[j], other.containers[j].copy());
+                j++;
+            } else {
+                result.append(this.keys[i], this.containers[i].or(other.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the values held by this set but not by another.
+     *
+     * @param other Other set.
+     * @return New RoaringBitmap
+     */
+    public RoaringBitmap andNot(RoaringBitmap other) {
+        RoaringBitmap result = new RoaringBitmap();
+        int j = 0;
+        for (int i = 0; i < this.size; i++) {
+            while (j < other.size && other.keys[j] < this.keys[i]) {
+                j++;
+            }
+            if (j < other.size && other.keys[j] == this.keys[i]) {
+                result.append(this.keys[i], this.containers[i].andNot(other.containers[j]));
+            } else {
+                result.append(this.keys[i], this.containers[i].copy());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Calls an action with every value in this set, in ascending order.
+     *
+     * @param action Action to call.
+     */
+    public void forEach(IntConsumer action) {
+        for (int i = 0; i < this.size; i++) {
+            this.containers[i].forEach(this.keys[i] << 16, action);
+        }
+    }
+
+    /**
+     * Returns the index of a key, or -(insertion point) - 1 if there is no container for it.
+     */
+    private int indexOfKey(char key) {
+        return Arrays.binarySearch(this.keys, 0, this.size, key);
+    }
+
+    /**
+     * Appends a container with a key greater than every other, dropping it if it is empty.
+     */
+    private void append(char key, Container container) {
+        if (container.cardinality() == 0) {
+            return;
+        }
+        if (this.size == this.keys.length) {
+            this.keys = Arrays.copyOf(this.keys, this.size * 2);
+            this.containers = Arrays.copyOf(this.containers, this.size * 2);
+        }
+        this.keys[this.size] = key;
+        this.containers[this.size] = container;
+        this.size++;
+    }
+
+    /**
+     * Set of the low 16 bits of the values in a chunk. Operations which change the set return the
+     * container holding the result, which may be of the other kind.
+     */
+    private abstract static class Container {
+        abstract Container add(char value);
+
+        abstract Container remove(char value);
+
+        abstract boolean contains(char value);
+
+        abstract int cardinality();
+
+        abstract Container and(Container other);
+
+        abstract Container or(Container other);
+
+        abstract Container andNot(Container other);
+
+        abstract Container copy();
+
+        abstract void forEach(int base, IntConsumer action);
+    }
+
+    /**
+     * Container holding its values in a sorted array.
+     */
+    private static class ArrayContainer extends Container {
+        private char[] values;
+        private int cardinality;
+
+        ArrayContainer() {
+            this.values = new char[4];
+        }
+
+        ArrayContainer(char[] values, int cardinality) {
+            this.values = values;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        Container add(char value) {
+            int i = Arrays.binarySearch(this.values, 0, this.cardinality, value);
+            if (i >= 0) {
+                return this;
+            }
+            if (this.cardinality == ARRAY_MAX) {
+                return this.toBitmap().add(value);
+            }
+            i = -i - 1;
+            if (this.cardinality == this.values.length) {
+                this.values = Arrays.copyOf(this.values, Math.min(this.cardinality * 2, ARRAY_MAX));
+            }
+            System.arraycopy(this.values, i, this.values, i + 1, this.cardinality - i);
+            this.values[i] = value;
+            this.cardinality++;
+            return this;
+        }
+
+        @Override
+        Container remove(char value) {
+            int i = Arrays.binarySearch(this.values, 0, this.cardinality, value);
+            if (i >= 0) {
+                System.arraycopy(this.values, i + 1, this.values, i, this.cardinality - i - 1);
+                this.cardinality--;
+            }
+            return this;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return Arrays.binarySearch(this.values, 0, this.cardinality, value) >= 0;
+        }
+
+        @Override
+        int cardinality() {
+            return this.cardinality;
+        }
+
+        @Override
+        Container and(Container other) {
+            char[] result = new char[this.cardinality];
+            int n = 0;
+            if (other instanceof BitmapContainer) {
+                for (int i = 0; i < this.cardinality; i++) {
+                    if (other.contains(this.values[i])) {
+                        result[n++] = this.values[i];
+                    }
+                }
+                return new ArrayContainer(result, n);
+            }
+            ArrayContainer array = (ArrayContainer) other;
+            int i = 0;
+            int j = 0;
+            while (i < this.cardinality && j < array.cardinality) {
+                if (this.values[i] < array.values[j]) {
+                    i++;
+                } else if (this.values[i] > array.values[j]) {
+                    j++;
+                } else {
+                    result[n++] = this.values[i];
+                    i++;
+                    j++;
+                }
+            }
+            return new ArrayContainer(result, n);
+        }
+
+        @Override
+        Container or(Container other) {
+            if (other instanceof BitmapContainer) {
+                return other.or(this);
+            }
+            ArrayContainer array = (ArrayContainer) other;
+            if (this.cardinality + array.cardinality > ARRAY_MAX) {
+                return this.toBitmap().or(array);
+            }
+            char[] result = new char[this.cardinality + array.cardinality];
+            int n = 0;
+            int i = 0;
+            int j = 0;
+            while (i < this.cardinality || j < array.cardinality) {
+                if (j == array.cardinality || (i < this.cardinality && this.values[i] < array.values[j])) {
+                    result[n++] = this.values[i++];
+                } else if (i == this.cardinality || this.values[i] > array.values[j]) {
+                    result[n++] = array.values[j++];
+                } else {
+                    result[n++] = this.values[i];
+                    i++;
+                    j++;
+                }
+            }
+            return new ArrayContainer(result, n);
+        }
+
+        @Override
+        Container andNot(Container other) {
+            char[] result = new char[this.cardinality];
+            int n = 0;
+            for (int i = 0; i < this.cardinality; i++) {
+                if (!other.contains(this.values[i])) {
+                    result[n++] = this.values[i];
+                }
+            }
+            return new ArrayContainer(result, n);
+        }
+
+        @Override
+        Container copy() {
+            return new ArrayContainer(Arrays.copyOf(this.values, this.cardinality), this.cardinality);
+        }
+
+        @Override
+        void forEach(int base, IntConsumer action) {
+            for (int i = 0; i < this.cardinality; i++) {
+                action.accept(base | this.values[i]);
+            }
+        }
+
+        BitmapContainer toBitmap() {
+            BitmapContainer bitmap = new BitmapContainer(new long[BITMAP_WORDS], 0);
+            for (int i = 0; i < this.cardinality; i++) {
+                bitmap.add(this.values[i]);
+            }
+            return bitmap;
+        }
+    }
+
+    /**
+     * Container holding one bit for each of the 65536 values of its chunk.
+     */
+    private static class BitmapContainer extends Container {
+        private final long[] words;
+        private int cardinality;
+
+        BitmapContainer(long[] words, int cardinality) {
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        Container add(char value) {
+            long bit = 1L << value;
+            if ((this.words[value >>> 6] & bit) == 0) {
+                this.words[value >>> 6] |= bit;
+                this.cardinality++;
+            }
+            return this;
+        }
+
+        @Override
+        Container remove(char value) {
+            long bit = 1L << value;
+            if ((this.words[value >>> 6] & bit) != 0) {
+                this.words[value >>> 6] &= ~bit;
+                this.cardinality--;
+            }
+            return this.cardinality <= ARRAY_MAX ? this.toArray() : this;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return (this.words[value >>> 6] & (1L << value)) != 0;
+        }
+
+        @Override
+        int cardinality() {
+            return this.cardinality;
+        }
+
+        @Override
+        Container and(Container other) {
+            if (other instanceof ArrayContainer) {
+                return other.and(this);
+            }
+            long[] otherWords = ((BitmapContainer) other).words;
+            long[] result = new long[BITMAP_WORDS];
+            int cardinality = 0;
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                result[i] = this.words[i] & otherWords[i];
+                cardinality += Long.bitCount(result[i]);
+            }
+            return new BitmapContainer(result, cardinality).optimise();
+        }
+
+        @Override
+        Container or(Container other) {
+            BitmapContainer result = new BitmapContainer(this.words.clone(), this.cardinality);
+            if (other instanceof ArrayContainer) {
+                ArrayContainer array = (ArrayContainer) other;
+                for (int i = 0; i < array.cardinality; i++) {
+                    result.add(array.values[i]);
+                }
+                return result;
+            }
+            long[] otherWords = ((BitmapContainer) other).words;
+            int cardinality = 0;
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                result.words[i] |= otherWords[i];
+                cardinality += Long.bitCount(result.words[i]);
+            }
+            result.cardinality = cardinality;
+            return result;
+        }
+
+        @Override
+        Container andNot(Container other) {
+            BitmapContainer result = new BitmapContainer(this.words.clone(), this.cardinality);
+            if (other instanceof ArrayContainer) {
+                ArrayContainer array = (ArrayContainer) other;
+                for (int i = 0; i < array.cardinality; i++) {
+                    char value = array.values[i];
+                    if (result.contains(value)) {
+                        result.words[value >>> 6] &= ~(1L << value);
+                        result.cardinality--;
+                    }
+                }
+                return result.optimise();
+            }
+            long[] otherWords = ((BitmapContainer) other).words;
+            int cardinality = 0;
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                result.words[i] &= ~otherWords[i];
+                cardinality += Long.bitCount(result.words[i]);
+            }
+            result.cardinality = cardinality;
+            return result.optimise();
+        }
+
+        @Override
+        Container copy() {
+            return new BitmapContainer(this.words.clone(), this.cardinality);
+        }
+
+        @Override
+        void forEach(int base, IntConsumer action) {
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                long word = this.words[i];
+                while (word != 0) {
+                    action.accept(base | (i << 6) | Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+        }
+
+        private Container optimise() {
+            return this.cardinality <= ARRAY_MAX ? this.toArray() : this;
+        }
+
+        private ArrayContainer toArray() {
+            char[] values = new char[this.cardinality];
+            int n = 0;
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                long word = this.words[i];
+                while (word != 0) {
+                    values[n++] = (char) ((i << 6) | Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+            return new ArrayContainer(values, this.cardinality);
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package ekud.tasks;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bitmap index of the tasks of a TaskList by tag, done status and priority, kept up to date as a listener
+ * of the TaskList. Each task is given a slot, a small int which unlike its position does not change when
+ * earlier tasks are deleted, and every tag, the done status and each priority has a RoaringBitmap of the
+ * slots of its tasks. Queries over them are then set operations on compressed bitmaps, whose cost
+ * depends on the number of matching tasks and not on the number of tags. Slots of removed tasks are reused.
+ */
+class TagIndex implements TaskListListener {
+    private static final Priority[] PRIORITIES = Priority.values();
+
+    // Task in each slot, or null for free slots
+    private Task[] slotTasks;
+    // Tags each slot is indexed under, to unindex them when they change
+    private Object[] slotTags;
+    private int numSlots;
+    private int[] freeSlots;
+    private int numFreeSlots;
+    private final RoaringBitmap liveSlots;
+    private final RoaringBitmap doneSlots;
+    private final RoaringBitmap[] prioritySlots;
+    private final Map<String, RoaringBitmap> tagSlots;
+
+    TagIndex() {
+        this.slotTasks = new Task[16];
+        this.slotTags = new Object[16];
+        this.freeSlots = new int[16];
+        this.liveSlots = new RoaringBitmap();
+        this.doneSlots = new RoaringBitmap();
+        this.prioritySlots = new RoaringBitmap[PRIORITIES.length];
+        for (int i = 0; i < PRIORITIES.length; i++) {
+            this.prioritySlots[i] = new RoaringBitmap();
+        }
+        this.tagSlots = new HashMap<>();
+    }
+
+    RoaringBitmap getLiveSlots() {
+        return this.liveSlots;
+    }
+
+    RoaringBitmap getDoneSlots() {
+        return this.doneSlots;
+    }
+
+    RoaringBitmap getPrioritySlots(Priority priority) {
+        return this.prioritySlots[priority.ordinal()];
+    }
+
+    /**
+     * Returns the slots of the tasks with a tag, which must not be modified.
+     */
+    RoaringBitmap getTagSlots(String tag) {
+        RoaringBitmap slots = this.tagSlots.get(Tags.normalise(tag));
+        return slots != null ? slots : new RoaringBitmap();
+    }
+
+    Task getTask(int slot) {
+        return this.slotTasks[slot];
+    }
+
+    @Override
+    public void onTasksAdded(int fromIndex, List<Task> tasks) {
+        for (Task task : tasks) {
+            this.add(task);
+        }
+    }
+
+    @Override
+    public void onTaskRemoved(int index, Task task) {
+        int slot = task.slot;
+        if (slot < 0 || this.slotTasks[slot] != task) {
+            return;
+        }
+        this.liveSlots.remove(slot);
+        this.doneSlots.remove(slot);
+        for (RoaringBitmap slots : this.prioritySlots) {
+            slots.remove(slot);
+        }
+        this.unindexTags(slot);
+        this.slotTasks[slot] = null;
+        task.slot = -1;
+        if (this.numFreeSlots == this.freeSlots.length) {
+            this.freeSlots = Arrays.copyOf(this.freeSlots, this.numFreeSlots * 2);
+        }
+        this.freeSlots[this.numFreeSlots++] = slot;
+    }
+
+    @Override
+    public void onTaskUpdated(int index, Task task) {
+        int slot = task.slot;
+        if (slot < 0 || this.slotTasks[slot] != task) {
+            return;
+        }
+        if (task.isDone()) {
+            this.doneSlots.add(slot);
+        } else {
+            this.doneSlots.remove(slot);
+        }
+        for (RoaringBitmap slots : this.prioritySlots) {
+            slots.remove(slot);
+        }
+        this.prioritySlots[task.getPriorityLevel().ordinal()].add(slot);
+        if (this.slotTags[slot] != task.getTags()) {
+            this.unindexTags(slot);
+            this.indexTags(slot, task);
+        }
+    }
+
+    @Override
+    public void onTasksReset(List<Task> tasks) {
+        // The tasks may have changed before the reset, eg on rollback, so the index is rebuilt from scratch
+        for (int slot = 0; slot < this.numSlots; slot++) {
+            if (this.slotTasks[slot] != null) {
+                this.slotTasks[slot].slot = -1;
+            }
+        }
+        Arrays.fill(this.slotTasks, 0, this.numSlots, null);
+        Arrays.fill(this.slotTags, 0, this.numSlots, null);
+        this.numSlots = 0;
+        this.numFreeSlots = 0;
+        this.liveSlots.clear();
+        this.doneSlots.clear();
+        for (RoaringBitmap slots : this.prioritySlots) {
+            slots.clear();
+        }
+        this.tagSlots.clear();
+        this.onTasksAdded(0, tasks);
+    }
+
+    private void add(Task task) {
+        if (task.slot >= 0 && this.slotTasks[task.slot] == task) {
+            return; // The same task added twice, eg by undoing a clear twice, is only indexed once
+        }
+        int slot;
+        if (this.numFreeSlots > 0) {
+            slot = this.freeSlots[--this.numFreeSlots];
+        } else {
+            if (this.numSlots == this.slotTasks.length) {
+                this.slotTasks = Arrays.copyOf(this.slotTasks, this.numSlots * 2);
+                this.slotTags = Arrays.copyOf(this.slotTags, this.numSlots * 2);
+            }
+            slot = this.numSlots++;
+        }
+        this.slotTasks[slot] = task;
+        task.slot = slot;
+        this.liveSlots.add(slot);
+        if (task.isDone()) {
+            this.doneSlots.add(slot);
+        }
+        this.prioritySlots[task.getPriorityLevel().ordinal()].add(slot);
+        this.indexTags(slot, task);
+    }
+
+    private void indexTags(int slot, Task task) {
+        List<String> tags = task.getTags();
+        for (String tag : tags) {
+            this.tagSlots.computeIfAbsent(tag, key -> new RoaringBitmap()).add(slot);
+        }
+        this.slotTags[slot] = tags;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void unindexTags(int slot) {
+        for (String tag : (List<String>) this.slotTags[slot]) {
+            RoaringBitmap slots = this.tagSlots.get(tag);
+            slots.remove(slot);
+            if (slots.isEmpty()) {
+                this.tagSlots.remove(tag);
+            }
+        }
+        this.slotTags[slot] = null;
+    }
+}
@@ -0,0 +1,83 @@
+package ekud.tasks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Parses the #tags written in task descriptions. A tag is a word starting with '#' and a letter,
+ * followed by letters, digits, '-' or '_', eg #work or #q3-review, and is compared case-insensitively.
+ * Words like #12 are not tags, so they keep referring to task IDs.
+ */
+public final class Tags {
+    private Tags() {
+    }
+
+    /**
+     * Returns whether a word is a tag, including its '#'.
+     *
+     * @param word Word without spaces.
+     * @return boolean
+     */
+    public static boolean isTag(String word) {
+        if (word.length() < 2 || word.charAt(0) != '#' || !Character.isLetter(word.charAt(1))) {
+            return false;
+        }
+        for (int i = 2; i < word.length(); i++) {
+            char c = word.charAt(i);
+            if (!Character.isLetterOrDigit(c) && c != '-' && c != '_') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the name of a tag as it is stored and indexed, ie lower-cased and without its '#'.
+     *
+     * @param tag Tag, with or without its '#'.
+     * @return String
+     */
+    public static String normalise(String tag) {
+        return (tag.startsWith("#") ? tag.substring(1) : tag).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Returns whether a description has no text besides its tags, eg "#work", so that it cannot describe a task.
+     *
+     * @param text Description as written by the user.
+     * @return boolean
+     */
+    public static boolean isBlank(String text) {
+        return split(text, new ArrayList<>()).isBlank();
+    }
+
+    /**
+     * Splits a description into its text and its distinct tags, in order of appearance. Each tag is removed
+     * with one of the spaces around it, so the rest of the text keeps its spacing.
+     *
+     * @param text Description as written by the user.
+     * @param tags List to add the normalised tags to.
+     * @return Description without its tags.
+     */
+    static String split(String text, List<String> tags) {
+        if (text.indexOf('#') < 0) {
+            return text;
+        }
+        List<String> words = new ArrayList<>();
+        boolean hasTag = false;
+        // Empty words stand for the extra spaces of a run, which are joined back in place
+        for (String word : text.split(" ", -1)) {
+            if (isTag(word)) {
+                String tag = normalise(word);
+                if (!tags.contains(tag)) {
+                    tags.add(tag);
+                }
+                hasTag = true;
+            } else {
+                words.add(word);
+            }
+        }
+        return hasTag ? String.join(" ", words) : text;
+    }
+}
@@ -1,17 +1,40 @@
 package ekud.tasks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 /**
  * Represents a task created by the user.
  */
 public abstract class Task {
-    // Every task has a description
+    // Every task has a description, without its tags
     protected String description;
     // Marks whether the task is completed already or not
     protected boolean isDone;
     // Indicates the priority level of an item
     private Priority priority;
+    // Stable ID assigned by the TaskList, or 0 until the task is first added to one
+    private long id;
+    // Index of the task in its TaskList, updated whenever tasks before it are removed
+    int position;
+    // Normalised tags, replaced rather than modified when they change
+    private List<String> tags;
+    // Slot of the task in its TaskList's tag index, or -1 if it is not indexed
+    int slot = -1;
+    // Entry of the task in its TaskList's urgency queue, or null if it is not queued
+    UrgencyQueue.Entry urgencyEntry;
 
+    /**
+     * Constructs a task, moving the #tags written in its description into its tags.
+     *
+     * @param description Description, which may contain #tags.
+     * @param priority Priority of the task.
+     */
     public Task(String description, Priority priority) {
-        this.description = description;
+        List<String> tags = new ArrayList<>();
+        this.description = Tags.split(description, tags);
+        this.tags = tags.isEmpty() ? List.of() : Collections.unmodifiableList(tags);
         this.isDone = false;
         this.priority = priority;
     }
@@ -36,6 +59,66 @@ public abstract class Task {
         return this.isDone ? 'X': ' ';
     }
 
+    public String getDescription() {
+        return this.description;
+    }
+
+    /**
+     * Returns the description of this task followed by its tags, as written to files so that
+     * the tags are parsed back when the task is read.
+     *
+     * @return String
+     */
+    public String getDescriptionWithTags() {
+        if (this.tags.isEmpty()) {
+            return this.description;
+        }
+        StringBuilder text = new StringBuilder(this.description);
+        for (String tag : this.tags) {
+            text.append(" #").append(tag);
+        }
+        return text.toString();
+    }
+
+    /**
+     * Returns the normalised tags of this task, in the order they were added.
+     *
+     * @return Read-only list of tag names without their '#'.
+     */
+    public List<String> getTags() {
+        return this.tags;
+    }
+
+    /**
+     * Replaces the tags of this task. Done through its TaskList, which keeps its tag index up to date.
+     */
+    void setTags(List<String> tags) {
+        this.tags = tags;
+    }
+
+    public boolean isDone() {
+        return this.isDone;
+    }
+
+    public long getId() {
+        return this.id;
+    }
+
+    /**
+     * Sets the ID of this task, eg when restoring it from the history journal.
+     * New tasks are given an ID by the TaskList they are added to.
+     *
+     * @param id ID greater than 0.
+     */
+    public void setId(long id) {
+        assert id > 0 : "Task IDs start at 1";
+        this.id = id;
+    }
+
+    public Priority getPriorityLevel() {
+        return this.priority;
+    }
+
     /**
      * Returns the string representation of this task's priority.
      * @return String
@@ -0,0 +1,76 @@
+package ekud.tasks;
+
+import java.time.LocalDateTime;
+
+/**
+ * Selects tasks by done status, priority and date range. Every criterion is optional, and a task is
+ * selected when it meets all of those given. Filters are immutable; each with...() method returns a copy.
+ */
+public class TaskFilter {
+    public static final TaskFilter ALL = new TaskFilter(null, null, null, null);
+
+    // Required done status, or null for any
+    private final Boolean isDone;
+    // Required priority, or null for any
+    private final Priority priority;
+    // Bounds of the date range, inclusive, or null if unbounded on that side
+    private final LocalDateTime from;
+    private final LocalDateTime to;
+
+    private TaskFilter(Boolean isDone, Priority priority, LocalDateTime from, LocalDateTime to) {
+        this.isDone = isDone;
+        this.priority = priority;
+        this.from = from;
+        this.to = to;
+    }
+
+    public TaskFilter withDone(boolean isDone) {
+        return new TaskFilter(isDone, this.priority, this.from, this.to);
+    }
+
+    public TaskFilter withPriority(Priority priority) {
+        return new TaskFilter(this.isDone, priority, this.from, this.to);
+    }
+
+    public TaskFilter withFrom(LocalDateTime from) {
+        return new TaskFilter(this.isDone, this.priority, from, this.to);
+    }
+
+    public TaskFilter withTo(LocalDateTime to) {
+        return new TaskFilter(this.isDone, this.priority, this.from, to);
+    }
+
+    /**
+     * Returns whether a task meets every criterion of this filter. Given a date range, only deadlines due
+     * within it and events overlapping it are selected, as to-dos have no dates.
+     *
+     * @param task Task to check.
+     * @return boolean
+     */
+    public boolean matches(Task task) {
+        if (this.isDone != null && task.isDone() != this.isDone) {
+            return false;
+        }
+        if (this.priority != null && task.getPriorityLevel() != this.priority) {
+            return false;
+        }
+        if (this.from == null && this.to == null) {
+            return true;
+        }
+        if (task instanceof Deadline) {
+            LocalDateTime dateTime = ((Deadline) task).getDateTime();
+            return this.isInRange(dateTime, dateTime);
+        } else if (task instanceof Event) {
+            Event event = (Event) task;
+            return this.isInRange(event.getFromDateTime(), event.getToDateTime());
+        }
+        return false;
+    }
+
+    /**
+     * Returns whether the span from start to end overlaps the date range.
+     */
+    private boolean isInRange(LocalDateTime start, LocalDateTime end) {
+        return (this.from == null || !end.isBefore(this.from)) && (this.to == null || !start.isAfter(this.to));
+    }
+}
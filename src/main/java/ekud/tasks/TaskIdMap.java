@@ -0,0 +1,154 @@
+package ekud.tasks;
+
+import java.util.Arrays;
+
+/**
+ * Hash map from task IDs to tasks, keyed by primitive longs so lookups neither box the ID nor chase
+ * entry objects. Uses open addressing with linear probing over parallel key and value arrays, and
+ * deletes by shifting later entries of the probe run back, so no tombstones build up as tasks come
+ * and go. The key 0 marks an empty slot, which is why task IDs start at 1.
+ */
+public class TaskIdMap {
+    private static final int MIN_CAPACITY = 16;
+    // Golden ratio multiplier, which spreads sequential IDs evenly over the table
+    private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    private long[] keys;
+    private Task[] values;
+    private int size;
+    // Number of bits in a slot index, ie log2 of the capacity
+    private int numBits;
+
+    /**
+     * Constructs an empty TaskIdMap.
+     */
+    public TaskIdMap() {
+        this.allocate(MIN_CAPACITY);
+    }
+
+    /**
+     * Returns the task with the given ID, or null if there is none.
+     *
+     * @param id ID of the task.
+     * @return Task
+     */
+    public Task get(long id) {
+        if (id == 0) {
+            return null;
+        }
+        int mask = this.keys.length - 1;
+        for (int slot = this.slotOf(id); this.keys[slot] != 0; slot = (slot + 1) & mask) {
+            if (this.keys[slot] == id) {
+                return this.values[slot];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Maps an ID to a task, replacing the task it was mapped to, if any.
+     *
+     * @param id ID of the task, which must not be 0.
+     * @param task Task to map it to.
+     */
+    public void put(long id, Task task) {
+        assert id != 0 : "0 marks empty slots and cannot be a task ID";
+        int mask = this.keys.length - 1;
+        int slot = this.slotOf(id);
+        while (this.keys[slot] != 0) {
+            if (this.keys[slot] == id) {
+                this.values[slot] = task;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        this.keys[slot] = id;
+        this.values[slot] = task;
+        this.size++;
+        // Keeps the table at most half full, so probe runs stay short
+        if (this.size * 2 > this.keys.length) {
+            this.rehash(this.keys.length * 2);
+        }
+    }
+
+    /**
+     * Removes the mapping of an ID, if any.
+     *
+     * @param id ID of the task.
+     * @return Task it was mapped to, or null if there was none.
+     */
+    public Task remove(long id) {
+        if (id == 0) {
+            return null;
+        }
+        int mask = this.keys.length - 1;
+        int slot = this.slotOf(id);
+        while (this.keys[slot] != id) {
+            if (this.keys[slot] == 0) {
+                return null;
+            }
+            slot = (slot + 1) & mask;
+        }
+        Task task = this.values[slot];
+        // Moves back every later entry of the run which would no longer be found past the emptied slot
+        int gap = slot;
+        for (int next = (gap + 1) & mask; this.keys[next] != 0; next = (next + 1) & mask) {
+            int home = this.slotOf(this.keys[next]);
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                this.keys[gap] = this.keys[next];
+                this.values[gap] = this.values[next];
+                gap = next;
+            }
+        }
+        this.keys[gap] = 0;
+        this.values[gap] = null;
+        this.size--;
+        return task;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Removes every mapping, shrinking the table back to its initial capacity.
+     */
+    public void clear() {
+        if (this.keys.length == MIN_CAPACITY) {
+            Arrays.fill(this.keys, 0);
+            Arrays.fill(this.values, null);
+            this.size = 0;
+        } else {
+            this.allocate(MIN_CAPACITY);
+        }
+    }
+
+    private int slotOf(long id) {
+        return (int) ((id * HASH_MULTIPLIER) >>> (Long.SIZE - this.numBits));
+    }
+
+    private void allocate(int capacity) {
+        this.keys = new long[capacity];
+        this.values = new Task[capacity];
+        this.numBits = Integer.numberOfTrailingZeros(capacity);
+        this.size = 0;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = this.keys;
+        Task[] oldValues = this.values;
+        this.allocate(capacity);
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int slot = this.slotOf(oldKeys[i]);
+                while (this.keys[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                this.keys[slot] = oldKeys[i];
+                this.values[slot] = oldValues[i];
+                this.size++;
+            }
+        }
+    }
+}
@@ -1,12 +1,18 @@
 package ekud.tasks;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
 
 import ekud.exceptions.EkudIOException;
 import ekud.exceptions.EkudIllegalArgException;
 import ekud.exceptions.EkudInvalidCommandException;
+import ekud.metrics.TaskListEvent;
 import ekud.parser.Parser;
 
 /**
@@ -14,10 +20,31 @@ import ekud.parser.Parser;
  * modifying tasks, and is a key component of the chatbot.
  */
 public class TaskList {
+    // Parser shared by every load, for parsing saved dateTimes
+    private static final Parser SAVED_TASK_PARSER = new Parser();
+    // Day names are in English like the rest of the responses, whatever the default locale
+    private static final DateTimeFormatter AGENDA_DAY_FORMAT =
+            DateTimeFormatter.ofPattern("EEE d MMM yyyy", Locale.ENGLISH);
     // Actual list storing the tasks
     private List<Task> tasks;
     // Cached list before clearing the main list
     private List<Task> cachedTasks;
+    // Undoes each change made since beginTransaction(), or null when no transaction is in progress
+    private List<Runnable> undoLog;
+    // ID to give the next new task when the transaction in progress began
+    private long transactionNextId;
+    // Notified of every change, eg by the GUI's task table
+    private final List<TaskListListener> listeners;
+    // Every task in the main list by its ID
+    private final TaskIdMap idIndex;
+    // ID to give the next new task, never reused even after the task with the highest ID is deleted
+    private long nextId;
+    // Bitmaps of the tasks in the main list by tag, done status and priority, for filter queries
+    private final TagIndex tagIndex;
+    // Undone tasks in the main list by urgency, for the next command
+    private final UrgencyQueue urgencyQueue;
+    // Deadlines and events in the main list by day, for the agenda command
+    private final AgendaIndex agendaIndex;
 
     /**
      * Constructs a TaskList which initialises its arrays.
@@ -25,6 +52,33 @@ public class TaskList {
     public TaskList() {
         this.tasks = new ArrayList<>();
         this.cachedTasks = new ArrayList<>();
+        this.listeners = new ArrayList<>();
+        this.idIndex = new TaskIdMap();
+        this.nextId = 1;
+        this.tagIndex = new TagIndex();
+        this.listeners.add(this.tagIndex);
+        this.urgencyQueue = new UrgencyQueue(UrgencyPolicy.getConfigured(), LocalDateTime.now());
+        this.listeners.add(this.urgencyQueue);
+        this.agendaIndex = new AgendaIndex();
+        this.listeners.add(this.agendaIndex);
+    }
+
+    /**
+     * Registers a listener to be notified of every subsequent change to the tasks.
+     *
+     * @param listener Listener to notify.
+     */
+    public void addListener(TaskListListener listener) {
+        this.listeners.add(listener);
+    }
+
+    /**
+     * Stops notifying a listener registered by addListener().
+     *
+     * @param listener Listener to stop notifying.
+     */
+    public void removeListener(TaskListListener listener) {
+        this.listeners.remove(listener);
     }
 
     /**
@@ -39,7 +93,8 @@ public class TaskList {
         StringBuilder output = new StringBuilder("Here is your to-do list:\n");
         int len = this.tasks.size();
         for (int i = 0; i < len; i++) {
-            output.append(String.format("%d. %s\n", i + 1, this.tasks.get(i).toString()));
+            Task task = this.tasks.get(i);
+            output.append(String.format("%d. #%d %s\n", i + 1, task.getId(), task.toString()));
         }
         return output.toString();
     }
@@ -52,8 +107,9 @@ public class TaskList {
      * @throws EkudIllegalArgException Illegal arg for index number.
      */
     public String markTaskAsDone(int index) {
-        Task task = this.tasks.get(index);
+        Task task = this.getTaskToUpdate(index);
         task.markAsDone();
+        this.fireUpdated(index);
         return "The following task is marked done, sheeesh:\n" + task;
     }
 
@@ -64,7 +120,8 @@ public class TaskList {
      * @param index
      */
     public void markDoneOnStart(int index) {
-        this.tasks.get(index).markAsDone();
+        this.getTaskToUpdate(index).markAsDone();
+        this.fireUpdated(index);
     }
 
     /**
@@ -75,8 +132,9 @@ public class TaskList {
      * @throws EkudIllegalArgException Illegal arg for index number.
      */
     public String markTaskAsNotDone(int index) {
-        Task task = this.tasks.get(index);
+        Task task = this.getTaskToUpdate(index);
         task.markAsNotDone();
+        this.fireUpdated(index);
         return "The following task is marked as not done yet:\n" + task;
     }
 
@@ -88,8 +146,9 @@ public class TaskList {
      * @return
      */
     public String changePriority(Priority priority, int index) {
-        Task task = this.tasks.get(index);
+        Task task = this.getTaskToUpdate(index);
         task.changePriority(priority);
+        this.fireUpdated(index);
         return String.format(
                 "The following task's priority is set to '%s':\n%s",
                 task.getPriority(),
@@ -104,7 +163,8 @@ public class TaskList {
      */
     private String confirmAddedTask(Task task) {
         return String.format(
-                "Got it! I've added this task:\n%s\nNow you have %d task(s) in the list.",
+                "Got it! I've added this task as #%d:\n%s\nNow you have %d task(s) in the list.",
+                task.getId(),
                 task.toString(),
                 this.tasks.size());
     }
@@ -120,24 +180,49 @@ public class TaskList {
      */
     public void addSavedTask(TaskType taskType, String description, Priority priority,
                                String[] taskDetails) throws EkudIOException {
-        Parser parser = new Parser(); // For parsing dateTime
+        this.addSavedTask(0, taskType, description, priority, taskDetails);
+    }
+
+    /**
+     * Adds a particular saved task to this TaskList, keeping the ID it was saved with.
+     *
+     * @param id Saved ID of the task, or 0 to give it a new one.
+     * @param taskType Type of task to be added.
+     * @param description Description of task.
+     * @param priority Priority of task.
+     * @param taskDetails Additional details of task, starting with its type.
+     * @throws EkudIOException If task failed to be added.
+     */
+    public void addSavedTask(long id, TaskType taskType, String description, Priority priority,
+                             String[] taskDetails) throws EkudIOException {
         try {
+            Task task;
             switch (taskType) {
             case TODO:
-                this.tasks.add(new ToDo(description, priority));
+                task = new ToDo(description, priority);
                 break;
             case DEADLINE:
-                LocalDateTime dateTime = parser.parseSavedDateTime(taskDetails[3]);
-                this.tasks.add(new Deadline(description, dateTime, priority));
+                LocalDateTime dateTime = SAVED_TASK_PARSER.parseSavedDateTime(taskDetails[3]);
+                if (dateTime == null) {
+                    throw new EkudIOException("Error with parsing saved tasks: Invalid datetime");
+                }
+                task = new Deadline(description, dateTime, priority);
                 break;
             case EVENT:
-                LocalDateTime fromDateTime = parser.parseSavedDateTime(taskDetails[3]);
-                LocalDateTime toDateTime = parser.parseSavedDateTime(taskDetails[4]);
-                this.tasks.add(new Event(description, fromDateTime, toDateTime, priority));
+                LocalDateTime fromDateTime = SAVED_TASK_PARSER.parseSavedDateTime(taskDetails[3]);
+                LocalDateTime toDateTime = SAVED_TASK_PARSER.parseSavedDateTime(taskDetails[4]);
+                if (fromDateTime == null || toDateTime == null) {
+                    throw new EkudIOException("Error with parsing saved tasks: Invalid datetime");
+                }
+                task = new Event(description, fromDateTime, toDateTime, priority);
                 break;
             default:
                 throw new EkudIOException("Error with parsing saved tasks: Invalid task type");
             }
+            if (id > 0 && this.idIndex.get(id) == null) { // A duplicated task is given a new ID instead
+                task.setId(id);
+            }
+            this.addTask(task);
         } catch (IndexOutOfBoundsException e) {
             throw new EkudIOException("Error with parsing saved tasks: Missing datetime arguments");
         }
@@ -151,7 +236,7 @@ public class TaskList {
      */
     public String addToDo(String description) {
         ToDo newToDo = new ToDo(description, Priority.MEDIUM);
-        this.tasks.add(newToDo);
+        this.addTask(newToDo);
         return this.confirmAddedTask(newToDo);
     }
 
@@ -164,7 +249,7 @@ public class TaskList {
      */
     public String addDeadline(String description, LocalDateTime dateTime) {
         Deadline newDeadline = new Deadline(description, dateTime, Priority.MEDIUM);
-        this.tasks.add(newDeadline);
+        this.addTask(newDeadline);
         return this.confirmAddedTask(newDeadline);
     }
 
@@ -177,7 +262,7 @@ public class TaskList {
      */
     public String addEvent(String description, LocalDateTime ... dateTimes) {
         Event newEvent = new Event(description, dateTimes[0], dateTimes[1], Priority.MEDIUM);
-        this.tasks.add(newEvent);
+        this.addTask(newEvent);
         return this.confirmAddedTask(newEvent);
     }
 
@@ -193,7 +278,7 @@ public class TaskList {
             throw new EkudInvalidCommandException("You cannot delete from an empty task list :/");
         }
         Task task = this.tasks.get(index);
-        this.tasks.remove(index);
+        this.removeTask(index);
         return String.format(
                 "Alright, this task has been removed:\n%s\nNow you have %d task(s) in the list.",
                 task.toString(),
@@ -210,7 +295,7 @@ public class TaskList {
         List<String> matchingTasks = new ArrayList<>();
         for (Task task: this.tasks) {
             if (task.description.contains(keyword)) {
-                matchingTasks.add(task.toString());
+                matchingTasks.add("#" + task.getId() + " " + task);
             }
         }
         if (matchingTasks.isEmpty()) {
@@ -225,6 +310,136 @@ public class TaskList {
         return output.toString();
     }
 
+    /**
+     * Finds the tasks matching a query over their tags, done status and priority, eg 'tag:work & !done',
+     * and returns them in list order as a String.
+     *
+     * @param query Query supplied by the user.
+     * @return String response of tasks for user.
+     * @throws EkudIllegalArgException If the query is malformed.
+     */
+    public String filterTasks(String query) throws EkudIllegalArgException {
+        TaskListEvent event = new TaskListEvent();
+        event.begin();
+        RoaringBitmap slots = TaskQuery.parse(query).evaluate(this.tagIndex);
+        int numMatches = slots.getCardinality();
+        // Slots follow no particular order, so the matches are sorted by their positions in the list
+        int[] matches = new int[numMatches];
+        int[] numFound = new int[1];
+        slots.forEach(slot -> matches[numFound[0]++] = this.getIndexOfId(this.tagIndex.getTask(slot).getId()));
+        Arrays.sort(matches);
+        event.commit("filter", numMatches);
+        if (numMatches == 0) {
+            return String.format("No tasks matching the query '%s' were found :(", query.strip());
+        }
+        StringBuilder output = new StringBuilder("Here are the tasks matching your query: :>\n");
+        for (int index : matches) {
+            Task task = this.tasks.get(index);
+            output.append(String.format("%d. #%d %s\n", index + 1, task.getId(), task.toString()));
+        }
+        return output.toString();
+    }
+
+    /**
+     * Returns the most urgent undone tasks, as scored by the configured UrgencyPolicy, without going
+     * through the other tasks.
+     *
+     * @param numTasks Maximum number of tasks to return.
+     * @param now Current date and time.
+     * @return Tasks, most urgent first.
+     */
+    public List<Task> getNextTasks(int numTasks, LocalDateTime now) {
+        return this.urgencyQueue.peek(numTasks, now);
+    }
+
+    /**
+     * Returns the most urgent undone tasks as a String.
+     *
+     * @param numTasks Maximum number of tasks to show.
+     * @param now Current date and time.
+     * @return String response of tasks for user.
+     */
+    public String showNextTasks(int numTasks, LocalDateTime now) {
+        TaskListEvent event = new TaskListEvent();
+        event.begin();
+        List<Task> nextTasks = this.getNextTasks(numTasks, now);
+        event.commit("next", nextTasks.size());
+        if (nextTasks.isEmpty()) {
+            return "All your tasks are done, time to chill :D";
+        }
+        StringBuilder output = new StringBuilder("Here is what to do next, most urgent first: :>\n");
+        for (Task task : nextTasks) {
+            output.append(String.format("%d. #%d %s\n", this.getIndexOfId(task.getId()) + 1, task.getId(),
+                    task.toString()));
+        }
+        return output.toString();
+    }
+
+    /**
+     * Returns the deadlines and events of a range of days as a String, grouped by day. Only the days in the
+     * range are looked at, so this takes time in proportion to the items shown rather than to all tasks.
+     *
+     * @param from First day to show.
+     * @param numDays Number of days to show.
+     * @return String response of tasks for user.
+     */
+    public String showAgenda(LocalDate from, int numDays) {
+        TaskListEvent event = new TaskListEvent();
+        event.begin();
+        LocalDate until = from.plusDays(numDays);
+        StringBuilder output = new StringBuilder();
+        this.agendaIndex.forEachDay(from, until, (day, dayTasks) -> {
+            output.append(day.format(AGENDA_DAY_FORMAT)).append('\n');
+            for (Task task : dayTasks) {
+                output.append(String.format("  %d. #%d %s\n", this.getIndexOfId(task.getId()) + 1, task.getId(),
+                        task.toString()));
+            }
+        });
+        event.commit("agenda", numDays);
+        String range = from.format(AGENDA_DAY_FORMAT) + " to " + until.minusDays(1).format(AGENDA_DAY_FORMAT);
+        if (output.length() == 0) {
+            return String.format("Nothing is scheduled from %s :o", range);
+        }
+        return String.format("Here is your agenda from %s: :>\n%s", range, output);
+    }
+
+    /**
+     * Adds tags to a specific task and returns a confirmation message.
+     *
+     * @param index Index number of task supplied by user.
+     * @param tags Tags to add, with their '#'.
+     * @return String response message for user.
+     */
+    public String addTags(int index, List<String> tags) {
+        Task task = this.tasks.get(index);
+        List<String> newTags = new ArrayList<>(task.getTags());
+        for (String tag : tags) {
+            String name = Tags.normalise(tag);
+            if (!newTags.contains(name)) {
+                newTags.add(name);
+            }
+        }
+        this.setTags(index, newTags);
+        return "The following task is tagged, noice:\n" + task;
+    }
+
+    /**
+     * Removes tags from a specific task and returns a confirmation message.
+     *
+     * @param index Index number of task supplied by user.
+     * @param tags Tags to remove, with their '#'.
+     * @return String response message for user.
+     */
+    public String removeTags(int index, List<String> tags) {
+        Task task = this.tasks.get(index);
+        List<String> newTags = new ArrayList<>(task.getTags());
+        for (String tag : tags) {
+            newTags.remove(Tags.normalise(tag));
+        }
+        this.setTags(index, newTags);
+        return "The following task is untagged:\n" + task;
+    }
+
     /**
      * Helper function used by the storage object to retrieve the number of tasks to store
      * into the hard disk.
@@ -245,24 +460,381 @@ public class TaskList {
         return this.tasks.get(i).getSaveFormat();
     }
 
+    /**
+     * Returns the task at the given index.
+     *
+     * @param index Index number of the task.
+     * @return Task
+     */
+    public Task getTask(int index) {
+        return this.tasks.get(index);
+    }
+
+    /**
+     * Returns the task with the given ID, in constant time whatever the number of tasks.
+     *
+     * @param id ID of the task.
+     * @return Task, or null if no task in the list has that ID.
+     */
+    public Task getTaskById(long id) {
+        return this.idIndex.get(id);
+    }
+
+    /**
+     * Returns the index of the task with the given ID in constant time, as every task's position is kept
+     * up to date whenever tasks before it are removed.
+     *
+     * @param id ID of the task.
+     * @return Index number of the task, or -1 if no task in the list has that ID.
+     */
+    public int getIndexOfId(long id) {
+        Task task = this.idIndex.get(id);
+        if (task == null) {
+            return -1;
+        }
+        return task.position;
+    }
+
+    /**
+     * Returns the ID the next new task will be given.
+     *
+     * @return long
+     */
+    public long getNextId() {
+        return this.nextId;
+    }
+
+    /**
+     * Ensures new tasks are given IDs from at least the given one, eg the next ID recorded in a saved file,
+     * so that IDs of tasks deleted in earlier sessions are not reused.
+     *
+     * @param nextId Lowest ID to give new tasks.
+     */
+    public void reserveIds(long nextId) {
+        this.nextId = Math.max(this.nextId, nextId);
+    }
+
+    /**
+     * Returns a read-only view of the tasks, in order.
+     *
+     * @return List of tasks.
+     */
+    public List<Task> getTasks() {
+        return Collections.unmodifiableList(this.tasks);
+    }
+
+    /**
+     * Returns a read-only view of the tasks cleared by the most recent clear command.
+     *
+     * @return List of cleared tasks.
+     */
+    public List<Task> getCachedTasks() {
+        return Collections.unmodifiableList(this.cachedTasks);
+    }
+
+    /**
+     * Replaces all tasks, eg when restoring a snapshot of this TaskList.
+     *
+     * @param tasks Tasks to hold, in order.
+     * @param cachedTasks Tasks to restore on the next undoclear command.
+     */
+    public void restoreTasks(List<Task> tasks, List<Task> cachedTasks) {
+        this.restoreTasks(tasks, cachedTasks, 1);
+    }
+
+    /**
+     * Replaces all tasks, eg when restoring a snapshot of this TaskList. Tasks without an ID are given one.
+     *
+     * @param tasks Tasks to hold, in order.
+     * @param cachedTasks Tasks to restore on the next undoclear command.
+     * @param nextId ID to give the next new task, which is raised above the IDs of the restored tasks if needed.
+     */
+    public void restoreTasks(List<Task> tasks, List<Task> cachedTasks, long nextId) {
+        TaskListEvent event = new TaskListEvent();
+        event.begin();
+        this.logListsReplaced();
+        this.tasks = new ArrayList<>(tasks);
+        this.cachedTasks = new ArrayList<>(cachedTasks);
+        this.nextId = nextId;
+        this.reindex();
+        for (Task task : this.cachedTasks) {
+            this.assignId(task);
+        }
+        this.fireReset();
+        event.commit("restore", tasks.size() + cachedTasks.size());
+    }
+
+    /**
+     * Adds a task without crafting a response, eg when replaying history.
+     *
+     * @param task Task to add.
+     */
+    public void addTask(Task task) {
+        this.logAdded(this.tasks.size());
+        this.tasks.add(task);
+        this.indexFrom(this.tasks.size() - 1);
+        for (TaskListListener listener : this.listeners) {
+            listener.onTasksAdded(this.tasks.size() - 1, List.of(task));
+        }
+    }
+
+    /**
+     * Appends several tasks at once, eg a batch of imported tasks, notifying the listeners once for all of them.
+     *
+     * @param newTasks Tasks to add, in order.
+     */
+    public void addTasks(List<Task> newTasks) {
+        TaskListEvent event = new TaskListEvent();
+        event.begin();
+        int fromIndex = this.tasks.size();
+        this.logAdded(fromIndex);
+        this.tasks.addAll(newTasks);
+        this.indexFrom(fromIndex);
+        if (!newTasks.isEmpty()) {
+            for (TaskListListener listener : this.listeners) {
+                listener.onTasksAdded(fromIndex, this.tasks.subList(fromIndex, this.tasks.size()));
+            }
+        }
+        event.commit("addTasks", newTasks.size());
+    }
+
+    /**
+     * Removes a task without crafting a response, eg when replaying history.
+     *
+     * @param index Index number of the task to remove.
+     */
+    public void removeTask(int index) {
+        Task task = this.tasks.remove(index);
+        if (this.undoLog != null) {
+            this.undoLog.add(() -> this.insertTask(index, task));
+        }
+        this.idIndex.remove(task.getId());
+        this.renumberFrom(index);
+        for (TaskListListener listener : this.listeners) {
+            listener.onTaskRemoved(index, task);
+        }
+    }
+
+    /**
+     * Puts a removed task back at its index, when rolling back its removal.
+     */
+    private void insertTask(int index, Task task) {
+        this.tasks.add(index, task);
+        this.idIndex.put(task.getId(), task);
+        this.renumberFrom(index);
+        for (TaskListListener listener : this.listeners) {
+            listener.onTasksAdded(index, List.of(task));
+        }
+    }
+
+    /**
+     * Updates the positions of the tasks from an index onwards, after the list shifted them, which costs
+     * no more than the shift.
+     */
+    private void renumberFrom(int index) {
+        int len = this.tasks.size();
+        for (int i = index; i < len; i++) {
+            this.tasks.get(i).position = i;
+        }
+    }
+
+    /**
+     * Sets whether a task is done without crafting a response, eg when replaying history.
+     *
+     * @param index Index number of the task.
+     * @param isDone Whether the task is done.
+     */
+    public void setDone(int index, boolean isDone) {
+        this.getTaskToUpdate(index).isDone = isDone;
+        this.fireUpdated(index);
+    }
+
+    /**
+     * Sets the priority of a task without crafting a response, eg when replaying history.
+     *
+     * @param index Index number of the task.
+     * @param priority New priority of the task.
+     */
+    public void setPriority(int index, Priority priority) {
+        this.getTaskToUpdate(index).changePriority(priority);
+        this.fireUpdated(index);
+    }
+
     /**
      * Clears the current tasks in taskList.
      *
      * @return String response for user.
      */
     public String clear() {
+        TaskListEvent event = new TaskListEvent();
+        event.begin();
+        this.logListsReplaced();
         this.cachedTasks = this.tasks;
         this.tasks = new ArrayList<>();
+        this.idIndex.clear();
+        this.fireReset();
+        event.commit("clear", this.cachedTasks.size());
         return "Task list has been reset :o";
     }
 
     /**
-     * Restores tasks cleared by the most recent clear command.
+     * Restores tasks cleared by the most recent clear command. They are restored only once, so a later
+     * undoclear does nothing until the next clear.
      *
      * @return String response for user.
      */
     public String undoClear() {
-        this.tasks.addAll(cachedTasks);
+        TaskListEvent event = new TaskListEvent();
+        event.begin();
+        this.logListsReplaced();
+        int fromIndex = this.tasks.size();
+        int numRestored = this.cachedTasks.size();
+        this.tasks.addAll(this.cachedTasks);
+        this.cachedTasks = new ArrayList<>();
+        this.indexFrom(fromIndex);
+        if (numRestored > 0) {
+            for (TaskListListener listener : this.listeners) {
+                listener.onTasksAdded(fromIndex, this.tasks.subList(fromIndex, this.tasks.size()));
+            }
+        }
+        event.commit("undoclear", numRestored);
         return "Cleared task list has been restored :o";
     }
+
+    /**
+     * Starts a transaction, so that every change made until commitTransaction() can be undone together by
+     * rollbackTransaction(). Each change then logs how to undo it, so a transaction costs in proportion to
+     * the changes made in it rather than to the number of tasks.
+     */
+    public void beginTransaction() {
+        assert this.undoLog == null : "Transactions should not be nested";
+        this.undoLog = new ArrayList<>();
+        this.transactionNextId = this.nextId;
+    }
+
+    /**
+     * Keeps every change made since beginTransaction().
+     */
+    public void commitTransaction() {
+        assert this.undoLog != null : "No transaction to commit";
+        this.undoLog = null;
+    }
+
+    /**
+     * Undoes every change made since beginTransaction(), from the last one.
+     */
+    public void rollbackTransaction() {
+        assert this.undoLog != null : "No transaction to roll back";
+        TaskListEvent event = new TaskListEvent();
+        event.begin();
+        List<Runnable> undoLog = this.undoLog;
+        this.undoLog = null;
+        for (int i = undoLog.size() - 1; i >= 0; i--) {
+            undoLog.get(i).run();
+        }
+        // IDs given to tasks added during the transaction are handed out again, as replaying the history does
+        this.nextId = this.transactionNextId;
+        event.commit("rollbackTransaction", undoLog.size());
+    }
+
+    /**
+     * Returns the task at an index, first logging its done status, priority and tags if a transaction is
+     * in progress, so that the change about to be made to it can be rolled back.
+     */
+    private Task getTaskToUpdate(int index) {
+        Task task = this.tasks.get(index);
+        if (this.undoLog != null) {
+            boolean isDone = task.isDone;
+            Priority priority = task.getPriorityLevel();
+            // Tag lists are never modified once set, so the current one stays intact
+            List<String> tags = task.getTags();
+            this.undoLog.add(() -> {
+                task.isDone = isDone;
+                task.changePriority(priority);
+                task.setTags(tags);
+                this.fireUpdated(task.position);
+            });
+        }
+        return task;
+    }
+
+    /**
+     * Logs that tasks are about to be appended from an index, if a transaction is in progress.
+     */
+    private void logAdded(int fromIndex) {
+        if (this.undoLog != null) {
+            this.undoLog.add(() -> {
+                for (int i = this.tasks.size() - 1; i >= fromIndex; i--) {
+                    this.removeTask(i);
+                }
+            });
+        }
+    }
+
+    /**
+     * Logs both task lists before a command replacing them, if a transaction is in progress.
+     * Such commands already take time in proportion to the number of tasks, so copying the lists costs no more.
+     */
+    private void logListsReplaced() {
+        if (this.undoLog != null) {
+            List<Task> tasks = new ArrayList<>(this.tasks);
+            List<Task> cachedTasks = new ArrayList<>(this.cachedTasks);
+            this.undoLog.add(() -> {
+                this.tasks = tasks;
+                this.cachedTasks = cachedTasks;
+                this.reindex();
+                this.fireReset();
+            });
+        }
+    }
+
+    private void setTags(int index, List<String> tags) {
+        this.getTaskToUpdate(index).setTags(tags.isEmpty() ? List.of() : Collections.unmodifiableList(tags));
+        this.fireUpdated(index);
+    }
+
+    /**
+     * Gives a task the next ID if it has none, and otherwise ensures new tasks are not given its ID.
+     */
+    private void assignId(Task task) {
+        if (task.getId() == 0) {
+            task.setId(this.nextId++);
+        } else if (task.getId() >= this.nextId) {
+            this.nextId = task.getId() + 1;
+        }
+    }
+
+    /**
+     * Indexes the tasks from the given index onwards, which were just appended to the main list.
+     */
+    private void indexFrom(int fromIndex) {
+        int len = this.tasks.size();
+        for (int i = fromIndex; i < len; i++) {
+            Task task = this.tasks.get(i);
+            this.assignId(task);
+            task.position = i;
+            this.idIndex.put(task.getId(), task);
+        }
+    }
+
+    /**
+     * Rebuilds the ID index after the main list is replaced.
+     */
+    private void reindex() {
+        this.idIndex.clear();
+        this.indexFrom(0);
+    }
+
+    private void fireUpdated(int index) {
+        for (TaskListListener listener : this.listeners) {
+            listener.onTaskUpdated(index, this.tasks.get(index));
+        }
+    }
+
+    private void fireReset() {
+        List<Task> tasks = Collections.unmodifiableList(this.tasks);
+        for (TaskListListener listener : this.listeners) {
+            listener.onTasksReset(tasks);
+        }
+    }
 }
@@ -0,0 +1,41 @@
+package ekud.tasks;
+
+import java.util.List;
+
+/**
+ * Receives a fine-grained event for every change to a TaskList, eg to keep a view of the tasks up to date
+ * without re-reading all of them. Listeners are called synchronously, on the thread making the change,
+ * right after the change is made.
+ */
+public interface TaskListListener {
+    /**
+     * Called after tasks are inserted at consecutive positions.
+     *
+     * @param fromIndex Index of the first task added.
+     * @param tasks Tasks added, in order. Only valid during the call.
+     */
+    void onTasksAdded(int fromIndex, List<Task> tasks);
+
+    /**
+     * Called after a task is removed.
+     *
+     * @param index Index the task was at.
+     * @param task Task removed.
+     */
+    void onTaskRemoved(int index, Task task);
+
+    /**
+     * Called after a task is marked, unmarked, or has its priority or tags changed.
+     *
+     * @param index Index of the task.
+     * @param task Task updated.
+     */
+    void onTaskUpdated(int index, Task task);
+
+    /**
+     * Called after all tasks are replaced at once, eg on clear or rollback.
+     *
+     * @param tasks Tasks now in the list. Only valid during the call.
+     */
+    void onTasksReset(List<Task> tasks);
+}
@@ -0,0 +1,242 @@
+package ekud.tasks;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+import ekud.exceptions.EkudIllegalArgException;
+
+/**
+ * Boolean query over the tags, done status and priority of tasks, eg 'tag:work & tag:urgent & !done'.
+ * Terms are tag:name or #name, done, undone and priority:level; they are combined with ! (not), & (and),
+ * | (or) and parentheses, in that order of precedence, and terms written side by side are and-ed. Queries are
+ * evaluated as set operations on the bitmaps of a TagIndex, so negated terms never enumerate the tasks
+ * they exclude.
+ */
+class TaskQuery {
+    static final String USAGE = "Query formatted wrongly\n"
+            + "-> Combine tag:<name> or #<name>, done, undone and priority:<level> with !, &, | and brackets\n"
+            + "-> For example: filter tag:work & (#urgent | priority:high) & !done";
+
+    private final Node root;
+
+    private TaskQuery(Node root) {
+        this.root = root;
+    }
+
+    /**
+     * Parses a query.
+     *
+     * @param query Query as written by the user.
+     * @return TaskQuery
+     * @throws EkudIllegalArgException If the query is malformed.
+     */
+    static TaskQuery parse(String query) throws EkudIllegalArgException {
+        Tokens tokens = new Tokens(query);
+        if (!tokens.hasNext()) {
+            throw new EkudIllegalArgException(USAGE);
+        }
+        Node root = parseOr(tokens);
+        if (tokens.hasNext()) {
+            throw new EkudIllegalArgException(USAGE);
+        }
+        return new TaskQuery(root);
+    }
+
+    /**
+     * Returns the slots of the tasks matching this query.
+     *
+     * @param index Index of the tasks.
+     * @return RoaringBitmap which must not be modified, as it may be one of the index's own.
+     */
+    RoaringBitmap evaluate(TagIndex index) {
+        return this.root.evaluate(index);
+    }
+
+    private static Node parseOr(Tokens tokens) throws EkudIllegalArgException {
+        List<Node> operands = new ArrayList<>();
+        operands.add(parseAnd(tokens));
+        while (tokens.accept("|")) {
+            operands.add(parseAnd(tokens));
+        }
+        return operands.size() == 1 ? operands.get(0) : new Or(operands);
+    }
+
+    private static Node parseAnd(Tokens tokens) throws EkudIllegalArgException {
+        List<Node> operands = new ArrayList<>();
+        operands.add(parseNot(tokens));
+        while (tokens.accept("&") || tokens.startsOperand()) {
+            operands.add(parseNot(tokens));
+        }
+        return operands.size() == 1 ? operands.get(0) : new And(operands);
+    }
+
+    private static Node parseNot(Tokens tokens) throws EkudIllegalArgException {
+        if (tokens.accept("!")) {
+            return new Not(parseNot(tokens));
+        }
+        if (tokens.accept("(")) {
+            Node node = parseOr(tokens);
+            if (!tokens.accept(")")) {
+                throw new EkudIllegalArgException(USAGE);
+            }
+            return node;
+        }
+        if (!tokens.startsOperand()) {
+            throw new EkudIllegalArgException(USAGE);
+        }
+        return parseTerm(tokens.next());
+    }
+
+    private static Node parseTerm(String term) throws EkudIllegalArgException {
+        String lowerTerm = term.toLowerCase(Locale.ROOT);
+        if (lowerTerm.equals("done")) {
+            return TagIndex::getDoneSlots;
+        }
+        if (lowerTerm.equals("undone")) {
+            return new Not(TagIndex::getDoneSlots);
+        }
+        if (lowerTerm.startsWith("priority:")) {
+            Priority priority = Priority.getPriority(lowerTerm.substring("priority:".length()));
+            if (priority == null) {
+                throw new EkudIllegalArgException(USAGE);
+            }
+            return index -> index.getPrioritySlots(priority);
+        }
+        String tag = lowerTerm.startsWith("tag:") ? "#" + term.substring("tag:".length()) : term;
+        if (!Tags.isTag(tag)) {
+            throw new EkudIllegalArgException(USAGE);
+        }
+        return index -> index.getTagSlots(tag);
+    }
+
+    /**
+     * Splits a query into operators and terms.
+     */
+    private static class Tokens {
+        private final List<String> tokens;
+        private int next;
+
+        Tokens(String query) {
+            this.tokens = new ArrayList<>();
+            int start = -1;
+            for (int i = 0; i <= query.length(); i++) {
+                char c = i < query.length() ? query.charAt(i) : ' ';
+                boolean isOperator = c == '!' || c == '&' || c == '|' || c == '(' || c == ')';
+                if (isOperator || Character.isWhitespace(c)) {
+                    if (start >= 0) {
+                        this.tokens.add(query.substring(start, i));
+                        start = -1;
+                    }
+                    if (isOperator) {
+                        this.tokens.add(String.valueOf(c));
+                    }
+                } else if (start < 0) {
+                    start = i;
+                }
+            }
+        }
+
+        boolean hasNext() {
+            return this.next < this.tokens.size();
+        }
+
+        String next() {
+            return this.tokens.get(this.next++);
+        }
+
+        boolean accept(String operator) {
+            if (this.hasNext() && this.tokens.get(this.next).equals(operator)) {
+                this.next++;
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * Returns whether the next token starts an operand, ie is a term, '!' or '('.
+         */
+        boolean startsOperand() {
+            if (!this.hasNext()) {
+                return false;
+            }
+            String token = this.tokens.get(this.next);
+            return !token.equals("&") && !token.equals("|") && !token.equals(")");
+        }
+    }
+
+    /**
+     * Part of a query, evaluated to the slots of the tasks it matches. Terms are lambdas looking up a bitmap.
+     */
+    private interface Node {
+        RoaringBitmap evaluate(TagIndex index);
+    }
+
+    private static class Not implements Node {
+        private final Node operand;
+
+        Not(Node operand) {
+            this.operand = operand;
+        }
+
+        @Override
+        public RoaringBitmap evaluate(TagIndex index) {
+            return index.getLiveSlots().andNot(this.operand.evaluate(index));
+        }
+    }
+
+    private static class And implements Node {
+        private final List<Node> operands;
+
+        And(List<Node> operands) {
+            this.operands = operands;
+        }
+
+        /**
+         * Intersects the positive operands, smallest first so that the intermediate results stay small,
+         * then subtracts the negated ones rather than intersecting with their complements.
+         */
+        @Override
+        public RoaringBitmap evaluate(TagIndex index) {
+            List<RoaringBitmap> included = new ArrayList<>();
+            List<RoaringBitmap> excluded = new ArrayList<>();
+            for (Node operand : this.operands) {
+                if (operand instanceof Not) {
+                    excluded.add(((Not) operand).operand.evaluate(index));
+                } else {
+                    included.add(operand.evaluate(index));
+                }
+            }
+            included.sort(Comparator.comparingInt(RoaringBitmap::getCardinality));
+            RoaringBitmap result = included.isEmpty() ? index.getLiveSlots() : included.get(0);
+            for (int i = 1; i < included.size() && !result.isEmpty(); i++) {
+                result = result.and(included.get(i));
+            }
+            for (RoaringBitmap slots : excluded) {
+                if (result.isEmpty()) {
+                    break;
+                }
+                result = result.andNot(slots);
+            }
+            return result;
+        }
+    }
+
+    private static class Or implements Node {
+        private final List<Node> operands;
+
+        Or(List<Node> operands) {
+            this.operands = operands;
+        }
+
+        @Override
+        public RoaringBitmap evaluate(TagIndex index) {
+            RoaringBitmap result = this.operands.get(0).evaluate(index);
+            for (int i = 1; i < this.operands.size(); i++) {
+                result = result.or(this.operands.get(i).evaluate(index));
+            }
+            return result;
+        }
+    }
+}
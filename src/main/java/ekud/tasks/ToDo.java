@@ -15,7 +15,7 @@ public class ToDo extends Task {
     public String getSaveFormat() {
         return String.format("T | %c | %s | %s",
                 this.getDoneSymbol(),
-                this.description,
+                this.getDescriptionWithTags(),
                 this.getPriority());
     }
 
@@ -27,7 +27,7 @@ public class ToDo extends Task {
     public String toString() {
         return String.format("[T][%c] %s (%s priority)",
                 this.getDoneSymbol(),
-                this.description,
+                this.getDescriptionWithTags(),
                 this.getPriority());
     }
 }
\ No newline at end of file
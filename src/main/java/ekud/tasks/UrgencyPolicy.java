@@ -0,0 +1,142 @@
+package ekud.tasks;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+/**
+ * Scores how urgent an undone task is, as the weight of its priority plus the weight of how soon it is due.
+ * Deadlines and events are due when they are past their date, or start, and then within 1, 3 or 7 days
+ * of it, each band weighing less; events stop being due once they end. The weights are set by
+ * -Dekud.urgency.priority=<high>,<medium>,<low> (8,4,1 by default) and
+ * -Dekud.urgency.due=<due>,<1 day>,<3 days>,<7 days> (16,12,6,2 by default).
+ *
+ * <p>A score only changes when the task is changed or moves into another band, so it is valid until
+ * the time returned by getRescoreTime().
+ */
+public class UrgencyPolicy {
+    public static final String PRIORITY_PROPERTY = "ekud.urgency.priority";
+    public static final String DUE_PROPERTY = "ekud.urgency.due";
+    // Days before its date a task enters each band, most urgent first
+    private static final int[] BAND_DAYS = {0, 1, 3, 7};
+    // Band of tasks not due within the last band, or without dates
+    private static final int NOT_DUE = BAND_DAYS.length;
+    private static final long[] DEFAULT_PRIORITY_WEIGHTS = {8, 4, 1};
+    private static final long[] DEFAULT_DUE_WEIGHTS = {16, 12, 6, 2};
+
+    // Weight of each priority, by ordinal
+    private final long[] priorityWeights;
+    // Weight of each band
+    private final long[] dueWeights;
+
+    /**
+     * Constructs an UrgencyPolicy.
+     *
+     * @param priorityWeights Weights of the high, medium and low priorities.
+     * @param dueWeights Weights of being due, and of being due within 1, 3 and 7 days.
+     */
+    public UrgencyPolicy(long[] priorityWeights, long[] dueWeights) {
+        assert priorityWeights.length == Priority.values().length : "Every priority needs a weight";
+        assert dueWeights.length == BAND_DAYS.length : "Every due band needs a weight";
+        this.priorityWeights = priorityWeights.clone();
+        this.dueWeights = dueWeights.clone();
+    }
+
+    /**
+     * Returns the policy set by the urgency properties, using the defaults for those not set or invalid.
+     *
+     * @return UrgencyPolicy
+     */
+    public static UrgencyPolicy getConfigured() {
+        return new UrgencyPolicy(getWeights(PRIORITY_PROPERTY, DEFAULT_PRIORITY_WEIGHTS),
+                getWeights(DUE_PROPERTY, DEFAULT_DUE_WEIGHTS));
+    }
+
+    private static long[] getWeights(String property, long[] defaultWeights) {
+        String setting = System.getProperty(property);
+        if (setting == null || setting.isBlank()) {
+            return defaultWeights;
+        }
+        String[] values = setting.split(",");
+        if (values.length == defaultWeights.length) {
+            try {
+                long[] weights = new long[values.length];
+                for (int i = 0; i < values.length; i++) {
+                    weights[i] = Long.parseLong(values[i].strip());
+                }
+                return weights;
+            } catch (NumberFormatException e) {
+                // Reported below
+            }
+        }
+        System.err.printf("Ignoring invalid %s setting '%s', expected %d comma-separated weights like %s%n",
+                property, setting, defaultWeights.length, Arrays.toString(defaultWeights));
+        return defaultWeights;
+    }
+
+    /**
+     * Returns how urgent a task is at a given time; the higher, the more urgent.
+     *
+     * @param task Task to score.
+     * @param now Current date and time.
+     * @return long
+     */
+    public long score(Task task, LocalDateTime now) {
+        int band = getBand(task, now);
+        long dueWeight = band == NOT_DUE ? 0 : this.dueWeights[band];
+        return this.priorityWeights[task.getPriorityLevel().ordinal()] + dueWeight;
+    }
+
+    /**
+     * Returns the time from which the score of a task may differ from its score at a given time,
+     * if the task is not changed in between.
+     *
+     * @param task Task to score.
+     * @param now Current date and time.
+     * @return LocalDateTime, or null if the score stays the same from then on.
+     */
+    public LocalDateTime getRescoreTime(Task task, LocalDateTime now) {
+        LocalDateTime dateTime = getDueDateTime(task);
+        if (dateTime == null) {
+            return null;
+        }
+        LocalDateTime endDateTime = task instanceof Event ? ((Event) task).getToDateTime() : null;
+        if (endDateTime != null && !now.isBefore(endDateTime)) {
+            return null;
+        }
+        int band = getBand(task, now);
+        if (band == 0) {
+            return endDateTime; // Deadlines stay due, while events stop being due once they end
+        }
+        return dateTime.minusDays(BAND_DAYS[band - 1]);
+    }
+
+    /**
+     * Returns the date a task is due, ie that of a deadline or the start of an event, or null for to-dos.
+     */
+    private static LocalDateTime getDueDateTime(Task task) {
+        if (task instanceof Deadline) {
+            return ((Deadline) task).getDateTime();
+        }
+        if (task instanceof Event) {
+            return ((Event) task).getFromDateTime();
+        }
+        return null;
+    }
+
+    /**
+     * Returns the band of a task at a given time, ie the index of the first of BAND_DAYS within which
+     * its date is, or NOT_DUE.
+     */
+    private static int getBand(Task task, LocalDateTime now) {
+        LocalDateTime dateTime = getDueDateTime(task);
+        if (dateTime == null || (task instanceof Event && !now.isBefore(((Event) task).getToDateTime()))) {
+            return NOT_DUE;
+        }
+        for (int band = 0; band < BAND_DAYS.length; band++) {
+            if (!now.isBefore(dateTime.minusDays(BAND_DAYS[band]))) {
+                return band;
+            }
+        }
+        return NOT_DUE;
+    }
+}
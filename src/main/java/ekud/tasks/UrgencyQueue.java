@@ -0,0 +1,320 @@
+package ekud.tasks;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Undone tasks of a TaskList ordered by the urgency scores of an UrgencyPolicy, kept up to date as a
+ * listener of the TaskList. Tasks are held in an indexed binary heap, most urgent first, each task knowing
+ * its place in it, so adding, removing or rescoring a task after it is changed takes O(log N).
+ *
+ * <p>Scores also change as time passes, when a task moves into another due band. Rather than rescoring
+ * every task on each query, a second indexed heap orders the tasks by the time their score next changes,
+ * and a query only rescores the tasks whose time has come since the previous one.
+ */
+class UrgencyQueue implements TaskListListener {
+    private final UrgencyPolicy policy;
+    // Time the scores were computed at, moved forward by each query
+    private LocalDateTime scoredAt;
+    // Every queued task, most urgent first
+    private final EntryHeap byUrgency;
+    // Queued tasks whose score changes later, soonest first
+    private final EntryHeap byRescoreTime;
+
+    UrgencyQueue(UrgencyPolicy policy, LocalDateTime now) {
+        this.policy = policy;
+        this.scoredAt = now;
+        this.byUrgency = new EntryHeap(false);
+        this.byRescoreTime = new EntryHeap(true);
+    }
+
+    /**
+     * Returns the most urgent undone tasks at a given time, in O(k log k) after rescoring the tasks
+     * whose score changed since the previous query.
+     *
+     * @param k Maximum number of tasks to return.
+     * @param now Current date and time.
+     * @return Tasks, most urgent first.
+     */
+    List<Task> peek(int k, LocalDateTime now) {
+        this.rescore(now);
+        List<Task> tasks = new ArrayList<>(Math.min(k, this.byUrgency.size));
+        if (this.byUrgency.size == 0) {
+            return tasks;
+        }
+        // Each task is more urgent than its children in the heap, so the next most urgent is always
+        // among the children of those taken so far
+        PriorityQueue<Entry> candidates = new PriorityQueue<>(UrgencyQueue::compareUrgency);
+        candidates.add(this.byUrgency.entries[0]);
+        while (tasks.size() < k && !candidates.isEmpty()) {
+            Entry entry = candidates.poll();
+            tasks.add(entry.task);
+            for (int child = 2 * entry.heapIndex + 1; child <= 2 * entry.heapIndex + 2; child++) {
+                if (child < this.byUrgency.size) {
+                    candidates.add(this.byUrgency.entries[child]);
+                }
+            }
+        }
+        return tasks;
+    }
+
+    @Override
+    public void onTasksAdded(int fromIndex, List<Task> tasks) {
+        for (Task task : tasks) {
+            if (!task.isDone() && !this.isQueued(task)) {
+                Entry entry = this.createEntry(task);
+                this.byUrgency.add(entry);
+                if (entry.rescoreAt != null) {
+                    this.byRescoreTime.add(entry);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void onTaskRemoved(int index, Task task) {
+        if (this.isQueued(task)) {
+            this.remove(task.urgencyEntry);
+        }
+    }
+
+    @Override
+    public void onTaskUpdated(int index, Task task) {
+        if (!this.isQueued(task)) {
+            this.onTasksAdded(index, List.of(task));
+        } else if (task.isDone()) {
+            this.remove(task.urgencyEntry);
+        } else {
+            this.update(task.urgencyEntry);
+        }
+    }
+
+    @Override
+    public void onTasksReset(List<Task> tasks) {
+        for (int i = 0; i < this.byUrgency.size; i++) {
+            this.byUrgency.entries[i].task.urgencyEntry = null;
+        }
+        this.byUrgency.clear();
+        this.byRescoreTime.clear();
+        // Heapifying all the tasks at once takes O(N) rather than O(N log N) for adding them one by one
+        for (Task task : tasks) {
+            if (!task.isDone() && !this.isQueued(task)) {
+                Entry entry = this.createEntry(task);
+                this.byUrgency.append(entry);
+                if (entry.rescoreAt != null) {
+                    this.byRescoreTime.append(entry);
+                }
+            }
+        }
+        this.byUrgency.heapify();
+        this.byRescoreTime.heapify();
+    }
+
+    /**
+     * Brings the scores up to date with the given time.
+     */
+    private void rescore(LocalDateTime now) {
+        if (now.isBefore(this.scoredAt)) {
+            // Scores only track time moving forward, eg the clock was set back, so all of them are recomputed
+            List<Task> tasks = new ArrayList<>(this.byUrgency.size);
+            for (int i = 0; i < this.byUrgency.size; i++) {
+                tasks.add(this.byUrgency.entries[i].task);
+            }
+            this.scoredAt = now;
+            this.onTasksReset(tasks);
+            return;
+        }
+        this.scoredAt = now;
+        while (this.byRescoreTime.size > 0 && !this.byRescoreTime.entries[0].rescoreAt.isAfter(now)) {
+            this.update(this.byRescoreTime.entries[0]);
+        }
+    }
+
+    private boolean isQueued(Task task) {
+        Entry entry = task.urgencyEntry;
+        return entry != null && entry.heapIndex >= 0 && entry.heapIndex < this.byUrgency.size
+                && this.byUrgency.entries[entry.heapIndex] == entry;
+    }
+
+    private Entry createEntry(Task task) {
+        Entry entry = new Entry(task);
+        entry.score = this.policy.score(task, this.scoredAt);
+        entry.rescoreAt = this.policy.getRescoreTime(task, this.scoredAt);
+        task.urgencyEntry = entry;
+        return entry;
+    }
+
+    /**
+     * Rescores a queued task, moving it up or down both heaps as needed.
+     */
+    private void update(Entry entry) {
+        entry.score = this.policy.score(entry.task, this.scoredAt);
+        entry.rescoreAt = this.policy.getRescoreTime(entry.task, this.scoredAt);
+        this.byUrgency.update(entry);
+        if (entry.rescoreIndex < 0) {
+            if (entry.rescoreAt != null) {
+                this.byRescoreTime.add(entry);
+            }
+        } else if (entry.rescoreAt == null) {
+            this.byRescoreTime.remove(entry);
+        } else {
+            this.byRescoreTime.update(entry);
+        }
+    }
+
+    private void remove(Entry entry) {
+        this.byUrgency.remove(entry);
+        if (entry.rescoreIndex >= 0) {
+            this.byRescoreTime.remove(entry);
+        }
+        entry.task.urgencyEntry = null;
+    }
+
+    /**
+     * Orders entries by descending score, then by ascending task ID so that older tasks come first.
+     */
+    private static int compareUrgency(Entry first, Entry second) {
+        if (first.score != second.score) {
+            return Long.compare(second.score, first.score);
+        }
+        return Long.compare(first.task.getId(), second.task.getId());
+    }
+
+    /**
+     * Queued task with its score and its places in both heaps.
+     */
+    static class Entry {
+        private final Task task;
+        private long score;
+        // Time the score next changes, or null if it never does
+        private LocalDateTime rescoreAt;
+        // Indices in the heaps, or -1 when not in them
+        private int heapIndex = -1;
+        private int rescoreIndex = -1;
+
+        private Entry(Task task) {
+            this.task = task;
+        }
+    }
+
+    /**
+     * Binary min-heap of entries which records the index of each entry in the entry itself,
+     * so that any entry can be removed or moved after its key changes in O(log N).
+     */
+    private static class EntryHeap {
+        private final boolean isByRescoreTime;
+        private Entry[] entries;
+        private int size;
+
+        EntryHeap(boolean isByRescoreTime) {
+            this.isByRescoreTime = isByRescoreTime;
+            this.entries = new Entry[16];
+        }
+
+        void add(Entry entry) {
+            this.append(entry);
+            this.siftUp(this.size - 1);
+        }
+
+        /**
+         * Adds an entry without restoring the heap order, which heapify() must then do.
+         */
+        void append(Entry entry) {
+            if (this.size == this.entries.length) {
+                this.entries = Arrays.copyOf(this.entries, this.size * 2);
+            }
+            this.place(entry, this.size++);
+        }
+
+        void remove(Entry entry) {
+            int index = this.indexOf(entry);
+            Entry last = this.entries[--this.size];
+            this.entries[this.size] = null;
+            this.setIndex(entry, -1);
+            if (index < this.size) {
+                this.place(last, index);
+                this.update(last);
+            }
+        }
+
+        /**
+         * Restores the heap order after the key of an entry changed.
+         */
+        void update(Entry entry) {
+            this.siftDown(this.siftUp(this.indexOf(entry)));
+        }
+
+        void heapify() {
+            for (int i = this.size / 2 - 1; i >= 0; i--) {
+                this.siftDown(i);
+            }
+        }
+
+        void clear() {
+            for (int i = 0; i < this.size; i++) {
+                this.setIndex(this.entries[i], -1);
+            }
+            Arrays.fill(this.entries, 0, this.size, null);
+            this.size = 0;
+        }
+
+        private boolean isBefore(Entry first, Entry second) {
+            return this.isByRescoreTime
+                    ? first.rescoreAt.isBefore(second.rescoreAt)
+                    : compareUrgency(first, second) < 0;
+        }
+
+        private int indexOf(Entry entry) {
+            return this.isByRescoreTime ? entry.rescoreIndex : entry.heapIndex;
+        }
+
+        private void setIndex(Entry entry, int index) {
+            if (this.isByRescoreTime) {
+                entry.rescoreIndex = index;
+            } else {
+                entry.heapIndex = index;
+            }
+        }
+
+        private void place(Entry entry, int index) {
+            this.entries[index] = entry;
+            this.setIndex(entry, index);
+        }
+
+        private int siftUp(int index) {
+            Entry entry = this.entries[index];
+            while (index > 0) {
+                int parent = (index - 1) / 2;
+                if (!this.isBefore(entry, this.entries[parent])) {
+                    break;
+                }
+                this.place(this.entries[parent], index);
+                index = parent;
+            }
+            this.place(entry, index);
+            return index;
+        }
+
+        private void siftDown(int index) {
+            Entry entry = this.entries[index];
+            while (true) {
+                int child = 2 * index + 1;
+                if (child >= this.size) {
+                    break;
+                }
+                if (child + 1 < this.size && this.isBefore(this.entries[child + 1], this.entries[child])) {
+                    child++;
+                }
+                if (!this.isBefore(this.entries[child], entry)) {
+                    break;
+                }
+                this.place(this.entries[child], index);
+                index = child;
+            }
+            this.place(entry, index);
+        }
+    }
+}
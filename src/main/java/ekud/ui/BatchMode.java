@@ -0,0 +1,117 @@
+package ekud.ui;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+import ekud.Ekud;
+
+/**
+ * Headless front-end which streams commands line by line from stdin or a script file through
+ * the chatbot, without starting the JavaFX GUI.
+ * Responses go to a buffered stdout, and the task list is saved once at the end of the script
+ * (or every N commands), so bulk migrations and nightly jobs can run without a display.
+ */
+public class BatchMode {
+    private static final String USAGE = "Usage: ekud --batch [--save-every <n>] [script file]";
+
+    private final Ekud ekud;
+    // Number of commands between two saves, or 0 to only save at the end
+    private final int saveInterval;
+
+    /**
+     * Constructs a BatchMode which drives the given chatbot.
+     *
+     * @param ekud Chatbot to send commands to.
+     * @param saveInterval Number of commands between two saves, or 0 to only save at the end.
+     */
+    public BatchMode(Ekud ekud, int saveInterval) {
+        assert saveInterval >= 0 : "Save interval should not be negative";
+        this.ekud = ekud;
+        this.saveInterval = saveInterval;
+    }
+
+    /**
+     * Runs every command from the reader and writes each response to the writer.
+     * Blank lines and lines starting with '#' are skipped.
+     *
+     * @param in Source of commands, one per line.
+     * @param out Destination of the responses.
+     * @return Number of commands executed.
+     * @throws IOException If reading commands or writing responses fails.
+     */
+    public long run(BufferedReader in, Writer out) throws IOException {
+        out.write(this.ekud.loadData());
+        out.write('\n');
+        long numCommands = 0;
+        String line;
+        while ((line = in.readLine()) != null) {
+            if (line.isBlank() || line.startsWith("#")) {
+                continue;
+            }
+            out.write(this.ekud.getResponse(line));
+            out.write('\n');
+            numCommands++;
+            if (this.saveInterval > 0 && numCommands % this.saveInterval == 0 && this.ekud.isActive()) {
+                this.ekud.saveData();
+            }
+        }
+        // 'end' already saves the tasks, so only save if the script left the chatbot running
+        if (this.ekud.isActive()) {
+            out.write(this.ekud.saveData());
+            out.write('\n');
+        }
+        out.flush();
+        return numCommands;
+    }
+
+    /**
+     * Entry point for the batch mode, reading options that follow the --batch flag.
+     *
+     * @param args Command line arguments after --batch.
+     * @return Exit status of the batch run.
+     */
+    public static int main(String[] args) {
+        int saveInterval = 0;
+        String scriptPath = null;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--save-every") && i + 1 < args.length) {
+                try {
+                    saveInterval = Integer.parseInt(args[++i]);
+                } catch (NumberFormatException e) {
+                    saveInterval = -1;
+                }
+                if (saveInterval < 0) {
+                    System.err.println(USAGE);
+                    return 1;
+                }
+            } else if (scriptPath == null && !args[i].startsWith("--")) {
+                scriptPath = args[i];
+            } else {
+                System.err.println(USAGE);
+                return 1;
+            }
+        }
+        PrintStream err = System.err;
+        long startTime = System.nanoTime();
+        try (InputStream source = scriptPath == null ? System.in : new FileInputStream(scriptPath)) {
+            BufferedReader in = new BufferedReader(new InputStreamReader(source, StandardCharsets.UTF_8));
+            Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16);
+            long numCommands = new BatchMode(new Ekud(), saveInterval).run(in, out);
+            double seconds = (System.nanoTime() - startTime) / 1e9;
+            err.println(String.format("[Processed (%d) command(s) in %.3f s, %.0f commands/s]",
+                    numCommands, seconds, seconds > 0 ? numCommands / seconds : 0));
+            return 0;
+        } catch (IOException e) {
+            err.println("Error with running batch commands: " + e);
+            return 1;
+        }
+    }
+}
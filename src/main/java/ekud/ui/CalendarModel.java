@@ -0,0 +1,206 @@
+package ekud.ui;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import ekud.tasks.AgendaIndex;
+import ekud.tasks.Task;
+import ekud.tasks.TaskListListener;
+import javafx.application.Platform;
+
+/**
+ * Deadlines and events of a TaskList by day, used by the calendar pane. Like TaskTableModel, it listens to
+ * the TaskList on the command thread and replays the changes on its own AgendaIndex on the JavaFX Application
+ * Thread, then tells the pane which days changed, so that only their cells are redrawn. Changes made while an
+ * update is waiting to run are coalesced into it.
+ */
+public class CalendarModel implements TaskListListener {
+    // Items by day as last shown; FX thread only
+    private final AgendaIndex agenda;
+    // Changes yet to be applied to the agenda, guarded by itself
+    private final List<Change> pendingChanges;
+    private boolean isUpdateScheduled;
+    // Told of every applied change; FX thread only
+    private DayListener dayListener;
+
+    /**
+     * Receives the days whose items changed, on the JavaFX Application Thread.
+     */
+    public interface DayListener {
+        /**
+         * Called after the items of some days are added, removed or updated.
+         *
+         * @param days Days which changed.
+         */
+        void onDaysChanged(Collection<LocalDate> days);
+
+        /**
+         * Called after all items are replaced at once, eg on clear, or too many days changed to list them.
+         */
+        void onAllDaysChanged();
+    }
+
+    /**
+     * Constructor for an empty CalendarModel, to be registered as a listener of the TaskList to show.
+     */
+    public CalendarModel() {
+        this.agenda = new AgendaIndex();
+        this.pendingChanges = new ArrayList<>();
+    }
+
+    /**
+     * Sets the listener told which days changed. Must be called on the JavaFX Application Thread.
+     *
+     * @param dayListener Listener, or null.
+     */
+    public void setDayListener(DayListener dayListener) {
+        this.dayListener = dayListener;
+    }
+
+    /**
+     * Returns the deadlines and events of a day, ordered by time. Must be called on the JavaFX Application Thread.
+     *
+     * @param day Day to look up.
+     * @return Read-only collection of tasks.
+     */
+    public Collection<Task> getTasks(LocalDate day) {
+        return this.agenda.getTasks(day);
+    }
+
+    @Override
+    public void onTasksAdded(int fromIndex, List<Task> tasks) {
+        List<Task> datedTasks = new ArrayList<>();
+        for (Task task : tasks) {
+            if (AgendaIndex.getFirstDay(task) != null) {
+                datedTasks.add(task);
+            }
+        }
+        if (!datedTasks.isEmpty()) {
+            this.addChange(new Change(ChangeType.ADD, datedTasks));
+        }
+    }
+
+    @Override
+    public void onTaskRemoved(int index, Task task) {
+        if (AgendaIndex.getFirstDay(task) != null) {
+            this.addChange(new Change(ChangeType.REMOVE, List.of(task)));
+        }
+    }
+
+    @Override
+    public void onTaskUpdated(int index, Task task) {
+        if (AgendaIndex.getFirstDay(task) != null) {
+            this.addChange(new Change(ChangeType.UPDATE, List.of(task)));
+        }
+    }
+
+    @Override
+    public void onTasksReset(List<Task> tasks) {
+        synchronized (this.pendingChanges) {
+            // Earlier changes are superseded by the new contents
+            this.pendingChanges.clear();
+            this.pendingChanges.add(new Change(ChangeType.RESET, new ArrayList<>(tasks)));
+            this.scheduleUpdate();
+        }
+    }
+
+    private void addChange(Change change) {
+        synchronized (this.pendingChanges) {
+            this.pendingChanges.add(change);
+            this.scheduleUpdate();
+        }
+    }
+
+    /**
+     * Schedules applyPendingChanges() unless it is scheduled already. Must hold the pendingChanges lock.
+     */
+    private void scheduleUpdate() {
+        if (!this.isUpdateScheduled) {
+            this.isUpdateScheduled = true;
+            Platform.runLater(this::applyPendingChanges);
+        }
+    }
+
+    /**
+     * Applies every pending change to the agenda, then tells the listener about all the days they touched at once.
+     */
+    private void applyPendingChanges() {
+        List<Change> changes;
+        synchronized (this.pendingChanges) {
+            changes = new ArrayList<>(this.pendingChanges);
+            this.pendingChanges.clear();
+            this.isUpdateScheduled = false;
+        }
+        Set<LocalDate> changedDays = new HashSet<>();
+        // Set by a reset, or by a change to an event spanning too many days to list them one by one
+        boolean isAllChanged = false;
+        for (Change change : changes) {
+            switch (change.type) {
+            case ADD:
+                for (Task task : change.tasks) {
+                    this.agenda.add(task);
+                }
+                break;
+            case REMOVE:
+                for (Task task : change.tasks) {
+                    this.agenda.remove(task);
+                }
+                break;
+            case UPDATE:
+                break;
+            case RESET:
+                this.agenda.onTasksReset(change.tasks);
+                isAllChanged = true;
+                break;
+            default:
+                throw new IllegalStateException("Unknown change type " + change.type);
+            }
+            if (!isAllChanged) {
+                for (Task task : change.tasks) {
+                    if (AgendaIndex.spansManyDays(task)) {
+                        isAllChanged = true;
+                        break;
+                    }
+                    addDays(task, changedDays);
+                }
+            }
+        }
+        if (this.dayListener == null) {
+            return;
+        }
+        if (isAllChanged) {
+            this.dayListener.onAllDaysChanged();
+        } else {
+            this.dayListener.onDaysChanged(changedDays);
+        }
+    }
+
+    private static void addDays(Task task, Set<LocalDate> days) {
+        LocalDate lastDay = AgendaIndex.getLastDay(task);
+        for (LocalDate day = AgendaIndex.getFirstDay(task); !day.isAfter(lastDay); day = day.plusDays(1)) {
+            days.add(day);
+        }
+    }
+
+    private enum ChangeType {
+        ADD, REMOVE, UPDATE, RESET
+    }
+
+    /**
+     * A change to the TaskList, waiting to be applied to the agenda.
+     */
+    private static class Change {
+        private final ChangeType type;
+        // Tasks changed, or now in the list for RESET changes
+        private final List<Task> tasks;
+
+        Change(ChangeType type, List<Task> tasks) {
+            this.type = type;
+            this.tasks = tasks;
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package ekud.ui;
+
+import java.net.URL;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.TextStyle;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Collection;
+import java.util.Locale;
+
+import ekud.tasks.Deadline;
+import ekud.tasks.Event;
+import ekud.tasks.Task;
+import javafx.css.PseudoClass;
+import javafx.geometry.Pos;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.GridPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+
+/**
+ * Month calendar of the deadlines and events of a CalendarModel, shown next to the chat. The grid always has
+ * 6 weeks of day cells, which are created once and reused for every month. Moving to another month redraws
+ * the 42 cells from the items of their own days only, and a change to the tasks redraws only the cells of
+ * the days it touched.
+ */
+public class CalendarPane extends BorderPane {
+    private static final URL STYLESHEET = CalendarPane.class.getResource("/view/CalendarPane.css");
+    private static final PseudoClass OUTSIDE_MONTH = PseudoClass.getPseudoClass("outside-month");
+    private static final PseudoClass TODAY = PseudoClass.getPseudoClass("today");
+    private static final PseudoClass DONE = PseudoClass.getPseudoClass("done");
+    private static final DateTimeFormatter MONTH_FORMAT = DateTimeFormatter.ofPattern("MMMM yyyy");
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm");
+    private static final int NUM_WEEKS = 6;
+    private static final int DAYS_PER_WEEK = 7;
+    // Items listed in a cell, beyond which it only shows how many more there are
+    private static final int MAX_ITEMS_PER_DAY = 3;
+
+    private final DayCell[] cells;
+    private final Label monthLabel;
+    private CalendarModel model;
+    private YearMonth month;
+    // Day shown by the first cell, ie the Monday on or before the first of the month
+    private LocalDate firstDay;
+
+    /**
+     * Constructor for a CalendarPane showing the current month, but no items until its model is set.
+     */
+    public CalendarPane() {
+        this.getStylesheets().add(STYLESHEET.toExternalForm());
+        this.getStyleClass().add("calendar-pane");
+
+        Button previousButton = new Button("<");
+        previousButton.setOnAction(event -> this.showMonth(this.month.minusMonths(1)));
+        Button nextButton = new Button(">");
+        nextButton.setOnAction(event -> this.showMonth(this.month.plusMonths(1)));
+        Button todayButton = new Button("Today");
+        todayButton.setOnAction(event -> this.showMonth(YearMonth.now()));
+        this.monthLabel = new Label();
+        this.monthLabel.getStyleClass().add("month-label");
+        HBox header = new HBox(previousButton, this.monthLabel, nextButton, todayButton);
+        header.getStyleClass().add("calendar-header");
+        header.setAlignment(Pos.CENTER);
+        this.setTop(header);
+
+        GridPane grid = new GridPane();
+        grid.getStyleClass().add("calendar-grid");
+        for (int column = 0; column < DAYS_PER_WEEK; column++) {
+            String name = DayOfWeek.of(column + 1).getDisplayName(TextStyle.SHORT, Locale.ENGLISH);
+            Label weekDayLabel = new Label(name);
+            weekDayLabel.getStyleClass().add("week-day-label");
+            grid.add(weekDayLabel, column, 0);
+        }
+        this.cells = new DayCell[NUM_WEEKS * DAYS_PER_WEEK];
+        for (int i = 0; i < this.cells.length; i++) {
+            this.cells[i] = new DayCell();
+            grid.add(this.cells[i], i % DAYS_PER_WEEK, 1 + i / DAYS_PER_WEEK);
+        }
+        this.setCenter(grid);
+        this.showMonth(YearMonth.now());
+    }
+
+    /**
+     * Shows the items of a model, and redraws the days it reports changed from then on.
+     *
+     * @param model Model of the deadlines and events to show.
+     */
+    public void setModel(CalendarModel model) {
+        this.model = model;
+        model.setDayListener(new CalendarModel.DayListener() {
+            @Override
+            public void onDaysChanged(Collection<LocalDate> days) {
+                for (LocalDate day : days) {
+                    CalendarPane.this.redrawDay(day);
+                }
+            }
+
+            @Override
+            public void onAllDaysChanged() {
+                CalendarPane.this.redrawAll();
+            }
+        });
+        this.redrawAll();
+    }
+
+    /**
+     * Shows a month, with the end of the previous one and the start of the next filling its first and last weeks.
+     *
+     * @param month Month to show.
+     */
+    public void showMonth(YearMonth month) {
+        this.month = month;
+        this.firstDay = month.atDay(1).with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        this.monthLabel.setText(month.format(MONTH_FORMAT));
+        this.redrawAll();
+    }
+
+    private void redrawAll() {
+        LocalDate today = LocalDate.now();
+        for (int i = 0; i < this.cells.length; i++) {
+            LocalDate day = this.firstDay.plusDays(i);
+            this.cells[i].setDay(day, !YearMonth.from(day).equals(this.month), day.equals(today));
+            this.cells[i].showTasks(this.model != null ? this.model.getTasks(day) : null);
+        }
+    }
+
+    /**
+     * Redraws the cell of a day, if it is shown.
+     */
+    private void redrawDay(LocalDate day) {
+        long i = ChronoUnit.DAYS.between(this.firstDay, day);
+        if (i >= 0 && i < this.cells.length) {
+            this.cells[(int) i].showTasks(this.model.getTasks(day));
+        }
+    }
+
+    /**
+     * Cell of one day, listing the times and descriptions of its first items.
+     */
+    private static class DayCell extends VBox {
+        private final Label dateLabel;
+        private final Label[] itemLabels;
+        private final Label moreLabel;
+
+        DayCell() {
+            this.getStyleClass().add("day-cell");
+            this.dateLabel = new Label();
+            this.dateLabel.getStyleClass().add("date-label");
+            this.getChildren().add(this.dateLabel);
+            this.itemLabels = new Label[MAX_ITEMS_PER_DAY];
+            for (int i = 0; i < MAX_ITEMS_PER_DAY; i++) {
+                this.itemLabels[i] = new Label();
+                this.itemLabels[i].getStyleClass().add("item-label");
+                this.getChildren().add(this.itemLabels[i]);
+            }
+            this.moreLabel = new Label();
+            this.moreLabel.getStyleClass().add("more-label");
+            this.getChildren().add(this.moreLabel);
+            this.setMaxWidth(Double.MAX_VALUE);
+            this.setMaxHeight(Double.MAX_VALUE);
+            // Cells share the room of the grid equally
+            GridPane.setHgrow(this, Priority.ALWAYS);
+            GridPane.setVgrow(this, Priority.ALWAYS);
+        }
+
+        void setDay(LocalDate day, boolean isOutsideMonth, boolean isToday) {
+            this.dateLabel.setText(Integer.toString(day.getDayOfMonth()));
+            this.pseudoClassStateChanged(OUTSIDE_MONTH, isOutsideMonth);
+            this.pseudoClassStateChanged(TODAY, isToday);
+        }
+
+        void showTasks(Collection<Task> tasks) {
+            int numTasks = tasks == null ? 0 : tasks.size();
+            int i = 0;
+            if (tasks != null) {
+                for (Task task : tasks) {
+                    if (i == MAX_ITEMS_PER_DAY) {
+                        break;
+                    }
+                    this.showItem(this.itemLabels[i++], task);
+                }
+            }
+            for (; i < MAX_ITEMS_PER_DAY; i++) {
+                this.itemLabels[i].setText(null);
+                this.itemLabels[i].setVisible(false);
+            }
+            boolean hasMore = numTasks > MAX_ITEMS_PER_DAY;
+            this.moreLabel.setText(hasMore ? String.format("+%d more", numTasks - MAX_ITEMS_PER_DAY) : null);
+            this.moreLabel.setVisible(hasMore);
+        }
+
+        private void showItem(Label label, Task task) {
+            String time = task instanceof Deadline
+                    ? ((Deadline) task).getDateTime().format(TIME_FORMAT)
+                    : ((Event) task).getFromDateTime().format(TIME_FORMAT);
+            label.setText(String.format("%s #%d %s", time, task.getId(), task.getDescription()));
+            label.pseudoClassStateChanged(DONE, task.isDone());
+            label.setVisible(true);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package ekud.ui;
+
+import javafx.scene.control.ContentDisplay;
+import javafx.scene.control.ListCell;
+import javafx.scene.image.Image;
+
+/**
+ * Cell of the chat ListView. The ListView only creates enough cells to fill the window and reuses them
+ * as it scrolls, so each cell keeps one DialogBox per speaker and only swaps in the text of the message
+ * it is showing.
+ */
+public class ChatCell extends ListCell<ChatMessage> {
+    private final Image userImage;
+    private final Image dukeImage;
+    // Created when first needed, as most cells only ever show one speaker's messages
+    private DialogBox userDialog;
+    private DialogBox dukeDialog;
+
+    /**
+     * Constructor for a ChatCell.
+     *
+     * @param userImage User display picture.
+     * @param dukeImage Chatbot display picture.
+     */
+    public ChatCell(Image userImage, Image dukeImage) {
+        this.userImage = userImage;
+        this.dukeImage = dukeImage;
+        this.setContentDisplay(ContentDisplay.GRAPHIC_ONLY);
+        // Let the cell shrink to the width of the ListView, so that long messages wrap instead of scrolling sideways
+        this.setPrefWidth(0);
+    }
+
+    @Override
+    protected void updateItem(ChatMessage message, boolean isEmpty) {
+        super.updateItem(message, isEmpty);
+        if (isEmpty || message == null) {
+            this.setGraphic(null);
+            return;
+        }
+        DialogBox dialogBox = message.isFromUser() ? this.getUserDialog() : this.getDukeDialog();
+        dialogBox.setText(message.getText());
+        dialogBox.setPending(message.isPending());
+        this.setGraphic(dialogBox);
+    }
+
+    private DialogBox getUserDialog() {
+        if (this.userDialog == null) {
+            this.userDialog = DialogBox.getUserDialog("", this.userImage);
+        }
+        return this.userDialog;
+    }
+
+    private DialogBox getDukeDialog() {
+        if (this.dukeDialog == null) {
+            this.dukeDialog = DialogBox.getDukeDialog("", this.dukeImage);
+        }
+        return this.dukeDialog;
+    }
+}
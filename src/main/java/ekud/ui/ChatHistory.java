@@ -0,0 +1,199 @@
+package ekud.ui;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Full chat transcript of a GUI session. Recent messages are kept in memory, while the oldest ones are
+ * spilled to a temporary file once there are too many, and read back on demand when they are scrolled to.
+ * Messages are addressed by their position in the whole transcript, which never changes since messages
+ * are only ever appended. Not thread-safe; it is only used from the JavaFX Application Thread.
+ */
+public class ChatHistory {
+    static final int DEFAULT_RESIDENT_LIMIT = 2000;
+    private static final int READ_CACHE_SIZE = 256;
+    private static final String UNREADABLE_TEXT = "(This message could not be read back from the hard disk)";
+
+    // At least this many of the most recent messages always stay in memory
+    private final int residentLimit;
+    // Messages from index spilledCount onwards
+    private final List<ChatMessage> resident;
+    private int spilledCount;
+    // Offsets of the spilled messages within the spill file, plus the offset of its end
+    private long[] offsets;
+    private File spillPath;
+    private RandomAccessFile spillFile;
+    private boolean isSpillEnabled;
+    // Spilled messages read back recently, eg while the user scrolls through them
+    private final Map<Integer, ChatMessage> readCache;
+
+    /**
+     * Constructor for a ChatHistory keeping the default number of recent messages in memory.
+     */
+    public ChatHistory() {
+        this(DEFAULT_RESIDENT_LIMIT);
+    }
+
+    /**
+     * Constructor for a ChatHistory.
+     *
+     * @param residentLimit Number of recent messages which always stay in memory.
+     */
+    public ChatHistory(int residentLimit) {
+        assert residentLimit > 0 : "At least one message should stay in memory";
+        this.residentLimit = residentLimit;
+        this.resident = new ArrayList<>();
+        this.offsets = new long[16];
+        this.isSpillEnabled = true;
+        this.readCache = new LinkedHashMap<>(READ_CACHE_SIZE, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, ChatMessage> eldest) {
+                return this.size() > READ_CACHE_SIZE;
+            }
+        };
+    }
+
+    public int size() {
+        return this.spilledCount + this.resident.size();
+    }
+
+    public int getSpilledCount() {
+        return this.spilledCount;
+    }
+
+    /**
+     * Returns the message at the given position of the transcript, reading it back from the spill file if needed.
+     *
+     * @param index Position of the message, starting from 0.
+     * @return ChatMessage
+     */
+    public ChatMessage get(int index) {
+        if (index < 0 || index >= this.size()) {
+            throw new IndexOutOfBoundsException("No message at index " + index);
+        }
+        if (index >= this.spilledCount) {
+            return this.resident.get(index - this.spilledCount);
+        }
+        ChatMessage message = this.readCache.get(index);
+        if (message == null) {
+            message = this.readSpilled(index);
+            this.readCache.put(index, message);
+        }
+        return message;
+    }
+
+    /**
+     * Appends a message to the transcript, spilling the oldest messages to the hard disk if too many are in memory.
+     *
+     * @param message New message.
+     */
+    public void add(ChatMessage message) {
+        this.resident.add(message);
+        // Spill in batches of residentLimit messages, so the file is written to once every residentLimit messages
+        if (this.isSpillEnabled && this.resident.size() >= 2 * this.residentLimit) {
+            this.spill(this.residentLimit);
+        }
+    }
+
+    /**
+     * Replaces a message which is still in memory, eg a pending response once it has arrived.
+     *
+     * @param index Position of the message, starting from 0.
+     * @param message Replacement message.
+     * @return The message replaced.
+     */
+    public ChatMessage set(int index, ChatMessage message) {
+        if (index < this.spilledCount || index >= this.size()) {
+            throw new IndexOutOfBoundsException("No message in memory at index " + index);
+        }
+        return this.resident.set(index - this.spilledCount, message);
+    }
+
+    /**
+     * Deletes the spill file, if any. The spilled messages cannot be read back afterwards.
+     */
+    public void close() {
+        if (this.spillFile == null) {
+            return;
+        }
+        try {
+            this.spillFile.close();
+        } catch (IOException e) {
+            // Nothing else to do, the file is deleted below or at the latest on exit
+        }
+        this.spillPath.delete();
+        this.spillFile = null;
+        this.isSpillEnabled = false;
+    }
+
+    /**
+     * Moves up to the given number of the oldest messages in memory to the spill file. Pending messages
+     * and any messages after them stay in memory, as they are yet to be replaced. If the spill file cannot
+     * be written to, spilling is given up on and every message stays in memory from then on.
+     */
+    private void spill(int maxCount) {
+        int count = 0;
+        while (count < maxCount && !this.resident.get(count).isPending()) {
+            count++;
+        }
+        if (count == 0) {
+            return;
+        }
+        try {
+            if (this.spillFile == null) {
+                this.spillPath = File.createTempFile("ekud-transcript", ".bin");
+                this.spillPath.deleteOnExit();
+                this.spillFile = new RandomAccessFile(this.spillPath, "rw");
+            }
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            long offset = this.offsets[this.spilledCount];
+            long[] newOffsets = new long[count];
+            for (int i = 0; i < count; i++) {
+                newOffsets[i] = offset + out.size();
+                ChatMessage message = this.resident.get(i);
+                byte[] text = message.getText().getBytes(StandardCharsets.UTF_8);
+                out.writeBoolean(message.isFromUser());
+                out.writeInt(text.length);
+                out.write(text);
+            }
+            this.spillFile.seek(offset);
+            this.spillFile.write(bytes.toByteArray());
+
+            int newSpilledCount = this.spilledCount + count;
+            if (newSpilledCount + 1 > this.offsets.length) {
+                this.offsets = Arrays.copyOf(this.offsets, Math.max(newSpilledCount + 1, 2 * this.offsets.length));
+            }
+            System.arraycopy(newOffsets, 0, this.offsets, this.spilledCount, count);
+            this.offsets[newSpilledCount] = offset + bytes.size();
+            this.spilledCount = newSpilledCount;
+            this.resident.subList(0, count).clear();
+        } catch (IOException e) {
+            this.isSpillEnabled = false;
+        }
+    }
+
+    private ChatMessage readSpilled(int index) {
+        if (this.spillFile == null) {
+            return ChatMessage.fromEkud(UNREADABLE_TEXT);
+        }
+        try {
+            this.spillFile.seek(this.offsets[index]);
+            boolean isFromUser = this.spillFile.readBoolean();
+            byte[] text = new byte[this.spillFile.readInt()];
+            this.spillFile.readFully(text);
+            return new ChatMessage(isFromUser, new String(text, StandardCharsets.UTF_8), false);
+        } catch (IOException e) {
+            return ChatMessage.fromEkud(UNREADABLE_TEXT);
+        }
+    }
+}
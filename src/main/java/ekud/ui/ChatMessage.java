@@ -0,0 +1,70 @@
+package ekud.ui;
+
+/**
+ * One message of the chat transcript, as shown by a ChatCell. Messages are immutable and hold
+ * no JavaFX nodes, so a long transcript stays cheap to keep around.
+ */
+public class ChatMessage {
+    static final String PENDING_TEXT = "...";
+
+    private final boolean isFromUser;
+    private final String text;
+    private final boolean isPending;
+
+    ChatMessage(boolean isFromUser, String text, boolean isPending) {
+        this.isFromUser = isFromUser;
+        this.text = text;
+        this.isPending = isPending;
+    }
+
+    /**
+     * Returns a message typed by the user.
+     *
+     * @param text User input.
+     * @return ChatMessage
+     */
+    public static ChatMessage fromUser(String text) {
+        return new ChatMessage(true, text, false);
+    }
+
+    /**
+     * Returns a response from the chatbot.
+     *
+     * @param text Chatbot response.
+     * @return ChatMessage
+     */
+    public static ChatMessage fromEkud(String text) {
+        return new ChatMessage(false, text, false);
+    }
+
+    /**
+     * Returns a placeholder for a chatbot response which is still being computed.
+     *
+     * @return ChatMessage
+     */
+    public static ChatMessage pending() {
+        return new ChatMessage(false, PENDING_TEXT, true);
+    }
+
+    /**
+     * Returns a placeholder for a chatbot response which is still being computed, showing its progress so far.
+     *
+     * @param text Progress of the response.
+     * @return ChatMessage
+     */
+    public static ChatMessage pending(String text) {
+        return new ChatMessage(false, text, true);
+    }
+
+    public boolean isFromUser() {
+        return this.isFromUser;
+    }
+
+    public String getText() {
+        return this.text;
+    }
+
+    public boolean isPending() {
+        return this.isPending;
+    }
+}
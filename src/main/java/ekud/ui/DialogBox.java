@@ -1,108 +1,106 @@
 package ekud.ui;
-// DialogBox.java is taken from https://se-education.org/guides/tutorials/javaFxPart4.html
-import java.io.IOException;
-import java.util.Collections;
+// DialogBox.java is adapted from https://se-education.org/guides/tutorials/javaFxPart4.html
+import java.net.URL;
 
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
-import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
-import javafx.geometry.Pos;
-import javafx.scene.Node;
+import javafx.css.PseudoClass;
+import javafx.geometry.Insets;
 import javafx.scene.control.Label;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.HBox;
+import javafx.scene.layout.Region;
 import javafx.scene.shape.Circle;
 
 /**
- * An example of a custom control using FXML.
- * This control represents a dialog box consisting of an ImageView to represent the speaker's face and a label
- * containing text from the speaker.
+ * A custom control representing a dialog box consisting of an ImageView to represent the speaker's face and
+ * a label containing text from the speaker.
+ * Dialog boxes are built in code rather than from FXML, and styled by the classes in DialogBox.css rather than
+ * by inline styles, which makes each one cheap to create. Chat cells still reuse theirs for every message.
  * (https://se-education.org/guides/tutorials/javaFxPart4.html)
  */
 public class DialogBox extends HBox {
-    @FXML
-    private Label dialog;
-    @FXML
-    private ImageView displayPicture;
-    private static final String USER_DIALOG_BG_COLOR = "#8FFFA1";
-    private static final String DUKE_DIALOG_BG_COLOR = "#CFBCFF";
+    private static final URL STYLESHEET = DialogBox.class.getResource("/view/DialogBox.css");
+    private static final PseudoClass PENDING = PseudoClass.getPseudoClass("pending");
+    private static final Insets PICTURE_MARGIN = new Insets(5, 5, 0, 5);
+    private static final double PICTURE_SIZE = 99;
 
-    private DialogBox(String text, Image img) {
-        try {
-            FXMLLoader fxmlLoader = new FXMLLoader(MainWindow.class.getResource("/view/DialogBox.fxml"));
-            fxmlLoader.setController(this);
-            fxmlLoader.setRoot(this);
-            fxmlLoader.load();
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+    private final Label dialog;
+    private final ImageView displayPicture;
 
-        dialog.setText(text);
-        displayPicture.setImage(img);
+    private DialogBox(String text, Image img, boolean isFromUser) {
+        this.dialog = new Label(text);
+        this.dialog.setWrapText(true);
+        this.dialog.getStyleClass().add("dialog-text");
 
+        this.displayPicture = new ImageView(img);
+        this.displayPicture.setFitHeight(PICTURE_SIZE);
+        this.displayPicture.setFitWidth(PICTURE_SIZE);
+        this.displayPicture.setPreserveRatio(true);
+        this.displayPicture.setPickOnBounds(true);
+        HBox.setMargin(this.displayPicture, PICTURE_MARGIN);
         // Clip display picture to a circle, credits to
         // https://stackoverflow.com/questions/20708295/put-a-image-in-a-circle-view
-        Circle circleClip = new Circle(50, 50, 48);
-        displayPicture.setClip(circleClip);
+        // A node can only clip one other node, so the circle cannot be shared
+        this.displayPicture.setClip(new Circle(50, 50, 48));
+
+        // Prevent text from being clipped in dialog boxes, credits to
+        // https://stackoverflow.com/questions/35012518/resize-javafx-label-if-overrun
+        this.setMinHeight(Region.USE_PREF_SIZE);
+        this.getStyleClass().addAll("dialog-box", isFromUser ? "user-dialog" : "duke-dialog");
+        // The user's picture is on the right, and Duke's on the left
+        if (isFromUser) {
+            this.getChildren().addAll(this.dialog, this.displayPicture);
+        } else {
+            this.getChildren().addAll(this.displayPicture, this.dialog);
+        }
     }
 
     /**
-     * Flips the dialog box such that the ImageView is on the left and text on the right.
+     * Returns the location of the stylesheet which dialog boxes are styled by, to be added to their scene.
+     *
+     * @return String URL of the stylesheet.
      */
-    private void flip() {
-        ObservableList<Node> tmp = FXCollections.observableArrayList(this.getChildren());
-        Collections.reverse(tmp);
-        getChildren().setAll(tmp);
-        setAlignment(Pos.TOP_LEFT);
+    public static String getStylesheet() {
+        return STYLESHEET.toExternalForm();
+    }
+
+    /**
+     * Replaces the text shown in the dialog box, eg once a pending response arrives.
+     *
+     * @param text New text.
+     */
+    public void setText(String text) {
+        this.dialog.setText(text);
+    }
+
+    /**
+     * Dims the dialog box while its response is still being computed.
+     *
+     * @param isPending Whether the response is pending.
+     */
+    public void setPending(boolean isPending) {
+        this.pseudoClassStateChanged(PENDING, isPending);
     }
 
     /**
      * Returns a dialog box for the user.
      *
      * @param text User input.
-     * @param img User display picture.
+     * @param img User display picture, which can be shared by any number of dialog boxes.
      * @return DialogBox
      */
     public static DialogBox getUserDialog(String text, Image img) {
-        var db = new DialogBox(text, img);
-        // Rounded corners styling for the dialog prop, credits to
-        // https://stackoverflow.com/questions/33421353/java-fx-8-dialog-rounded-corners
-        db.dialog.setStyle(String.format(
-                "-fx-background-color: %s; -fx-background-radius: 15 15 15 15;"
-                + "-fx-padding: 12 12 12 12; -fx-margin: 0 100 0 0",
-                USER_DIALOG_BG_COLOR));
-        db.dialog.setMinWidth(50);
-        // Change the alignment of content within props using setAlignment() of the respective prop, credits to
-        // https://docs.oracle.com/javafx/2/layout/size_align.htm#:~:text=setAlignment(Pos.,shown%20in%20Figure%202%2D5.
-        db.dialog.setAlignment(Pos.CENTER);
-        // Align the user dialog to the center right w.r.t. the dialog box
-        db.setAlignment(Pos.CENTER_RIGHT);
-        // Set left padding in dialog box so user dialog has some space from the left
-        db.setStyle("-fx-padding: 5 5 5 50;");
-        return db;
+        return new DialogBox(text, img, true);
     }
 
     /**
      * Returns a dialog box for the chatbot.
      *
      * @param text Chatbot response.
-     * @param img Chatbot display picture.
+     * @param img Chatbot display picture, which can be shared by any number of dialog boxes.
      * @return DialogBox
      */
     public static DialogBox getDukeDialog(String text, Image img) {
-        var db = new DialogBox(text, img);
-        db.flip();
-        db.dialog.setStyle(String.format(
-                "-fx-background-color: %s; -fx-background-radius: 20 20 20 20;"
-                + "-fx-padding: 12 12 12 12; -fx-margin: 0 100 0 0",
-                DUKE_DIALOG_BG_COLOR));
-        // Align the ekud dialog to the centre left w.r.t the dialog box
-        db.setAlignment(Pos.CENTER_LEFT);
-        // Set right padding in dialog box so ekud dialog has some space from the right
-        db.setStyle("-fx-padding: 5 50 5 5;");
-        return db;
+        return new DialogBox(text, img, false);
     }
 }
-
@@ -1,24 +1,40 @@
 package ekud.ui;
 // MainWindow.java class is taken from https://se-education.org/guides/tutorials/javaFxPart4.html
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 import ekud.Ekud;
+import ekud.autocomplete.Autocompleter;
+import javafx.application.Platform;
 import javafx.fxml.FXML;
+import javafx.geometry.Side;
 import javafx.scene.control.Button;
-import javafx.scene.control.ScrollPane;
+import javafx.scene.control.ContextMenu;
+import javafx.scene.control.ListView;
+import javafx.scene.control.MenuItem;
 import javafx.scene.control.TextField;
 import javafx.scene.image.Image;
 import javafx.scene.layout.AnchorPane;
-import javafx.scene.layout.Region;
-import javafx.scene.layout.VBox;
 
 /**
  * Controller for MainWindow. Provides the layout for the other controls.
+ * Commands run on a single background thread in the order they were entered, so slow commands never
+ * freeze the window; their responses are posted back to the JavaFX Application Thread.
+ * The chat is shown by a ListView, which only creates nodes for the messages in view, so long sessions
+ * stay as fast to scroll as short ones. Next to it, a TaskTable shows every task and is updated row by row,
+ * and a CalendarPane shows the deadlines and events of a month, redrawing only the days which change.
+ * While typing, completions of the current word are looked up in the background and shown in a popup.
  * (https://se-education.org/guides/tutorials/javaFxPart4.html)
  */
 public class MainWindow extends AnchorPane {
     @FXML
-    private ScrollPane scrollPane;
+    private ListView<ChatMessage> dialogList;
+    @FXML
+    private TaskTable taskTable;
     @FXML
-    private VBox dialogContainer;
+    private CalendarPane calendarPane;
     @FXML
     private TextField userInput;
     @FXML
@@ -26,41 +42,129 @@ public class MainWindow extends AnchorPane {
     private Ekud duke;
     private Image userImage = new Image(this.getClass().getResourceAsStream("/images/DaUser.png"));
     private Image dukeImage = new Image(this.getClass().getResourceAsStream("/images/DaDuke.png"));
+    private final Transcript transcript = new Transcript(new ChatHistory());
+    private final TaskTableModel taskTableModel = new TaskTableModel();
+    private final CalendarModel calendarModel = new CalendarModel();
+    private final Autocompleter autocompleter = new Autocompleter();
+    private final ContextMenu suggestionPopup = new ContextMenu();
+    // Single worker thread, so commands are executed one at a time in submission order
+    private final ExecutorService commandExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ekud-commands");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     @FXML
     public void initialize() {
-        scrollPane.vvalueProperty().bind(dialogContainer.heightProperty());
+        dialogList.getStylesheets().add(DialogBox.getStylesheet());
+        dialogList.setItems(this.transcript);
+        dialogList.setCellFactory(list -> new ChatCell(this.userImage, this.dukeImage));
+        dialogList.setFocusTraversable(false);
+        taskTable.setItems(this.taskTableModel);
+        calendarPane.setModel(this.calendarModel);
+        userInput.textProperty().addListener((observable, oldText, newText) -> this.requestSuggestions(newText));
+    }
+
+    /**
+     * Looks up completions of the input in the background, and shows them once found.
+     */
+    private void requestSuggestions(String input) {
+        if (input.isBlank()) {
+            this.suggestionPopup.hide();
+            return;
+        }
+        this.autocompleter.suggest(input,
+                suggestions -> Platform.runLater(() -> this.showSuggestions(input, suggestions)));
+    }
+
+    /**
+     * Shows completions in a popup above the input box, unless the input has changed since they were looked up.
+     */
+    private void showSuggestions(String input, List<String> suggestions) {
+        if (!input.equals(userInput.getText())) {
+            return;
+        }
+        if (suggestions.isEmpty()) {
+            this.suggestionPopup.hide();
+            return;
+        }
+        List<MenuItem> items = new ArrayList<>();
+        for (String suggestion : suggestions) {
+            MenuItem item = new MenuItem(suggestion);
+            item.setOnAction(event -> {
+                userInput.setText(suggestion);
+                userInput.positionCaret(suggestion.length());
+            });
+            items.add(item);
+        }
+        this.suggestionPopup.getItems().setAll(items);
+        if (!this.suggestionPopup.isShowing()) {
+            this.suggestionPopup.show(userInput, Side.TOP, 0, 0);
+        }
     }
 
     /**
-     * Creates two dialog boxes, one echoing user input and the other containing Duke's reply and then appends them to
-     * the dialog container. Clears the user input after processing.
+     * Appends two messages to the transcript, one echoing user input and the other showing a pending indicator
+     * until Duke's reply arrives. Clears the user input after processing.
      */
     @FXML
     private void handleUserInput() {
         String input = userInput.getText();
-        String response = duke.getResponse(input);
-
-        // Prevent text from being clipped in dialog boxes using setMinHeight(Region.USE_PREF_SIZE), credits to
-        // https://stackoverflow.com/questions/35012518/resize-javafx-label-if-overrun
-        DialogBox userDialog = DialogBox.getUserDialog(input, this.userImage);
-        DialogBox dukeDialog = DialogBox.getDukeDialog(response, this.dukeImage);
-        userDialog.setMinHeight(Region.USE_PREF_SIZE);
-        dukeDialog.setMinHeight(Region.USE_PREF_SIZE);
-        dialogContainer.getChildren().addAll(userDialog, dukeDialog);
+        this.transcript.add(ChatMessage.fromUser(input));
+        int responseIndex = this.appendPendingResponse();
 
         userInput.clear();
+        this.suggestionPopup.hide();
+        this.submitInput(input, responseIndex);
+    }
+
+    /**
+     * Queues an input on the worker, which runs inputs one at a time in the order they were entered, and
+     * shows its response as soon as it is ready, even while inputs entered after it are still waiting.
+     * Must be called on the JavaFX Application Thread.
+     */
+    private void submitInput(String input, int responseIndex) {
+        this.commandExecutor.execute(() -> {
+            this.duke.setProgressListener(progress -> Platform.runLater(() ->
+                    this.transcript.set(responseIndex, ChatMessage.pending(progress))));
+            String response = this.duke.getResponse(input);
+            this.duke.setProgressListener(null);
+            Platform.runLater(() -> {
+                this.transcript.set(responseIndex, ChatMessage.fromEkud(response));
+                dialogList.scrollTo(this.transcript.size() - 1);
+            });
+        });
+    }
+
+    /**
+     * Appends a placeholder for a response and scrolls to it.
+     *
+     * @return Index of the placeholder within the transcript.
+     */
+    private int appendPendingResponse() {
+        this.transcript.add(ChatMessage.pending());
+        int index = this.transcript.size() - 1;
+        dialogList.scrollTo(index);
+        return index;
     }
 
     /**
      * Adds the chatbot object to the GUI, and shows a Duke Dialog Box to greet
-     * the user upon loading the MainWindow.
+     * the user once the saved data has been loaded in the background.
      *
      * @param d Chatbot object.
      */
     public void setDuke(Ekud d) {
         this.duke = d;
-        dialogContainer.getChildren().add(DialogBox.getDukeDialog(
-                this.duke.loadData() + "\n" + this.duke.getGreeting(), this.dukeImage));
+        // Registered before the tasks are loaded, so that the loaded tasks are also shown and completed
+        this.duke.addTaskListListener(this.taskTableModel);
+        this.duke.addTaskListListener(this.calendarModel);
+        this.duke.addTaskListListener(this.autocompleter);
+        int greetingIndex = this.appendPendingResponse();
+        // Queued first, so inputs entered while the tasks load run after them
+        this.commandExecutor.execute(() -> {
+            String text = this.duke.loadData() + "\n" + this.duke.getGreeting();
+            Platform.runLater(() -> this.transcript.set(greetingIndex, ChatMessage.fromEkud(text)));
+        });
     }
 }
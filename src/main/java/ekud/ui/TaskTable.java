@@ -0,0 +1,81 @@
+package ekud.ui;
+
+import java.time.LocalDateTime;
+import java.util.function.Function;
+
+import ekud.parser.DateTimeParser;
+import ekud.tasks.Deadline;
+import ekud.tasks.Event;
+import ekud.tasks.Task;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.scene.control.Label;
+import javafx.scene.control.TableCell;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+
+/**
+ * Table of every task, shown next to the chat. Its items are a TaskTableModel, so it is updated row by row
+ * as commands change the tasks, and like any TableView it only creates cells for the rows in view.
+ * Rows have a fixed height, which spares the table from measuring rows it is not showing.
+ */
+public class TaskTable extends TableView<Task> {
+    private static final double ROW_HEIGHT = 24;
+
+    /**
+     * Constructor for a TaskTable with its columns, but no items yet.
+     */
+    public TaskTable() {
+        this.setFixedCellSize(ROW_HEIGHT);
+        this.setPlaceholder(new Label("Your to-do list is currently empty :o"));
+        this.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
+        this.getColumns().add(createNumberColumn());
+        this.getColumns().add(createColumn("ID", 50, task -> "#" + task.getId()));
+        this.getColumns().add(createColumn("Done", 50, task -> task.isDone() ? "X" : ""));
+        this.getColumns().add(createColumn("Task", 200, Task::getDescriptionWithTags));
+        this.getColumns().add(createColumn("Priority", 70, Task::getPriority));
+        this.getColumns().add(createColumn("When", 180, TaskTable::describeDateTimes));
+    }
+
+    /**
+     * Returns the column of task numbers, which are those used by commands, ie the row index plus one.
+     */
+    private static TableColumn<Task, String> createNumberColumn() {
+        TableColumn<Task, String> column = new TableColumn<>("#");
+        column.setPrefWidth(60);
+        column.setSortable(false);
+        column.setCellFactory(c -> new TableCell<>() {
+            @Override
+            protected void updateItem(String item, boolean isEmpty) {
+                super.updateItem(item, isEmpty);
+                this.setText(isEmpty ? null : Integer.toString(this.getIndex() + 1));
+            }
+        });
+        return column;
+    }
+
+    /**
+     * Returns an unsortable column showing a property of each task, as sorting would no longer match
+     * rows to task numbers.
+     */
+    private static TableColumn<Task, String> createColumn(String title, double width, Function<Task, String> property) {
+        TableColumn<Task, String> column = new TableColumn<>(title);
+        column.setPrefWidth(width);
+        column.setSortable(false);
+        column.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(property.apply(cell.getValue())));
+        return column;
+    }
+
+    private static String describeDateTimes(Task task) {
+        if (task instanceof Deadline) {
+            return "by " + format(((Deadline) task).getDateTime());
+        } else if (task instanceof Event) {
+            Event event = (Event) task;
+            return format(event.getFromDateTime()) + " - " + format(event.getToDateTime());
+        }
+        return "";
+    }
+
+    private static String format(LocalDateTime dateTime) {
+        return dateTime.format(DateTimeParser.Layout.SAVED.getFormatter());
+    }
+}
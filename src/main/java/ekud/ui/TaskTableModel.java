@@ -0,0 +1,149 @@
+package ekud.ui;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import ekud.tasks.Task;
+import ekud.tasks.TaskListListener;
+import javafx.application.Platform;
+import javafx.collections.ObservableListBase;
+
+/**
+ * Observable projection of a TaskList, used as the items of the task table. It listens to the TaskList,
+ * which is changed on the command thread, and replays the same fine-grained changes on its own copy of the
+ * task order on the JavaFX Application Thread, so the table only re-renders the rows which changed.
+ * Changes made while an update is waiting to run are coalesced into it, eg all tasks added while loading.
+ */
+public class TaskTableModel extends ObservableListBase<Task> implements TaskListListener {
+    // Order of the tasks as last shown; FX thread only
+    private List<Task> rows;
+    // Changes yet to be applied to rows, guarded by itself
+    private final List<Change> pendingChanges;
+    private boolean isUpdateScheduled;
+
+    /**
+     * Constructor for an empty TaskTableModel, to be registered as a listener of the TaskList to show.
+     */
+    public TaskTableModel() {
+        this.rows = new ArrayList<>();
+        this.pendingChanges = new ArrayList<>();
+    }
+
+    @Override
+    public Task get(int index) {
+        return this.rows.get(index);
+    }
+
+    @Override
+    public int size() {
+        return this.rows.size();
+    }
+
+    @Override
+    public void onTasksAdded(int fromIndex, List<Task> tasks) {
+        synchronized (this.pendingChanges) {
+            int numPending = this.pendingChanges.size();
+            Change last = numPending == 0 ? null : this.pendingChanges.get(numPending - 1);
+            if (last != null && last.type == ChangeType.ADD && last.index + last.tasks.size() == fromIndex) {
+                last.tasks.addAll(tasks);
+            } else {
+                this.pendingChanges.add(new Change(ChangeType.ADD, fromIndex, new ArrayList<>(tasks)));
+            }
+            this.scheduleUpdate();
+        }
+    }
+
+    @Override
+    public void onTaskRemoved(int index, Task task) {
+        synchronized (this.pendingChanges) {
+            this.pendingChanges.add(new Change(ChangeType.REMOVE, index, null));
+            this.scheduleUpdate();
+        }
+    }
+
+    @Override
+    public void onTaskUpdated(int index, Task task) {
+        synchronized (this.pendingChanges) {
+            this.pendingChanges.add(new Change(ChangeType.UPDATE, index, null));
+            this.scheduleUpdate();
+        }
+    }
+
+    @Override
+    public void onTasksReset(List<Task> tasks) {
+        synchronized (this.pendingChanges) {
+            // Earlier changes are superseded by the new contents
+            this.pendingChanges.clear();
+            this.pendingChanges.add(new Change(ChangeType.RESET, 0, new ArrayList<>(tasks)));
+            this.scheduleUpdate();
+        }
+    }
+
+    /**
+     * Schedules applyPendingChanges() unless it is scheduled already. Must hold the pendingChanges lock.
+     */
+    private void scheduleUpdate() {
+        if (!this.isUpdateScheduled) {
+            this.isUpdateScheduled = true;
+            Platform.runLater(this::applyPendingChanges);
+        }
+    }
+
+    /**
+     * Applies every pending change to the rows, and notifies the table of all of them as one change.
+     */
+    private void applyPendingChanges() {
+        List<Change> changes;
+        synchronized (this.pendingChanges) {
+            changes = new ArrayList<>(this.pendingChanges);
+            this.pendingChanges.clear();
+            this.isUpdateScheduled = false;
+        }
+        this.beginChange();
+        for (Change change : changes) {
+            switch (change.type) {
+            case ADD:
+                this.rows.addAll(change.index, change.tasks);
+                this.nextAdd(change.index, change.index + change.tasks.size());
+                break;
+            case REMOVE:
+                this.nextRemove(change.index, this.rows.remove(change.index));
+                break;
+            case UPDATE:
+                this.nextUpdate(change.index);
+                break;
+            case RESET:
+                List<Task> removed = this.rows;
+                this.rows = change.tasks;
+                if (!removed.isEmpty()) {
+                    this.nextRemove(0, removed);
+                }
+                this.nextAdd(0, this.rows.size());
+                break;
+            default:
+                throw new IllegalStateException("Unknown change type " + change.type);
+            }
+        }
+        this.endChange();
+    }
+
+    private enum ChangeType {
+        ADD, REMOVE, UPDATE, RESET
+    }
+
+    /**
+     * A change to the TaskList, waiting to be applied to the rows.
+     */
+    private static class Change {
+        private final ChangeType type;
+        private final int index;
+        // Tasks added or now in the list, for ADD and RESET changes
+        private final List<Task> tasks;
+
+        Change(ChangeType type, int index, List<Task> tasks) {
+            this.type = type;
+            this.index = index;
+            this.tasks = tasks;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package ekud.ui;
+
+import javafx.collections.ObservableListBase;
+
+/**
+ * Observable view of a ChatHistory, used as the items of the chat ListView. The ListView only asks for
+ * the messages it is showing, so spilled messages are only read back when they are scrolled to.
+ * Messages can be appended and replaced, but not removed.
+ */
+public class Transcript extends ObservableListBase<ChatMessage> {
+    private final ChatHistory history;
+
+    /**
+     * Constructor for a Transcript.
+     *
+     * @param history Messages to be shown.
+     */
+    public Transcript(ChatHistory history) {
+        this.history = history;
+    }
+
+    @Override
+    public ChatMessage get(int index) {
+        return this.history.get(index);
+    }
+
+    @Override
+    public int size() {
+        return this.history.size();
+    }
+
+    @Override
+    public boolean add(ChatMessage message) {
+        this.beginChange();
+        this.history.add(message);
+        this.nextAdd(this.history.size() - 1, this.history.size());
+        this.endChange();
+        return true;
+    }
+
+    @Override
+    public ChatMessage set(int index, ChatMessage message) {
+        this.beginChange();
+        ChatMessage replaced = this.history.set(index, message);
+        this.nextSet(index, replaced);
+        this.endChange();
+        return replaced;
+    }
+}
@@ -0,0 +1,77 @@
+package ekud.workload;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import ekud.Ekud;
+import ekud.metrics.LatencyHistogram;
+import ekud.metrics.LatencySummary;
+
+/**
+ * The TraceReplayer sends a recorded trace of commands to a chatbot's getResponse() and measures
+ * throughput and latency. In a closed loop each command is sent as soon as the previous one returns.
+ * At a fixed rate each command is due at its own time, and its latency is measured from that time,
+ * so a slow command also delays the ones queued behind it instead of hiding their wait.
+ */
+public class TraceReplayer {
+    private final Ekud ekud;
+    // Commands per second, or 0 for a closed loop
+    private final double rate;
+    // Number of leading commands executed but not measured, so the JIT can warm up
+    private final int numWarmup;
+
+    /**
+     * Constructs a TraceReplayer.
+     *
+     * @param ekud Chatbot to replay the trace against.
+     * @param rate Commands per second, or 0 for a closed loop.
+     * @param numWarmup Number of leading commands which are not measured.
+     */
+    public TraceReplayer(Ekud ekud, double rate, int numWarmup) {
+        assert rate >= 0 : "Rate should not be negative";
+        this.ekud = ekud;
+        this.rate = rate;
+        this.numWarmup = numWarmup;
+    }
+
+    /**
+     * Replays every command of the trace and returns a report of the measured ones.
+     *
+     * @param commands Commands of the trace, in order.
+     * @return String report.
+     */
+    public String replay(List<String> commands) {
+        LatencyHistogram histogram = new LatencyHistogram();
+        long intervalNanos = this.rate > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / this.rate) : 0;
+        int numCommands = commands.size();
+        long measureStart = System.nanoTime();
+        long nextDue = measureStart;
+        for (int i = 0; i < numCommands; i++) {
+            if (i == this.numWarmup) {
+                measureStart = System.nanoTime();
+                nextDue = measureStart;
+            }
+            long startTime = System.nanoTime();
+            if (intervalNanos > 0 && i >= this.numWarmup) {
+                while (startTime < nextDue) {
+                    LockSupport.parkNanos(nextDue - startTime);
+                    startTime = System.nanoTime();
+                }
+                startTime = nextDue;
+                nextDue += intervalNanos;
+            }
+            this.ekud.getResponse(commands.get(i));
+            if (i >= this.numWarmup) {
+                histogram.record(System.nanoTime() - startTime);
+            }
+        }
+        double seconds = (System.nanoTime() - measureStart) / 1e9;
+        LatencySummary summary = histogram.summarize();
+        return String.format("[Replayed (%d) command(s) in %.3f s (%d warmup): %.0f commands/s, "
+                        + "latency p50 %.1f us, p90 %.1f us, p99 %.1f us, max %.1f us]",
+                summary.getCount(), seconds, Math.min(this.numWarmup, numCommands),
+                seconds > 0 ? summary.getCount() / seconds : 0, summary.getP50Nanos() / 1e3,
+                summary.getP90Nanos() / 1e3, summary.getP99Nanos() / 1e3, summary.getMaxNanos() / 1e3);
+    }
+}
@@ -0,0 +1,165 @@
+package ekud.workload;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Random;
+
+import ekud.parser.DateTimeParser;
+
+/**
+ * The WorkloadGenerator writes a trace of chatbot commands, one per line, in the same format as
+ * batch mode scripts. The trace starts by adding tasks up to the mix's list size, then follows the mix.
+ * Descriptions draw their words from a Zipf-distributed vocabulary, so a few words are common and
+ * finds hit a realistic share of tasks. The same seed always produces the same trace.
+ */
+public class WorkloadGenerator {
+    private static final String[] VOCABULARY = {"read", "book", "buy", "milk", "finish", "quiz", "project",
+        "meeting", "call", "mum", "gym", "essay", "return", "library", "pay", "rent", "plan", "trip", "fix",
+        "bike", "email", "boss", "submit", "report", "clean", "room", "cook", "dinner", "study", "exam",
+        "water", "plants", "laundry", "dentist", "renew", "passport", "walk", "dog", "review", "notes"};
+    private static final DateTimeFormatter INPUT_FORMATTER = DateTimeParser.Layout.SLASH.getFormatter();
+
+    private final WorkloadMix mix;
+    private final Random random;
+    private final LocalDateTime startDateTime;
+    // Cumulative Zipf weights of the vocabulary, by rank
+    private final double[] cumulativeWeights;
+    // Number of tasks the replayed chatbot will hold at this point of the trace
+    private int listSize;
+
+    /**
+     * Constructs a WorkloadGenerator.
+     *
+     * @param mix Shape of the workload.
+     * @param seed Seed of the random number generator.
+     * @param startDateTime Earliest date and time given to deadlines and events.
+     */
+    public WorkloadGenerator(WorkloadMix mix, long seed, LocalDateTime startDateTime) {
+        this.mix = mix;
+        this.random = new Random(seed);
+        this.startDateTime = startDateTime;
+        this.cumulativeWeights = new double[VOCABULARY.length];
+        double total = 0;
+        for (int rank = 0; rank < VOCABULARY.length; rank++) {
+            total += 1.0 / (rank + 1);
+            this.cumulativeWeights[rank] = total;
+        }
+    }
+
+    /**
+     * Writes the list-filling commands followed by the given number of mixed commands.
+     *
+     * @param out Destination of the trace.
+     * @param numCommands Number of mixed commands after the list is filled.
+     * @return Total number of commands written.
+     * @throws IOException If the trace cannot be written.
+     */
+    public long generate(Writer out, long numCommands) throws IOException {
+        long numWritten = 0;
+        for (int i = 0; i < this.mix.getListSize(); i++) {
+            out.write(this.nextAdd());
+            out.write('\n');
+            numWritten++;
+        }
+        for (long i = 0; i < numCommands; i++) {
+            out.write(this.next());
+            out.write('\n');
+            numWritten++;
+        }
+        out.flush();
+        return numWritten;
+    }
+
+    /**
+     * Returns the next mixed command. Commands needing a task fall back to adding one if the list is empty,
+     * and adds turn into deletes (and vice versa) once the list strays beyond twice (or half) the mix's
+     * list size, so the list stays around that size whatever the weights.
+     *
+     * @return String command.
+     */
+    public String next() {
+        WorkloadMix.Kind kind = this.mix.pick(this.random.nextDouble());
+        int targetSize = this.mix.getListSize();
+        if (kind == WorkloadMix.Kind.ADD && targetSize > 0 && this.listSize >= 2 * targetSize) {
+            kind = WorkloadMix.Kind.DELETE;
+        } else if (kind == WorkloadMix.Kind.DELETE && this.listSize <= targetSize / 2) {
+            kind = WorkloadMix.Kind.ADD;
+        }
+        if (this.listSize == 0 && kind != WorkloadMix.Kind.FIND && kind != WorkloadMix.Kind.LIST) {
+            kind = WorkloadMix.Kind.ADD;
+        }
+        switch (kind) {
+        case FIND:
+            return "find " + this.nextWord();
+        case MARK:
+            return "mark " + this.nextTaskNum();
+        case UNMARK:
+            return "unmark " + this.nextTaskNum();
+        case DELETE:
+            String command = "delete " + this.nextTaskNum();
+            this.listSize--;
+            return command;
+        case LIST:
+            return "list";
+        default:
+            return this.nextAdd();
+        }
+    }
+
+    /**
+     * Returns a todo, deadline or event command in a 5:3:2 ratio.
+     */
+    private String nextAdd() {
+        this.listSize++;
+        String description = this.nextDescription();
+        int kind = this.random.nextInt(10);
+        if (kind < 5) {
+            return "todo " + description;
+        }
+        LocalDateTime start = this.nextDateTime();
+        if (kind < 8) {
+            return String.format("deadline %s /by %s", description, start.format(INPUT_FORMATTER));
+        }
+        LocalDateTime end = start.plusHours(1 + this.random.nextInt(48));
+        return String.format("event %s /from %s /to %s", description, start.format(INPUT_FORMATTER),
+                end.format(INPUT_FORMATTER));
+    }
+
+    /**
+     * Returns a description whose number of words is geometrically distributed around the mix's mean.
+     */
+    private String nextDescription() {
+        StringBuilder description = new StringBuilder(this.nextWord());
+        double continueChance = 1 - 1 / this.mix.getMeanWords();
+        while (this.random.nextDouble() < continueChance) {
+            description.append(' ').append(this.nextWord());
+        }
+        return description.toString();
+    }
+
+    private String nextWord() {
+        double target = this.random.nextDouble() * this.cumulativeWeights[this.cumulativeWeights.length - 1];
+        int low = 0;
+        int high = this.cumulativeWeights.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (this.cumulativeWeights[mid] < target) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return VOCABULARY[low];
+    }
+
+    private int nextTaskNum() {
+        return 1 + this.random.nextInt(this.listSize);
+    }
+
+    private LocalDateTime nextDateTime() {
+        int minutes = this.random.nextInt(this.mix.getDateSpreadDays() * 24 * 4) * 15;
+        return this.startDateTime.plusMinutes(minutes);
+    }
+}
@@ -0,0 +1,104 @@
+package ekud.workload;
+
+import java.util.Locale;
+
+/**
+ * Represents the shape of a synthetic workload: the relative weight of each kind of command, the size
+ * the task list is kept around, how long descriptions are and how far dates spread.
+ * Weights are given as {@code add=30,find=20,mark=15,unmark=5,delete=20,list=10}; they need not sum to 100.
+ */
+public class WorkloadMix {
+    public static final String DEFAULT_WEIGHTS = "add=30,find=20,mark=15,unmark=5,delete=20,list=10";
+
+    /**
+     * Kinds of commands a workload is made of.
+     */
+    public enum Kind {
+        ADD, FIND, MARK, UNMARK, DELETE, LIST
+    }
+
+    private final double[] weights;
+    private final int listSize;
+    private final double meanWords;
+    private final int dateSpreadDays;
+
+    /**
+     * Constructs a WorkloadMix.
+     *
+     * @param weights Weights of the command kinds, eg add=40,find=20.
+     * @param listSize Number of tasks added before the mix starts, which the list then stays around.
+     * @param meanWords Mean number of words per description.
+     * @param dateSpreadDays Number of days after the start date over which deadlines and events spread.
+     * @throws IllegalArgumentException If any of the values is not acceptable.
+     */
+    public WorkloadMix(String weights, int listSize, double meanWords, int dateSpreadDays) {
+        if (listSize < 0 || meanWords < 1 || dateSpreadDays < 1) {
+            throw new IllegalArgumentException("List size, mean words and date spread should be positive");
+        }
+        this.weights = parseWeights(weights);
+        this.listSize = listSize;
+        this.meanWords = meanWords;
+        this.dateSpreadDays = dateSpreadDays;
+    }
+
+    private static double[] parseWeights(String weights) {
+        double[] parsed = new double[Kind.values().length];
+        double total = 0;
+        for (String entry : weights.split(",")) {
+            String[] parts = entry.strip().split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Weights should look like add=40,find=20: " + entry);
+            }
+            Kind kind;
+            double weight;
+            try {
+                kind = Kind.valueOf(parts[0].strip().toUpperCase(Locale.ENGLISH));
+                weight = Double.parseDouble(parts[1].strip());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid weight: " + entry);
+            }
+            if (weight < 0) {
+                throw new IllegalArgumentException("Weights should not be negative: " + entry);
+            }
+            parsed[kind.ordinal()] = weight;
+            total += weight;
+        }
+        if (total <= 0) {
+            throw new IllegalArgumentException("At least one weight should be positive");
+        }
+        return parsed;
+    }
+
+    /**
+     * Picks a command kind in proportion to the weights.
+     *
+     * @param uniform Uniform random number in [0, 1).
+     * @return Kind
+     */
+    public Kind pick(double uniform) {
+        double total = 0;
+        for (double weight : this.weights) {
+            total += weight;
+        }
+        double target = uniform * total;
+        for (Kind kind : Kind.values()) {
+            target -= this.weights[kind.ordinal()];
+            if (target < 0) {
+                return kind;
+            }
+        }
+        return Kind.ADD;
+    }
+
+    public int getListSize() {
+        return this.listSize;
+    }
+
+    public double getMeanWords() {
+        return this.meanWords;
+    }
+
+    public int getDateSpreadDays() {
+        return this.dateSpreadDays;
+    }
+}
@@ -0,0 +1,185 @@
+package ekud.workload;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import ekud.Ekud;
+import ekud.exceptions.EkudIOException;
+import ekud.metrics.CommandMetrics;
+
+/**
+ * Command line front-end for synthetic workloads, following the --workload flag: 'generate' writes a trace
+ * and 'replay' runs one against a chatbot with an empty task list, so capacity planning and regression tests
+ * use the same traces.
+ */
+public class WorkloadTool {
+    private static final String USAGE = "Usage: ekud --workload generate [--seed <n>] [--commands <n>] "
+            + "[--list-size <n>] [--mix <kind=weight,...>] [--words <mean>] [--date-spread <days>] "
+            + "[--start <yyyy-MM-dd>] [trace file]\n"
+            + "       ekud --workload replay [--rate <commands/s>] [--warmup <n>] [trace file]";
+
+    /**
+     * Entry point for the workload tool, reading options that follow the --workload flag.
+     *
+     * @param args Command line arguments after --workload.
+     * @return Exit status.
+     */
+    public static int main(String[] args) {
+        try {
+            if (args.length > 0 && args[0].equals("generate")) {
+                return generate(args);
+            }
+            if (args.length > 0 && args[0].equals("replay")) {
+                return replay(args);
+            }
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            System.err.println(e.getMessage());
+        } catch (IOException e) {
+            System.err.println("Error with running workload: " + e);
+            return 1;
+        }
+        System.err.println(USAGE);
+        return 1;
+    }
+
+    private static int generate(String[] args) throws IOException {
+        long seed = 42;
+        long numCommands = 10_000;
+        int listSize = 100;
+        String weights = WorkloadMix.DEFAULT_WEIGHTS;
+        double meanWords = 3;
+        int dateSpreadDays = 60;
+        LocalDate start = LocalDate.of(2026, 1, 1);
+        String tracePath = null;
+        for (int i = 1; i < args.length; i++) {
+            String value = i + 1 < args.length ? args[i + 1] : null;
+            switch (args[i]) {
+            case "--seed":
+                seed = Long.parseLong(requireValue(value));
+                break;
+            case "--commands":
+                numCommands = Long.parseLong(requireValue(value));
+                break;
+            case "--list-size":
+                listSize = Integer.parseInt(requireValue(value));
+                break;
+            case "--mix":
+                weights = requireValue(value);
+                break;
+            case "--words":
+                meanWords = Double.parseDouble(requireValue(value));
+                break;
+            case "--date-spread":
+                dateSpreadDays = Integer.parseInt(requireValue(value));
+                break;
+            case "--start":
+                start = LocalDate.parse(requireValue(value));
+                break;
+            default:
+                if (tracePath != null || args[i].startsWith("--")) {
+                    throw new IllegalArgumentException("Unexpected argument: " + args[i]);
+                }
+                tracePath = args[i];
+                continue;
+            }
+            i++;
+        }
+        WorkloadMix mix = new WorkloadMix(weights, listSize, meanWords, dateSpreadDays);
+        WorkloadGenerator generator = new WorkloadGenerator(mix, seed, start.atTime(9, 0));
+        try (OutputStream sink = tracePath == null ? System.out : new FileOutputStream(tracePath)) {
+            Writer out = new BufferedWriter(new OutputStreamWriter(sink, StandardCharsets.UTF_8), 1 << 16);
+            long numWritten = generator.generate(out, numCommands);
+            System.err.println(String.format("[Generated (%d) command(s)]", numWritten));
+        }
+        return 0;
+    }
+
+    private static int replay(String[] args) throws IOException {
+        double rate = 0;
+        int numWarmup = 0;
+        String tracePath = null;
+        for (int i = 1; i < args.length; i++) {
+            String value = i + 1 < args.length ? args[i + 1] : null;
+            switch (args[i]) {
+            case "--rate":
+                rate = Double.parseDouble(requireValue(value));
+                break;
+            case "--warmup":
+                numWarmup = Integer.parseInt(requireValue(value));
+                break;
+            default:
+                if (tracePath != null || args[i].startsWith("--")) {
+                    throw new IllegalArgumentException("Unexpected argument: " + args[i]);
+                }
+                tracePath = args[i];
+                continue;
+            }
+            i++;
+        }
+        if (rate < 0 || numWarmup < 0) {
+            throw new IllegalArgumentException("Rate and warmup should not be negative");
+        }
+        List<String> commands = new ArrayList<>();
+        try (InputStream source = tracePath == null ? System.in : new FileInputStream(tracePath)) {
+            BufferedReader in = new BufferedReader(new InputStreamReader(source, StandardCharsets.UTF_8));
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (!line.isBlank() && !line.startsWith("#")) {
+                    commands.add(line);
+                }
+            }
+        }
+        // Replay against an empty, throwaway task list so that the user's tasks are never touched
+        Path dataDir = Files.createTempDirectory("ekud-workload");
+        try {
+            Ekud ekud = new Ekud(dataDir.resolve("savedTasks.txt").toString());
+            ekud.loadData();
+            try {
+                System.out.println(new TraceReplayer(ekud, rate, numWarmup).replay(commands));
+            } finally {
+                ekud.close();
+            }
+        } catch (EkudIOException e) {
+            throw new IOException(e.getMessage(), e);
+        } finally {
+            deleteRecursively(dataDir);
+        }
+        System.out.println(CommandMetrics.getDefault().describe());
+        return 0;
+    }
+
+    /**
+     * Deletes a directory together with everything in it, deepest first.
+     */
+    private static void deleteRecursively(Path dir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    private static String requireValue(String value) {
+        if (value == null) {
+            throw new IllegalArgumentException(USAGE);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,39 @@
+package autocomplete;
+
+import ekud.autocomplete.PrefixTrie;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PrefixTrieTest {
+    @Test
+    public void suggest_prefix_returnsMostFrequentFirst() {
+        PrefixTrie trie = new PrefixTrie(3);
+        for (String term : List.of("milk", "mile", "mild", "milk", "mint", "milk", "mile", "bread")) {
+            trie.add(term);
+        }
+        assertEquals(List.of("milk", "mile", "mild"), trie.suggest("mi"));
+        assertEquals(List.of("milk", "mile", "mild"), trie.suggest("mil"));
+        assertEquals(List.of("bread"), trie.suggest("b"));
+        assertEquals(List.of(), trie.suggest("x"));
+        assertEquals(5, trie.getNumTerms());
+    }
+
+    @Test
+    public void remove_cachedTerm_isOvertakenByUncachedTerm() {
+        PrefixTrie trie = new PrefixTrie(2);
+        for (String term : List.of("milk", "milk", "mile", "mile", "mild")) {
+            trie.add(term);
+        }
+        assertEquals(List.of("mile", "milk"), trie.suggest("mi"));
+        trie.remove("milk");
+        trie.remove("milk");
+        assertEquals(List.of("mile", "mild"), trie.suggest("mi"));
+        trie.remove("mile");
+        trie.remove("mile");
+        assertEquals(List.of("mild"), trie.suggest("m"));
+        assertEquals(1, trie.getNumTerms());
+    }
+}
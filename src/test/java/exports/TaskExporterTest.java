@@ -0,0 +1,93 @@
+package exports;
+
+import ekud.exports.TaskExporter;
+import ekud.imports.CsvTaskReader;
+import ekud.imports.TaskImporter;
+import ekud.parser.DateTimeParser;
+import ekud.tasks.Deadline;
+import ekud.tasks.Priority;
+import ekud.tasks.TaskFilter;
+import ekud.tasks.TaskList;
+import tasks.SampleTasks;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TaskExporterTest {
+    @Test
+    public void export_csv_importsBackTheSameTasks(@TempDir Path dir) throws Exception {
+        TaskList taskList = SampleTasks.createDoneTaskList();
+        taskList.markTaskAsNotDone(3);
+        taskList.changePriority(Priority.HIGH, 1);
+        Path file = dir.resolve("tasks.csv");
+        TaskExporter exporter = new TaskExporter(TaskExporter.Format.CSV, Clock.systemDefaultZone());
+        assertEquals(5, exporter.export(taskList.getTasks(), TaskFilter.ALL, file));
+        TaskList imported = new TaskList();
+        TaskImporter importer = new TaskImporter(
+                new CsvTaskReader(Files.newBufferedReader(file), new DateTimeParser()));
+        importer.importInto(imported, numImported -> { });
+        assertEquals(0, importer.getNumSkipped());
+        for (int i = 0; i < taskList.getSize(); i++) {
+            assertEquals(taskList.getSaveTaskFormat(i), imported.getSaveTaskFormat(i));
+        }
+    }
+
+    @Test
+    public void export_icsWithFilters_writesOnlyMatchingItems(@TempDir Path dir) throws Exception {
+        TaskList taskList = SampleTasks.createDoneTaskList();
+        taskList.markTaskAsNotDone(2);
+        taskList.markTaskAsNotDone(4);
+        Path file = dir.resolve("tasks.ics");
+        TaskExporter exporter = new TaskExporter(TaskExporter.Format.ICS, Clock.systemDefaultZone());
+        TaskFilter filter = TaskFilter.ALL.withDone(false).withFrom(LocalDateTime.of(2024, 3, 2, 0, 0));
+        assertEquals(1, exporter.export(taskList.getTasks(), filter, file));
+        String ics = Files.readString(file, StandardCharsets.UTF_8);
+        assertTrue(ics.startsWith("BEGIN:VCALENDAR\r\n"));
+        assertTrue(ics.contains("SUMMARY:book club\\; at the library\r\n"));
+        assertTrue(ics.contains("DTSTART:20240305T190000\r\n"));
+        assertFalse(ics.contains("VTODO"));
+        assertTrue(ics.endsWith("END:VCALENDAR\r\n"));
+    }
+
+    @Test
+    public void export_icsTwice_keepsTheSameUids(@TempDir Path dir) throws Exception {
+        TaskList taskList = SampleTasks.createDoneTaskList();
+        taskList.changePriority(Priority.HIGH, 1);
+        Path file = dir.resolve("tasks.ics");
+        TaskExporter exporter = new TaskExporter(TaskExporter.Format.ICS, Clock.systemDefaultZone());
+        exporter.export(taskList.getTasks(), TaskFilter.ALL, file);
+        String first = Files.readString(file);
+        taskList.markTaskAsNotDone(3);
+        exporter.export(taskList.getTasks(), TaskFilter.ALL.withPriority(Priority.MEDIUM), file);
+        String second = Files.readString(file);
+        String uid = second.substring(second.indexOf("UID:"), second.indexOf("@ekud"));
+        assertTrue(first.contains(uid));
+    }
+
+    @Test
+    public void export_icsEditedAndIdenticalTasks_uidsFollowTaskIds(@TempDir Path dir) throws Exception {
+        TaskList taskList = new TaskList();
+        LocalDateTime due = LocalDateTime.of(2024, 6, 3, 23, 59);
+        taskList.addDeadline("submit essay", due);
+        taskList.addDeadline("submit essay", due);
+        Path file = dir.resolve("tasks.ics");
+        TaskExporter exporter = new TaskExporter(TaskExporter.Format.ICS, Clock.systemDefaultZone());
+        exporter.export(taskList.getTasks(), TaskFilter.ALL, file);
+        String first = Files.readString(file);
+        String uid = "UID:task-" + taskList.getTask(0).getId() + "@ekud\r\n";
+        assertEquals(first.indexOf(uid), first.lastIndexOf(uid));
+        assertTrue(first.contains("UID:task-" + taskList.getTask(1).getId() + "@ekud\r\n"));
+        Deadline edited = new Deadline("submit final essay", due, Priority.MEDIUM);
+        edited.setId(taskList.getTask(0).getId());
+        exporter.export(List.of(edited), TaskFilter.ALL, file);
+        assertTrue(Files.readString(file).contains(uid));
+    }
+}
@@ -0,0 +1,157 @@
+package history;
+
+import ekud.Ekud;
+import ekud.exceptions.EkudIOException;
+import ekud.history.EventLog;
+import ekud.history.HistoryEvent;
+import ekud.tasks.TaskList;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EventLogTest {
+    private static class SteppingClock extends Clock {
+        private Instant now = Instant.parse("2024-03-15T10:00:00Z");
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return this.now;
+        }
+    }
+
+    @Test
+    public void loadData_afterUnsavedChanges_recoversFromJournal(@TempDir Path dir) throws Exception {
+        String savePath = dir.resolve("savedTasks.txt").toString();
+        Ekud crashed = new Ekud(savePath);
+        crashed.loadData();
+        crashed.getResponse("todo read book");
+        crashed.getResponse("todo return book");
+        crashed.getResponse("mark 1");
+        crashed.getResponse("delete 2");
+        Ekud restarted = new Ekud(savePath);
+        assertTrue(restarted.loadData().contains("Recovered (4) unsaved change(s)"));
+        String tasks = restarted.getResponse("list");
+        assertTrue(tasks.contains("[X] read book"));
+        assertFalse(tasks.contains("return book"));
+        assertTrue(restarted.getResponse("history").contains("delete 2"));
+    }
+
+    @Test
+    public void reconstruct_pastTime_replaysEventsUntilThen(@TempDir Path dir) throws Exception {
+        SteppingClock clock = new SteppingClock();
+        EventLog log = new EventLog(dir.resolve("history.log").toString(), clock);
+        TaskList taskList = new TaskList();
+        log.snapshot(taskList);
+        clock.now = clock.now.plusSeconds(3600);
+        taskList.addToDo("first");
+        log.record(HistoryEvent.addToDo("first"));
+        log.commit(taskList);
+        clock.now = clock.now.plusSeconds(3600);
+        taskList.addToDo("second");
+        log.record(HistoryEvent.addToDo("second"));
+        log.commit(taskList);
+        log.close();
+
+        assertNull(log.reconstruct(LocalDateTime.of(2024, 3, 15, 9, 0)));
+        assertEquals(0, log.reconstruct(LocalDateTime.of(2024, 3, 15, 10, 30)).getSize());
+        assertEquals(1, log.reconstruct(LocalDateTime.of(2024, 3, 15, 11, 30)).getSize());
+        TaskList recovered = new TaskList();
+        assertEquals(2, new EventLog(dir.resolve("history.log").toString(), clock).recover(recovered));
+        assertEquals(2, recovered.getSize());
+    }
+
+    @Test
+    public void recover_unknownRecordType_failsAndKeepsJournal(@TempDir Path dir) throws Exception {
+        Path journal = dir.resolve("history.log");
+        SteppingClock clock = new SteppingClock();
+        EventLog log = new EventLog(journal.toString(), clock);
+        TaskList taskList = new TaskList();
+        log.snapshot(taskList);
+        taskList.addToDo("first");
+        log.record(HistoryEvent.addToDo("first"));
+        log.commit(taskList);
+        log.close();
+        Files.write(journal, new byte[] {0x3F, 1, 2, 3}, StandardOpenOption.APPEND);
+        long length = Files.size(journal);
+
+        assertThrows(EkudIOException.class, () -> new EventLog(journal.toString(), clock).recover(new TaskList()));
+        assertEquals(length, Files.size(journal));
+    }
+
+    @Test
+    public void recover_compressedSnapshots_restoresTasks(@TempDir Path dir) throws Exception {
+        String journalPath = dir.resolve("history.log").toString();
+        SteppingClock clock = new SteppingClock();
+        EventLog log = new EventLog(journalPath, clock, 9);
+        TaskList taskList = new TaskList();
+        for (int i = 0; i < 100; i++) {
+            taskList.addToDo("compressible task " + i);
+        }
+        taskList.addToDo("deleted task");
+        taskList.removeTask(100);
+        log.snapshot(taskList);
+        taskList.addToDo("after snapshot");
+        log.record(HistoryEvent.addToDo("after snapshot"));
+        log.commit(taskList);
+        log.close();
+
+        TaskList recovered = new TaskList();
+        assertEquals(1, new EventLog(journalPath, clock, 0).recover(recovered));
+        assertEquals(101, recovered.getSize());
+        assertEquals("compressible task 99", recovered.getTask(99).getDescription());
+        // Replaying the add after the snapshot gives the task the ID it was given when it was added
+        assertEquals(taskList.getTask(100).getId(), recovered.getTask(100).getId());
+    }
+
+    @Test
+    public void snapshot_manySaves_journalStaysBounded(@TempDir Path dir) throws Exception {
+        Path journal = dir.resolve("history.log");
+        SteppingClock clock = new SteppingClock();
+        EventLog log = new EventLog(journal.toString(), clock, 0);
+        TaskList taskList = new TaskList();
+        log.snapshot(taskList);
+        long unchangedLength = Files.size(journal);
+        clock.now = clock.now.plusSeconds(60);
+        log.snapshot(taskList);
+        assertEquals(unchangedLength, Files.size(journal));
+
+        for (int i = 0; i < 100; i++) {
+            clock.now = clock.now.plusSeconds(60);
+            taskList.addToDo("task " + i);
+            log.record(HistoryEvent.addToDo("task " + i));
+            log.commit(taskList);
+            log.snapshot(taskList);
+        }
+        log.close();
+        // Compacted down to the last snapshots, so it holds far fewer than the 100 snapshots written
+        assertTrue(Files.size(dir.resolve("history.log.idx")) < 32 * 24);
+        assertNull(log.reconstruct(LocalDateTime.of(2024, 3, 15, 10, 30)));
+        assertEquals(99, log.reconstruct(LocalDateTime.of(2024, 3, 15, 11, 40, 30)).getSize());
+
+        // A stale index, eg left by a crash during compaction, is rebuilt from the journal
+        Files.write(dir.resolve("history.log.idx"), new byte[24 * 3]);
+        TaskList recovered = new TaskList();
+        new EventLog(journal.toString(), clock, 0).recover(recovered);
+        assertEquals(100, recovered.getSize());
+    }
+}
@@ -0,0 +1,187 @@
+package imports;
+
+import ekud.Ekud;
+import ekud.imports.CsvTaskReader;
+import ekud.imports.IcsTaskReader;
+import ekud.imports.TaskImporter;
+import ekud.parser.DateTimeParser;
+import ekud.tasks.Deadline;
+import ekud.tasks.Event;
+import ekud.tasks.Priority;
+import ekud.tasks.Task;
+import ekud.tasks.TaskList;
+import ekud.tasks.TaskListListener;
+import ekud.tasks.ToDo;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TaskImporterTest {
+    @Test
+    public void readTask_quotedCsv_parsesEveryType() throws Exception {
+        String csv = "Description,Type,By,From,To,Priority,Done\r\n"
+                + "\"buy milk, eggs\",,,,,high,x\r\n"
+                + "\"say \"\"hi\"\"\nto Bob\",deadline,2024-06-03T18:30,,,,\r\n"
+                + "\n"
+                + "party,,,3/6/2024 1800,3/6/2024 2200,low,\r\n"
+                + "broken,deadline,someday,,,,\r\n";
+        TaskImporter importer = new TaskImporter(new CsvTaskReader(new StringReader(csv), new DateTimeParser()));
+        TaskList taskList = new TaskList();
+        importer.importInto(taskList, numImported -> { });
+        assertEquals(3, importer.getNumImported());
+        assertEquals(1, importer.getNumSkipped());
+        assertTrue(importer.getFirstSkipReason().startsWith("line 7:"));
+        Task todo = taskList.getTask(0);
+        assertTrue(todo instanceof ToDo);
+        assertEquals("buy milk, eggs", todo.getDescription());
+        assertEquals(Priority.HIGH, todo.getPriorityLevel());
+        assertTrue(todo.isDone());
+        Deadline deadline = (Deadline) taskList.getTask(1);
+        assertEquals("say \"hi\" to Bob", deadline.getDescription());
+        assertEquals(LocalDateTime.of(2024, 6, 3, 18, 30), deadline.getDateTime());
+        Event event = (Event) taskList.getTask(2);
+        assertEquals(LocalDateTime.of(2024, 6, 3, 22, 0), event.getToDateTime());
+        assertEquals(Priority.LOW, event.getPriorityLevel());
+    }
+
+    @Test
+    public void readTask_ics_convertsTodosAndEvents() throws Exception {
+        String ics = "BEGIN:VCALENDAR\r\n"
+                + "BEGIN:VTODO\r\n"
+                + "SUMMARY:file taxes\\, finally\r\n"
+                + "DUE:20240415T235900Z\r\n"
+                + "PRIORITY:1\r\n"
+                + "STATUS:COMPLETED\r\n"
+                + "END:VTODO\r\n"
+                + "BEGIN:VEVENT\r\n"
+                + "SUMMARY:long \r\n"
+                + " meeting\r\n"
+                + "DTSTART;TZID=Asia/Singapore:20240603T090000\r\n"
+                + "DURATION:PT1H30M\r\n"
+                + "BEGIN:VALARM\r\n"
+                + "SUMMARY:ignored\r\n"
+                + "END:VALARM\r\n"
+                + "END:VEVENT\r\n"
+                + "BEGIN:VEVENT\r\n"
+                + "SUMMARY:holiday\r\n"
+                + "DTSTART;VALUE=DATE:20240610\r\n"
+                + "END:VEVENT\r\n"
+                + "BEGIN:VTODO\r\n"
+                + "SUMMARY:someday\r\n"
+                + "END:VTODO\r\n"
+                + "END:VCALENDAR\r\n";
+        TaskImporter importer = new TaskImporter(new IcsTaskReader(new StringReader(ics), ZoneOffset.UTC));
+        TaskList taskList = new TaskList();
+        importer.importInto(taskList, numImported -> { });
+        assertEquals(4, importer.getNumImported());
+        assertEquals(0, importer.getNumSkipped());
+        Deadline deadline = (Deadline) taskList.getTask(0);
+        assertEquals("file taxes, finally", deadline.getDescription());
+        assertEquals(LocalDateTime.of(2024, 4, 15, 23, 59), deadline.getDateTime());
+        assertEquals(Priority.HIGH, deadline.getPriorityLevel());
+        assertTrue(deadline.isDone());
+        Event meeting = (Event) taskList.getTask(1);
+        assertEquals("long meeting", meeting.getDescription());
+        assertEquals(LocalDateTime.of(2024, 6, 3, 1, 0), meeting.getFromDateTime());
+        assertEquals(LocalDateTime.of(2024, 6, 3, 2, 30), meeting.getToDateTime());
+        Event holiday = (Event) taskList.getTask(2);
+        assertEquals(LocalDateTime.of(2024, 6, 11, 0, 0), holiday.getToDateTime());
+        assertTrue(taskList.getTask(3) instanceof ToDo);
+    }
+
+    @Test
+    public void readTask_icsOverlongLine_stopsWithReadError() throws Exception {
+        String ics = "BEGIN:VCALENDAR\r\n"
+                + "BEGIN:VTODO\r\n"
+                + "SUMMARY:" + "x".repeat(1 << 17) + "\r\n"
+                + "END:VTODO\r\n"
+                + "END:VCALENDAR\r\n";
+        TaskImporter importer = new TaskImporter(new IcsTaskReader(new StringReader(ics), ZoneOffset.UTC));
+        TaskList taskList = new TaskList();
+        importer.importInto(taskList, numImported -> { });
+        assertEquals(0, importer.getNumImported());
+        assertEquals("line 3 is too long", importer.getReadError().getMessage());
+        assertThrows(IOException.class, () -> new IcsTaskReader(new StringReader("x".repeat(1 << 17)), ZoneOffset.UTC));
+    }
+
+    @Test
+    public void readTask_icsManyCategories_capsTags() throws Exception {
+        StringBuilder ics = new StringBuilder("BEGIN:VCALENDAR\r\nBEGIN:VTODO\r\nSUMMARY:sort\r\n");
+        for (int i = 0; i < 100; i++) {
+            ics.append("CATEGORIES:a").append(i).append(",b").append(i).append("\r\n");
+        }
+        ics.append("END:VTODO\r\nEND:VCALENDAR\r\n");
+        TaskImporter importer = new TaskImporter(
+                new IcsTaskReader(new StringReader(ics.toString()), ZoneOffset.UTC));
+        TaskList taskList = new TaskList();
+        importer.importInto(taskList, numImported -> { });
+        assertEquals(64, taskList.getTask(0).getTags().size());
+    }
+
+    @Test
+    public void importInto_manyRows_notifiesListenersOncePerBatch() throws Exception {
+        int numRows = 2 * TaskImporter.BATCH_SIZE + 1;
+        StringBuilder csv = new StringBuilder("description\n");
+        for (int i = 0; i < numRows; i++) {
+            csv.append("task ").append(i).append('\n');
+        }
+        TaskList taskList = new TaskList();
+        List<Integer> addedSizes = new ArrayList<>();
+        taskList.addListener(new TaskListListener() {
+            @Override
+            public void onTasksAdded(int fromIndex, List<Task> tasks) {
+                addedSizes.add(tasks.size());
+            }
+
+            @Override
+            public void onTaskRemoved(int index, Task task) {
+            }
+
+            @Override
+            public void onTaskUpdated(int index, Task task) {
+            }
+
+            @Override
+            public void onTasksReset(List<Task> tasks) {
+            }
+        });
+        TaskImporter importer = new TaskImporter(
+                new CsvTaskReader(new StringReader(csv.toString()), new DateTimeParser()));
+        importer.importInto(taskList, numImported -> { });
+        assertEquals(numRows, taskList.getSize());
+        assertEquals(List.of(TaskImporter.BATCH_SIZE, TaskImporter.BATCH_SIZE, 1), addedSizes);
+        assertEquals("task 2000", taskList.getTask(numRows - 1).getDescription());
+    }
+
+    @Test
+    public void importCommand_afterRestart_recoversImportedTasks(@TempDir Path dir) throws Exception {
+        Path csv = dir.resolve("backlog.csv");
+        Files.writeString(csv, "description,by\nwrite report,3/6/2024 1800\nread book,\n");
+        String savePath = dir.resolve("savedTasks.txt").toString();
+        Ekud crashed = new Ekud(savePath);
+        crashed.loadData();
+        String response = crashed.getResponse("import " + csv);
+        assertTrue(response.startsWith("Imported 2 task(s)"));
+        assertTrue(crashed.getResponse("history").contains("import " + csv));
+        Ekud restarted = new Ekud(savePath);
+        restarted.loadData();
+        assertEquals(2, restarted.getTaskCount());
+    }
+
+    @Test
+    public void importCommand_unsupportedFile_returnsError() {
+        Ekud ekud = new Ekud();
+        assertTrue(ekud.getResponse("import tasks.txt").contains("Only .csv and .ics files can be imported"));
+        assertTrue(ekud.getResponse("import missing.csv").contains("not found"));
+    }
+}
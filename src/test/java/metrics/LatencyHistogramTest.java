@@ -0,0 +1,34 @@
+package metrics;
+
+import ekud.metrics.LatencyHistogram;
+import ekud.metrics.LatencySummary;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LatencyHistogramTest {
+    @Test
+    public void summarize_uniformValues_percentilesWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 10_000; value++) {
+            histogram.record(value * 1000);
+        }
+        LatencySummary summary = histogram.summarize();
+        assertEquals(10_000, summary.getCount());
+        assertEquals(10_000_000, summary.getMaxNanos());
+        assertEquals(5_000_000, summary.getP50Nanos(), 5_000_000 * 0.125);
+        assertEquals(9_900_000, summary.getP99Nanos(), 9_900_000 * 0.125);
+        assertTrue(summary.getP50Nanos() >= 5_000_000);
+    }
+
+    @Test
+    public void reset_afterRecording_clearsCounts() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+        histogram.record(42);
+        assertEquals(2, histogram.summarize().getCount());
+        histogram.reset();
+        assertEquals(0, histogram.summarize().getCount());
+        assertEquals(0, histogram.summarize().getP99Nanos());
+    }
+}
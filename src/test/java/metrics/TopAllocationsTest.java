@@ -0,0 +1,35 @@
+package metrics;
+
+import ekud.metrics.TopAllocations;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TopAllocationsTest {
+    @Test
+    public void record_moreThanLimit_keepsHeaviestFirst() {
+        TopAllocations top = new TopAllocations(2, 1000);
+        top.record("todo", 1, 100, 0);
+        top.record("list", 0, 500, 1);
+        top.record("find", 4, 300, 2);
+        top.record("mark", 1, 50, 3);
+        List<TopAllocations.Entry> entries = top.getEntries();
+        assertEquals(2, entries.size());
+        assertEquals("list", entries.get(0).getCommand());
+        assertEquals("find (4 chars)", entries.get(1).describe());
+    }
+
+    @Test
+    public void record_afterTwoPeriods_forgetsOldCommands() {
+        TopAllocations top = new TopAllocations(2, 1000);
+        top.record("list", 0, 500, 0);
+        top.record("todo", 1, 10, 1500);
+        assertEquals(2, top.getEntries().size());
+        top.record("todo", 2, 20, 2600);
+        List<TopAllocations.Entry> entries = top.getEntries();
+        assertEquals(2, entries.size());
+        assertEquals(2, entries.get(0).getArgsLength());
+    }
+}
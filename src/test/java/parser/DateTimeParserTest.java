@@ -0,0 +1,52 @@
+package parser;
+
+import ekud.parser.DateTimeParser;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DateTimeParserTest {
+    private final DateTimeParser parser = new DateTimeParser(
+            Clock.fixed(Instant.parse("2024-03-15T10:00:00Z"), ZoneOffset.UTC));
+
+    @Test
+    public void parse_shortFormat_usesClockYear() {
+        assertEquals(LocalDateTime.of(2024, 6, 3, 18, 30), parser.parse("3 Jun 1830"));
+    }
+    @Test
+    public void parse_slashFormat_success() {
+        assertEquals(LocalDateTime.of(2025, 1, 20, 9, 5), parser.parse("20/1/2025 0905"));
+    }
+    @Test
+    public void parse_isoFormats_success() {
+        assertEquals(LocalDateTime.of(2025, 1, 20, 9, 5), parser.parse("2025-01-20T09:05"));
+        assertEquals(LocalDateTime.of(2025, 1, 20, 9, 5), parser.parse("2025-01-20 09:05"));
+        assertEquals(LocalDateTime.of(2025, 1, 20, 9, 5), parser.parse("2025-01-20T09:05:30"));
+    }
+    @Test
+    public void parse_savedFormat_success() {
+        assertEquals(LocalDateTime.of(2023, 10, 1, 17, 0), parser.parse("01 Oct 2023 5:00 PM"));
+        assertEquals(LocalDateTime.of(2023, 10, 1, 0, 15), parser.parse("01 Oct 2023 12:15 AM"));
+        assertEquals(LocalDateTime.of(2023, 10, 1, 12, 15), parser.parse("01 Oct 2023 12:15 PM"));
+    }
+    @Test
+    public void parse_invalidValues_returnsNull() {
+        assertNull(parser.parse("31 Feb 1200"));
+        assertNull(parser.parse("3 Jun 2460"));
+        assertNull(parser.parse("2025-13-01 10:00"));
+        assertNull(parser.parse("10/08/23 5.30pm"));
+        assertNull(parser.parse(""));
+    }
+    @Test
+    public void parse_repeatedLayout_keepsParsingAfterReorder() {
+        for (int i = 0; i < 200; i++) {
+            assertEquals(LocalDateTime.of(2025, 1, 20, 9, 5), parser.parse("20/1/2025 0905"));
+        }
+        assertEquals(LocalDateTime.of(2024, 6, 3, 18, 30), parser.parse("3 Jun 1830"));
+    }
+}
@@ -7,6 +7,7 @@ import ekud.tasks.TaskList;
 import org.junit.jupiter.api.Test;
 
 import java.time.LocalDateTime;
+import java.time.Year;
 import java.time.format.DateTimeParseException;
 import java.util.Arrays;
 
@@ -27,7 +28,7 @@ public class ParserTest {
     @Test
     public void parseUserDateTime_correctFormat_success() {
         Parser parser = new Parser();
-        LocalDateTime expectedOutput = LocalDateTime.of(2023, 8, 10, 17, 30);
+        LocalDateTime expectedOutput = LocalDateTime.of(Year.now().getValue(), 8, 10, 17, 30);
         LocalDateTime actualOutput = parser.parseDateTime("10 Aug 1730");
         assertEquals(true, expectedOutput.isEqual(actualOutput));
     }
@@ -47,6 +48,12 @@ public class ParserTest {
         assertEquals(true, expectedOutput.isEqual(actualOutput));
     }
     @Test
+    public void parseSavedDateTime_userLayout_returnsNull() {
+        Parser parser = new Parser();
+        assertNull(parser.parseSavedDateTime("tomorrow"));
+        assertNull(parser.parseSavedDateTime("1 Oct 1700"));
+    }
+    @Test
     public void parseAndExecute_invalidCommand_throwsEkudException() {
         assertThrows(EkudException.class,
                 () -> {
@@ -75,4 +82,20 @@ public class ParserTest {
                     parser.parseAndExecute(taskList, "mark", "2");
                 });
     }
-}
\ No newline at end of file
+    @Test
+    public void parseAndExecute_onlyTagsAsDescription_throwsEkudIllegalArgException() {
+        Parser parser = new Parser();
+        TaskList taskList = new TaskList();
+        assertThrows(EkudIllegalArgException.class, () -> parser.parseAndExecute(taskList, "todo", "#work"));
+        assertThrows(EkudIllegalArgException.class,
+                () -> parser.parseAndExecute(taskList, "deadline", " #work #home /by 10 Aug 1730"));
+        assertThrows(EkudIllegalArgException.class,
+                () -> parser.parseAndExecute(taskList, "event", "#trip /from 10 Aug 1730 /to 11 Aug 1730"));
+        assertEquals(0, taskList.getSize());
+    }
+    @Test
+    public void splitCommands_mixedSeparators_dropsBlankCommands() {
+        Parser parser = new Parser();
+        assertEquals(Arrays.asList("todo a", "todo b", "list"), parser.splitCommands("todo a; todo b\n\n list;"));
+    }
+}
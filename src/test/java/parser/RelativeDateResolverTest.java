@@ -0,0 +1,84 @@
+package parser;
+
+import ekud.parser.RelativeDateResolver;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RelativeDateResolverTest {
+    // Friday 15 Mar 2024, 10:00
+    private final RelativeDateResolver resolver = new RelativeDateResolver(
+            Clock.fixed(Instant.parse("2024-03-15T10:00:00Z"), ZoneOffset.UTC));
+
+    @Test
+    public void resolve_dayWithTime_success() {
+        assertEquals(LocalDateTime.of(2024, 3, 16, 17, 0), resolver.resolve("tomorrow 5pm"));
+        assertEquals(LocalDateTime.of(2024, 3, 16, 17, 30), resolver.resolve("Tomorrow 5:30 PM"));
+        assertEquals(LocalDateTime.of(2024, 3, 15, 23, 59), resolver.resolve("eod"));
+    }
+    @Test
+    public void resolve_weekday_nextOccurrence() {
+        assertEquals(LocalDateTime.of(2024, 3, 18, 23, 59), resolver.resolve("next mon"));
+        assertEquals(LocalDateTime.of(2024, 3, 22, 9, 0), resolver.resolve("fri 0900"));
+        assertEquals(LocalDateTime.of(2024, 3, 21, 23, 59), resolver.resolve("next Thursday"));
+        assertEquals(LocalDateTime.of(2024, 3, 19, 23, 59), resolver.resolve("tues"));
+    }
+    @Test
+    public void resolve_offsets_success() {
+        assertEquals(LocalDateTime.of(2024, 3, 18, 23, 59), resolver.resolve("in 3 days"));
+        assertEquals(LocalDateTime.of(2024, 3, 15, 12, 0), resolver.resolve("in 2 hours"));
+        assertEquals(LocalDateTime.of(2024, 3, 29, 8, 0), resolver.resolve("in 2 weeks 8am"));
+    }
+    @Test
+    public void resolve_bareTime_nextOccurrence() {
+        assertEquals(LocalDateTime.of(2024, 3, 15, 14, 0), resolver.resolve("2pm"));
+        assertEquals(LocalDateTime.of(2024, 3, 16, 9, 0), resolver.resolve("9am"));
+    }
+    @Test
+    public void resolve_bareTimeOnceItHasPassed_movesToTomorrow() {
+        Instant[] now = {Instant.parse("2024-03-15T10:00:00Z")};
+        Clock clock = new Clock() {
+            @Override
+            public ZoneId getZone() {
+                return ZoneOffset.UTC;
+            }
+
+            @Override
+            public Clock withZone(ZoneId zone) {
+                return this;
+            }
+
+            @Override
+            public Instant instant() {
+                return now[0];
+            }
+        };
+        RelativeDateResolver movingResolver = new RelativeDateResolver(clock);
+        assertEquals(LocalDateTime.of(2024, 3, 15, 14, 0), movingResolver.resolve("2pm"));
+        now[0] = Instant.parse("2024-03-15T15:00:00Z");
+        assertEquals(LocalDateTime.of(2024, 3, 16, 14, 0), movingResolver.resolve("2pm"));
+    }
+    @Test
+    public void resolve_repeatedExpression_returnsCachedResult() {
+        LocalDateTime first = resolver.resolve("next mon 9am");
+        assertSame(first, resolver.resolve("next mon 9am"));
+    }
+    @Test
+    public void resolve_invalidExpressions_returnsNull() {
+        assertNull(resolver.resolve("someday"));
+        assertNull(resolver.resolve("tomorrow today"));
+        assertNull(resolver.resolve("13pm"));
+        assertNull(resolver.resolve("in x days"));
+        // Only day names and their abbreviations are days
+        assertNull(resolver.resolve("next month"));
+        assertNull(resolver.resolve("monkey 5pm"));
+        assertNull(resolver.resolve("satisfy"));
+        assertNull(resolver.resolve(""));
+    }
+}
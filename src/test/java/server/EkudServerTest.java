@@ -0,0 +1,52 @@
+package server;
+
+import ekud.server.EkudServer;
+import ekud.server.LineProtocol;
+import ekud.server.SessionManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EkudServerTest {
+    @Test
+    public void serve_commandsOverSocket_respondsAndSavesPerUser(@TempDir Path dataDir) throws Exception {
+        EkudServer server = new EkudServer(new SessionManager(dataDir.toString(), 10, 1000), 0);
+        Thread serveThread = new Thread(() -> {
+            try {
+                server.serve();
+            } catch (Exception e) {
+                // Reported by the assertions below failing
+            }
+        });
+        serveThread.start();
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+            BufferedReader in = new BufferedReader(
+                    new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            Writer out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8);
+            out.write("login alice\ntodo buy bread\nlist\n");
+            out.flush();
+            assertEquals("Logged in as 'alice' :)", LineProtocol.readResponse(in));
+            assertTrue(LineProtocol.readResponse(in).contains("buy bread"));
+            assertTrue(LineProtocol.readResponse(in).contains("1. #1 [T][ ] buy bread"));
+            out.write("quit\n");
+            out.flush();
+            assertNull(LineProtocol.readResponse(in));
+        } finally {
+            server.close();
+            serveThread.join(5000);
+        }
+        assertFalse(serveThread.isAlive());
+        assertTrue(Files.readString(dataDir.resolve("users/alice/savedTasks.txt")).contains("buy bread"));
+    }
+}
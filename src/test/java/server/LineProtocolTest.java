@@ -0,0 +1,38 @@
+package server;
+
+import ekud.server.LineProtocol;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LineProtocolTest {
+    @Test
+    public void writeResponse_linesStartingWithDot_readBackUnchanged() throws Exception {
+        String[] responses = {"Got it. Added:\n  [T][ ] buy bread", ".", "..hidden\n\nlast line", ""};
+        StringWriter out = new StringWriter();
+        for (String response : responses) {
+            LineProtocol.writeResponse(out, response);
+        }
+        assertTrue(out.toString().startsWith("Got it. Added:\n  [T][ ] buy bread\n.\n..\n.\n...hidden\n"));
+
+        BufferedReader in = new BufferedReader(new StringReader(out.toString()));
+        for (String response : responses) {
+            assertEquals(response, LineProtocol.readResponse(in));
+        }
+        assertNull(LineProtocol.readResponse(in));
+    }
+
+    @Test
+    public void readRequest_lineOverLimit_throws() throws Exception {
+        BufferedReader in = new BufferedReader(new StringReader("list\r\ntodo x\n" + "a".repeat(11) + "\n"));
+        assertEquals("list", LineProtocol.readRequest(in, 10));
+        assertEquals("todo x", LineProtocol.readRequest(in, 10));
+        assertThrows(IOException.class, () -> LineProtocol.readRequest(in, 10));
+        assertNull(LineProtocol.readRequest(new BufferedReader(new StringReader("")), 10));
+    }
+}
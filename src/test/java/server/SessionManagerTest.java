@@ -0,0 +1,73 @@
+package server;
+
+import ekud.exceptions.EkudIOException;
+import ekud.exceptions.EkudIllegalArgException;
+import ekud.server.Session;
+import ekud.server.SessionManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SessionManagerTest {
+    private String execute(SessionManager manager, String userId, String input) throws Exception {
+        Session session = manager.acquire(userId);
+        try {
+            return session.execute(input);
+        } finally {
+            manager.release(session);
+        }
+    }
+
+    @Test
+    public void release_overSessionBudget_evictsAndReloadsLeastRecentlyUsed(@TempDir Path dataDir) throws Exception {
+        SessionManager manager = new SessionManager(dataDir.toString(), 2, 1000);
+        execute(manager, "alice", "todo alice task");
+        execute(manager, "bob", "todo bob task");
+        execute(manager, "carol", "todo carol task");
+        assertEquals(2, manager.getLoadedSessionCount());
+        assertTrue(Files.readString(dataDir.resolve("users/alice/savedTasks.txt")).contains("alice task"));
+        assertTrue(execute(manager, "alice", "list").contains("alice task"));
+        assertFalse(execute(manager, "bob", "list").contains("alice task"));
+    }
+    @Test
+    public void release_overTaskBudget_evictsIdleSessions(@TempDir Path dataDir) throws Exception {
+        SessionManager manager = new SessionManager(dataDir.toString(), 10, 2);
+        execute(manager, "alice", "todo a; todo b");
+        execute(manager, "bob", "todo c");
+        assertEquals(1, manager.getLoadedSessionCount());
+    }
+    @Test
+    public void acquire_unreadableSavedTasks_throwsAndKeepsFile(@TempDir Path dataDir) throws Exception {
+        Path savedTasks = dataDir.resolve("users/alice/savedTasks.txt");
+        Files.createDirectories(savedTasks.getParent());
+        Files.writeString(savedTasks, "not a task\n");
+        SessionManager manager = new SessionManager(dataDir.toString(), 10, 1000);
+        assertThrows(EkudIOException.class, () -> manager.acquire("alice"));
+        assertEquals(0, manager.getLoadedSessionCount());
+        manager.saveAll();
+        assertEquals("not a task\n", Files.readString(savedTasks));
+        execute(manager, SessionManager.DEFAULT_USER, "todo default task");
+        manager.saveAll();
+        assertTrue(Files.readString(dataDir.resolve("savedTasks.txt")).contains("default task"));
+    }
+    @Test
+    public void execute_exportOutsideFilesDirectory_rejected(@TempDir Path dataDir) throws Exception {
+        SessionManager manager = new SessionManager(dataDir.toString(), 10, 1000);
+        execute(manager, "bob", "todo bob secret");
+        manager.saveAll();
+        assertTrue(execute(manager, "alice", "import ../../bob/savedTasks.csv").contains("outside your files"));
+        assertTrue(execute(manager, "alice", "export csv ../../bob/savedTasks.txt").contains("outside your files"));
+        assertTrue(execute(manager, "alice", "export csv out.csv").startsWith("Exported 0 of your 0 task(s)"));
+        assertTrue(Files.exists(dataDir.resolve("users/alice/files/out.csv")));
+        assertTrue(Files.readString(dataDir.resolve("users/bob/savedTasks.txt")).contains("bob secret"));
+    }
+    @Test
+    public void acquire_invalidUserId_throwsEkudIllegalArgException() {
+        assertThrows(EkudIllegalArgException.class,
+            () -> new SessionManager("data", 1, 1).acquire("../escape"));
+    }
+}
@@ -0,0 +1,179 @@
+package storage;
+
+import ekud.parser.DateTimeParser;
+import ekud.parser.Parser;
+import ekud.storage.Archive;
+import ekud.storage.ArchivePolicy;
+import ekud.tasks.Task;
+import ekud.tasks.TaskList;
+import tasks.SampleTasks;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ArchiveTest {
+    @Test
+    public void find_afterReopening_matchesSubstringsLikeFind(@TempDir Path dir) throws Exception {
+        File dataFile = dir.resolve("archive.txt").toFile();
+        File indexFile = dir.resolve("archive.idx").toFile();
+        File termsFile = dir.resolve("archive.terms").toFile();
+        TaskList taskList = SampleTasks.createDoneTaskList();
+        assertEquals(5, new Archive(dataFile, indexFile, termsFile).append(taskList.getTasks()).size());
+
+        Archive archive = new Archive(dataFile, indexFile, termsFile);
+        List<Task> found = archive.find("book");
+        assertEquals(4, found.size());
+        assertEquals("return library book", found.get(0).getDescription());
+        assertEquals(taskList.getTask(1).getId(), found.get(0).getId());
+        assertTrue(found.get(0).isDone());
+        assertEquals(1, archive.find("Note").size());
+        assertEquals(0, archive.find("note").size());
+        // Tasks already archived are not appended again, but still count as archived
+        assertEquals(2, archive.append(taskList.getTasks().subList(0, 2)).size());
+        assertEquals(5, archive.getSize());
+    }
+
+    @Test
+    public void append_idOfAnotherArchivedTask_leavesTaskOut(@TempDir Path dir) throws Exception {
+        File dataFile = dir.resolve("archive.txt").toFile();
+        File indexFile = dir.resolve("archive.idx").toFile();
+        File termsFile = dir.resolve("archive.terms").toFile();
+        TaskList taskList = SampleTasks.createDoneTaskList();
+        new Archive(dataFile, indexFile, termsFile).append(taskList.getTasks());
+
+        // A fresh task list hands out the archived IDs again, until it reserves them
+        TaskList reused = new TaskList();
+        reused.addToDo("water plants");
+        Archive archive = new Archive(dataFile, indexFile, termsFile);
+        assertEquals(List.of(), archive.append(reused.getTasks()));
+        assertEquals(0, archive.find("plants").size());
+        reused.reserveIds(archive.getNextId());
+        reused.addToDo("feed cat");
+        assertEquals(List.of(reused.getTask(1)), archive.append(reused.getTasks()));
+        Archive reopened = new Archive(dataFile, indexFile, termsFile);
+        assertEquals(6, reopened.getSize());
+        assertEquals(1, reopened.find("cat").size());
+    }
+
+    @Test
+    public void find_indexMissing_rebuildsIt(@TempDir Path dir) throws Exception {
+        File dataFile = dir.resolve("archive.txt").toFile();
+        File indexFile = dir.resolve("archive.idx").toFile();
+        File termsFile = dir.resolve("archive.terms").toFile();
+        new Archive(dataFile, indexFile, termsFile).append(SampleTasks.createDoneTaskList().getTasks());
+        Files.delete(indexFile.toPath());
+        Files.writeString(dataFile.toPath(), "#99 | T | X | partly writ", StandardOpenOption.APPEND);
+
+        Archive archive = new Archive(dataFile, indexFile, termsFile);
+        assertEquals(5, archive.getSize());
+        assertEquals(4, archive.find("ook").size());
+        assertTrue(indexFile.exists());
+        // The partly written last task is dropped
+        assertFalse(Files.readString(dataFile.toPath()).contains("partly"));
+    }
+
+    @Test
+    public void append_afterMalformedRecord_skipsIt(@TempDir Path dir) throws Exception {
+        File dataFile = dir.resolve("archive.txt").toFile();
+        File indexFile = dir.resolve("archive.idx").toFile();
+        File termsFile = dir.resolve("archive.terms").toFile();
+        new Archive(dataFile, indexFile, termsFile).append(SampleTasks.createDoneTaskList().getTasks());
+        Files.writeString(dataFile.toPath(), "#42 | Q | book keeping\n", StandardOpenOption.APPEND);
+
+        Archive archive = new Archive(dataFile, indexFile, termsFile);
+        assertEquals(5, archive.getSize());
+        assertEquals(6, archive.getNextId());
+        assertEquals(4, archive.find("book").size());
+        assertEquals(0, archive.find("|").size());
+        TaskList taskList = new TaskList();
+        taskList.reserveIds(archive.getNextId());
+        taskList.addToDo("book dentist");
+        assertEquals(1, archive.append(taskList.getTasks()).size());
+        Archive reopened = new Archive(dataFile, indexFile, termsFile);
+        assertEquals(5, reopened.find("book").size());
+        // The malformed record is kept for mending by hand
+        assertTrue(Files.readString(dataFile.toPath()).contains("book keeping"));
+    }
+
+    @Test
+    public void archiveCommand_injectedClock_selectsTasksByIt(@TempDir Path dir) throws Exception {
+        Archive archive = new Archive(dir.resolve("archive.txt").toFile(), dir.resolve("archive.idx").toFile(),
+                dir.resolve("archive.terms").toFile());
+        Clock clock = Clock.fixed(Instant.parse("2024-01-05T00:00:00Z"), ZoneOffset.UTC);
+        Parser parser = new Parser(new DateTimeParser(clock), null, archive);
+        TaskList taskList = SampleTasks.createDoneTaskList();
+        // On 5 Jan 2024, none of the deadlines or events is more than 30 days past
+        assertEquals(0, parser.archiveDoneTasks(taskList));
+        assertEquals(5, taskList.getSize());
+        clock = Clock.fixed(Instant.parse("2024-03-20T00:00:00Z"), ZoneOffset.UTC);
+        parser = new Parser(new DateTimeParser(clock), null, archive);
+        assertEquals(1, parser.archiveDoneTasks(taskList));
+        assertEquals("return library book", archive.find("book").get(0).getDescription());
+    }
+
+    @Test
+    public void find_manyTasks_mergesThemIntoTheTermsFile(@TempDir Path dir) throws Exception {
+        File dataFile = dir.resolve("archive.txt").toFile();
+        File indexFile = dir.resolve("archive.idx").toFile();
+        File termsFile = dir.resolve("archive.terms").toFile();
+        Archive archive = new Archive(dataFile, indexFile, termsFile);
+        for (int batch = 0; batch < 3; batch++) {
+            TaskList taskList = new TaskList();
+            taskList.reserveIds(archive.getNextId());
+            for (int i = 0; i < 1000; i++) {
+                taskList.addToDo(String.format("chore %d of batch%d", i, batch));
+            }
+            assertEquals(1000, archive.append(taskList.getTasks()).size());
+        }
+        assertTrue(termsFile.exists());
+
+        Archive reopened = new Archive(dataFile, indexFile, termsFile);
+        assertEquals(3000, reopened.getSize());
+        assertEquals(3001, reopened.getNextId());
+        assertEquals(1000, reopened.find("batch1").size());
+        List<Task> found = reopened.find("999 of batch2");
+        assertEquals(1, found.size());
+        assertEquals(3000, found.get(0).getId());
+        // Tasks in the terms file and in the unsorted entries are both matched, in the order they were archived
+        List<Task> chores = reopened.find("chore 12");
+        assertEquals(33, chores.size());
+        assertEquals("chore 12 of batch0", chores.get(0).getDescription());
+        assertEquals("chore 129 of batch2", chores.get(32).getDescription());
+        TaskList again = new TaskList();
+        again.addToDo("chore 0 of batch0");
+        assertEquals(again.getTasks(), reopened.append(again.getTasks()));
+        assertEquals(3000, reopened.getSize());
+        TaskList last = new TaskList();
+        last.reserveIds(reopened.getNextId());
+        for (int i = 0; i < 200; i++) {
+            last.addToDo("chore " + i + " of batch3");
+        }
+        reopened.append(last.getTasks());
+        Archive merged = new Archive(dataFile, indexFile, termsFile);
+        assertEquals(44, merged.find("chore 12").size());
+        assertEquals(1, merged.find("chore 199 of batch3").size());
+        assertEquals(3201, merged.getNextId());
+    }
+
+    @Test
+    public void selectTasks_oldAndBeyondCap_selectsOldestDoneTasks() {
+        TaskList taskList = SampleTasks.createDoneTaskList();
+        taskList.markTaskAsNotDone(2);
+        LocalDateTime now = LocalDateTime.of(2024, 3, 20, 12, 0);
+        // Only the deadline of 10 Jan is more than 30 days old, and the cap then archives the first to-do
+        assertEquals(List.of(0, 1), new ArchivePolicy(30, 2).selectTasks(taskList.getTasks(), now));
+        assertEquals(List.of(), new ArchivePolicy(ArchivePolicy.NEVER, ArchivePolicy.NEVER)
+                .selectTasks(taskList.getTasks(), now));
+    }
+}
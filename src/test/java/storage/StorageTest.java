@@ -0,0 +1,51 @@
+package storage;
+
+import ekud.storage.Storage;
+import ekud.tasks.Priority;
+import ekud.tasks.TaskList;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StorageTest {
+    @Test
+    public void saveData_compressed_isSmallerAndLoadsBack(@TempDir Path dir) throws Exception {
+        TaskList taskList = new TaskList();
+        for (int i = 0; i < 1000; i++) {
+            taskList.addDeadline("task " + i, LocalDateTime.of(2024, 6, 3, 18, 30).plusDays(i));
+        }
+        taskList.markTaskAsDone(0);
+        taskList.changePriority(Priority.HIGH, 1);
+        taskList.removeTask(999); // Its ID should not be given to the next task after loading
+        Path plainPath = dir.resolve("plain.txt");
+        Path compressedPath = dir.resolve("compressed.txt");
+        new Storage(plainPath.toString(), 0).saveData(taskList);
+        new Storage(compressedPath.toString(), 6).saveData(taskList);
+        assertTrue(Files.size(compressedPath) * 4 < Files.size(plainPath));
+
+        // Either file loads whatever the level of the Storage reading it, as the format is detected
+        for (Path path : new Path[]{plainPath, compressedPath}) {
+            TaskList loaded = new TaskList();
+            new Storage(path.toString(), 1).loadData(loaded);
+            assertEquals(taskList.getSize(), loaded.getSize());
+            for (int i = 0; i < taskList.getSize(); i++) {
+                assertEquals(taskList.getSaveTaskFormat(i), loaded.getSaveTaskFormat(i));
+                assertEquals(taskList.getTask(i).getId(), loaded.getTask(i).getId());
+            }
+            assertEquals(taskList.getNextId(), loaded.getNextId());
+        }
+    }
+
+    @Test
+    public void loadData_emptyFile_loadsNoTasks(@TempDir Path dir) throws Exception {
+        Path path = dir.resolve("savedTasks.txt");
+        TaskList loaded = new TaskList();
+        assertTrue(new Storage(path.toString(), 9).loadData(loaded).contains("No previous tasks saved"));
+        assertEquals(0, loaded.getSize());
+    }
+}
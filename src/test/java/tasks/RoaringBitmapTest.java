@@ -0,0 +1,81 @@
+package tasks;
+
+import ekud.tasks.RoaringBitmap;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RoaringBitmapTest {
+    @Test
+    public void addAndRemove_randomOperations_matchBitSet() {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        BitSet expected = new BitSet();
+        Random random = new Random(11);
+        for (int i = 0; i < 50000; i++) {
+            // Values crowd the first chunk so that it turns into a bitmap container and back
+            int value = random.nextBoolean() ? random.nextInt(8000) : random.nextInt(300000);
+            if (random.nextInt(3) > 0) {
+                bitmap.add(value);
+                expected.set(value);
+            } else {
+                bitmap.remove(value);
+                expected.clear(value);
+            }
+        }
+        assertEquals(expected.cardinality(), bitmap.getCardinality());
+        assertEquals(toList(expected), toList(bitmap));
+        for (int value = 0; value < 300000; value += 7) {
+            assertEquals(expected.get(value), bitmap.contains(value));
+        }
+    }
+
+    @Test
+    public void setOperations_sparseAndDenseChunks_matchBitSet() {
+        Random random = new Random(3);
+        RoaringBitmap first = new RoaringBitmap();
+        RoaringBitmap second = new RoaringBitmap();
+        BitSet firstExpected = new BitSet();
+        BitSet secondExpected = new BitSet();
+        for (int i = 0; i < 20000; i++) {
+            int dense = random.nextInt(10000);
+            int sparse = 65536 + random.nextInt(200000);
+            first.add(dense);
+            firstExpected.set(dense);
+            second.add(sparse);
+            secondExpected.set(sparse);
+            if (i % 4 == 0) {
+                second.add(dense);
+                secondExpected.set(dense);
+                first.add(sparse);
+                firstExpected.set(sparse);
+            }
+        }
+        BitSet and = (BitSet) firstExpected.clone();
+        and.and(secondExpected);
+        BitSet or = (BitSet) firstExpected.clone();
+        or.or(secondExpected);
+        BitSet andNot = (BitSet) firstExpected.clone();
+        andNot.andNot(secondExpected);
+        assertEquals(toList(and), toList(first.and(second)));
+        assertEquals(toList(or), toList(first.or(second)));
+        assertEquals(toList(andNot), toList(first.andNot(second)));
+        assertEquals(toList(firstExpected), toList(first));
+    }
+
+    private static List<Integer> toList(BitSet bits) {
+        List<Integer> values = new ArrayList<>();
+        bits.stream().forEach(values::add);
+        return values;
+    }
+
+    private static List<Integer> toList(RoaringBitmap bitmap) {
+        List<Integer> values = new ArrayList<>();
+        bitmap.forEach(values::add);
+        return values;
+    }
+}
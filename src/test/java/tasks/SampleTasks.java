@@ -0,0 +1,33 @@
+package tasks;
+
+import ekud.tasks.TaskList;
+
+import java.time.LocalDateTime;
+
+/**
+ * Builds the task list shared by the tests of features which read every kind of task, eg archiving and exporting.
+ */
+public final class SampleTasks {
+    private SampleTasks() {
+    }
+
+    /**
+     * Returns a task list holding two to-dos, two deadlines and an event, all done, whose descriptions
+     * have characters which CSV and iCalendar files quote or escape.
+     *
+     * @return TaskList
+     */
+    public static TaskList createDoneTaskList() {
+        TaskList taskList = new TaskList();
+        taskList.addToDo("buy milk, \"fresh\"");
+        taskList.addDeadline("return library book", LocalDateTime.of(2024, 1, 10, 12, 0));
+        taskList.addDeadline("book flights", LocalDateTime.of(2024, 3, 1, 12, 0));
+        taskList.addToDo("read Notebook chapter 2");
+        taskList.addEvent("book club; at the library", LocalDateTime.of(2024, 3, 5, 19, 0),
+                LocalDateTime.of(2024, 3, 5, 21, 0));
+        for (int i = 0; i < taskList.getSize(); i++) {
+            taskList.markTaskAsDone(i);
+        }
+        return taskList;
+    }
+}
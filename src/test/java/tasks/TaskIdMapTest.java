@@ -0,0 +1,48 @@
+package tasks;
+
+import ekud.tasks.Priority;
+import ekud.tasks.Task;
+import ekud.tasks.TaskIdMap;
+import ekud.tasks.ToDo;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TaskIdMapTest {
+    @Test
+    public void putAndRemove_randomOperations_matchHashMap() {
+        TaskIdMap map = new TaskIdMap();
+        Map<Long, Task> expected = new HashMap<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 20000; i++) {
+            long id = 1 + random.nextInt(500);
+            if (random.nextBoolean()) {
+                Task task = new ToDo("task " + i, Priority.MEDIUM);
+                map.put(id, task);
+                expected.put(id, task);
+            } else {
+                assertSame(expected.remove(id), map.remove(id));
+            }
+            assertEquals(expected.size(), map.size());
+        }
+        for (long id = 1; id <= 500; id++) {
+            assertSame(expected.get(id), map.get(id));
+        }
+    }
+
+    @Test
+    public void clear_removesEveryMapping() {
+        TaskIdMap map = new TaskIdMap();
+        for (long id = 1; id <= 100; id++) {
+            map.put(id, new ToDo("task " + id, Priority.LOW));
+        }
+        map.clear();
+        assertEquals(0, map.size());
+        assertNull(map.get(50));
+        assertNull(map.get(0));
+    }
+}
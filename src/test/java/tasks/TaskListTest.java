@@ -1,13 +1,19 @@
 package tasks;
 
 import ekud.exceptions.EkudIOException;
+import ekud.exceptions.EkudIllegalArgException;
 import ekud.exceptions.EkudInvalidCommandException;
 import ekud.tasks.Priority;
+import ekud.tasks.Task;
 import ekud.tasks.TaskList;
+import ekud.tasks.TaskListListener;
 import ekud.tasks.TaskType;
 import org.junit.jupiter.api.Test;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -61,4 +67,180 @@ public class TaskListTest {
             taskList.findTasks("test");
         });
     }
+    @Test
+    public void rollbackTransaction_afterChanges_restoresTasks() throws Exception {
+        TaskList taskList = new TaskList();
+        taskList.addToDo("kept task");
+        taskList.beginTransaction();
+        taskList.markTaskAsDone(0);
+        taskList.changePriority(Priority.HIGH, 0);
+        taskList.addToDo("new task");
+        taskList.deleteTask(0);
+        taskList.rollbackTransaction();
+        assertEquals(1, taskList.getSize());
+        assertEquals("T |   | kept task | medium", taskList.getSaveTaskFormat(0));
+    }
+    @Test
+    public void rollbackTransaction_deleteAndClear_restoresOrderAndIndexes() throws Exception {
+        TaskList taskList = new TaskList();
+        taskList.addToDo("first");
+        taskList.addToDo("second");
+        taskList.addToDo("third");
+        taskList.addTags(1, List.of("#work"));
+        long nextId = taskList.getNextId();
+        taskList.beginTransaction();
+        taskList.addTags(1, List.of("#home"));
+        taskList.deleteTask(0);
+        taskList.addToDo("fourth");
+        taskList.clear();
+        taskList.rollbackTransaction();
+        assertEquals(3, taskList.getSize());
+        assertEquals("second", taskList.getTask(1).getDescription());
+        assertEquals(0, taskList.getIndexOfId(taskList.getTask(0).getId()));
+        assertEquals(List.of("work"), taskList.getTask(1).getTags());
+        assertTrue(taskList.filterTasks("tag:home").startsWith("No tasks"));
+        assertTrue(taskList.filterTasks("tag:work").contains("second"));
+        assertEquals(nextId, taskList.getNextId());
+    }
+    @Test
+    public void listener_mutations_receivesChangeAtIndex() throws Exception {
+        TaskList taskList = new TaskList();
+        taskList.addToDo("first");
+        List<String> changes = new ArrayList<>();
+        taskList.addListener(new TaskListListener() {
+            @Override
+            public void onTasksAdded(int fromIndex, List<Task> tasks) {
+                changes.add("added " + fromIndex + " " + tasks.size());
+            }
+
+            @Override
+            public void onTaskRemoved(int index, Task task) {
+                changes.add("removed " + index + " " + task.getDescription());
+            }
+
+            @Override
+            public void onTaskUpdated(int index, Task task) {
+                changes.add("updated " + index);
+            }
+
+            @Override
+            public void onTasksReset(List<Task> tasks) {
+                changes.add("reset " + tasks.size());
+            }
+        });
+        taskList.addToDo("second");
+        taskList.markTaskAsDone(1);
+        taskList.changePriority(Priority.LOW, 0);
+        taskList.deleteTask(0);
+        taskList.clear();
+        taskList.undoClear();
+        assertEquals(List.of("added 1 1", "updated 1", "updated 0", "removed 0 first", "reset 0", "added 0 1"),
+                changes);
+    }
+
+    @Test
+    public void undoClear_twice_restoresTasksOnce() throws Exception {
+        TaskList taskList = new TaskList();
+        taskList.addToDo("work #job");
+        taskList.addToDo("play");
+        long id = taskList.getTask(1).getId();
+        taskList.clear();
+        taskList.undoClear();
+        taskList.undoClear();
+        assertEquals(2, taskList.getSize());
+        assertEquals(1, taskList.getIndexOfId(id));
+        assertTrue(taskList.getCachedTasks().isEmpty());
+        String response = taskList.filterTasks("#job");
+        assertEquals(response.indexOf("work #job"), response.lastIndexOf("work #job"));
+    }
+
+    @Test
+    public void getIndexOfId_afterDeletions_followsTheTask() throws Exception {
+        TaskList taskList = new TaskList();
+        for (int i = 0; i < 10; i++) {
+            taskList.addToDo("task " + i);
+        }
+        long id = taskList.getTask(7).getId();
+        taskList.deleteTask(2);
+        taskList.deleteTask(0);
+        assertEquals(5, taskList.getIndexOfId(id));
+        assertSame(taskList.getTask(5), taskList.getTaskById(id));
+        long deletedId = taskList.getTask(9 - 2).getId();
+        taskList.deleteTask(9 - 2);
+        assertEquals(-1, taskList.getIndexOfId(deletedId));
+        taskList.addToDo("new task");
+        assertTrue(taskList.getTask(taskList.getSize() - 1).getId() > deletedId);
+    }
+
+    @Test
+    public void addToDo_tagsBetweenWords_keepsTheSpacingOfTheRest() throws Exception {
+        TaskList taskList = new TaskList();
+        taskList.addToDo("#home call  mum #urgent at 5   pm");
+        assertEquals("call  mum at 5   pm", taskList.getTask(0).getDescription());
+        assertEquals(List.of("home", "urgent"), taskList.getTask(0).getTags());
+        // Saved tasks are read back as they were
+        TaskList reloaded = new TaskList();
+        reloaded.addSavedTask(TaskType.TODO, taskList.getTask(0).getDescriptionWithTags(), Priority.MEDIUM,
+                new String[0]);
+        assertEquals("call  mum at 5   pm", reloaded.getTask(0).getDescription());
+    }
+
+    @Test
+    public void filterTasks_tagQuery_listsMatchingTasksInOrder() throws Exception {
+        TaskList taskList = new TaskList();
+        taskList.addToDo("write report #work #urgent");
+        taskList.addToDo("buy milk #home");
+        taskList.addToDo("review PR #Work");
+        taskList.addToDo("call plumber #home #urgent");
+        assertEquals("T |   | write report #work #urgent | medium", taskList.getSaveTaskFormat(0));
+        assertEquals(List.of("work"), taskList.getTask(2).getTags());
+        taskList.markTaskAsDone(0);
+        taskList.addTags(1, List.of("#urgent"));
+        taskList.deleteTask(3);
+
+        String response = taskList.filterTasks("tag:work & !done");
+        assertTrue(response.contains("3. #3 [T][ ] review PR #work"));
+        assertFalse(response.contains("write report"));
+        response = taskList.filterTasks("#urgent & (done | #home)");
+        assertTrue(response.indexOf("1. #1") < response.indexOf("2. #2"));
+        assertFalse(response.contains("plumber"));
+        taskList.removeTags(1, List.of("#urgent", "#home"));
+        assertTrue(taskList.filterTasks("tag:home").startsWith("No tasks"));
+        assertThrows(EkudIllegalArgException.class, () -> taskList.filterTasks("tag:work &"));
+    }
+
+    @Test
+    public void showAgenda_multiDayEvent_listedOnEveryDaySpanned() throws Exception {
+        TaskList taskList = new TaskList();
+        taskList.addToDo("no date");
+        taskList.addEvent("camp", LocalDateTime.of(2023, 8, 10, 18, 0), LocalDateTime.of(2023, 8, 13, 0, 0));
+        taskList.addDeadline("essay", LocalDateTime.of(2023, 8, 11, 9, 0));
+        taskList.addDeadline("late", LocalDateTime.of(2023, 8, 20, 9, 0));
+
+        String response = taskList.showAgenda(LocalDate.of(2023, 8, 11), 3);
+        assertTrue(response.startsWith("Here is your agenda from Fri 11 Aug 2023 to Sun 13 Aug 2023"));
+        assertTrue(response.indexOf("  2. #2") < response.indexOf("  3. #3"));
+        assertTrue(response.contains("Sat 12 Aug 2023\n  2. #2"));
+        // The event ends at midnight, so it is not on the 13th
+        assertFalse(response.contains("\nSun 13 Aug 2023"));
+        assertFalse(response.contains("no date") || response.contains("late"));
+        taskList.deleteTask(1);
+        assertTrue(taskList.showAgenda(LocalDate.of(2023, 8, 12), 2).startsWith("Nothing is scheduled"));
+    }
+
+    @Test
+    public void showAgenda_multiYearEvent_mergedByTimeWithOtherItems() throws Exception {
+        TaskList taskList = new TaskList();
+        taskList.addEvent("degree", LocalDateTime.of(2020, 8, 1, 10, 0), LocalDateTime.of(2024, 6, 1, 0, 0));
+        taskList.addDeadline("essay", LocalDateTime.of(2023, 8, 11, 9, 0));
+
+        String response = taskList.showAgenda(LocalDate.of(2023, 8, 11), 2);
+        // The event started long before the deadline, so it comes first
+        assertTrue(response.contains("Fri 11 Aug 2023\n  1. #1 [E][ ] degree"));
+        assertTrue(response.contains("(medium priority)\n  2. #2 [D][ ] essay"));
+        assertTrue(response.contains("Sat 12 Aug 2023\n  1. #1"));
+        assertTrue(taskList.showAgenda(LocalDate.of(2024, 6, 1), 7).startsWith("Nothing is scheduled"));
+        taskList.deleteTask(0);
+        assertFalse(taskList.showAgenda(LocalDate.of(2023, 8, 11), 2).contains("degree"));
+    }
 }
@@ -0,0 +1,85 @@
+package tasks;
+
+import ekud.tasks.Deadline;
+import ekud.tasks.Event;
+import ekud.tasks.Priority;
+import ekud.tasks.Task;
+import ekud.tasks.TaskList;
+import ekud.tasks.ToDo;
+import ekud.tasks.UrgencyPolicy;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UrgencyQueueTest {
+    private static final LocalDateTime START = LocalDateTime.of(2030, 3, 1, 9, 0);
+
+    @Test
+    public void getNextTasks_deadlineApproaches_overtakesHighPriorityTodo() {
+        TaskList taskList = new TaskList();
+        taskList.addToDo("plan trip");
+        taskList.changePriority(Priority.HIGH, 0);
+        taskList.addDeadline("essay", START.plusDays(10));
+        assertEquals("plan trip", taskList.getNextTasks(1, START).get(0).getDescription());
+        assertEquals("essay", taskList.getNextTasks(1, START.plusDays(9).plusHours(12)).get(0).getDescription());
+        taskList.markTaskAsDone(1);
+        assertEquals(List.of(taskList.getTask(0)), taskList.getNextTasks(5, START.plusDays(9).plusHours(12)));
+    }
+
+    @Test
+    public void getNextTasks_randomChangesOverTime_matchSortedScores() throws Exception {
+        UrgencyPolicy policy = UrgencyPolicy.getConfigured();
+        TaskList taskList = new TaskList();
+        Random random = new Random(5);
+        LocalDateTime now = START;
+        for (int i = 0; i < 3000; i++) {
+            int op = random.nextInt(10);
+            if (op < 4 || taskList.getSize() == 0) {
+                taskList.addTask(randomTask(random));
+            } else if (op < 5) {
+                taskList.deleteTask(random.nextInt(taskList.getSize()));
+            } else if (op < 7) {
+                taskList.setDone(random.nextInt(taskList.getSize()), random.nextBoolean());
+            } else if (op < 9) {
+                taskList.setPriority(random.nextInt(taskList.getSize()),
+                        Priority.values()[random.nextInt(Priority.values().length)]);
+            } else {
+                now = now.plusHours(random.nextInt(30));
+            }
+            if (i % 50 == 0) {
+                int k = 1 + random.nextInt(20);
+                assertEquals(expectedNextTasks(taskList, policy, now, k), taskList.getNextTasks(k, now));
+            }
+        }
+    }
+
+    private static Task randomTask(Random random) {
+        Priority priority = Priority.values()[random.nextInt(Priority.values().length)];
+        LocalDateTime dateTime = START.plusHours(random.nextInt(60 * 24));
+        switch (random.nextInt(3)) {
+        case 0:
+            return new ToDo("todo", priority);
+        case 1:
+            return new Deadline("deadline", dateTime, priority);
+        default:
+            return new Event("event", dateTime, dateTime.plusHours(random.nextInt(72)), priority);
+        }
+    }
+
+    private static List<Task> expectedNextTasks(TaskList taskList, UrgencyPolicy policy, LocalDateTime now, int k) {
+        List<Task> undone = new ArrayList<>();
+        for (Task task : taskList.getTasks()) {
+            if (!task.isDone()) {
+                undone.add(task);
+            }
+        }
+        undone.sort(Comparator.comparingLong((Task task) -> -policy.score(task, now)).thenComparingLong(Task::getId));
+        return undone.subList(0, Math.min(k, undone.size()));
+    }
+}
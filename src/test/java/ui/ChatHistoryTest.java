@@ -0,0 +1,43 @@
+package ui;
+
+import ekud.ui.ChatHistory;
+import ekud.ui.ChatMessage;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ChatHistoryTest {
+    @Test
+    public void get_spilledMessages_readBackFromDisk() {
+        ChatHistory history = new ChatHistory(100);
+        for (int i = 0; i < 50000; i++) {
+            history.add(i % 2 == 0
+                    ? ChatMessage.fromUser("todo task " + i)
+                    : ChatMessage.fromEkud("added \u2713 " + i));
+        }
+        assertEquals(50000, history.size());
+        assertTrue(history.getSpilledCount() >= 49800);
+        for (int i = 0; i < 50000; i += 997) {
+            assertEquals(i % 2 == 0, history.get(i).isFromUser());
+            assertTrue(history.get(i).getText().endsWith(" " + i));
+        }
+        history.close();
+    }
+
+    @Test
+    public void add_pendingResponse_staysInMemoryUntilReplaced() {
+        ChatHistory history = new ChatHistory(10);
+        history.add(ChatMessage.fromUser("list"));
+        history.add(ChatMessage.pending());
+        for (int i = 0; i < 100; i++) {
+            history.add(ChatMessage.fromUser("input " + i));
+        }
+        assertEquals(1, history.getSpilledCount());
+        history.set(1, ChatMessage.fromEkud("Here are your tasks"));
+        history.add(ChatMessage.fromUser("bye"));
+        assertTrue(history.getSpilledCount() > 1);
+        assertEquals("Here are your tasks", history.get(1).getText());
+        assertThrows(IndexOutOfBoundsException.class, () -> history.set(1, ChatMessage.fromEkud("late")));
+        history.close();
+    }
+}
@@ -0,0 +1,38 @@
+package workload;
+
+import ekud.Ekud;
+import ekud.workload.WorkloadGenerator;
+import ekud.workload.WorkloadMix;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.StringWriter;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WorkloadGeneratorTest {
+    private String generate(long seed) throws Exception {
+        WorkloadMix mix = new WorkloadMix(WorkloadMix.DEFAULT_WEIGHTS, 20, 3, 30);
+        StringWriter out = new StringWriter();
+        new WorkloadGenerator(mix, seed, LocalDateTime.of(2026, 1, 1, 9, 0)).generate(out, 500);
+        return out.toString();
+    }
+
+    @Test
+    public void generate_sameSeed_sameTrace() throws Exception {
+        assertEquals(generate(7), generate(7));
+        assertNotEquals(generate(7), generate(8));
+    }
+
+    @Test
+    public void generate_replayedTrace_onlyValidCommands(@TempDir Path dir) throws Exception {
+        String savePath = dir.resolve("savedTasks.txt").toString();
+        Ekud ekud = new Ekud(savePath);
+        ekud.loadData();
+        for (String command : generate(7).split("\n")) {
+            assertFalse(ekud.getResponse(command).startsWith("ekud.exceptions"), command);
+        }
+    }
+}
@@ -1,21 +1,22 @@
 @ECHO OFF
 
-REM create bin directory if it doesn't exist
-if not exist ..\bin mkdir ..\bin
-
-REM delete output from previous run
+REM delete output and saved tasks from previous run
 if exist ACTUAL.TXT del ACTUAL.TXT
+if exist data rmdir /s /q data
 
-REM compile the code into the bin folder
-javac  -cp ..\src\main\java -Xlint:none -d ..\bin ..\src\main\java\*.java
+REM build the jar
+pushd ..
+call gradlew.bat -q shadowJar
 IF ERRORLEVEL 1 (
+    popd
     echo ********** BUILD FAILURE **********
     exit /b 1
 )
+popd
 REM no error here, errorlevel == 0
 
-REM run the program, feed commands from input.txt file and redirect the output to the ACTUAL.TXT
-java -classpath ..\bin ekud.Ekud < input.txt > ACTUAL.TXT
+REM run the program headlessly, feed commands from input.txt file and redirect the output to the ACTUAL.TXT
+java -jar ..\build\libs\ekud.jar --batch < input.txt > ACTUAL.TXT
 
 REM compare the output to the expected output
 FC ACTUAL.TXT EXPECTED.TXT